@@ -313,4 +313,29 @@ public class SharedPreferencesFileManagerTests extends AndroidSecretKeyEnabledHe
         // Verify that it is now empty
         assertEquals(0, mSharedPreferencesFileManager.getAll().size());
     }
+
+    @Test
+    public void testGetStringReadsThroughToMemoryCache() throws Exception {
+        mSharedPreferencesFileManager.putString(sTEST_KEY, sTEST_VALUE);
+
+        // A fresh instance on the same file starts with an empty memory cache.
+        final Field f = SharedPreferencesFileManager.class.getDeclaredField("mEncryptionManager");
+        f.setAccessible(true);
+        final IKeyAccessor keyAccessor = (null == f.get(mSharedPreferencesFileManager)) ? null : sTEST_ENCRYPTION_MANAGER;
+        final SharedPreferencesFileManager fileManager = new SharedPreferencesFileManager(
+                ApplicationProvider.getApplicationContext(),
+                mSharedPreferencesFileManager.getSharedPreferencesFileName(),
+                keyAccessor
+        );
+
+        assertEquals(sTEST_VALUE, fileManager.getString(sTEST_KEY));
+        assertEquals(1, fileManager.getFileCacheMissCount());
+        assertEquals(0, fileManager.getFileCacheHitCount());
+
+        assertEquals(sTEST_VALUE, fileManager.getString(sTEST_KEY));
+        assertEquals(sTEST_VALUE, fileManager.getAll().get(sTEST_KEY));
+        assertEquals(1, fileManager.getFileCacheMissCount());
+        assertTrue(fileManager.getFileCacheHitCount() >= 1);
+        assertEquals(2 * (sTEST_KEY.length() + sTEST_VALUE.length()), fileManager.getFileCacheSizeBytes());
+    }
 }
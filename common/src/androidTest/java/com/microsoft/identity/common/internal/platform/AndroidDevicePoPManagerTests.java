@@ -35,8 +35,18 @@ import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.microsoft.identity.common.components.AndroidPlatformComponentsFactory;
+import com.microsoft.identity.common.internal.controllers.LocalMSALController;
+import com.microsoft.identity.common.java.authscheme.IPoPAuthenticationSchemeParams;
+import com.microsoft.identity.common.java.authscheme.PopAuthenticationSchemeInternal;
+import com.microsoft.identity.common.java.cache.MsalOAuth2TokenCache;
+import com.microsoft.identity.common.java.commands.parameters.BatchGenerateShrCommandParameters;
+import com.microsoft.identity.common.java.dto.AccountRecord;
 import com.microsoft.identity.common.java.exception.ClientException;
 import com.microsoft.identity.common.java.crypto.IDevicePopManager;
+import com.microsoft.identity.common.java.result.GenerateShrResult;
+import com.microsoft.identity.common.java.util.ClockSkewManager;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
 import com.google.gson.reflect.TypeToken;
 import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jwt.JWTClaimsSet;
@@ -47,6 +57,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mockito;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -60,7 +71,10 @@ import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 import static com.microsoft.identity.common.java.crypto.IDevicePopManager.PublicKeyFormat.JWK;
@@ -232,6 +246,37 @@ public class AndroidDevicePoPManagerTests {
         Assert.assertEquals(jwsHeader.getKeyID(), mDevicePopManager.getAsymmetricKeyThumbprint());
     }
 
+    @Test
+    public void testKidHeaderFollowsKeyRegeneratedByAnotherInstance() throws Exception {
+        mDevicePopManager.generateAsymmetricKey();
+        final IDevicePopManager otherDevicePopManager =
+                new AndroidDevicePopManager(ApplicationProvider.getApplicationContext());
+
+        final String firstShr = mDevicePopManager.mintSignedHttpRequest(
+                "GET",
+                12345,
+                new URL("https://www.contoso.com"),
+                "54321",
+                null
+        );
+
+        otherDevicePopManager.clearAsymmetricKey();
+        otherDevicePopManager.generateAsymmetricKey();
+
+        final String secondShr = mDevicePopManager.mintSignedHttpRequest(
+                "GET",
+                12345,
+                new URL("https://www.contoso.com"),
+                "54321",
+                null
+        );
+
+        final String firstKid = SignedJWT.parse(firstShr).getHeader().getKeyID();
+        final String secondKid = SignedJWT.parse(secondShr).getHeader().getKeyID();
+        Assert.assertNotEquals(firstKid, secondKid);
+        Assert.assertEquals(otherDevicePopManager.getAsymmetricKeyThumbprint(), secondKid);
+    }
+
     @Test
     public void testHeaderAlgRS256() throws ClientException, MalformedURLException, ParseException {
         Assert.assertFalse(mDevicePopManager.asymmetricKeyExists());
@@ -456,6 +501,145 @@ public class AndroidDevicePoPManagerTests {
         Assert.assertEquals(clientClaims, jwtClaimsSet.getClaim("client_claims"));
     }
 
+    @Test
+    public void testMintSignedHttpRequestsPreservesOrder() throws ClientException, ParseException {
+        final long timestamp = 12345;
+        final List<IPoPAuthenticationSchemeParams> requests = buildShrRequests(3);
+
+        mDevicePopManager.generateAsymmetricKey();
+        final List<String> shrs = mDevicePopManager.mintSignedHttpRequests(timestamp, requests, false);
+
+        Assert.assertEquals(requests.size(), shrs.size());
+        for (int i = 0; i < requests.size(); i++) {
+            final SignedJWT jwt = SignedJWT.parse(shrs.get(i));
+            Assert.assertEquals(mDevicePopManager.getAsymmetricKeyThumbprint(), jwt.getHeader().getKeyID());
+
+            final JWTClaimsSet jwtClaimsSet = jwt.getJWTClaimsSet();
+            Assert.assertEquals(requests.get(i).getNonce(), jwtClaimsSet.getClaim("nonce"));
+            Assert.assertEquals(requests.get(i).getHttpMethod(), jwtClaimsSet.getClaim("m"));
+            Assert.assertEquals("/path" + i, jwtClaimsSet.getClaim("p"));
+            Assert.assertEquals(requests.get(i).getClientClaims(), jwtClaimsSet.getClaim("client_claims"));
+            Assert.assertEquals(timestamp, jwtClaimsSet.getClaim("ts"));
+        }
+    }
+
+    @Test
+    public void testMintSignedHttpRequestsInParallelMatchesSequential() throws ClientException {
+        final long timestamp = 12345;
+        // More requests than signing threads, so that some wait or run on the caller.
+        final List<IPoPAuthenticationSchemeParams> requests = buildShrRequests(20);
+
+        mDevicePopManager.generateAsymmetricKey();
+
+        // RS256 signatures are deterministic, so both modes must produce the very same SHRs.
+        Assert.assertEquals(
+                mDevicePopManager.mintSignedHttpRequests(timestamp, requests, false),
+                mDevicePopManager.mintSignedHttpRequests(timestamp, requests, true)
+        );
+    }
+
+    @Test
+    public void testMintSignedHttpRequestsEmptyBatch() throws ClientException {
+        mDevicePopManager.generateAsymmetricKey();
+
+        Assert.assertTrue(mDevicePopManager.mintSignedHttpRequests(
+                12345, Collections.<IPoPAuthenticationSchemeParams>emptyList(), false).isEmpty());
+        Assert.assertTrue(mDevicePopManager.mintSignedHttpRequests(
+                12345, Collections.<IPoPAuthenticationSchemeParams>emptyList(), true).isEmpty());
+    }
+
+    @Test
+    public void testMintSignedHttpRequestsSingleRequestMatchesMintSignedHttpRequest() throws ClientException {
+        final long timestamp = 12345;
+        final IPoPAuthenticationSchemeParams request = buildShrRequests(1).get(0);
+
+        mDevicePopManager.generateAsymmetricKey();
+        final String shr = mDevicePopManager.mintSignedHttpRequest(
+                request.getHttpMethod(),
+                timestamp,
+                request.getUrl(),
+                request.getNonce(),
+                request.getClientClaims()
+        );
+
+        Assert.assertEquals(
+                Collections.singletonList(shr),
+                mDevicePopManager.mintSignedHttpRequests(timestamp, Collections.singletonList(request), false)
+        );
+        Assert.assertEquals(
+                Collections.singletonList(shr),
+                mDevicePopManager.mintSignedHttpRequests(timestamp, Collections.singletonList(request), true)
+        );
+    }
+
+    @Test
+    public void testLocalControllerGeneratesBatchOfShrs() throws Exception {
+        final List<IPoPAuthenticationSchemeParams> requests = buildShrRequests(3);
+        final GenerateShrResult result = new LocalMSALController().generateSignedHttpRequest(
+                buildBatchShrParameters(requests, new AccountRecord())
+        );
+
+        Assert.assertNull(result.getErrorCode());
+        Assert.assertEquals(requests.size(), result.getShrs().size());
+        for (int i = 0; i < requests.size(); i++) {
+            final SignedJWT jwt = SignedJWT.parse(result.getShrs().get(i));
+            Assert.assertEquals(mDevicePopManager.getAsymmetricKeyThumbprint(), jwt.getHeader().getKeyID());
+            Assert.assertEquals(requests.get(i).getNonce(), jwt.getJWTClaimsSet().getClaim("nonce"));
+        }
+    }
+
+    @Test
+    public void testLocalControllerBatchOfShrsWithoutAccount() throws Exception {
+        final GenerateShrResult result = new LocalMSALController().generateSignedHttpRequest(
+                buildBatchShrParameters(buildShrRequests(3), null)
+        );
+
+        Assert.assertEquals(GenerateShrResult.Errors.NO_ACCOUNT_FOUND, result.getErrorCode());
+        Assert.assertNull(result.getShrs());
+    }
+
+    private static List<IPoPAuthenticationSchemeParams> buildShrRequests(final int count) {
+        final List<IPoPAuthenticationSchemeParams> requests = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            requests.add(PopAuthenticationSchemeInternal.builder()
+                    .httpMethod(i % 2 == 0 ? "GET" : "POST")
+                    .url(makeUrl("https://www.contoso.com/path" + i))
+                    .nonce("nonce" + i)
+                    .clientClaims("claims" + i)
+                    .clockSkewManager(new ClockSkewManager(new InMemoryStorage<Long>()))
+                    .build());
+        }
+
+        return requests;
+    }
+
+    private static URL makeUrl(final String url) {
+        try {
+            return new URL(url);
+        } catch (final MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private BatchGenerateShrCommandParameters buildBatchShrParameters(
+            final List<IPoPAuthenticationSchemeParams> requests,
+            final AccountRecord account) {
+        final String clientId = "aClientId";
+        final String homeAccountId = "aHomeAccountId";
+        final MsalOAuth2TokenCache cache = Mockito.mock(MsalOAuth2TokenCache.class);
+        Mockito.when(cache.getAccountByHomeAccountId(null, clientId, homeAccountId)).thenReturn(account);
+
+        return BatchGenerateShrCommandParameters.builder()
+                .platformComponents(AndroidPlatformComponentsFactory.createFromContext(mContext))
+                .oAuth2TokenCache(cache)
+                .clientId(clientId)
+                .homeAccountId(homeAccountId)
+                .batchPopParameters(requests)
+                .parallel(true)
+                .build();
+    }
+
     @Test
     @RequiresApi(Build.VERSION_CODES.N)
     public void testHasCertificateChain24() throws ClientException {
@@ -23,6 +23,7 @@
 
 package com.microsoft.identity.common.internal.broker;
 
+import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ResolveInfo;
@@ -56,6 +57,11 @@ public abstract class BoundServiceClient<T extends IInterface> {
 
     private static final int DEFAULT_BIND_TIMEOUT_IN_SECONDS = 30;
 
+    /**
+     * Bindings kept alive across operations, shared by every client in the process.
+     */
+    private static final BoundServiceConnectionPool sConnectionPool = new BoundServiceConnectionPool();
+
     protected final Context mContext;
     private final int mTimeOutInSeconds;
     private final String mTargetServiceClassName;
@@ -107,6 +113,19 @@ public abstract class BoundServiceClient<T extends IInterface> {
         mTargetServiceIntentFilter = targetServiceIntentFilter;
     }
 
+    /**
+     * Enables or disables connection keep-alive (enabled by default).
+     * <p>
+     * When enabled, a binding is shared by all operations against the same service and kept for a short
+     * while after the last one completes, instead of binding and unbinding for every operation.
+     * {@link #disconnect()} is then a no-op.
+     *
+     * @param enabled true to keep connections alive.
+     */
+    public static void setConnectionKeepAliveEnabled(final boolean enabled) {
+        sConnectionPool.setEnabled(enabled);
+    }
+
     /**
      * Connects this client to the AIDL service and passes the request bundle to perform the operation.
      * The inherited class will use the connect() function to connects to the targeted service,
@@ -117,20 +136,37 @@ public abstract class BoundServiceClient<T extends IInterface> {
      */
     public @Nullable Bundle performOperation(@NonNull final BrokerOperationBundle inputBundle)
             throws RemoteException, BrokerCommunicationException, InterruptedException, ExecutionException, TimeoutException {
-        final T aidlInterface = connect(inputBundle.getTargetBrokerAppPackageName());
-        return performOperationInternal(inputBundle, aidlInterface);
+        final String targetServicePackageName = inputBundle.getTargetBrokerAppPackageName();
+
+        if (!sConnectionPool.isEnabled()) {
+            final T aidlInterface = connect(targetServicePackageName);
+            return performOperationInternal(inputBundle, aidlInterface);
+        }
+
+        final ComponentName component = getComponentName(targetServicePackageName);
+        sConnectionPool.beginOperation(component);
+        try {
+            final T aidlInterface = connect(targetServicePackageName);
+            return performOperationInternal(inputBundle, aidlInterface);
+        } finally {
+            sConnectionPool.endOperation(component);
+        }
     }
 
     /**
-     * Binds to the service.
+     * Binds to the service, or reuses the kept-alive binding if connection keep-alive is enabled.
      *
      * @param targetServicePackageName Package name of the app this client will talk to.
      */
     protected @NonNull T connect(@NonNull final String targetServicePackageName)
             throws BrokerCommunicationException, InterruptedException, TimeoutException, ExecutionException {
         final String methodTag = TAG + ":connect";
+        final boolean keepAlive = sConnectionPool.isEnabled();
+        final ComponentName component = getComponentName(targetServicePackageName);
 
-        if (!isBoundServiceSupported(targetServicePackageName)) {
+        // An existing binding implies the service is there; skip the package manager query.
+        if (!(keepAlive && sConnectionPool.isBound(component))
+                && !isBoundServiceSupported(targetServicePackageName)) {
             final String errorMessage = "Bound service is not supported.";
             Logger.info(methodTag, errorMessage);
             throw new BrokerCommunicationException(
@@ -140,6 +176,16 @@ public abstract class BoundServiceClient<T extends IInterface> {
                     null);
         }
 
+        if (keepAlive) {
+            final Context applicationContext = mContext.getApplicationContext();
+            final IBinder binder = sConnectionPool.getBinder(
+                    null != applicationContext ? applicationContext : mContext,
+                    getIntentForBoundService(targetServicePackageName),
+                    component,
+                    mTimeOutInSeconds);
+            return getInterfaceFromIBinder(binder);
+        }
+
         final ResultFuture<IBinder> future = new ResultFuture<>();
         mConnection = new BoundServiceConnection(future);
         mHasStartedBinding = mContext.bindService(getIntentForBoundService(targetServicePackageName), mConnection, Context.BIND_AUTO_CREATE);
@@ -161,6 +207,7 @@ public abstract class BoundServiceClient<T extends IInterface> {
 
     /**
      * Disconnects (unbinds) from the service.
+     * Kept-alive bindings are not affected; they are released once idle.
      */
     public void disconnect() {
         final String methodTag = TAG + ":disconnect";
@@ -188,6 +235,15 @@ public abstract class BoundServiceClient<T extends IInterface> {
         return info != null && info.size() > 0;
     }
 
+    /**
+     * returns the component of the bound service in the given package.
+     *
+     * @param targetServicePackageName Package name of the app this client will talk to.
+     */
+    private @NonNull ComponentName getComponentName(@NonNull final String targetServicePackageName) {
+        return new ComponentName(targetServicePackageName, mTargetServiceClassName);
+    }
+
     /**
      * returns an intent object for bind service.
      *
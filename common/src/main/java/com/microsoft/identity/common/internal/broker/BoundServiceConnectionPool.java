@@ -0,0 +1,336 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.common.internal.broker;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.RemoteException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.microsoft.identity.common.exception.BrokerCommunicationException;
+import com.microsoft.identity.common.java.util.ResultFuture;
+import com.microsoft.identity.common.logging.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.microsoft.identity.common.exception.BrokerCommunicationException.Category.CONNECTION_ERROR;
+import static com.microsoft.identity.common.exception.BrokerCommunicationException.Category.OPERATION_NOT_SUPPORTED_ON_SERVER_SIDE;
+import static com.microsoft.identity.common.internal.broker.ipc.IIpcStrategy.Type.BOUND_SERVICE;
+
+/**
+ * Keeps bound service connections alive across operations.
+ * <p>
+ * A single binding is held per target service component and shared by every {@link BoundServiceClient}
+ * in the process, so concurrent operations are multiplexed over one connection. The binding is released
+ * once no operation has used it for the idle timeout. If the service disconnects, the binding dies or
+ * the remote binder dies, the binding is dropped and the next operation binds again.
+ */
+final class BoundServiceConnectionPool {
+    private static final String TAG = BoundServiceConnectionPool.class.getSimpleName();
+
+    static final long IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(15);
+
+    private final Map<ComponentName, Slot> mSlots = new HashMap<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean mEnabled = true;
+
+    boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * Enables or disables keep-alive. Disabling it releases every idle binding right away;
+     * bindings still in use are released once their operations complete.
+     */
+    void setEnabled(final boolean enabled) {
+        mEnabled = enabled;
+
+        if (!enabled) {
+            releaseIdleBindings();
+        }
+    }
+
+    /**
+     * Marks the start of an operation against the given component. The binding of a component
+     * is never released while it has operations in flight.
+     */
+    synchronized void beginOperation(@NonNull final ComponentName component) {
+        final Slot slot = getSlot(component);
+        slot.mActiveOperations++;
+        mHandler.removeCallbacks(slot.mIdleRelease);
+    }
+
+    /**
+     * Marks the end of an operation started with {@link #beginOperation(ComponentName)}.
+     */
+    synchronized void endOperation(@NonNull final ComponentName component) {
+        final Slot slot = getSlot(component);
+        slot.mActiveOperations--;
+
+        if (slot.mActiveOperations == 0 && null != slot.mBinding) {
+            if (mEnabled) {
+                mHandler.postDelayed(slot.mIdleRelease, IDLE_TIMEOUT_MILLIS);
+            } else {
+                release(slot.mBinding, "keep-alive disabled");
+            }
+        }
+    }
+
+    /**
+     * @return true if a binding to the given component is currently held.
+     */
+    synchronized boolean isBound(@NonNull final ComponentName component) {
+        final Slot slot = mSlots.get(component);
+        return null != slot && null != slot.mBinding;
+    }
+
+    /**
+     * Returns the binder of the given component, binding to it if it isn't bound yet.
+     *
+     * @param context          the context used to bind. Should be the application context, as the binding may outlive the caller.
+     * @param intent           intent identifying the service.
+     * @param component        the component the intent resolves to.
+     * @param timeOutInSeconds how long to wait for the connection to be established.
+     */
+    @NonNull
+    IBinder getBinder(@NonNull final Context context,
+                      @NonNull final Intent intent,
+                      @NonNull final ComponentName component,
+                      final int timeOutInSeconds)
+            throws BrokerCommunicationException, InterruptedException, TimeoutException, ExecutionException {
+        final String methodTag = TAG + ":getBinder";
+
+        while (true) {
+            final Binding binding = getOrCreateBinding(context, intent, component);
+
+            final IBinder binder;
+            try {
+                binder = binding.mFuture.get(timeOutInSeconds, TimeUnit.SECONDS);
+            } catch (final TimeoutException | ExecutionException e) {
+                release(binding, "failed to connect");
+                throw e;
+            }
+
+            if (binder.isBinderAlive()) {
+                return binder;
+            }
+
+            // The remote process died before we got notified. Bind again.
+            Logger.info(methodTag, "Pooled binder of " + component.getClassName() + " is dead, rebinding.");
+            release(binding, "binder is dead");
+        }
+    }
+
+    private synchronized Binding getOrCreateBinding(@NonNull final Context context,
+                                                    @NonNull final Intent intent,
+                                                    @NonNull final ComponentName component)
+            throws BrokerCommunicationException {
+        final String methodTag = TAG + ":getOrCreateBinding";
+        final Slot slot = getSlot(component);
+
+        if (null != slot.mBinding) {
+            return slot.mBinding;
+        }
+
+        final Binding binding = new Binding(slot, context);
+        if (!context.bindService(intent, binding, Context.BIND_AUTO_CREATE)) {
+            final String errorMessage = "failed to bind. The service is not available.";
+            Logger.info(methodTag, errorMessage);
+            throw new BrokerCommunicationException(
+                    OPERATION_NOT_SUPPORTED_ON_SERVER_SIDE,
+                    BOUND_SERVICE,
+                    errorMessage,
+                    null);
+        }
+
+        Logger.info(methodTag, "Android is establishing the bound service connection.");
+        slot.mBinding = binding;
+
+        if (slot.mActiveOperations == 0) {
+            // Not bound on behalf of an operation; make sure it is released eventually.
+            mHandler.postDelayed(slot.mIdleRelease, IDLE_TIMEOUT_MILLIS);
+        }
+
+        return binding;
+    }
+
+    private synchronized void releaseIdleBindings() {
+        for (final Slot slot : mSlots.values()) {
+            if (slot.mActiveOperations == 0 && null != slot.mBinding) {
+                release(slot.mBinding, "keep-alive disabled");
+            }
+        }
+    }
+
+    /**
+     * Unbinds the given binding, if it is still the current binding of its component.
+     * Operations waiting for it to connect fail with a {@link BrokerCommunicationException}.
+     */
+    private synchronized void release(@NonNull final Binding binding, @NonNull final String reason) {
+        final String methodTag = TAG + ":release";
+        final Slot slot = binding.mSlot;
+
+        if (slot.mBinding != binding) {
+            return;
+        }
+
+        Logger.info(methodTag, "Releasing binding of " + slot.mComponent.getClassName() + ": " + reason);
+        slot.mBinding = null;
+        mHandler.removeCallbacks(slot.mIdleRelease);
+
+        if (null != binding.mBinder) {
+            try {
+                binding.mBinder.unlinkToDeath(binding, 0);
+            } catch (final NoSuchElementException e) {
+                // Never linked, or already dead.
+            }
+        }
+
+        if (!binding.mFuture.isDone()) {
+            binding.mFuture.setException(new BrokerCommunicationException(
+                    CONNECTION_ERROR,
+                    BOUND_SERVICE,
+                    "Bound service connection was released: " + reason,
+                    null));
+        }
+
+        try {
+            binding.mContext.unbindService(binding);
+        } catch (final IllegalArgumentException e) {
+            // Same as BoundServiceClient#disconnect(), this is the cleanup path.
+            Logger.error(methodTag, "Error occurred while unbinding pooled bound Service", e);
+        }
+    }
+
+    @NonNull
+    private Slot getSlot(@NonNull final ComponentName component) {
+        Slot slot = mSlots.get(component);
+
+        if (null == slot) {
+            slot = new Slot(component);
+            mSlots.put(component, slot);
+        }
+
+        return slot;
+    }
+
+    /**
+     * The state kept for one target service component.
+     */
+    private final class Slot {
+        final ComponentName mComponent;
+
+        final Runnable mIdleRelease = new Runnable() {
+            @Override
+            public void run() {
+                synchronized (BoundServiceConnectionPool.this) {
+                    if (mActiveOperations == 0 && null != mBinding) {
+                        release(mBinding, "idle timeout");
+                    }
+                }
+            }
+        };
+
+        int mActiveOperations;
+
+        @Nullable
+        Binding mBinding;
+
+        Slot(@NonNull final ComponentName component) {
+            mComponent = component;
+        }
+    }
+
+    /**
+     * A single bindService() call. Callbacks of a binding which was released are ignored.
+     */
+    private final class Binding implements ServiceConnection, IBinder.DeathRecipient {
+        final Slot mSlot;
+        final Context mContext;
+        final ResultFuture<IBinder> mFuture = new ResultFuture<>();
+
+        @Nullable
+        IBinder mBinder;
+
+        Binding(@NonNull final Slot slot, @NonNull final Context context) {
+            mSlot = slot;
+            mContext = context;
+        }
+
+        @Override
+        public void onServiceConnected(final ComponentName name, final IBinder service) {
+            final String methodTag = TAG + ":onServiceConnected";
+            Logger.info(methodTag, name.getClassName() + " is connected.");
+
+            synchronized (BoundServiceConnectionPool.this) {
+                if (mSlot.mBinding != this || mFuture.isDone()) {
+                    return;
+                }
+
+                try {
+                    service.linkToDeath(this, 0);
+                } catch (final RemoteException e) {
+                    release(this, "binder died while connecting");
+                    return;
+                }
+
+                mBinder = service;
+                mFuture.setResult(service);
+            }
+        }
+
+        @Override
+        public void onServiceDisconnected(final ComponentName name) {
+            final String methodTag = TAG + ":onServiceDisconnected";
+            Logger.info(methodTag, name.getClassName() + " is disconnected.");
+            release(this, "service disconnected");
+        }
+
+        @Override
+        public void onBindingDied(final ComponentName name) {
+            release(this, "binding died");
+        }
+
+        @Override
+        public void onNullBinding(final ComponentName name) {
+            release(this, "service returned a null binding");
+        }
+
+        @Override
+        public void binderDied() {
+            release(this, "binder died");
+        }
+    }
+}
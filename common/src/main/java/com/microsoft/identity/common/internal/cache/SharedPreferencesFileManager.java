@@ -36,6 +36,7 @@ import com.microsoft.identity.common.java.cache.IMultiTypeNameValueStorage;
 import com.microsoft.identity.common.java.crypto.IKeyAccessor;
 import com.microsoft.identity.common.java.crypto.KeyAccessorStringAdapter;
 import com.microsoft.identity.common.java.exception.ClientException;
+import com.microsoft.identity.common.java.storage.NameValueStorageBatch;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 import com.microsoft.identity.common.logging.Logger;
@@ -54,9 +55,14 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
 
     private static final String TAG = SharedPreferencesFileManager.class.getSimpleName();
 
+    /**
+     * Upper bound, in bytes, of the decrypted values held in memory for each file.
+     */
+    private static final int FILE_CACHE_MAX_SIZE_BYTES = 1024 * 1024;
+
     private final Object cacheLock = new Object();
     @GuardedBy("cacheLock")
-    private final LruCache<String, String> fileCache = new LruCache<>(256);
+    private final LruCache<String, String> fileCache = new StringSizedLruCache(FILE_CACHE_MAX_SIZE_BYTES);
     @GuardedBy("cacheLock")
     private final SharedPreferences mSharedPreferences;
     private final KeyAccessorStringAdapter mEncryptionManager;
@@ -169,13 +175,47 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
 
                 if (StringUtil.isNullOrEmpty(restoredValue)) {
                     logWarningAndRemoveKey(key);
+                    return restoredValue;
                 }
             }
 
+            // Read-through, so that subsequent reads and scans of this key skip decryption.
+            if (restoredValue != null) {
+                fileCache.put(key, restoredValue);
+            }
+
             return restoredValue;
         }
     }
 
+    /**
+     * @return The number of reads served from the in-memory cache.
+     */
+    public final int getFileCacheHitCount() {
+        return fileCache.hitCount();
+    }
+
+    /**
+     * @return The number of reads which had to load (and decrypt) the value from disk.
+     */
+    public final int getFileCacheMissCount() {
+        return fileCache.missCount();
+    }
+
+    /**
+     * @return The number of values evicted from the in-memory cache to stay within its size.
+     */
+    public final int getFileCacheEvictionCount() {
+        return fileCache.evictionCount();
+    }
+
+    /**
+     * @return The approximate size, in bytes, of the values currently held in memory.
+     */
+    public final int getFileCacheSizeBytes() {
+        return fileCache.size();
+    }
+
     @Override
     public void putLong(final String key, final long value) {
         putString(key, String.valueOf(value));
@@ -314,6 +354,53 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
         );
     }
 
+    /**
+     * Applies all staged puts and removes with a single {@link SharedPreferences.Editor}, so the
+     * whole batch costs one disk write.
+     */
+    @Override
+    public void commit(@NonNull final NameValueStorageBatch<String> batch) {
+        final String methodTag = TAG + ":commit";
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        synchronized (cacheLock) {
+            final SharedPreferences.Editor editor = mSharedPreferences.edit();
+
+            for (final String key : batch.getRemoves()) {
+                fileCache.remove(key);
+                editor.remove(key);
+            }
+
+            for (final Map.Entry<String, String> entry : batch.getPuts().entrySet()) {
+                final String key = entry.getKey();
+                final String value = entry.getValue();
+
+                if (value != null) {
+                    fileCache.put(key, value);
+                } else {
+                    fileCache.remove(key);
+                }
+
+                if (null == mEncryptionManager || StringUtil.isNullOrEmpty(value)) {
+                    editor.putString(key, value);
+                } else {
+                    editor.putString(key, encrypt(value));
+                }
+            }
+
+            editor.apply();
+        }
+
+        Logger.info(
+                methodTag,
+                "Committed [" + batch.getPuts().size() + "] puts and ["
+                        + batch.getRemoves().size() + "] removes."
+        );
+    }
+
     @Nullable
     private String encrypt(@NonNull final String clearText) {
         return encryptDecryptInternal(clearText, true);
@@ -351,4 +438,20 @@ public class SharedPreferencesFileManager implements IMultiTypeNameValueStorage
         return result;
     }
 
+    /**
+     * An {@link LruCache} of Strings sized by the approximate number of bytes they occupy, as
+     * cached values vary from short ids to multi-kilobyte tokens.
+     */
+    private static final class StringSizedLruCache extends LruCache<String, String> {
+
+        StringSizedLruCache(final int maxSizeBytes) {
+            super(maxSizeBytes);
+        }
+
+        @Override
+        protected int sizeOf(@NonNull final String key, @NonNull final String value) {
+            // Java Strings are (at most) 2 bytes per char.
+            return 2 * (key.length() + value.length());
+        }
+    }
 }
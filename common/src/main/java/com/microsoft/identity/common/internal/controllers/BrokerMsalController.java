@@ -74,6 +74,7 @@ import com.microsoft.identity.common.internal.util.AccountManagerUtil;
 import com.microsoft.identity.common.internal.util.StringUtil;
 import com.microsoft.identity.common.java.WarningType;
 import com.microsoft.identity.common.java.authorities.AzureActiveDirectoryAudience;
+import com.microsoft.identity.common.java.authscheme.IPoPAuthenticationSchemeParams;
 import com.microsoft.identity.common.java.authscheme.PopAuthenticationSchemeWithClientKeyInternal;
 import com.microsoft.identity.common.java.cache.ICacheRecord;
 import com.microsoft.identity.common.java.cache.MsalOAuth2TokenCache;
@@ -81,6 +82,7 @@ import com.microsoft.identity.common.java.commands.AcquirePrtSsoTokenResult;
 import com.microsoft.identity.common.java.commands.parameters.AcquirePrtSsoTokenCommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.CommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.DeviceCodeFlowCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.BatchGenerateShrCommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.GenerateShrCommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.InteractiveTokenCommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.RemoveAccountCommandParameters;
@@ -810,6 +812,33 @@ public class BrokerMsalController extends BaseController {
 
     @Override
     public GenerateShrResult generateSignedHttpRequest(@NonNull final GenerateShrCommandParameters parameters) throws Exception {
+        if (!(parameters instanceof BatchGenerateShrCommandParameters)) {
+            return generateSignedHttpRequestInBroker(parameters);
+        }
+
+        // The broker protocol carries a single SHR request, so a batch costs one broker call per SHR.
+        final List<String> shrs = new ArrayList<>();
+
+        for (final IPoPAuthenticationSchemeParams popParameters
+                : ((BatchGenerateShrCommandParameters) parameters).getBatchPopParameters()) {
+            final GenerateShrResult result = generateSignedHttpRequestInBroker(
+                    parameters.toBuilder().popParameters(popParameters).build()
+            );
+
+            if (null != result.getErrorCode()) {
+                return result;
+            }
+
+            shrs.add(result.getShr());
+        }
+
+        final GenerateShrResult result = new GenerateShrResult();
+        result.setShrs(shrs);
+
+        return result;
+    }
+
+    private GenerateShrResult generateSignedHttpRequestInBroker(@NonNull final GenerateShrCommandParameters parameters) throws Exception {
         return mBrokerOperationExecutor.execute(parameters, new BrokerOperation<GenerateShrResult>() {
 
             private String negotiatedBrokerProtocolVersion;
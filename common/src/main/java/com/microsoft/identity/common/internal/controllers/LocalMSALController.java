@@ -37,6 +37,7 @@ import com.microsoft.identity.common.java.exception.ServiceException;
 import com.microsoft.identity.common.java.cache.ICacheRecord;
 import com.microsoft.identity.common.internal.commands.RefreshOnCommand;
 import com.microsoft.identity.common.java.commands.parameters.DeviceCodeFlowCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.BatchGenerateShrCommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.GenerateShrCommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.RemoveAccountCommandParameters;
 import com.microsoft.identity.common.java.dto.AccountRecord;
@@ -757,7 +758,17 @@ public class LocalMSALController extends BaseController {
         final GenerateShrResult result;
         if (userHasLocalAccountRecord(cache, clientId, homeAccountId)) {
             // Perform the signing locally...
-            result = DevicePoPUtils.generateSignedHttpRequest(parameters.getPlatformComponents(), popSchemeParams);
+            if (parameters instanceof BatchGenerateShrCommandParameters) {
+                final BatchGenerateShrCommandParameters batchParameters =
+                        (BatchGenerateShrCommandParameters) parameters;
+                result = DevicePoPUtils.generateSignedHttpRequests(
+                        parameters.getPlatformComponents(),
+                        batchParameters.getBatchPopParameters(),
+                        batchParameters.isParallel()
+                );
+            } else {
+                result = DevicePoPUtils.generateSignedHttpRequest(parameters.getPlatformComponents(), popSchemeParams);
+            }
         } else {
             // Populate the error on the result and return...
             result = new GenerateShrResult();
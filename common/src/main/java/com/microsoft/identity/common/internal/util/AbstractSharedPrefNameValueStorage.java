@@ -51,4 +51,24 @@ public abstract class AbstractSharedPrefNameValueStorage<T> implements INameValu
     public @NonNull Set<String> keySet() {
         return mManager.getAll().keySet();
     }
+
+    /**
+     * Adapters of the same type over the same manager are equal, so callers holding on to state
+     * built over one adapter can tell that a newly supplied adapter is backed by the same file.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return mManager == ((AbstractSharedPrefNameValueStorage<?>) o).mManager;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(mManager);
+    }
 }
@@ -31,6 +31,7 @@ import com.microsoft.identity.common.components.AndroidPlatformComponentsFactory
 import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
 import com.microsoft.identity.common.java.providers.microsoft.microsoftsts.MicrosoftStsOAuth2Strategy;
 import com.microsoft.identity.common.java.exception.ClientException;
+import com.google.gson.JsonPrimitive;
 import com.microsoft.identity.common.java.cache.CacheKeyValueDelegate;
 import com.microsoft.identity.common.java.cache.IAccountCredentialAdapter;
 import com.microsoft.identity.common.java.cache.IAccountCredentialCache;
@@ -675,6 +676,99 @@ public class MsalOAuth2TokenCacheTest {
         assertEquals(defaultTestBundleV2.mGeneratedIdToken, ids.get(0));
     }
 
+    @Test
+    public void saveTokensOverExistingRefreshTokenPreservesAdditionalFields() throws Exception {
+        // Manually insert an RT under the same cache key, carrying a field unknown to this version
+        final RefreshTokenRecord existingRefreshToken = new RefreshTokenRecord();
+        existingRefreshToken.setSecret("old_secret");
+        existingRefreshToken.setTarget(TARGET);
+        existingRefreshToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        existingRefreshToken.setEnvironment(ENVIRONMENT);
+        existingRefreshToken.setCredentialType(RefreshToken.name());
+        existingRefreshToken.setClientId(CLIENT_ID);
+        existingRefreshToken.getAdditionalFields().put("unknown_field", new JsonPrimitive("unknown_value"));
+
+        accountCredentialCache.saveCredential(existingRefreshToken);
+
+        mOauth2TokenCache.save(
+                mockStrategy,
+                mockRequest,
+                mockResponse
+        );
+
+        final List<Credential> rts = accountCredentialCache.getCredentialsFilteredBy(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                RefreshToken,
+                CLIENT_ID,
+                null,
+                null,
+                null
+        );
+        assertEquals(1, rts.size());
+        assertEquals(SECRET, rts.get(0).getSecret());
+        assertEquals(
+                new JsonPrimitive("unknown_value"),
+                rts.get(0).getAdditionalFields().get("unknown_field")
+        );
+    }
+
+    @Test
+    public void saveTokensOverExistingRecordsPreservesAdditionalFields() throws Exception {
+        // Prepopulate the cache, then add fields unknown to this version to each stored record
+        mOauth2TokenCache.save(
+                mockStrategy,
+                mockRequest,
+                mockResponse
+        );
+
+        final AccountRecord existingAccount = accountCredentialCache.getAccounts().get(0);
+        existingAccount.getAdditionalFields().put("unknown_field", new JsonPrimitive("account"));
+        accountCredentialCache.saveAccount(existingAccount);
+
+        for (final Credential existingCredential : accountCredentialCache.getCredentials()) {
+            existingCredential.getAdditionalFields().put(
+                    "unknown_field",
+                    new JsonPrimitive(existingCredential.getCredentialType())
+            );
+            accountCredentialCache.saveCredential(existingCredential);
+        }
+
+        // Refresh with a new RT
+        defaultTestBundleV2.mGeneratedRefreshToken.setSecret("new_secret");
+
+        mOauth2TokenCache.save(
+                mockStrategy,
+                mockRequest,
+                mockResponse
+        );
+
+        final List<AccountRecord> accounts = accountCredentialCache.getAccounts();
+        assertEquals(1, accounts.size());
+        assertEquals(
+                new JsonPrimitive("account"),
+                accounts.get(0).getAdditionalFields().get("unknown_field")
+        );
+
+        final List<Credential> credentials = accountCredentialCache.getCredentials();
+        assertEquals(3, credentials.size());
+
+        for (final Credential credential : credentials) {
+            assertEquals(
+                    new JsonPrimitive(credential.getCredentialType()),
+                    credential.getAdditionalFields().get("unknown_field")
+            );
+        }
+
+        final List<Credential> rts = new ArrayList<>();
+        final List<Credential> ats = new ArrayList<>();
+        final List<Credential> ids = new ArrayList<>();
+
+        sortResultToLists(credentials, rts, ats, ids);
+
+        assertEquals("new_secret", rts.get(0).getSecret());
+    }
+
     @Test
     public void saveAccountDirect() {
         saveAccountDirect(defaultTestBundleV2);
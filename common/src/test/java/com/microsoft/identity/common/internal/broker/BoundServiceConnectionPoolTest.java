@@ -0,0 +1,299 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.common.internal.broker;
+
+import android.app.Application;
+import android.content.ComponentName;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.content.pm.ResolveInfo;
+import android.content.pm.ServiceInfo;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.microsoft.identity.client.IMicrosoftAuthService;
+import com.microsoft.identity.common.internal.broker.ipc.BoundServiceStrategy;
+import com.microsoft.identity.common.internal.broker.ipc.BrokerOperationBundle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowApplication;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.microsoft.identity.common.internal.broker.ipc.BrokerOperationBundle.Operation.MSAL_HELLO;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Tests for {@link BoundServiceConnectionPool}, through {@link BoundServiceStrategy} and a
+ * bound service provided by Robolectric's {@link ShadowApplication}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = {Build.VERSION_CODES.N})
+public class BoundServiceConnectionPoolTest {
+
+    private static final String BROKER_PACKAGE_NAME = "com.microsoft.mock.broker";
+    private static final String SERVICE_CLASS_NAME = "com.microsoft.identity.client.MicrosoftAuthService";
+    private static final String SERVICE_INTENT_FILTER = "com.microsoft.identity.client.MicrosoftAuth";
+    private static final ComponentName SERVICE_COMPONENT = new ComponentName(BROKER_PACKAGE_NAME, SERVICE_CLASS_NAME);
+
+    private Application mContext;
+    private ShadowApplication mShadowApplication;
+    private MockMicrosoftAuthService mService;
+    private ExecutorService mExecutor;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mShadowApplication = shadowOf(mContext);
+        mService = new MockMicrosoftAuthService();
+        mExecutor = Executors.newCachedThreadPool();
+
+        final Intent intent = new Intent(SERVICE_INTENT_FILTER);
+        intent.setPackage(BROKER_PACKAGE_NAME);
+        intent.setClassName(BROKER_PACKAGE_NAME, SERVICE_CLASS_NAME);
+
+        final ResolveInfo resolveInfo = new ResolveInfo();
+        resolveInfo.serviceInfo = new ServiceInfo();
+        resolveInfo.serviceInfo.packageName = BROKER_PACKAGE_NAME;
+        resolveInfo.serviceInfo.name = SERVICE_CLASS_NAME;
+        shadowOf(mContext.getPackageManager()).addResolveInfoForIntent(intent, resolveInfo);
+
+        mShadowApplication.setComponentNameAndServiceForBindService(SERVICE_COMPONENT, mService);
+        BoundServiceClient.setConnectionKeepAliveEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        // Drop any binding kept alive by this test.
+        BoundServiceClient.setConnectionKeepAliveEnabled(false);
+        BoundServiceClient.setConnectionKeepAliveEnabled(true);
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testSequentialOperationsShareOneBinding() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(hello().getBoolean("MOCK_SUCCESS"));
+        }
+
+        Assert.assertEquals(3, mService.mHelloCount.get());
+        Assert.assertEquals(1, mShadowApplication.getBoundServiceConnections().size());
+        Assert.assertTrue(mShadowApplication.getUnboundServiceConnections().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentOperationsAreMultiplexedOverOneBinding() throws Exception {
+        mService.mBlockHello = new CountDownLatch(1);
+        final Future<Bundle> first = mExecutor.submit(newHelloCall());
+        final Future<Bundle> second = mExecutor.submit(newHelloCall());
+
+        while (mService.mActiveHelloCount.get() < 2) {
+            idleMainLooper();
+        }
+
+        Assert.assertEquals(1, mShadowApplication.getBoundServiceConnections().size());
+
+        mService.mBlockHello.countDown();
+        Assert.assertTrue(await(first).getBoolean("MOCK_SUCCESS"));
+        Assert.assertTrue(await(second).getBoolean("MOCK_SUCCESS"));
+        Assert.assertTrue(mShadowApplication.getUnboundServiceConnections().isEmpty());
+    }
+
+    @Test
+    public void testBindingIsReleasedAfterIdleTimeout() throws Exception {
+        hello();
+
+        shadowOf(Looper.getMainLooper()).idleFor(BoundServiceConnectionPool.IDLE_TIMEOUT_MILLIS - 1, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(mShadowApplication.getUnboundServiceConnections().isEmpty());
+
+        shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1, mShadowApplication.getUnboundServiceConnections().size());
+        Assert.assertTrue(mShadowApplication.getBoundServiceConnections().isEmpty());
+
+        // The next operation binds again.
+        hello();
+        Assert.assertEquals(1, mShadowApplication.getBoundServiceConnections().size());
+    }
+
+    @Test
+    public void testIdleTimeoutIsResetByNewOperations() throws Exception {
+        hello();
+        shadowOf(Looper.getMainLooper()).idleFor(BoundServiceConnectionPool.IDLE_TIMEOUT_MILLIS - 1, TimeUnit.MILLISECONDS);
+
+        hello();
+        shadowOf(Looper.getMainLooper()).idleFor(BoundServiceConnectionPool.IDLE_TIMEOUT_MILLIS - 1, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(mShadowApplication.getUnboundServiceConnections().isEmpty());
+    }
+
+    @Test
+    public void testRebindsAfterServiceDisconnected() throws Exception {
+        hello();
+        final ServiceConnection connection = mShadowApplication.getBoundServiceConnections().get(0);
+
+        // The broker process went away.
+        connection.onServiceDisconnected(SERVICE_COMPONENT);
+        Assert.assertEquals(1, mShadowApplication.getUnboundServiceConnections().size());
+
+        Assert.assertTrue(hello().getBoolean("MOCK_SUCCESS"));
+        Assert.assertEquals(1, mShadowApplication.getBoundServiceConnections().size());
+        Assert.assertNotSame(connection, mShadowApplication.getBoundServiceConnections().get(0));
+    }
+
+    @Test
+    public void testDisablingKeepAliveUnbindsAfterEachOperation() throws Exception {
+        BoundServiceClient.setConnectionKeepAliveEnabled(false);
+
+        hello();
+        hello();
+
+        Assert.assertEquals(2, mService.mHelloCount.get());
+        Assert.assertEquals(2, mShadowApplication.getUnboundServiceConnections().size());
+        Assert.assertTrue(mShadowApplication.getBoundServiceConnections().isEmpty());
+    }
+
+    @Test
+    public void testDisablingKeepAliveReleasesIdleBinding() throws Exception {
+        hello();
+
+        BoundServiceClient.setConnectionKeepAliveEnabled(false);
+
+        Assert.assertEquals(1, mShadowApplication.getUnboundServiceConnections().size());
+        Assert.assertTrue(mShadowApplication.getBoundServiceConnections().isEmpty());
+    }
+
+    /**
+     * Runs an MSAL_HELLO through a new strategy, as the controller does, off the main thread.
+     */
+    private Bundle hello() throws Exception {
+        return await(mExecutor.submit(newHelloCall()));
+    }
+
+    private Callable<Bundle> newHelloCall() {
+        return new Callable<Bundle>() {
+            @Override
+            public Bundle call() throws Exception {
+                final BoundServiceStrategy<IMicrosoftAuthService> strategy =
+                        new BoundServiceStrategy<>(new MicrosoftAuthClient(mContext));
+                return strategy.communicateToBroker(
+                        new BrokerOperationBundle(MSAL_HELLO, BROKER_PACKAGE_NAME, new Bundle()));
+            }
+        };
+    }
+
+    /**
+     * Service callbacks are delivered on the main looper, which is the test thread.
+     */
+    private static <T> T await(final Future<T> future) throws Exception {
+        while (!future.isDone()) {
+            idleMainLooper();
+        }
+
+        return future.get();
+    }
+
+    private static void idleMainLooper() throws InterruptedException {
+        shadowOf(Looper.getMainLooper()).idle();
+        Thread.sleep(5);
+    }
+
+    private static class MockMicrosoftAuthService extends IMicrosoftAuthService.Stub {
+        final AtomicInteger mHelloCount = new AtomicInteger();
+        final AtomicInteger mActiveHelloCount = new AtomicInteger();
+        volatile CountDownLatch mBlockHello;
+
+        @Override
+        public Bundle hello(final Bundle bundle) {
+            mHelloCount.incrementAndGet();
+            mActiveHelloCount.incrementAndGet();
+            try {
+                if (null != mBlockHello) {
+                    mBlockHello.await();
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                mActiveHelloCount.decrementAndGet();
+            }
+
+            final Bundle result = new Bundle();
+            result.putBoolean("MOCK_SUCCESS", true);
+            return result;
+        }
+
+        @Override
+        public Bundle getAccounts(final Bundle bundle) {
+            return null;
+        }
+
+        @Override
+        public Bundle acquireTokenSilently(final Bundle requestBundle) {
+            return null;
+        }
+
+        @Override
+        public Intent getIntentForInteractiveRequest() {
+            return null;
+        }
+
+        @Override
+        public Bundle removeAccount(final Bundle bundle) {
+            return null;
+        }
+
+        @Override
+        public Bundle getDeviceMode() {
+            return null;
+        }
+
+        @Override
+        public Bundle getCurrentAccount(final Bundle bundle) {
+            return null;
+        }
+
+        @Override
+        public Bundle removeAccountFromSharedDevice(final Bundle bundle) {
+            return null;
+        }
+
+        @Override
+        public Bundle generateSignedHttpRequest(final Bundle bundle) {
+            return null;
+        }
+    }
+}
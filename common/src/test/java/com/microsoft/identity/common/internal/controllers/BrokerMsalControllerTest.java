@@ -31,21 +31,34 @@ import androidx.annotation.Nullable;
 import androidx.test.platform.app.InstrumentationRegistry;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.microsoft.identity.common.adal.internal.AuthenticationConstants;
 import com.microsoft.identity.common.components.MockPlatformComponentsFactory;
 import com.microsoft.identity.common.exception.BrokerCommunicationException;
 import com.microsoft.identity.common.internal.broker.ipc.BrokerOperationBundle;
 import com.microsoft.identity.common.internal.broker.ipc.IIpcStrategy;
+import com.microsoft.identity.common.java.authscheme.IPoPAuthenticationSchemeParams;
+import com.microsoft.identity.common.java.authscheme.PopAuthenticationSchemeInternal;
 import com.microsoft.identity.common.java.commands.AcquirePrtSsoTokenResult;
 import com.microsoft.identity.common.java.commands.parameters.AcquirePrtSsoTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.BatchGenerateShrCommandParameters;
+import com.microsoft.identity.common.java.crypto.IDevicePopManager;
 import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
+import com.microsoft.identity.common.java.interfaces.IPopManagerSupplier;
+import com.microsoft.identity.common.java.result.GenerateShrResult;
+import com.microsoft.identity.common.java.util.ClockSkewManager;
+import com.microsoft.identity.common.java.util.UrlUtil;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mockito;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -121,4 +134,135 @@ public class BrokerMsalControllerTest {
         Assert.assertEquals("x-ms-RefreshTokenCredential", ssoTokenResult.getCookieName());
     }
 
+    /**
+     * The broker generates one SHR per call, so a batch is one call per SHR, in order.
+     */
+    @Test
+    public void testGenerateSignedHttpRequestsInBatch() throws Exception {
+        final List<String> requestedNonces = new ArrayList<>();
+        final IPlatformComponents components = getShrPlatformComponents();
+        final BrokerMsalController controller = getShrController(components, requestedNonces, null);
+
+        final GenerateShrResult result = controller.generateSignedHttpRequest(
+                getBatchShrParameters(components, "one", "two", "three")
+        );
+
+        Assert.assertNull(result.getErrorCode());
+        Assert.assertEquals(Arrays.asList("one", "two", "three"), requestedNonces);
+        Assert.assertEquals(Arrays.asList("shr-one", "shr-two", "shr-three"), result.getShrs());
+    }
+
+    @Test
+    public void testGenerateSignedHttpRequestsInBatchStopsAtFirstError() throws Exception {
+        final List<String> requestedNonces = new ArrayList<>();
+        final IPlatformComponents components = getShrPlatformComponents();
+        final BrokerMsalController controller = getShrController(components, requestedNonces, "two");
+
+        final GenerateShrResult result = controller.generateSignedHttpRequest(
+                getBatchShrParameters(components, "one", "two", "three")
+        );
+
+        Assert.assertEquals(GenerateShrResult.Errors.NO_ACCOUNT_FOUND, result.getErrorCode());
+        Assert.assertEquals(Arrays.asList("one", "two"), requestedNonces);
+    }
+
+    @Test
+    public void testGenerateSignedHttpRequestsInEmptyBatch() throws Exception {
+        final List<String> requestedNonces = new ArrayList<>();
+        final IPlatformComponents components = getShrPlatformComponents();
+        final BrokerMsalController controller = getShrController(components, requestedNonces, null);
+
+        final GenerateShrResult result = controller.generateSignedHttpRequest(
+                getBatchShrParameters(components)
+        );
+
+        Assert.assertNull(result.getErrorCode());
+        Assert.assertTrue(result.getShrs().isEmpty());
+        Assert.assertTrue(requestedNonces.isEmpty());
+    }
+
+    private static IPlatformComponents getShrPlatformComponents() throws Exception {
+        final IPopManagerSupplier popManagerSupplier = Mockito.mock(IPopManagerSupplier.class);
+        Mockito.when(popManagerSupplier.getDefaultDevicePopManager())
+                .thenReturn(Mockito.mock(IDevicePopManager.class));
+
+        return MockPlatformComponentsFactory.getNonFunctionalBuilder()
+                .popManagerLoader(popManagerSupplier)
+                .build();
+    }
+
+    private static BatchGenerateShrCommandParameters getBatchShrParameters(
+            @NonNull final IPlatformComponents components,
+            @NonNull final String... nonces) {
+        final List<IPoPAuthenticationSchemeParams> popParameters = new ArrayList<>();
+
+        for (final String nonce : nonces) {
+            popParameters.add(PopAuthenticationSchemeInternal.builder()
+                    .httpMethod("GET")
+                    .url(UrlUtil.makeUrlSilent("https://url"))
+                    .nonce(nonce)
+                    .clockSkewManager(new ClockSkewManager(new InMemoryStorage<Long>()))
+                    .build());
+        }
+
+        return BatchGenerateShrCommandParameters.builder()
+                .platformComponents(components)
+                .correlationId("aCorrelationId")
+                .clientId("aClientId")
+                .homeAccountId("aHomeAccountId")
+                .batchPopParameters(popParameters)
+                .build();
+    }
+
+    /**
+     * Returns a controller whose broker records the nonce of each SHR request, and answers
+     * "shr-" followed by it, or a missing account error for the supplied failing nonce.
+     */
+    private static BrokerMsalController getShrController(@NonNull final IPlatformComponents components,
+                                                         @NonNull final List<String> requestedNonces,
+                                                         @Nullable final String failingNonce) {
+        return new BrokerMsalController(InstrumentationRegistry.getInstrumentation().getContext(), components) {
+            @Override
+            public String getActiveBrokerPackageName() {
+                return "aBrokerPackage";
+            }
+
+            @NonNull
+            @Override
+            protected List<IIpcStrategy> getIpcStrategies(Context applicationContext, String activeBrokerPackageName) {
+                return Collections.<IIpcStrategy>singletonList(new IIpcStrategy() {
+                    @Nullable
+                    @Override
+                    public Bundle communicateToBroker(@NonNull BrokerOperationBundle bundle) throws BrokerCommunicationException {
+                        final Bundle retBundle = new Bundle();
+                        if (bundle.getOperation().equals(BrokerOperationBundle.Operation.MSAL_HELLO)) {
+                            retBundle.putString(AuthenticationConstants.Broker.NEGOTIATED_BP_VERSION_KEY, "7.0");
+                        } else if (bundle.getOperation().equals(BrokerOperationBundle.Operation.MSAL_GENERATE_SHR)) {
+                            final String nonce = new Gson().fromJson(
+                                    bundle.getBundle().getString(AuthenticationConstants.Broker.AUTH_SCHEME_PARAMS_POP),
+                                    JsonObject.class
+                            ).get(PopAuthenticationSchemeInternal.SerializedNames.NONCE).getAsString();
+                            requestedNonces.add(nonce);
+
+                            final GenerateShrResult result = new GenerateShrResult();
+                            if (nonce.equals(failingNonce)) {
+                                result.setErrorCode(GenerateShrResult.Errors.NO_ACCOUNT_FOUND);
+                                result.setErrorMessage("Account does not exist.");
+                            } else {
+                                result.setShr("shr-" + nonce);
+                            }
+
+                            retBundle.putString(AuthenticationConstants.Broker.BROKER_GENERATE_SHR_RESULT, new Gson().toJson(result));
+                        }
+                        return retBundle;
+                    }
+
+                    @Override
+                    public Type getType() {
+                        return Type.CONTENT_PROVIDER;
+                    }
+                });
+            }
+        };
+    }
 }
@@ -0,0 +1,141 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import static com.microsoft.identity.common.java.AuthenticationConstants.DEFAULT_SCOPES;
+
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.ScopeSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the legacy regex/HashSet target matching against {@link ScopeSet} matching over a
+ * list of cached access tokens, as done by a single filtered cache lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScopeMatchingBenchmark {
+
+    private static final String SOUGHT_TARGET = "User.Read Mail.Read openid profile offline_access";
+
+    @Param({"10", "100", "1000"})
+    public int mTokenCount;
+
+    private List<AccessTokenRecord> mAccessTokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mAccessTokens = new ArrayList<>(mTokenCount);
+
+        for (int i = 0; i < mTokenCount; i++) {
+            final AccessTokenRecord accessToken = new AccessTokenRecord();
+            // Every 4th token satisfies the sought target.
+            accessToken.setTarget(i % 4 == 0
+                    ? "user.read mail.read mail.send openid profile"
+                    : "api://resource-" + i + "/.default openid profile");
+            mAccessTokens.add(accessToken);
+            // Parse once, as a cache read would.
+            accessToken.getScopeSet();
+        }
+    }
+
+    @Benchmark
+    public int legacyTargetsIntersect() {
+        int matches = 0;
+
+        for (final AccessTokenRecord accessToken : mAccessTokens) {
+            if (legacyTargetsIntersect(SOUGHT_TARGET, accessToken.getTarget(), true)) {
+                matches++;
+            }
+        }
+
+        return matches;
+    }
+
+    @Benchmark
+    public int scopeSetTargetsIntersect() {
+        int matches = 0;
+        final ScopeSet soughtScopes = ScopeSet.fromTarget(SOUGHT_TARGET);
+
+        for (final AccessTokenRecord accessToken : mAccessTokens) {
+            if (AbstractAccountCredentialCache.targetsIntersect(soughtScopes, accessToken.getScopeSet(), true)) {
+                matches++;
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * The implementation of {@link AbstractAccountCredentialCache#targetsIntersect(String, String, boolean)}
+     * prior to {@link ScopeSet}, kept as the baseline.
+     */
+    private static boolean legacyTargetsIntersect(final String targetToMatch,
+                                                  final String credentialTarget,
+                                                  final boolean omitDefaultScopes) {
+        final String splitCriteria = "\\s+";
+        final String[] targetToMatchArray = targetToMatch.trim().split(splitCriteria);
+        final String[] credentialTargetArray = credentialTarget.trim().split(splitCriteria);
+
+        final Set<String> soughtTargetSet = new HashSet<>();
+        final Set<String> credentialTargetSet = new HashSet<>();
+
+        for (final String target : targetToMatchArray) {
+            soughtTargetSet.add(target.toLowerCase(Locale.ROOT));
+        }
+
+        for (final String target : credentialTargetArray) {
+            credentialTargetSet.add(target.toLowerCase(Locale.ROOT));
+        }
+
+        if (omitDefaultScopes) {
+            soughtTargetSet.removeAll(DEFAULT_SCOPES);
+            credentialTargetSet.removeAll(DEFAULT_SCOPES);
+        }
+
+        return credentialTargetSet.containsAll(soughtTargetSet);
+    }
+}
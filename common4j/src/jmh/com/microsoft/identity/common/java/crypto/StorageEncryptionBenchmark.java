@@ -0,0 +1,104 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.crypto;
+
+import com.microsoft.identity.common.java.crypto.key.AbstractSecretKeyLoader;
+import com.microsoft.identity.common.java.crypto.key.PredefinedKeyLoader;
+import com.microsoft.identity.common.java.exception.ClientException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link StorageEncryptionManager} encrypt/decrypt throughput for token-sized blobs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class StorageEncryptionBenchmark {
+
+    @Param({"1024", "8192"})
+    public int mBlobSize;
+
+    private StorageEncryptionManager mEncryptionManager;
+    private byte[] mPlainText;
+    private byte[] mCipherText;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ClientException {
+        final SecureRandom random = new SecureRandom();
+        final byte[] rawKey = new byte[32];
+        random.nextBytes(rawKey);
+
+        final PredefinedKeyLoader keyLoader = new PredefinedKeyLoader("BENCHMARK_KEY", rawKey);
+        mEncryptionManager = new StorageEncryptionManager() {
+            @Override
+            public AbstractSecretKeyLoader getKeyLoaderForEncryption() {
+                return keyLoader;
+            }
+
+            @Override
+            public List<AbstractSecretKeyLoader> getKeyLoaderForDecryption(final byte[] cipherText) {
+                return Collections.<AbstractSecretKeyLoader>singletonList(keyLoader);
+            }
+        };
+
+        // Token blobs are base64/JSON text, so use printable characters.
+        mPlainText = new byte[mBlobSize];
+        for (int i = 0; i < mPlainText.length; i++) {
+            mPlainText[i] = (byte) ('A' + random.nextInt(26));
+        }
+
+        mCipherText = mEncryptionManager.encrypt(mPlainText);
+    }
+
+    @Benchmark
+    public byte[] encrypt() throws ClientException {
+        return mEncryptionManager.encrypt(mPlainText);
+    }
+
+    @Benchmark
+    public byte[] decrypt() throws ClientException {
+        return mEncryptionManager.decrypt(mCipherText);
+    }
+}
@@ -278,13 +278,11 @@ public abstract class Authority {
                 TAG + methodName,
                 "Performing cloud discovery..."
         );
-        synchronized (sLock) {
-            Logger.info(TAG + methodName, "Acquired lock.");
-            if (!AzureActiveDirectory.isInitialized()) {
-                Logger.info(TAG + methodName, "Not initialized. Starting request.");
-                AzureActiveDirectory.performCloudDiscovery();
-                Logger.info(TAG + methodName, "Loaded cloud metadata.");
-            }
+        // Concurrent discoveries are coalesced by AzureActiveDirectory, no need to lock here.
+        if (!AzureActiveDirectory.isInitialized()) {
+            Logger.info(TAG + methodName, "Not initialized. Starting request.");
+            AzureActiveDirectory.performCloudDiscovery();
+            Logger.info(TAG + methodName, "Loaded cloud metadata.");
         }
     }
 
@@ -22,8 +22,6 @@
 // THE SOFTWARE.
 package com.microsoft.identity.common.java.cache;
 
-import static com.microsoft.identity.common.java.AuthenticationConstants.DEFAULT_SCOPES;
-
 import com.microsoft.identity.common.java.dto.AccessTokenRecord;
 import com.microsoft.identity.common.java.dto.AccountRecord;
 import com.microsoft.identity.common.java.dto.Credential;
@@ -31,14 +29,12 @@ import com.microsoft.identity.common.java.dto.CredentialType;
 import com.microsoft.identity.common.java.dto.IdTokenRecord;
 import com.microsoft.identity.common.java.dto.PrimaryRefreshTokenRecord;
 import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+import com.microsoft.identity.common.java.dto.ScopeSet;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.util.StringUtil;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Set;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 import lombok.NonNull;
@@ -88,11 +84,13 @@ public abstract class AbstractAccountCredentialCache implements IAccountCredenti
         final boolean mustMatchOnEnvironment = !StringUtil.isNullOrEmpty(environment);
         final boolean mustMatchOnRealm = !StringUtil.isNullOrEmpty(realm);
 
-        Logger.verbose(
+        Logger.verboseTemplate(
                 TAG,
-                "Account lookup filtered by home_account_id? [" + mustMatchOnHomeAccountId + "]"
+                "Account lookup filtered by home_account_id? [{}]"
                         + NEW_LINE
-                        + "Account lookup filtered by realm? [" + mustMatchOnRealm + "]"
+                        + "Account lookup filtered by realm? [{}]",
+                mustMatchOnHomeAccountId,
+                mustMatchOnRealm
         );
 
         final List<AccountRecord> matchingAccounts = new ArrayList<>();
@@ -117,10 +115,7 @@ public abstract class AbstractAccountCredentialCache implements IAccountCredenti
             }
         }
 
-        Logger.verbose(
-                TAG,
-                "Found [" + matchingAccounts.size() + "] matching accounts"
-        );
+        Logger.verboseTemplate(TAG, "Found [{}] matching accounts", matchingAccounts.size());
 
         return matchingAccounts;
     }
@@ -146,23 +141,26 @@ public abstract class AbstractAccountCredentialCache implements IAccountCredenti
                 && credentialType == CredentialType.AccessToken_With_AuthScheme;
         final boolean mustMatchOnKid = !StringUtil.isNullOrEmpty(kid);
         final boolean mustMatchOnRequestedClaims = !StringUtil.isNullOrEmpty(requestedClaims);
-
-        Logger.verbose(
-                TAG,
-                "Credential lookup filtered by home_account_id? [" + mustMatchOnHomeAccountId + "]"
-                        + NEW_LINE
-                        + "Credential lookup filtered by realm? [" + mustMatchOnRealm + "]"
-                        + NEW_LINE
-                        + "Credential lookup filtered by target? [" + mustMatchOnTarget + "]"
-                        + NEW_LINE
-                        + "Credential lookup filtered by clientId? [" + mustMatchOnClientId + "]"
-                        + NEW_LINE
-                        + "Credential lookup filtered by credential type? [" + mustMatchOnCredentialType + "]"
-                        + NEW_LINE
-                        + "Credential lookup filtered by auth scheme? [" + mustMatchOnAuthScheme + "]"
-                        + NEW_LINE
-                        + "Credential lookup filtered by requested claims? [" + mustMatchOnRequestedClaims + "]"
-        );
+        final ScopeSet soughtScopes = mustMatchOnTarget ? ScopeSet.fromTarget(target) : null;
+
+        if (Logger.isLoggable(Logger.LogLevel.VERBOSE, false)) {
+            Logger.verbose(
+                    TAG,
+                    "Credential lookup filtered by home_account_id? [" + mustMatchOnHomeAccountId + "]"
+                            + NEW_LINE
+                            + "Credential lookup filtered by realm? [" + mustMatchOnRealm + "]"
+                            + NEW_LINE
+                            + "Credential lookup filtered by target? [" + mustMatchOnTarget + "]"
+                            + NEW_LINE
+                            + "Credential lookup filtered by clientId? [" + mustMatchOnClientId + "]"
+                            + NEW_LINE
+                            + "Credential lookup filtered by credential type? [" + mustMatchOnCredentialType + "]"
+                            + NEW_LINE
+                            + "Credential lookup filtered by auth scheme? [" + mustMatchOnAuthScheme + "]"
+                            + NEW_LINE
+                            + "Credential lookup filtered by requested claims? [" + mustMatchOnRequestedClaims + "]"
+            );
+        }
 
         final List<Credential> matchingCredentials = new ArrayList<>();
 
@@ -198,10 +196,10 @@ public abstract class AbstractAccountCredentialCache implements IAccountCredenti
             if (mustMatchOnTarget) {
                 if (credential instanceof AccessTokenRecord) {
                     final AccessTokenRecord accessToken = (AccessTokenRecord) credential;
-                    matches = matches && targetsIntersect(target, accessToken.getTarget(), true);
+                    matches = matches && targetsIntersect(soughtScopes, accessToken.getScopeSet(), true);
                 } else if (credential instanceof RefreshTokenRecord) {
                     final RefreshTokenRecord refreshToken = (RefreshTokenRecord) credential;
-                    matches = matches && targetsIntersect(target, refreshToken.getTarget(), true);
+                    matches = matches && targetsIntersect(soughtScopes, refreshToken.getScopeSet(), true);
                 } else {
                     Logger.verbose(TAG, "Query specified target-match, but no target to match.");
                 }
@@ -253,31 +251,29 @@ public abstract class AbstractAccountCredentialCache implements IAccountCredenti
     static boolean targetsIntersect(@NonNull final String targetToMatch,
                                     @NonNull final String credentialTarget,
                                     final boolean omitDefaultScopes) {
+        return targetsIntersect(
+                ScopeSet.fromTarget(targetToMatch),
+                ScopeSet.fromTarget(credentialTarget),
+                omitDefaultScopes
+        );
+    }
+
+    /**
+     * Examines the intersections of the provided, pre-parsed targets (scopes).
+     *
+     * @param targetToMatch     The target value[s] our cache-query is looking for.
+     * @param credentialTarget  The target against which our sought value will be compared.
+     * @param omitDefaultScopes True if MSAL's default scopes should be considered in this lookup.
+     *                          False otherwise.
+     * @return True, if the credentialTarget contains all of the targets (scopes) declared by
+     * targetToMatch. False otherwise.
+     */
+    static boolean targetsIntersect(@NonNull final ScopeSet targetToMatch,
+                                    @NonNull final ScopeSet credentialTarget,
+                                    final boolean omitDefaultScopes) {
         // The credentialTarget must contain all of the scopes in the targetToMatch
         // It may contain more, but it must contain minimally those
         // Matching is case-insensitive
-        final String splitCriteria = "\\s+";
-        final String[] targetToMatchArray = targetToMatch.trim().split(splitCriteria);
-        final String[] credentialTargetArray = credentialTarget.trim().split(splitCriteria);
-
-        // Declare Sets to contain these scopes
-        final Set<String> soughtTargetSet = new HashSet<>();
-        final Set<String> credentialTargetSet = new HashSet<>();
-
-        // Add the array values to these sets, lowercasing them
-        for (final String target : targetToMatchArray) {
-            soughtTargetSet.add(target.toLowerCase(Locale.ROOT));
-        }
-
-        for (final String target : credentialTargetArray) {
-            credentialTargetSet.add(target.toLowerCase(Locale.ROOT));
-        }
-
-        if (omitDefaultScopes) {
-            soughtTargetSet.removeAll(DEFAULT_SCOPES);
-            credentialTargetSet.removeAll(DEFAULT_SCOPES);
-        }
-
-        return credentialTargetSet.containsAll(soughtTargetSet);
+        return credentialTarget.containsAll(targetToMatch, omitDefaultScopes);
     }
 }
@@ -0,0 +1,271 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.microsoft.identity.common.java.dto.AccountCredentialBase;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.NonNull;
+
+/**
+ * A {@link TypeAdapterFactory} which deserializes {@link AccountCredentialBase} subclasses in a
+ * single streaming pass.
+ * <p>
+ * Fields declared with {@link SerializedName} are bound directly from the {@link JsonReader}. Any
+ * other JSON member is collected into {@link AccountCredentialBase#getAdditionalFields()}. Members
+ * matching an {@link SerializedName#alternate()} name are bound to their field and also kept as
+ * additional fields, as only primary names are considered "expected".
+ * <p>
+ * The reflected field metadata of each class is computed once per process. Serialization is
+ * delegated to Gson's default adapter.
+ */
+public class AccountCredentialBaseTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final ConcurrentMap<Class<?>, ClassMetadata> sClassMetadata = new ConcurrentHashMap<>();
+
+    @Override
+    public <T> TypeAdapter<T> create(@NonNull final Gson gson, @NonNull final TypeToken<T> type) {
+        final Class<? super T> rawType = type.getRawType();
+
+        if (!AccountCredentialBase.class.isAssignableFrom(rawType)
+                || Modifier.isAbstract(rawType.getModifiers())) {
+            return null;
+        }
+
+        final ClassMetadata metadata = getClassMetadata(rawType);
+
+        if (null == metadata) {
+            // No usable no-arg constructor; let Gson handle it.
+            return null;
+        }
+
+        return new Adapter<>(gson, gson.getDelegateAdapter(this, type), metadata);
+    }
+
+    private static ClassMetadata getClassMetadata(@NonNull final Class<?> clazz) {
+        ClassMetadata metadata = sClassMetadata.get(clazz);
+
+        if (null == metadata) {
+            metadata = ClassMetadata.inspect(clazz);
+
+            if (null != metadata) {
+                sClassMetadata.putIfAbsent(clazz, metadata);
+            }
+        }
+
+        return metadata;
+    }
+
+    /**
+     * The reflected shape of an {@link AccountCredentialBase} subclass.
+     */
+    private static final class ClassMetadata {
+        final Constructor<?> mConstructor;
+
+        /**
+         * JSON member name -> field, for primary and alternate names.
+         */
+        final Map<String, FieldMetadata> mFieldsByName;
+
+        private ClassMetadata(@NonNull final Constructor<?> constructor,
+                              @NonNull final Map<String, FieldMetadata> fieldsByName) {
+            mConstructor = constructor;
+            mFieldsByName = fieldsByName;
+        }
+
+        static ClassMetadata inspect(@NonNull final Class<?> clazz) {
+            final Constructor<?> constructor;
+
+            try {
+                constructor = clazz.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (final NoSuchMethodException | SecurityException e) {
+                return null;
+            }
+
+            final Map<String, FieldMetadata> fieldsByName = new HashMap<>();
+
+            for (Class<?> current = clazz;
+                 current != null && current != Object.class;
+                 current = current.getSuperclass()) {
+                for (final Field field : current.getDeclaredFields()) {
+                    final int modifiers = field.getModifiers();
+
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                        continue;
+                    }
+
+                    field.setAccessible(true);
+                    final SerializedName serializedName = field.getAnnotation(SerializedName.class);
+
+                    if (null == serializedName) {
+                        // Bound by its Java name, but never an "expected" field.
+                        putIfAbsent(fieldsByName, field.getName(), new FieldMetadata(field, true));
+                        continue;
+                    }
+
+                    putIfAbsent(fieldsByName, serializedName.value(), new FieldMetadata(field, false));
+
+                    for (final String alternate : serializedName.alternate()) {
+                        putIfAbsent(fieldsByName, alternate, new FieldMetadata(field, true));
+                    }
+                }
+            }
+
+            return new ClassMetadata(constructor, Collections.unmodifiableMap(fieldsByName));
+        }
+
+        private static void putIfAbsent(@NonNull final Map<String, FieldMetadata> map,
+                                        @NonNull final String name,
+                                        @NonNull final FieldMetadata field) {
+            // Subclass fields shadow superclass fields of the same name.
+            if (!map.containsKey(name)) {
+                map.put(name, field);
+            }
+        }
+    }
+
+    private static final class FieldMetadata {
+        final Field mField;
+
+        /**
+         * True if the member should also be retained in the additional fields.
+         */
+        final boolean mIsAlsoAdditional;
+
+        FieldMetadata(@NonNull final Field field, final boolean isAlsoAdditional) {
+            mField = field;
+            mIsAlsoAdditional = isAlsoAdditional;
+        }
+    }
+
+    private static final class Adapter<T> extends TypeAdapter<T> {
+        private final TypeAdapter<T> mDelegate;
+        private final ClassMetadata mMetadata;
+        private final TypeAdapter<JsonElement> mJsonElementAdapter;
+        private final Map<Field, TypeAdapter<?>> mFieldAdapters;
+
+        Adapter(@NonNull final Gson gson,
+                @NonNull final TypeAdapter<T> delegate,
+                @NonNull final ClassMetadata metadata) {
+            mDelegate = delegate;
+            mMetadata = metadata;
+            mJsonElementAdapter = gson.getAdapter(JsonElement.class);
+            mFieldAdapters = new HashMap<>();
+
+            for (final FieldMetadata fieldMetadata : metadata.mFieldsByName.values()) {
+                final Field field = fieldMetadata.mField;
+
+                if (!mFieldAdapters.containsKey(field)) {
+                    mFieldAdapters.put(field, gson.getAdapter(TypeToken.get(field.getGenericType())));
+                }
+            }
+        }
+
+        @Override
+        public void write(final JsonWriter out, final T value) throws IOException {
+            mDelegate.write(out, value);
+        }
+
+        @Override
+        public T read(final JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            final T instance = newInstance();
+            final Map<String, JsonElement> additionalFields = new HashMap<>();
+
+            try {
+                in.beginObject();
+
+                while (in.hasNext()) {
+                    final String name = in.nextName();
+                    final FieldMetadata fieldMetadata = mMetadata.mFieldsByName.get(name);
+
+                    if (null == fieldMetadata) {
+                        additionalFields.put(name, mJsonElementAdapter.read(in));
+                    } else if (fieldMetadata.mIsAlsoAdditional) {
+                        final JsonElement element = mJsonElementAdapter.read(in);
+                        additionalFields.put(name, element);
+                        setField(instance, fieldMetadata.mField, mFieldAdapters.get(fieldMetadata.mField).fromJsonTree(element));
+                    } else {
+                        setField(instance, fieldMetadata.mField, mFieldAdapters.get(fieldMetadata.mField).read(in));
+                    }
+                }
+
+                in.endObject();
+            } catch (final IllegalStateException e) {
+                throw new JsonSyntaxException(e);
+            }
+
+            ((AccountCredentialBase) instance).setAdditionalFields(additionalFields);
+
+            return instance;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T newInstance() {
+            try {
+                return (T) mMetadata.mConstructor.newInstance();
+            } catch (final ReflectiveOperationException e) {
+                throw new JsonSyntaxException("Unable to instantiate " + mMetadata.mConstructor.getDeclaringClass(), e);
+            }
+        }
+
+        private static void setField(@NonNull final Object instance,
+                                     @NonNull final Field field,
+                                     final Object value) {
+            // Same as Gson: never assign null to a primitive.
+            if (null == value && field.getType().isPrimitive()) {
+                return;
+            }
+
+            try {
+                field.set(instance, value);
+            } catch (final IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -42,12 +42,16 @@ import com.microsoft.identity.common.java.providers.microsoft.MicrosoftTokenResp
 import com.microsoft.identity.common.java.providers.oauth2.AuthorizationRequest;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ported.Function;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -96,6 +100,16 @@ public class BrokerOAuth2TokenCache
 
     private static final String UNCHECKED = "unchecked";
 
+    /**
+     * App-specific caches, shared by every instance so that they are built once per uid.
+     */
+    private static final ProcessUidCacheRegistry sProcessUidCaches = new ProcessUidCacheRegistry();
+
+    /**
+     * Loads the app-specific caches of device-wide operations concurrently.
+     */
+    private static final CacheFanOut sCacheFanOut = new CacheFanOut();
+
     private final IBrokerApplicationMetadataCache mApplicationMetadataCache;
     private final MicrosoftFamilyOAuth2TokenCache mFociCache;
     private final int mUid;
@@ -123,6 +137,17 @@ public class BrokerOAuth2TokenCache
         mApplicationMetadataCache = applicationMetadataCache;
     }
 
+    /**
+     * Enables or disables loading the app-specific caches concurrently in device-wide operations,
+     * such as {@link #getAccounts()} and {@link #removeAccountFromDevice(AccountRecord)}. Enabled by
+     * default; while disabled, the caches are loaded one after another.
+     *
+     * @param enabled True to load the app-specific caches concurrently.
+     */
+    public static void setParallelCacheLoadingEnabled(final boolean enabled) {
+        sCacheFanOut.setEnabled(enabled);
+    }
+
     /**
      * Interface used to inject process-uid based caches into the broker.
      */
@@ -1181,23 +1206,36 @@ public class BrokerOAuth2TokenCache
     public List<AccountRecord> getAccounts() {
         final String methodName = ":getAccounts";
 
-        final Set<AccountRecord> allAccounts = new HashSet<>();
+        final Set<AccountRecord> allAccounts = new LinkedHashSet<>();
 
-        final List<BrokerApplicationMetadata> allMetadata = mApplicationMetadataCache.getAll();
+        // Each app-specific cache is read once; FOCI apps share the FOCI cache, read below.
+        final List<BrokerApplicationMetadata> appSpecificMetadata = new ArrayList<>();
+        final Set<Integer> seenUids = new HashSet<>();
 
-        // TODO - Everything inside this loop can be parallelized... should it be?
-        for (final BrokerApplicationMetadata metadata : allMetadata) {
-            final OAuth2TokenCache candidateCache = getTokenCacheForClient(metadata);
-
-            if (null != candidateCache) {
-                allAccounts.addAll(
-                        ((MsalOAuth2TokenCache) candidateCache)
-                                .getAccountCredentialCache()
-                                .getAccounts()
-                );
+        for (final BrokerApplicationMetadata metadata : mApplicationMetadataCache.getAll()) {
+            if (null == metadata.getFoci() && seenUids.add(metadata.getUid())) {
+                appSpecificMetadata.add(metadata);
             }
         }
 
+        final List<List<AccountRecord>> accountsPerApp = sCacheFanOut.map(
+                appSpecificMetadata,
+                new Function<BrokerApplicationMetadata, List<AccountRecord>>() {
+                    @Override
+                    public List<AccountRecord> apply(final BrokerApplicationMetadata metadata) {
+                        final MsalOAuth2TokenCache candidateCache = getTokenCacheForClient(metadata);
+
+                        return null == candidateCache
+                                ? Collections.<AccountRecord>emptyList()
+                                : candidateCache.getAccountCredentialCache().getAccounts();
+                    }
+                }
+        );
+
+        for (final List<AccountRecord> accounts : accountsPerApp) {
+            allAccounts.addAll(accounts);
+        }
+
         // Hit the FOCI cache
         allAccounts.addAll(mFociCache.getAccountCredentialCache().getAccounts());
 
@@ -1470,31 +1508,46 @@ public class BrokerOAuth2TokenCache
                                                         @Nullable final String clientId,
                                                         @Nullable final String homeAccountId,
                                                         @Nullable final String realm,
-                                                        boolean deviceWide) {
+                                                        final boolean deviceWide) {
         final String methodName = ":removeAccountInternal";
 
-        final List<BrokerApplicationMetadata> allMetadata = mApplicationMetadataCache.getAll();
-        final List<AccountDeletionRecord> deletionRecordList = new ArrayList<>();
+        final List<List<AccountDeletionRecord>> deletionRecordsPerCache = sCacheFanOut.map(
+                groupByTargetCache(mApplicationMetadataCache.getAll(), deviceWide),
+                new Function<List<BrokerApplicationMetadata>, List<AccountDeletionRecord>>() {
+                    @Override
+                    public List<AccountDeletionRecord> apply(final List<BrokerApplicationMetadata> metadataGroup) {
+                        final List<AccountDeletionRecord> deletionRecords = new ArrayList<>();
+
+                        for (final BrokerApplicationMetadata metadata : metadataGroup) {
+                            final OAuth2TokenCache candidateCache = getTokenCacheForClient(
+                                    metadata.getClientId(),
+                                    metadata.getEnvironment(),
+                                    deviceWide
+                                            ? metadata.getUid() // Supports the removeAccountFromDevice() function
+                                            : mUid
+                            );
+
+                            if (null != candidateCache) {
+                                deletionRecords.add(
+                                        candidateCache.removeAccount(
+                                                environment,
+                                                clientId,
+                                                homeAccountId,
+                                                realm
+                                        )
+                                );
+                            }
+                        }
 
-        for (final BrokerApplicationMetadata metadata : allMetadata) {
-            final OAuth2TokenCache candidateCache = getTokenCacheForClient(
-                    metadata.getClientId(),
-                    metadata.getEnvironment(),
-                    deviceWide
-                            ? metadata.getUid() // Supports the removeAccountFromDevice() function
-                            : mUid
-            );
+                        return deletionRecords;
+                    }
+                }
+        );
 
-            if (null != candidateCache) {
-                deletionRecordList.add(
-                        candidateCache.removeAccount(
-                                environment,
-                                clientId,
-                                homeAccountId,
-                                realm
-                        )
-                );
-            }
+        final List<AccountDeletionRecord> deletionRecordList = new ArrayList<>();
+
+        for (final List<AccountDeletionRecord> deletionRecords : deletionRecordsPerCache) {
+            deletionRecordList.addAll(deletionRecords);
         }
 
         // Create a List of the deleted AccountRecords...
@@ -1514,6 +1567,39 @@ public class BrokerOAuth2TokenCache
         return new AccountDeletionRecord(deletedAccountRecords);
     }
 
+    /**
+     * Splits the supplied metadata into groups which each resolve to a distinct cache, so that the
+     * groups can be processed concurrently while the writes to any one cache stay sequential.
+     * Groups, and the metadata within them, keep the order of the supplied metadata.
+     * <p>
+     * Device-wide operations resolve each app to its own uid cache, or to the FOCI cache. Otherwise
+     * every app resolves to a cache of the current uid, so a single group is returned.
+     */
+    private static List<List<BrokerApplicationMetadata>> groupByTargetCache(
+            @NonNull final List<BrokerApplicationMetadata> allMetadata,
+            final boolean deviceWide) {
+        if (!deviceWide) {
+            return Collections.singletonList(allMetadata);
+        }
+
+        // FOCI apps all resolve to the FOCI cache, keyed by null.
+        final Map<Integer, List<BrokerApplicationMetadata>> groups = new LinkedHashMap<>();
+
+        for (final BrokerApplicationMetadata metadata : allMetadata) {
+            final Integer key = null != metadata.getFoci() ? null : metadata.getUid();
+            List<BrokerApplicationMetadata> group = groups.get(key);
+
+            if (null == group) {
+                group = new ArrayList<>();
+                groups.put(key, group);
+            }
+
+            group.add(metadata);
+        }
+
+        return new ArrayList<>(groups.values());
+    }
+
     @Override
     @SuppressWarnings(UNCHECKED)
     protected Set<String> getAllClientIds() {
@@ -1605,7 +1691,17 @@ public class BrokerOAuth2TokenCache
                         String.class
                 );
 
-        return getTokenCache(components, sharedPreferencesFileManager, false);
+        return sProcessUidCaches.get(uid, sharedPreferencesFileManager, new ProcessUidCacheRegistry.CacheFactory() {
+            @Override
+            public MsalOAuth2TokenCache create(@NonNull final INameValueStorage<String> storage) {
+                Logger.verbose(
+                        TAG + methodName,
+                        "Building uid cache."
+                );
+
+                return getTokenCache(components, storage, false);
+            }
+        });
     }
 
     private static MicrosoftFamilyOAuth2TokenCache initializeFociCache(@NonNull final IPlatformComponents components) {
@@ -1631,7 +1727,7 @@ public class BrokerOAuth2TokenCache
                                                                     boolean isFoci) {
         final ICacheKeyValueDelegate cacheKeyValueDelegate = new CacheKeyValueDelegate();
         final IAccountCredentialCache accountCredentialCache =
-                new SharedPreferencesAccountCredentialCache(
+                new IndexedAccountCredentialCache(
                         cacheKeyValueDelegate,
                         spfm
                 );
@@ -0,0 +1,211 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.util.ThreadUtils;
+import com.microsoft.identity.common.java.util.ported.Function;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * Applies a task to each of a list of inputs, such as the app-specific caches of
+ * {@link BrokerOAuth2TokenCache}, concurrently on a small bounded pool.
+ * <p>
+ * Results are always returned in input order, so callers merge them exactly as they would merge
+ * the results of a sequential loop. The calling thread runs the first input itself. Inputs are run
+ * sequentially on the calling thread if fan-out is disabled, if there is only one input, or if the
+ * pool rejects them. Tasks handed to the pool must not touch state shared with the other inputs.
+ */
+final class CacheFanOut {
+
+    private static final String TAG = CacheFanOut.class.getSimpleName();
+
+    static final int DEFAULT_PARALLELISM = 4;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final class DefaultExecutorHolder {
+        static final ExecutorService INSTANCE = newDefaultExecutor();
+
+        private static ExecutorService newDefaultExecutor() {
+            final ExecutorService executor = ThreadUtils.getNamedThreadPoolExecutor(
+                    DEFAULT_PARALLELISM,
+                    DEFAULT_PARALLELISM,
+                    -1,
+                    KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    "broker-cache-fan-out"
+            );
+
+            if (executor instanceof ThreadPoolExecutor) {
+                // Fan-outs are bursty; don't keep idle threads around in between.
+                ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+            }
+
+            return executor;
+        }
+    }
+
+    private final ExecutorService mExecutor;
+    private volatile boolean mEnabled = true;
+
+    CacheFanOut() {
+        this(null);
+    }
+
+    /**
+     * @param executor The pool to fan out on, or null to use the shared default pool.
+     */
+    CacheFanOut(final ExecutorService executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Enables or disables fan-out. While disabled, every input is run sequentially on the calling
+     * thread.
+     */
+    void setEnabled(final boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * Applies the task to every input and returns the results in input order.
+     * <p>
+     * If a task throws, the remaining tasks still run to completion and the exception of the first
+     * failed input is rethrown. Interrupting the calling thread does not abandon running tasks;
+     * the interrupt status is restored once they complete.
+     *
+     * @param inputs The inputs.
+     * @param task   The task to apply to each input.
+     * @return The results, one per input, in input order.
+     */
+    @NonNull
+    <T, R> List<R> map(@NonNull final List<T> inputs, @NonNull final Function<T, R> task) {
+        final int size = inputs.size();
+
+        if (!mEnabled || size < 2) {
+            return mapSequentially(inputs, task);
+        }
+
+        final ExecutorService executor = null == mExecutor ? DefaultExecutorHolder.INSTANCE : mExecutor;
+        final List<Future<R>> futures = new ArrayList<>(size);
+        futures.add(null);
+
+        for (int i = 1; i < size; i++) {
+            final T input = inputs.get(i);
+
+            try {
+                futures.add(executor.submit(new Callable<R>() {
+                    @Override
+                    public R call() {
+                        return task.apply(input);
+                    }
+                }));
+            } catch (final RejectedExecutionException e) {
+                Logger.warn(TAG + ":map", "Fan-out rejected, running the remaining inputs sequentially.");
+                break;
+            }
+        }
+
+        final List<R> results = new ArrayList<>(size);
+        RuntimeException firstFailure = null;
+
+        for (int i = 0; i < size; i++) {
+            try {
+                if (i < futures.size() && null != futures.get(i)) {
+                    results.add(getUninterruptibly(futures.get(i)));
+                } else {
+                    results.add(task.apply(inputs.get(i)));
+                }
+            } catch (final ExecutionException e) {
+                results.add(null);
+                firstFailure = null != firstFailure ? firstFailure : asRuntimeException(e.getCause());
+            } catch (final RuntimeException e) {
+                results.add(null);
+                firstFailure = null != firstFailure ? firstFailure : e;
+            }
+        }
+
+        if (null != firstFailure) {
+            throw firstFailure;
+        }
+
+        return results;
+    }
+
+    @NonNull
+    private static <T, R> List<R> mapSequentially(@NonNull final List<T> inputs,
+                                                  @NonNull final Function<T, R> task) {
+        final List<R> results = new ArrayList<>(inputs.size());
+
+        for (final T input : inputs) {
+            results.add(task.apply(input));
+        }
+
+        return results;
+    }
+
+    private static <R> R getUninterruptibly(@NonNull final Future<R> future) throws ExecutionException {
+        boolean interrupted = false;
+
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @NonNull
+    private static RuntimeException asRuntimeException(final Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+
+        return cause instanceof RuntimeException
+                ? (RuntimeException) cause
+                : new RuntimeException(cause);
+    }
+}
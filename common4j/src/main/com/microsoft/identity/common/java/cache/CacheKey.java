@@ -0,0 +1,194 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import static com.microsoft.identity.common.java.cache.CacheKeyValueDelegate.CACHE_VALUE_SEPARATOR;
+
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.util.StringUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+/**
+ * A cache key produced by {@link CacheKeyValueDelegate#generateCacheKey}, parsed into its
+ * components.
+ * <p>
+ * Account keys are formatted as {@code <home_account_id>-<environment>-<realm>} and credential keys
+ * as {@code <home_account_id>-<environment>-<credential_type>-<client_id>-<realm>-<target>}
+ * (optionally followed by the auth scheme and a hash of the requested claims). Only the credential
+ * type segment is unambiguous, so it is used to split the key: the values on either side may
+ * themselves contain the separator (GUIDs, "login-us.microsoftonline.com"...), and are therefore
+ * exposed as the raw prefix and suffix.
+ * <p>
+ * Parsed keys are memoized in a bounded LRU, so classifying the same key on every storage scan costs
+ * one hash lookup.
+ */
+@Getter
+@Accessors(prefix = "m")
+public final class CacheKey {
+
+    /**
+     * Upper bound on memoized keys. The least recently used key is evicted past this.
+     */
+    static final int MAX_MEMOIZED_KEYS = 4096;
+
+    /**
+     * Credential types which may appear in a cache key, paired with their delimited marker.
+     */
+    private static final CredentialType[] KEY_CREDENTIAL_TYPES = {
+            CredentialType.AccessToken,
+            CredentialType.AccessToken_With_AuthScheme,
+            CredentialType.RefreshToken,
+            CredentialType.IdToken,
+            CredentialType.V1IdToken,
+            CredentialType.PrimaryRefreshToken
+    };
+
+    private static final String[] KEY_CREDENTIAL_TYPE_MARKERS = new String[KEY_CREDENTIAL_TYPES.length];
+
+    static {
+        for (int i = 0; i < KEY_CREDENTIAL_TYPES.length; i++) {
+            KEY_CREDENTIAL_TYPE_MARKERS[i] = CACHE_VALUE_SEPARATOR
+                    + KEY_CREDENTIAL_TYPES[i].name().toLowerCase(Locale.US)
+                    + CACHE_VALUE_SEPARATOR;
+        }
+    }
+
+    // Access-ordered, guarded by itself.
+    private static final Map<String, CacheKey> sParsedKeys = new LinkedHashMap<String, CacheKey>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CacheKey> eldest) {
+            return size() > MAX_MEMOIZED_KEYS;
+        }
+    };
+
+    /**
+     * The key, as stored.
+     */
+    private final String mRawKey;
+
+    /**
+     * The credential type of this key, or null if this is an account key.
+     */
+    @Nullable
+    private final CredentialType mCredentialType;
+
+    /**
+     * For credential keys, {@code <home_account_id>-<environment>}. For account keys, the whole key.
+     */
+    private final String mPrefix;
+
+    /**
+     * For credential keys, everything following the credential type. Empty for account keys.
+     */
+    private final String mSuffix;
+
+    private CacheKey(@NonNull final String rawKey,
+                     @Nullable final CredentialType credentialType,
+                     @NonNull final String prefix,
+                     @NonNull final String suffix) {
+        mRawKey = rawKey;
+        mCredentialType = credentialType;
+        mPrefix = prefix;
+        mSuffix = suffix;
+    }
+
+    /**
+     * Parses the supplied cache key.
+     *
+     * @param cacheKey The cache key to parse.
+     * @return The parsed key.
+     */
+    @NonNull
+    public static CacheKey parse(@NonNull final String cacheKey) {
+        if (StringUtil.isNullOrEmpty(cacheKey)) {
+            throw new IllegalArgumentException("Param [cacheKey] cannot be null.");
+        }
+
+        CacheKey parsed;
+
+        synchronized (sParsedKeys) {
+            parsed = sParsedKeys.get(cacheKey);
+        }
+
+        if (null == parsed) {
+            // Parsed outside of the lock; a concurrent parse of the same key yields an equal result.
+            parsed = parseInternal(cacheKey);
+
+            synchronized (sParsedKeys) {
+                sParsedKeys.put(cacheKey, parsed);
+            }
+        }
+
+        return parsed;
+    }
+
+    /**
+     * @return The number of memoized keys.
+     */
+    static int getMemoizedKeyCount() {
+        synchronized (sParsedKeys) {
+            return sParsedKeys.size();
+        }
+    }
+
+    /**
+     * @return True if this key identifies an AccountRecord.
+     */
+    public boolean isAccount() {
+        return null == mCredentialType;
+    }
+
+    /**
+     * @return True if this key identifies a Credential.
+     */
+    public boolean isCredential() {
+        return null != mCredentialType;
+    }
+
+    @NonNull
+    private static CacheKey parseInternal(@NonNull final String cacheKey) {
+        for (int i = 0; i < KEY_CREDENTIAL_TYPE_MARKERS.length; i++) {
+            final String marker = KEY_CREDENTIAL_TYPE_MARKERS[i];
+            final int markerIndex = cacheKey.indexOf(marker);
+
+            if (markerIndex >= 0) {
+                return new CacheKey(
+                        cacheKey,
+                        KEY_CREDENTIAL_TYPES[i],
+                        cacheKey.substring(0, markerIndex),
+                        cacheKey.substring(markerIndex + marker.length())
+                );
+            }
+        }
+
+        return new CacheKey(cacheKey, null, cacheKey, "");
+    }
+}
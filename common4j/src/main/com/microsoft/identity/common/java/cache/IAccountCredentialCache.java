@@ -251,6 +251,34 @@ public interface IAccountCredentialCache {
      */
     boolean removeCredential(final Credential credentialToRemove);
 
+    /**
+     * Removes the supplied Credentials, then saves the supplied Accounts and Credentials.
+     * <p>
+     * Caches backed by a {@link com.microsoft.identity.common.java.interfaces.INameValueStorage}
+     * persist all of these changes with a single commit. There, a record being saved replaces any
+     * record with the same cache key, merging its additional fields, and removals of that cache key
+     * are skipped.
+     *
+     * @param credentialsToRemove The Credentials to delete.
+     * @param accountsToSave      The Accounts to save.
+     * @param credentialsToSave   The Credentials to save.
+     */
+    default void removeAndSave(final List<Credential> credentialsToRemove,
+                               final List<AccountRecord> accountsToSave,
+                               final List<Credential> credentialsToSave) {
+        for (final Credential credential : credentialsToRemove) {
+            removeCredential(credential);
+        }
+
+        for (final AccountRecord account : accountsToSave) {
+            saveAccount(account);
+        }
+
+        for (final Credential credential : credentialsToSave) {
+            saveCredential(credential);
+        }
+    }
+
     /**
      * Clear the contents of the cache.
      */
@@ -22,6 +22,7 @@
 // THE SOFTWARE.
 package com.microsoft.identity.common.java.cache;
 
+import com.microsoft.identity.common.java.storage.NameValueStorageBatch;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
 import java.util.Iterator;
@@ -103,4 +104,20 @@ public interface IMultiTypeNameValueStorage {
      */
     void remove(final String key);
 
+    /**
+     * Applies all puts and removes staged in the supplied batch. Implementations backed by a file
+     * should override this to persist the whole batch with a single write.
+     *
+     * @param batch The staged operations.
+     */
+    default void commit(final NameValueStorageBatch<String> batch) {
+        for (final String key : batch.getRemoves()) {
+            remove(key);
+        }
+
+        for (final Map.Entry<String, String> entry : batch.getPuts().entrySet()) {
+            putString(entry.getKey(), entry.getValue());
+        }
+    }
+
 }
@@ -0,0 +1,800 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.AccountCredentialBase;
+import com.microsoft.identity.common.java.dto.AccountRecord;
+import com.microsoft.identity.common.java.dto.Credential;
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.dto.IdTokenRecord;
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ported.Function;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+/**
+ * An {@link IAccountCredentialCache} which keeps the parsed contents of a
+ * {@link SharedPreferencesAccountCredentialCache} in memory.
+ * <p>
+ * Credentials are indexed by (homeAccountId, environment, credentialType, clientId, realm) so that
+ * filtered lookups resolve their candidates with a hash probe instead of decrypting and parsing
+ * every entry of the underlying {@link INameValueStorage}. Point lookups by cache key read the
+ * underlying storage directly.
+ * <p>
+ * The index is loaded from the underlying storage on the first read. All writes go through to the
+ * underlying storage, after which only the keys they touched are read back into the index. Every
+ * write made through any instance also bumps a process-wide generation, and an instance whose index
+ * missed a generation (e.g. because another cache instance over the same storage refreshed a token)
+ * reloads it on its next read. Writes which bypass this class are only seen after
+ * {@link #invalidate()}.
+ * <p>
+ * Records returned by this cache are copies, parsed from their stored value; callers may mutate
+ * them without affecting the index. The lists returned by {@link #getAccounts()} and
+ * {@link #getCredentials()} parse each record on first access, and the filtering overloads which
+ * take such a list only parse the records they return.
+ */
+public class IndexedAccountCredentialCache extends AbstractAccountCredentialCache {
+
+    private static final String TAG = IndexedAccountCredentialCache.class.getSimpleName();
+
+    private static final AccountRecord EMPTY_ACCOUNT = new AccountRecord();
+
+    /**
+     * Bumped by every write made through any instance, so that the others can tell their index may
+     * be stale.
+     */
+    private static final AtomicLong sWriteGeneration = new AtomicLong();
+
+    private final INameValueStorage<String> mStorage;
+
+    private final ICacheKeyValueDelegate mCacheValueDelegate;
+
+    private final SharedPreferencesAccountCredentialCache mBackingCache;
+
+    // Cache key -> parsed record
+    private final Map<String, AccountRecord> mAccounts = new HashMap<>();
+    private final Map<String, Credential> mCredentials = new HashMap<>();
+
+    // Indexed record -> the stored value it was parsed from, used to hand out copies.
+    private final Map<AccountCredentialBase, String> mStoredValuesByRecord = new IdentityHashMap<>();
+
+    // (homeAccountId, environment, credentialType, clientId, realm) -> cache keys
+    private final Map<CredentialIndexKey, Set<String>> mCredentialIndex = new HashMap<>();
+
+    // homeAccountId -> cache keys, used when a lookup doesn't specify the full index key.
+    private final Map<String, Set<String>> mCredentialsByHomeAccountId = new HashMap<>();
+
+    private boolean mIsIndexed = false;
+
+    // The write generation the index is up to date with.
+    private long mIndexedGeneration;
+
+    /**
+     * Constructor of IndexedAccountCredentialCache.
+     *
+     * @param accountCacheValueDelegate    ICacheKeyValueDelegate
+     * @param sharedPreferencesFileManager INameValueStorage
+     */
+    public IndexedAccountCredentialCache(
+            @NonNull final ICacheKeyValueDelegate accountCacheValueDelegate,
+            @NonNull final INameValueStorage<String> sharedPreferencesFileManager) {
+        Logger.verbose(TAG, "Init: " + TAG);
+        mStorage = sharedPreferencesFileManager;
+        mBackingCache = new SharedPreferencesAccountCredentialCache(
+                accountCacheValueDelegate,
+                sharedPreferencesFileManager
+        );
+        mCacheValueDelegate = accountCacheValueDelegate;
+    }
+
+    /**
+     * Drops the in-memory index. The next read will reload it from the underlying storage.
+     */
+    public synchronized void invalidate() {
+        Logger.verbose(TAG + ":invalidate", "Dropping in-memory index.");
+        clearIndex();
+        mIsIndexed = false;
+    }
+
+    @Override
+    public synchronized void saveAccount(@NonNull final AccountRecord account) {
+        mBackingCache.saveAccount(account);
+        // Read back from storage, as saving may have merged in existing fields.
+        onWritten(Collections.singleton(mCacheValueDelegate.generateCacheKey(account)));
+    }
+
+    @Override
+    public synchronized void saveCredential(@NonNull final Credential credential) {
+        mBackingCache.saveCredential(credential);
+        onWritten(Collections.singleton(mCacheValueDelegate.generateCacheKey(credential)));
+    }
+
+    @Override
+    @Nullable
+    public AccountRecord getAccount(@NonNull final String cacheKey) {
+        return mBackingCache.getAccount(cacheKey);
+    }
+
+    @Override
+    @Nullable
+    public Credential getCredential(@NonNull final String cacheKey) {
+        return mBackingCache.getCredential(cacheKey);
+    }
+
+    @Override
+    @NonNull
+    public synchronized List<AccountRecord> getAccounts() {
+        ensureIndexed();
+        return new RecordList<>(mCacheValueDelegate, mAccounts.values(), mStoredValuesByRecord);
+    }
+
+    @Override
+    @NonNull
+    public synchronized List<AccountRecord> getAccountsFilteredBy(
+            @Nullable final String homeAccountId,
+            @Nullable final String environment,
+            @Nullable final String realm) {
+        ensureIndexed();
+        return copyOf(getAccountsFilteredByInternal(
+                homeAccountId,
+                environment,
+                realm,
+                new ArrayList<>(mAccounts.values())
+        ));
+    }
+
+    @Override
+    @NonNull
+    public synchronized List<Credential> getCredentials() {
+        ensureIndexed();
+        return new RecordList<>(mCacheValueDelegate, mCredentials.values(), mStoredValuesByRecord);
+    }
+
+    @Override
+    @NonNull
+    public synchronized List<Credential> getCredentialsFilteredBy(
+            @Nullable final String homeAccountId,
+            @Nullable final String environment,
+            @Nullable final CredentialType credentialType,
+            @Nullable final String clientId,
+            @Nullable final String realm,
+            @Nullable final String target,
+            @Nullable final String authScheme) {
+        return getCredentialsFilteredBy(
+                homeAccountId,
+                environment,
+                credentialType,
+                clientId,
+                realm,
+                target,
+                authScheme,
+                (String) null
+        );
+    }
+
+    @Override
+    @NonNull
+    public List<Credential> getCredentialsFilteredBy(
+            @Nullable final String homeAccountId,
+            @Nullable final String environment,
+            @Nullable final CredentialType credentialType,
+            @Nullable final String clientId,
+            @Nullable final String realm,
+            @Nullable final String target,
+            @Nullable final String authScheme,
+            @NonNull final List<Credential> inputCredentials) {
+        return filter(inputCredentials, new Function<List<Credential>, List<Credential>>() {
+            @Override
+            public List<Credential> apply(final List<Credential> credentials) {
+                return mBackingCache.getCredentialsFilteredBy(
+                        homeAccountId,
+                        environment,
+                        credentialType,
+                        clientId,
+                        realm,
+                        target,
+                        authScheme,
+                        credentials
+                );
+            }
+        });
+    }
+
+    @Override
+    @NonNull
+    public synchronized List<Credential> getCredentialsFilteredBy(
+            @Nullable final String homeAccountId,
+            @Nullable final String environment,
+            @Nullable final CredentialType credentialType,
+            @Nullable final String clientId,
+            @Nullable final String realm,
+            @Nullable final String target,
+            @Nullable final String authScheme,
+            @Nullable final String requestedClaims) {
+        ensureIndexed();
+
+        return copyOf(getCredentialsFilteredByInternal(
+                getCandidates(homeAccountId, environment, credentialType, clientId, realm),
+                homeAccountId,
+                environment,
+                credentialType,
+                clientId,
+                realm,
+                target,
+                authScheme,
+                requestedClaims,
+                null
+        ));
+    }
+
+    @Override
+    @NonNull
+    public List<Credential> getCredentialsFilteredBy(
+            @Nullable final String homeAccountId,
+            @Nullable final String environment,
+            @Nullable final CredentialType credentialType,
+            @Nullable final String clientId,
+            @Nullable final String realm,
+            @Nullable final String target,
+            @Nullable final String authScheme,
+            @Nullable final String requestedClaims,
+            @Nullable final List<Credential> inputCredentials) {
+        return filter(inputCredentials, new Function<List<Credential>, List<Credential>>() {
+            @Override
+            public List<Credential> apply(final List<Credential> credentials) {
+                return mBackingCache.getCredentialsFilteredBy(
+                        homeAccountId,
+                        environment,
+                        credentialType,
+                        clientId,
+                        realm,
+                        target,
+                        authScheme,
+                        requestedClaims,
+                        credentials
+                );
+            }
+        });
+    }
+
+    @Override
+    @NonNull
+    public synchronized List<Credential> getCredentialsFilteredBy(
+            @Nullable final String homeAccountId,
+            @Nullable final String environment,
+            @NonNull final Set<CredentialType> credentialTypes,
+            @Nullable final String clientId,
+            @Nullable final String realm,
+            @Nullable final String target,
+            @Nullable final String authScheme,
+            @Nullable final String requestedClaims) {
+        final List<Credential> result = new ArrayList<>();
+
+        for (final CredentialType type : credentialTypes) {
+            result.addAll(
+                    getCredentialsFilteredBy(
+                            homeAccountId,
+                            environment,
+                            type,
+                            clientId,
+                            realm,
+                            target,
+                            authScheme,
+                            requestedClaims
+                    )
+            );
+        }
+
+        return result;
+    }
+
+    @Override
+    @NonNull
+    public List<Credential> getCredentialsFilteredBy(
+            @NonNull final List<Credential> inputCredentials,
+            @Nullable final String homeAccountId,
+            @Nullable final String environment,
+            @Nullable final CredentialType credentialType,
+            @Nullable final String clientId,
+            @Nullable final String realm,
+            @Nullable final String target,
+            @Nullable final String authScheme,
+            @Nullable final String requestedClaims,
+            @Nullable final String kid) {
+        return filter(inputCredentials, new Function<List<Credential>, List<Credential>>() {
+            @Override
+            public List<Credential> apply(final List<Credential> credentials) {
+                return mBackingCache.getCredentialsFilteredBy(
+                        credentials,
+                        homeAccountId,
+                        environment,
+                        credentialType,
+                        clientId,
+                        realm,
+                        target,
+                        authScheme,
+                        requestedClaims,
+                        kid
+                );
+            }
+        });
+    }
+
+    @Override
+    public synchronized boolean removeAccount(@NonNull final AccountRecord accountToRemove) {
+        final boolean removed = mBackingCache.removeAccount(accountToRemove);
+        onWritten(Collections.singleton(mCacheValueDelegate.generateCacheKey(accountToRemove)));
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean removeCredential(@NonNull final Credential credentialToRemove) {
+        final boolean removed = mBackingCache.removeCredential(credentialToRemove);
+        onWritten(Collections.singleton(mCacheValueDelegate.generateCacheKey(credentialToRemove)));
+        return removed;
+    }
+
+    @Override
+    public synchronized void removeAndSave(@NonNull final List<Credential> credentialsToRemove,
+                                           @NonNull final List<AccountRecord> accountsToSave,
+                                           @NonNull final List<Credential> credentialsToSave) {
+        mBackingCache.removeAndSave(credentialsToRemove, accountsToSave, credentialsToSave);
+
+        final Set<String> cacheKeys = new HashSet<>();
+
+        for (final Credential credential : credentialsToRemove) {
+            cacheKeys.add(mCacheValueDelegate.generateCacheKey(credential));
+        }
+
+        for (final AccountRecord account : accountsToSave) {
+            cacheKeys.add(mCacheValueDelegate.generateCacheKey(account));
+        }
+
+        for (final Credential credential : credentialsToSave) {
+            cacheKeys.add(mCacheValueDelegate.generateCacheKey(credential));
+        }
+
+        onWritten(cacheKeys);
+    }
+
+    @Override
+    public synchronized void clearAll() {
+        final long generation = sWriteGeneration.get();
+        mBackingCache.clearAll();
+        clearIndex();
+
+        // The storage is now empty, unless another instance wrote to it meanwhile.
+        if (sWriteGeneration.compareAndSet(generation, generation + 1)) {
+            mIsIndexed = true;
+            mIndexedGeneration = generation + 1;
+        } else {
+            sWriteGeneration.incrementAndGet();
+            mIsIndexed = false;
+        }
+    }
+
+    /**
+     * Resolves the smallest indexed candidate set which is guaranteed to contain every Credential
+     * matching the supplied criteria. The result must still be filtered.
+     */
+    @NonNull
+    private List<Credential> getCandidates(@Nullable final String homeAccountId,
+                                           @Nullable final String environment,
+                                           @Nullable final CredentialType credentialType,
+                                           @Nullable final String clientId,
+                                           @Nullable final String realm) {
+        final boolean canProbeIndex = !StringUtil.isNullOrEmpty(homeAccountId)
+                && !StringUtil.isNullOrEmpty(environment)
+                && null != credentialType
+                && !StringUtil.isNullOrEmpty(clientId)
+                && (!StringUtil.isNullOrEmpty(realm) || !isRealmScoped(credentialType));
+
+        if (canProbeIndex) {
+            return resolve(mCredentialIndex.get(
+                    new CredentialIndexKey(
+                            homeAccountId,
+                            environment,
+                            credentialType.name(),
+                            clientId,
+                            isRealmScoped(credentialType) ? realm : null
+                    )
+            ));
+        }
+
+        if (!StringUtil.isNullOrEmpty(homeAccountId)) {
+            return resolve(mCredentialsByHomeAccountId.get(normalize(homeAccountId)));
+        }
+
+        return new ArrayList<>(mCredentials.values());
+    }
+
+    @NonNull
+    private List<Credential> resolve(@Nullable final Set<String> cacheKeys) {
+        final List<Credential> result = new ArrayList<>();
+
+        if (null != cacheKeys) {
+            for (final String cacheKey : cacheKeys) {
+                result.add(mCredentials.get(cacheKey));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Applies the supplied filter to a list of Credentials. A list returned by
+     * {@link #getCredentials()} is filtered on the records it holds, and only the matching ones are
+     * parsed.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Credential> filter(@Nullable final List<Credential> inputCredentials,
+                                           @NonNull final Function<List<Credential>, List<Credential>> filter) {
+        if (!(inputCredentials instanceof RecordList)) {
+            return filter.apply(inputCredentials);
+        }
+
+        final RecordList<Credential> records = (RecordList<Credential>) inputCredentials;
+        return records.getAll(filter.apply(records.peekAll()));
+    }
+
+    /**
+     * Loads the index from the underlying storage, unless it is already up to date with every write
+     * made through this class.
+     */
+    private void ensureIndexed() {
+        final String methodTag = TAG + ":ensureIndexed";
+        final long generation = sWriteGeneration.get();
+
+        if (mIsIndexed && mIndexedGeneration == generation) {
+            return;
+        }
+
+        Logger.verbose(methodTag, "Building in-memory index...");
+        clearIndex();
+
+        for (final Map.Entry<String, String> entry : mStorage.getAll().entrySet()) {
+            loadEntry(entry.getKey(), entry.getValue());
+        }
+
+        mIsIndexed = true;
+        mIndexedGeneration = generation;
+    }
+
+    /**
+     * Brings the index up to date after this instance wrote the supplied keys, by reading back only
+     * those keys. If a write made through another instance was missed, the index is reloaded on the
+     * next read instead.
+     */
+    private void onWritten(@NonNull final Collection<String> cacheKeys) {
+        final long generation = sWriteGeneration.incrementAndGet();
+
+        if (!mIsIndexed || mIndexedGeneration != generation - 1) {
+            invalidate();
+            return;
+        }
+
+        for (final String cacheKey : cacheKeys) {
+            loadEntry(cacheKey, mStorage.get(cacheKey));
+        }
+
+        mIndexedGeneration = generation;
+    }
+
+    private void loadEntry(@NonNull final String cacheKey, @Nullable final String storedValue) {
+        unindex(cacheKey);
+
+        if (null == storedValue) {
+            return;
+        }
+
+        final CacheKey parsedKey = CacheKey.parse(cacheKey);
+
+        if (parsedKey.isAccount()) {
+            final AccountRecord account = mCacheValueDelegate.fromCacheValue(storedValue, AccountRecord.class);
+
+            // Uninitialized Accounts are left for the backing cache to remove when looked up.
+            if (null != account && !EMPTY_ACCOUNT.equals(account)) {
+                indexAccount(cacheKey, storedValue, account);
+            }
+        } else {
+            final Class<? extends Credential> clazz =
+                    getTargetClassForCredentialType(cacheKey, parsedKey.getCredentialType());
+            final Credential credential = null == clazz
+                    ? null
+                    : (Credential) mCacheValueDelegate.fromCacheValue(storedValue, clazz);
+
+            if (null != credential) {
+                indexCredential(cacheKey, storedValue, credential);
+            }
+        }
+    }
+
+    /**
+     * Returns copies of the supplied indexed records, parsed from their stored value.
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    private <T extends AccountCredentialBase> List<T> copyOf(@NonNull final Collection<T> records) {
+        final List<T> copies = new ArrayList<>(records.size());
+
+        for (final T record : records) {
+            final T copy = (T) mCacheValueDelegate.fromCacheValue(
+                    mStoredValuesByRecord.get(record),
+                    record.getClass()
+            );
+
+            if (null != copy) {
+                copies.add(copy);
+            }
+        }
+
+        return copies;
+    }
+
+    private void indexAccount(@NonNull final String cacheKey,
+                              @NonNull final String storedValue,
+                              @NonNull final AccountRecord account) {
+        mAccounts.put(cacheKey, account);
+        mStoredValuesByRecord.put(account, storedValue);
+    }
+
+    private void indexCredential(@NonNull final String cacheKey,
+                                 @NonNull final String storedValue,
+                                 @NonNull final Credential credential) {
+        mCredentials.put(cacheKey, credential);
+        mStoredValuesByRecord.put(credential, storedValue);
+        addToBucket(mCredentialIndex, CredentialIndexKey.of(credential), cacheKey);
+        addToBucket(mCredentialsByHomeAccountId, normalize(credential.getHomeAccountId()), cacheKey);
+    }
+
+    private void unindex(@NonNull final String cacheKey) {
+        final AccountRecord account = mAccounts.remove(cacheKey);
+
+        if (null != account) {
+            mStoredValuesByRecord.remove(account);
+        }
+
+        final Credential credential = mCredentials.remove(cacheKey);
+
+        if (null != credential) {
+            mStoredValuesByRecord.remove(credential);
+            removeFromBucket(mCredentialIndex, CredentialIndexKey.of(credential), cacheKey);
+            removeFromBucket(mCredentialsByHomeAccountId, normalize(credential.getHomeAccountId()), cacheKey);
+        }
+    }
+
+    private void clearIndex() {
+        mAccounts.clear();
+        mCredentials.clear();
+        mStoredValuesByRecord.clear();
+        mCredentialIndex.clear();
+        mCredentialsByHomeAccountId.clear();
+    }
+
+    private static <K> void addToBucket(@NonNull final Map<K, Set<String>> index,
+                                        @NonNull final K indexKey,
+                                        @NonNull final String cacheKey) {
+        Set<String> bucket = index.get(indexKey);
+
+        if (null == bucket) {
+            bucket = new HashSet<>();
+            index.put(indexKey, bucket);
+        }
+
+        bucket.add(cacheKey);
+    }
+
+    private static <K> void removeFromBucket(@NonNull final Map<K, Set<String>> index,
+                                             @NonNull final K indexKey,
+                                             @NonNull final String cacheKey) {
+        final Set<String> bucket = index.get(indexKey);
+
+        if (null != bucket) {
+            bucket.remove(cacheKey);
+
+            if (bucket.isEmpty()) {
+                index.remove(indexKey);
+            }
+        }
+    }
+
+    /**
+     * Realm is only considered by {@link AbstractAccountCredentialCache} when matching
+     * {@link AccessTokenRecord}s and {@link IdTokenRecord}s.
+     */
+    private static boolean isRealmScoped(@NonNull final CredentialType credentialType) {
+        switch (credentialType) {
+            case AccessToken:
+            case AccessToken_With_AuthScheme:
+            case IdToken:
+            case V1IdToken:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @NonNull
+    private static String normalize(@Nullable final String value) {
+        return StringUtil.sanitizeNullAndLowercaseAndTrim(value);
+    }
+
+    /**
+     * A mutable list of records, each parsed from the stored value of an indexed record on first
+     * access, so that records which are never read are never parsed.
+     */
+    private static final class RecordList<T extends AccountCredentialBase> extends AbstractList<T> {
+        private final ICacheKeyValueDelegate mCacheValueDelegate;
+
+        // The indexed records, replaced by their copies as they are accessed.
+        private final List<T> mRecords;
+
+        // The stored value of each indexed record, or null once it has been copied or replaced.
+        private final List<String> mStoredValues;
+
+        RecordList(@NonNull final ICacheKeyValueDelegate cacheValueDelegate,
+                   @NonNull final Collection<T> indexedRecords,
+                   @NonNull final Map<AccountCredentialBase, String> storedValuesByRecord) {
+            mCacheValueDelegate = cacheValueDelegate;
+            mRecords = new ArrayList<>(indexedRecords);
+            mStoredValues = new ArrayList<>(mRecords.size());
+
+            for (final T record : mRecords) {
+                mStoredValues.add(storedValuesByRecord.get(record));
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized T get(final int index) {
+            final String storedValue = mStoredValues.get(index);
+
+            if (null != storedValue) {
+                mRecords.set(index, (T) mCacheValueDelegate.fromCacheValue(
+                        storedValue,
+                        mRecords.get(index).getClass()
+                ));
+                mStoredValues.set(index, null);
+            }
+
+            return mRecords.get(index);
+        }
+
+        @Override
+        public synchronized int size() {
+            return mRecords.size();
+        }
+
+        @Override
+        public synchronized T set(final int index, final T element) {
+            final T previous = get(index);
+            mRecords.set(index, element);
+            return previous;
+        }
+
+        @Override
+        public synchronized void add(final int index, final T element) {
+            mRecords.add(index, element);
+            mStoredValues.add(index, null);
+            modCount++;
+        }
+
+        @Override
+        public synchronized T remove(final int index) {
+            final T previous = get(index);
+            mRecords.remove(index);
+            mStoredValues.remove(index);
+            modCount++;
+            return previous;
+        }
+
+        /**
+         * @return the records as they are, without parsing the ones not accessed yet. Those are
+         * shared with the index and must not be modified.
+         */
+        synchronized List<T> peekAll() {
+            return new ArrayList<>(mRecords);
+        }
+
+        /**
+         * @return the elements of this list holding the supplied records, as returned by
+         * {@link #peekAll()}.
+         */
+        synchronized List<T> getAll(@NonNull final List<T> peekedRecords) {
+            final Map<T, Integer> indexes = new IdentityHashMap<>();
+
+            for (int i = 0; i < mRecords.size(); i++) {
+                indexes.put(mRecords.get(i), i);
+            }
+
+            final List<T> result = new ArrayList<>(peekedRecords.size());
+
+            for (final T record : peekedRecords) {
+                final Integer index = indexes.get(record);
+                result.add(null == index ? record : get(index));
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * The composite key of the credential index. All components are lowercased and trimmed,
+     * mirroring the case-insensitive matching performed by the filtered lookups.
+     */
+    @EqualsAndHashCode
+    private static final class CredentialIndexKey {
+        private final String mHomeAccountId;
+        private final String mEnvironment;
+        private final String mCredentialType;
+        private final String mClientId;
+        private final String mRealm;
+
+        CredentialIndexKey(@Nullable final String homeAccountId,
+                           @Nullable final String environment,
+                           @Nullable final String credentialType,
+                           @Nullable final String clientId,
+                           @Nullable final String realm) {
+            mHomeAccountId = normalize(homeAccountId);
+            mEnvironment = normalize(environment);
+            mCredentialType = normalize(credentialType);
+            mClientId = normalize(clientId);
+            mRealm = normalize(realm);
+        }
+
+        static CredentialIndexKey of(@NonNull final Credential credential) {
+            String realm = null;
+
+            if (credential instanceof AccessTokenRecord) {
+                realm = ((AccessTokenRecord) credential).getRealm();
+            } else if (credential instanceof IdTokenRecord) {
+                realm = ((IdTokenRecord) credential).getRealm();
+            }
+
+            return new CredentialIndexKey(
+                    credential.getHomeAccountId(),
+                    credential.getEnvironment(),
+                    credential.getCredentialType(),
+                    credential.getClientId(),
+                    realm
+            );
+        }
+    }
+}
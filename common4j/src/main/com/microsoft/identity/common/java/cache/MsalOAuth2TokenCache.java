@@ -143,7 +143,7 @@ public class MsalOAuth2TokenCache
                         String.class
                 );
         final IAccountCredentialCache accountCredentialCache =
-                new SharedPreferencesAccountCredentialCache(
+                new IndexedAccountCredentialCache(
                         cacheKeyValueDelegate,
                         sharedPreferencesFileManager
                 );
@@ -204,8 +204,12 @@ public class MsalOAuth2TokenCache
                 "Accounts/Credentials are valid.... proceeding"
         );
 
-        saveAccounts(accountRecord);
-        saveCredentialsInternal(idTokenRecord, accessTokenRecord);
+        saveInternal(
+                Collections.singletonList(accountRecord),
+                Collections.<Credential>emptyList(),
+                idTokenRecord,
+                accessTokenRecord
+        );
 
         final CacheRecord.CacheRecordBuilder result = CacheRecord.builder();
         result.account(accountRecord);
@@ -257,8 +261,13 @@ public class MsalOAuth2TokenCache
                 "Accounts/Credentials are valid.... proceeding"
         );
 
-        saveAccounts(accountRecord);
-        saveCredentialsInternal(idTokenRecord, accessTokenRecord, refreshTokenRecord);
+        saveInternal(
+                Collections.singletonList(accountRecord),
+                Collections.<Credential>emptyList(),
+                idTokenRecord,
+                accessTokenRecord,
+                refreshTokenRecord
+        );
 
         final CacheRecord.CacheRecordBuilder result = CacheRecord.builder();
         result.account(accountRecord);
@@ -366,12 +375,16 @@ public class MsalOAuth2TokenCache
                 idTokenToSave
         );
 
-        // Save the Account and Credentials...
-        saveAccounts(accountToSave);
+        // Save the Account and Credentials as a single commit...
         synchronized(sCacheLock) {
-            saveCredentialsInternal(accessTokenToSave, refreshTokenToSave, idTokenToSave);
-            // Remove old refresh tokens (except for the one we just saved) if it's MRRT or FRT
-            removeAllRefreshTokensExcept(accountToSave, refreshTokenToSave);
+            saveInternal(
+                    Collections.singletonList(accountToSave),
+                    // Remove old refresh tokens (except for the one we are saving) if it's MRRT or FRT
+                    getRefreshTokensToRemove(accountToSave, refreshTokenToSave),
+                    accessTokenToSave,
+                    refreshTokenToSave,
+                    idTokenToSave
+            );
         }
 
         final CacheRecord.CacheRecordBuilder result = CacheRecord.builder();
@@ -384,39 +397,42 @@ public class MsalOAuth2TokenCache
     }
 
     /**
-     * Removes the refresh tokens in the cache for the provided {@link AccountRecord}; will not
-     * remove the deletionExempt credential.
+     * Gets the refresh tokens in the cache which should be removed for the provided
+     * {@link AccountRecord}; will not include the deletionExempt credential.
      *
      * @param accountRecord              The AccountRecord for which RTs should be removed.
      * @param deletionExemptRefreshToken The RT record we wish to exempt from deletion.
+     * @return The refresh tokens to remove.
      */
-    private void removeAllRefreshTokensExcept(@NonNull final AccountRecord accountRecord,
-                                              @NonNull final RefreshTokenRecord deletionExemptRefreshToken) {
+    private List<Credential> getRefreshTokensToRemove(@NonNull final AccountRecord accountRecord,
+                                                      @NonNull final RefreshTokenRecord deletionExemptRefreshToken) {
         // Delete all of the refresh tokens associated with this account, except for the provided one
-        final String methodName = ":removeAllRefreshTokensExcept";
+        final String methodName = ":getRefreshTokensToRemove";
         final boolean isFamilyRefreshToken = !StringUtil.isNullOrEmpty(
                 deletionExemptRefreshToken.getFamilyId()
         );
 
-        Logger.info(
+        Logger.infoTemplate(
                 TAG + methodName,
-                "isFamilyRefreshToken? [" + isFamilyRefreshToken + "]"
+                "isFamilyRefreshToken? [{}]",
+                isFamilyRefreshToken
         );
 
         final boolean isMultiResourceCapable = MicrosoftAccount.AUTHORITY_TYPE_MS_STS.equals(
                 accountRecord.getAuthorityType()
         );
 
-        Logger.info(
+        Logger.infoTemplate(
                 TAG + methodName,
-                "isMultiResourceCapable? [" + isMultiResourceCapable + "]"
+                "isMultiResourceCapable? [{}]",
+                isMultiResourceCapable
         );
 
         if (isFamilyRefreshToken || isMultiResourceCapable) {
             final String environment = accountRecord.getEnvironment();
             final String clientId = deletionExemptRefreshToken.getClientId();
 
-            final int refreshTokensRemoved = removeCredentialsOfTypeForAccountExcept(
+            final List<Credential> refreshTokensToRemove = getCredentialsOfTypeForAccountExcept(
                     environment,
                     isFamilyRefreshToken
                             // Delete all RTs, irrespective of client_id
@@ -429,22 +445,27 @@ public class MsalOAuth2TokenCache
                     deletionExemptRefreshToken
             );
 
-            Logger.info(
+            Logger.infoTemplate(
                     TAG + methodName,
-                    "Refresh tokens removed: [" + refreshTokensRemoved + "]"
+                    "Refresh tokens to remove: [{}]",
+                    refreshTokensToRemove.size()
             );
 
-            if (refreshTokensRemoved > 1) {
+            if (refreshTokensToRemove.size() > 1) {
                 Logger.warn(
                         TAG + methodName,
                         "Multiple refresh tokens found for Account."
                 );
             }
+
+            return refreshTokensToRemove;
         }
+
+        return new ArrayList<>();
     }
 
     /**
-     * Removes Credentials of the supplied type for the supplied Account; skipping any record
+     * Gets the Credentials of the supplied type for the supplied Account; skipping any record
      * specified as exempt.
      *
      * @param environment          Entity which issued the token represented as a host.
@@ -453,18 +474,16 @@ public class MsalOAuth2TokenCache
      * @param targetAccount        The target Account whose Credentials should be removed.
      * @param realmAgnostic        True if the specified action should be completed irrespective of realm.
      * @param deletionExemptRecord A record which explicitly must not be removed.
-     * @return The number of Credentials removed.
+     * @return The Credentials to remove.
      */
-    private int removeCredentialsOfTypeForAccountExcept(@NonNull final String environment,
-                                                        @Nullable final String clientId,
-                                                        @NonNull final CredentialType credentialType,
-                                                        @NonNull final AccountRecord targetAccount,
-                                                        final boolean realmAgnostic,
-                                                        @NonNull final Credential deletionExemptRecord) {
-        int credentialsRemoved = 0;
-
+    private List<Credential> getCredentialsOfTypeForAccountExcept(@NonNull final String environment,
+                                                                  @Nullable final String clientId,
+                                                                  @NonNull final CredentialType credentialType,
+                                                                  @NonNull final AccountRecord targetAccount,
+                                                                  final boolean realmAgnostic,
+                                                                  @NonNull final Credential deletionExemptRecord) {
         // Query it for Credentials matching the supplied targetAccount
-        final List<Credential> credentialsToRemove =
+        final List<Credential> matchingCredentials =
                 mAccountCredentialCache.getCredentialsFilteredBy(
                         targetAccount.getHomeAccountId(),
                         environment,
@@ -477,15 +496,16 @@ public class MsalOAuth2TokenCache
                         null
                 );
 
-        for (final Credential credentialToRemove : credentialsToRemove) {
+        final List<Credential> credentialsToRemove = new ArrayList<>();
+
+        for (final Credential credential : matchingCredentials) {
             // Do not delete the record, if it is the supplied exempted Credential.
-            if (!deletionExemptRecord.equals(credentialToRemove)
-                    && mAccountCredentialCache.removeCredential(credentialToRemove)) {
-                credentialsRemoved++;
+            if (!deletionExemptRecord.equals(credential)) {
+                credentialsToRemove.add(credential);
             }
         }
 
-        return credentialsRemoved;
+        return credentialsToRemove;
     }
 
     @Override
@@ -548,18 +568,20 @@ public class MsalOAuth2TokenCache
                 refreshTokenRecord.getFamilyId()
         );
 
-        Logger.info(
+        Logger.infoTemplate(
                 TAG + methodName,
-                "isFamilyRefreshToken? [" + isFamilyRefreshToken + "]"
+                "isFamilyRefreshToken? [{}]",
+                isFamilyRefreshToken
         );
 
         final boolean isMultiResourceCapable = MicrosoftAccount.AUTHORITY_TYPE_MS_STS.equals(
                 accountRecord.getAuthorityType()
         );
 
-        Logger.info(
+        Logger.infoTemplate(
                 TAG + methodName,
-                "isMultiResourceCapable? [" + isMultiResourceCapable + "]"
+                "isMultiResourceCapable? [{}]",
+                isMultiResourceCapable
         );
 
         if (isFamilyRefreshToken || isMultiResourceCapable) {
@@ -573,9 +595,10 @@ public class MsalOAuth2TokenCache
                     clientId
             );
 
-            Logger.info(
+            Logger.infoTemplate(
                     TAG + methodName,
-                    "Refresh tokens removed: [" + refreshTokensRemoved + "]"
+                    "Refresh tokens removed: [{}]",
+                    refreshTokensRemoved
             );
 
             if (refreshTokensRemoved > 1) {
@@ -664,8 +687,11 @@ public class MsalOAuth2TokenCache
             );
         } else {
             // Save the inputs
-            saveAccounts(accountToSave);
-            saveCredentialsInternal(idTokenToSave);
+            saveInternal(
+                    Collections.singletonList(accountToSave),
+                    Collections.<Credential>emptyList(),
+                    idTokenToSave
+            );
 
             // Set them as the result outputs
             result.account(accountToSave);
@@ -949,20 +975,22 @@ public class MsalOAuth2TokenCache
                 "Removing credential..."
         );
 
-        Logger.verbosePII(
-                TAG + methodName,
-                "ClientId: [" + credential.getClientId() + "]"
-                        + "\n"
-                        + "CredentialType: [" + credential.getCredentialType() + "]"
-                        + "\n"
-                        + "CachedAt: [" + credential.getCachedAt() + "]"
-                        + "\n"
-                        + "Environment: [" + credential.getEnvironment() + "]"
-                        + "\n"
-                        + "HomeAccountId: [" + credential.getHomeAccountId() + "]"
-                        + "\n"
-                        + "IsExpired?: [" + credential.isExpired() + "]"
-        );
+        if (Logger.isLoggable(Logger.LogLevel.VERBOSE, true)) {
+            Logger.verbosePII(
+                    TAG + methodName,
+                    "ClientId: [" + credential.getClientId() + "]"
+                            + "\n"
+                            + "CredentialType: [" + credential.getCredentialType() + "]"
+                            + "\n"
+                            + "CachedAt: [" + credential.getCachedAt() + "]"
+                            + "\n"
+                            + "Environment: [" + credential.getEnvironment() + "]"
+                            + "\n"
+                            + "HomeAccountId: [" + credential.getHomeAccountId() + "]"
+                            + "\n"
+                            + "IsExpired?: [" + credential.isExpired() + "]"
+            );
+        }
 
         return mAccountCredentialCache.removeCredential(credential);
     }
@@ -975,22 +1003,25 @@ public class MsalOAuth2TokenCache
                                     @Nullable final String realm) {
         final String methodName = ":getAccount";
 
-        Logger.verbosePII(
-                TAG + methodName,
-                "Environment: [" + environment + "]"
-                        + "\n"
-                        + "ClientId: [" + clientId + "]"
-                        + "\n"
-                        + "HomeAccountId: [" + homeAccountId + "]"
-                        + "\n"
-                        + "Realm: [" + realm + "]"
-        );
+        if (Logger.isLoggable(Logger.LogLevel.VERBOSE, true)) {
+            Logger.verbosePII(
+                    TAG + methodName,
+                    "Environment: [" + environment + "]"
+                            + "\n"
+                            + "ClientId: [" + clientId + "]"
+                            + "\n"
+                            + "HomeAccountId: [" + homeAccountId + "]"
+                            + "\n"
+                            + "Realm: [" + realm + "]"
+            );
+        }
 
         final List<AccountRecord> allAccounts = getAccounts(environment, clientId);
 
-        Logger.info(
+        Logger.infoTemplate(
                 TAG + methodName,
-                "Found " + allAccounts.size() + " accounts"
+                "Found {} accounts",
+                allAccounts.size()
         );
 
         // Return the sought Account matching the supplied homeAccountId and realm, if applicable
@@ -1050,9 +1081,10 @@ public class MsalOAuth2TokenCache
 
         final List<AccountRecord> accounts = getAccounts(environment, clientId);
 
-        Logger.verbosePII(
+        Logger.verbosePIITemplate(
                 TAG + methodName,
-                "LocalAccountId: [" + localAccountId + "]"
+                "LocalAccountId: [{}]",
+                localAccountId
         );
 
         for (final AccountRecord account : accounts) {
@@ -1086,11 +1118,10 @@ public class MsalOAuth2TokenCache
             }
         }
 
-        Logger.verbose(
+        Logger.verboseTemplate(
                 TAG + methodName,
-                "Found "
-                        + accounts.size()
-                        + " accounts matching username."
+                "Found {} accounts matching username.",
+                accounts.size()
         );
 
         return result;
@@ -1162,11 +1193,11 @@ public class MsalOAuth2TokenCache
                                            @NonNull final String clientId) {
         final String methodName = ":getAccounts";
 
-        Logger.verbosePII(
+        Logger.verbosePIITemplate(
                 TAG + methodName,
-                "Environment: [" + environment + "]"
-                        + "\n"
-                        + "ClientId: [" + clientId + "]"
+                "Environment: [{}]\nClientId: [{}]",
+                environment,
+                clientId
         );
 
         final List<AccountRecord> accountsForThisApp = new ArrayList<>();
@@ -1179,9 +1210,10 @@ public class MsalOAuth2TokenCache
                         null // wildcard (*) realm
                 );
 
-        Logger.verbose(
+        Logger.verboseTemplate(
                 TAG + methodName,
-                "Found " + accountsForEnvironment.size() + " accounts for this environment"
+                "Found {} accounts for this environment",
+                accountsForEnvironment.size()
         );
 
         final Set<CredentialType> credentialTypes = new HashSet<>(
@@ -1206,9 +1238,10 @@ public class MsalOAuth2TokenCache
             }
         }
 
-        Logger.verbose(
+        Logger.verboseTemplate(
                 TAG + methodName,
-                "Found " + accountsForThisApp.size() + " accounts for this clientId"
+                "Found {} accounts for this clientId",
+                accountsForThisApp.size()
         );
 
         return Collections.unmodifiableList(accountsForThisApp);
@@ -1280,9 +1313,10 @@ public class MsalOAuth2TokenCache
 
         }
 
-        Logger.verbose(
+        Logger.verboseTemplate(
                 TAG + methodName,
-                "Found " + result.size() + " accounts with IdTokens"
+                "Found {} accounts with IdTokens",
+                result.size()
         );
 
         return Collections.unmodifiableList(result);
@@ -1312,11 +1346,11 @@ public class MsalOAuth2TokenCache
         final String accountHomeId = account.getHomeAccountId();
         final String accountEnvironment = account.getEnvironment();
 
-        Logger.verbosePII(
+        Logger.verbosePIITemplate(
                 TAG + methodName,
-                "HomeAccountId: [" + accountHomeId + "]"
-                        + "\n"
-                        + "Environment: [" + accountEnvironment + "]"
+                "HomeAccountId: [{}]\nEnvironment: [{}]",
+                accountHomeId,
+                accountEnvironment
         );
 
         for (final Credential credential : appCredentials) {
@@ -1392,18 +1426,20 @@ public class MsalOAuth2TokenCache
                                                @Nullable final CredentialType... typesToRemove) {
         final String methodName = ":removeAccount";
 
-        Logger.verbosePII(
-                TAG + methodName,
-                "Environment: [" + environment + "]"
-                        + "\n"
-                        + "ClientId: [" + clientId + "]"
-                        + "\n"
-                        + "HomeAccountId: [" + homeAccountId + "]"
-                        + "\n"
-                        + "Realm: [" + realm + "]"
-                        + "\n"
-                        + "CredentialTypes to delete: [" + Arrays.toString(typesToRemove) + "]"
-        );
+        if (Logger.isLoggable(Logger.LogLevel.VERBOSE, true)) {
+            Logger.verbosePII(
+                    TAG + methodName,
+                    "Environment: [" + environment + "]"
+                            + "\n"
+                            + "ClientId: [" + clientId + "]"
+                            + "\n"
+                            + "HomeAccountId: [" + homeAccountId + "]"
+                            + "\n"
+                            + "Realm: [" + realm + "]"
+                            + "\n"
+                            + "CredentialTypes to delete: [" + Arrays.toString(typesToRemove) + "]"
+            );
+        }
 
         final AccountRecord targetAccount;
         if (null == clientId
@@ -1427,9 +1463,10 @@ public class MsalOAuth2TokenCache
         // If no realm is provided, remove the Account/Credentials from all realms.
         final boolean isRealmAgnostic = (null == realm);
 
-        Logger.verbose(
+        Logger.verboseTemplate(
                 TAG + methodName,
-                "IsRealmAgnostic? " + isRealmAgnostic
+                "IsRealmAgnostic? {}",
+                isRealmAgnostic
         );
 
         if (null != typesToRemove && typesToRemove.length > 0) {
@@ -1443,12 +1480,11 @@ public class MsalOAuth2TokenCache
                         isRealmAgnostic
                 );
 
-                Logger.info(
+                Logger.infoTemplate(
                         TAG + methodName,
-                        "Removed "
-                                + deletedCredentialsOfTypeCount
-                                + " credentials of type: "
-                                + type
+                        "Removed {} credentials of type: {}",
+                        deletedCredentialsOfTypeCount,
+                        type
                 );
             }
         } else {
@@ -1505,11 +1541,10 @@ public class MsalOAuth2TokenCache
             result.add(credential.getClientId());
         }
 
-        Logger.verbose(
+        Logger.verboseTemplate(
                 TAG + methodName,
-                "Found ["
-                        + result.size()
-                        + "] clientIds/"
+                "Found [{}] clientIds/",
+                result.size()
         );
 
         return result;
@@ -1524,9 +1559,10 @@ public class MsalOAuth2TokenCache
 
         final List<AccountRecord> accounts = getAccounts(environment, clientId);
 
-        Logger.verbosePII(
+        Logger.verbosePIITemplate(
                 TAG + methodName,
-                "homeAccountId: [" + homeAccountId + "]"
+                "homeAccountId: [{}]",
+                homeAccountId
         );
 
         for (final AccountRecord account : accounts) {
@@ -1579,24 +1615,48 @@ public class MsalOAuth2TokenCache
         return credentialsRemoved;
     }
 
-    private void saveAccounts(final AccountRecord... accounts) {
-        for (final AccountRecord account : accounts) {
-            mAccountCredentialCache.saveAccount(account);
-        }
+    void saveCredentialsInternal(final Credential... credentials) {
+        saveInternal(
+                Collections.<AccountRecord>emptyList(),
+                Collections.<Credential>emptyList(),
+                credentials
+        );
     }
 
-    void saveCredentialsInternal(final Credential... credentials) {
+    /**
+     * Saves the supplied Accounts and Credentials, replacing any access tokens with intersecting
+     * scopes, and removes the supplied Credentials - all as a single commit to the cache.
+     *
+     * @param accountsToSave      The Accounts to save.
+     * @param credentialsToRemove The Credentials to remove.
+     * @param credentials         The Credentials to save. Null entries are skipped.
+     */
+    private void saveInternal(@NonNull final List<AccountRecord> accountsToSave,
+                              @NonNull final List<Credential> credentialsToRemove,
+                              final Credential... credentials) {
+        final List<Credential> allCredentialsToRemove = new ArrayList<>(credentialsToRemove);
+        final List<Credential> credentialsToSave = new ArrayList<>();
+
         for (final Credential credential : credentials) {
             if (credential == null) {
                 continue;
             }
 
             if (credential instanceof AccessTokenRecord) {
-                deleteAccessTokensWithIntersectingScopes((AccessTokenRecord) credential);
+                final AccessTokenRecord accessToken = (AccessTokenRecord) credential;
+                allCredentialsToRemove.addAll(
+                        getAccessTokensWithIntersectingScopes(accessToken, mAccountCredentialCache.getCredentials())
+                );
+                // ...including any saved earlier in this same commit.
+                credentialsToSave.removeAll(
+                        getAccessTokensWithIntersectingScopes(accessToken, credentialsToSave)
+                );
             }
 
-            mAccountCredentialCache.saveCredential(credential);
+            credentialsToSave.add(credential);
         }
+
+        mAccountCredentialCache.removeAndSave(allCredentialsToRemove, accountsToSave, credentialsToSave);
     }
 
 
@@ -1657,9 +1717,11 @@ public class MsalOAuth2TokenCache
         }
     }
 
-    private void deleteAccessTokensWithIntersectingScopes(
-            final AccessTokenRecord referenceToken) {
-        final String methodName = "deleteAccessTokensWithIntersectingScopes";
+    private List<Credential> getAccessTokensWithIntersectingScopes(
+            final AccessTokenRecord referenceToken,
+            final List<Credential> inputCredentials) {
+        final String methodName = "getAccessTokensWithIntersectingScopes";
+        final List<Credential> intersectingAccessTokens = new ArrayList<>();
 
         final List<Credential> accessTokens = mAccountCredentialCache.getCredentialsFilteredBy(
                 referenceToken.getHomeAccountId(),
@@ -1670,23 +1732,27 @@ public class MsalOAuth2TokenCache
                 null, // Wildcard (*)
                 referenceToken.getAccessTokenType(),
                 referenceToken.getRequestedClaims(),
-                mAccountCredentialCache.getCredentials()
+                inputCredentials
         );
 
-        Logger.verbose(
+        Logger.verboseTemplate(
                 TAG + ":" + methodName,
-                "Inspecting " + accessTokens.size() + " accessToken[s]."
+                "Inspecting {} accessToken[s].",
+                accessTokens.size()
         );
 
         for (final Credential accessToken : accessTokens) {
             if (scopesIntersect(referenceToken, (AccessTokenRecord) accessToken, true)) {
-                Logger.infoPII(
+                Logger.infoPIITemplate(
                         TAG + ":" + methodName,
-                        "Removing credential: " + accessToken
+                        "Removing credential: {}",
+                        accessToken
                 );
-                mAccountCredentialCache.removeCredential(accessToken);
+                intersectingAccessTokens.add(accessToken);
             }
         }
+
+        return intersectingAccessTokens;
     }
 
     private boolean scopesIntersect(final AccessTokenRecord token1,
@@ -1707,9 +1773,11 @@ public class MsalOAuth2TokenCache
         for (final String scope : token2Scopes) {
             if (token1Scopes.contains(scope)) {
                 Logger.info(TAG + ":" + methodName, "Scopes intersect.");
-                Logger.infoPII(
+                Logger.infoPIITemplate(
                         TAG + ":" + methodName,
-                        token1Scopes.toString() + " contains [" + scope + "]"
+                        "{} contains [{}]",
+                        token1Scopes,
+                        scope
                 );
                 result = true;
                 break;
@@ -1846,11 +1914,13 @@ public class MsalOAuth2TokenCache
                 idToken
         );
 
-        saveAccounts(accountDto);
         synchronized (sCacheLock) {
-            saveCredentialsInternal(idToken, rt);
-
-            removeAllRefreshTokensExcept(accountDto, rt);
+            saveInternal(
+                    Collections.singletonList(accountDto),
+                    getRefreshTokensToRemove(accountDto, rt),
+                    idToken,
+                    rt
+            );
         }
     }
 
@@ -40,7 +40,7 @@ import lombok.NonNull;
 
 @SuppressFBWarnings(value = SpotbugsWarning.RCN_REDUNDANT_NULLCHECK_WOULD_HAVE_BEEN_A_NPE, justification = "Lombok inserts more null checks than we need")
 public class NameValueStorageBrokerApplicationMetadataCache
-        extends NameValueStorageFileManagerSimpleCacheImpl<BrokerApplicationMetadata>
+        extends NameValueStoragePerEntrySimpleCacheImpl<BrokerApplicationMetadata>
         implements IBrokerApplicationMetadataCache {
 
     private static final String TAG = NameValueStorageBrokerApplicationMetadataCache.class.getSimpleName();
@@ -49,6 +49,8 @@ public class NameValueStorageBrokerApplicationMetadataCache
 
     private static final String KEY_CACHE_LIST = "app-meta-cache";
 
+    private static final String ENTRY_KEY_DELIMITER = "|";
+
     public NameValueStorageBrokerApplicationMetadataCache(@NonNull final IPlatformComponents context) {
         super(context, DEFAULT_APP_METADATA_CACHE_NAME, KEY_CACHE_LIST, true);
     }
@@ -140,24 +142,14 @@ public class NameValueStorageBrokerApplicationMetadataCache
                                                  final int processUid) {
         final String methodName = ":getMetadata";
 
-        final List<BrokerApplicationMetadata> allMetadata = getAll();
-        BrokerApplicationMetadata result = null;
-
-        for (final BrokerApplicationMetadata metadata : allMetadata) {
-            if (clientId.equals(metadata.getClientId())
-                    && environment.equals(metadata.getEnvironment())
-                    && processUid == metadata.getUid()) {
-                Logger.verbose(
-                        TAG + metadata,
-                        "Metadata located."
-                );
+        final BrokerApplicationMetadata result = getEntry(getEntryKey(clientId, environment, processUid));
 
-                result = metadata;
-                break;
-            }
-        }
-
-        if (null == result) {
+        if (null != result) {
+            Logger.verbose(
+                    TAG + methodName,
+                    "Metadata located."
+            );
+        } else {
             Logger.warn(
                     TAG + methodName,
                     "Metadata could not be found for clientId, environment: ["
@@ -183,6 +175,20 @@ public class NameValueStorageBrokerApplicationMetadataCache
         }
     }
 
+    @Override
+    protected String getEntryKey(@NonNull final BrokerApplicationMetadata metadata) {
+        return getEntryKey(metadata.getClientId(), metadata.getEnvironment(), metadata.getUid());
+    }
+
+    /**
+     * Keys metadata by the fields compared by {@link AbstractApplicationMetadata#equals(Object)}.
+     */
+    private static String getEntryKey(@Nullable final String clientId,
+                                      @Nullable final String environment,
+                                      final int processUid) {
+        return processUid + ENTRY_KEY_DELIMITER + environment + ENTRY_KEY_DELIMITER + clientId;
+    }
+
     @Override
     public Type getListTypeToken() {
         return TypeToken.getParameterized(List.class, BrokerApplicationMetadata.class).getType();
@@ -96,6 +96,34 @@ public abstract class NameValueStorageFileManagerSimpleCacheImpl<T> implements I
         mForceReinsertionOfDuplicates = forceReinsertionOfDuplicates;
     }
 
+    /**
+     * @return The underlying storage.
+     */
+    protected INameValueStorage<String> getStorage() {
+        return mStorage;
+    }
+
+    /**
+     * @return The name of the key under which all entries are cached.
+     */
+    protected String getKeySingleEntry() {
+        return mKeySingleEntry;
+    }
+
+    /**
+     * @return True if calling insert() on a value that already exists replaces it.
+     */
+    protected boolean isForceReinsertionOfDuplicates() {
+        return mForceReinsertionOfDuplicates;
+    }
+
+    /**
+     * @return The Gson instance used to serialize entries.
+     */
+    protected Gson getGson() {
+        return mGson;
+    }
+
     private interface NamedRunnable<V> extends Callable<V> {
         String getName();
     }
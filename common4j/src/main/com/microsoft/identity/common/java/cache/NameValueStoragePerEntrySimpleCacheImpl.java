@@ -0,0 +1,245 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import lombok.NonNull;
+
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.storage.NameValueStorageBatch;
+import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ported.Predicate;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A {@link NameValueStorageFileManagerSimpleCacheImpl} which stores each entry under its own key,
+ * so that a write touches one entry and {@link #getEntry(String)} is a single lookup.
+ * <p>
+ * A collection stored as one array under the single key is copied to that layout on first access.
+ * The array itself is left in place, so that a downgraded app still finds its entries as of the
+ * migration, and a copy of it is kept under a marker key. Whenever the array no longer matches that
+ * copy, an older build has written it since; the entries it added, changed or removed are then
+ * applied to the per-entry layout. Changes made by this class are not written back to the array.
+ *
+ * @param <T> The type of metadata that will be persisted.
+ */
+public abstract class NameValueStoragePerEntrySimpleCacheImpl<T> extends NameValueStorageFileManagerSimpleCacheImpl<T> {
+
+    private static final String TAG = NameValueStoragePerEntrySimpleCacheImpl.class.getSimpleName();
+    private static final String ENTRY_KEY_SEPARATOR = "-entry-";
+    private static final String MIGRATED_KEY_SUFFIX = "-migrated";
+
+    private final String mKeyMigrated;
+    private final String mEntryKeyPrefix;
+    private final Object mMigrationLock = new Object();
+    private volatile boolean mIsMigrated;
+
+    /**
+     * Constructs a new NameValueStoragePerEntrySimpleCacheImpl.
+     *
+     * @param components                   The current app's {@link IPlatformComponents}.
+     * @param name                         The name of the underlying storage file.
+     * @param singleKey                    The name of the key under which all entries used to be
+     *                                     cached, and the prefix of the per-entry keys.
+     * @param forceReinsertionOfDuplicates If true, calling insert() on a value that already exists
+     *                                     replaces the existing value with the newly-provided one.
+     */
+    public NameValueStoragePerEntrySimpleCacheImpl(@NonNull final IPlatformComponents components,
+                                                   @NonNull final String name,
+                                                   @NonNull final String singleKey,
+                                                   final boolean forceReinsertionOfDuplicates) {
+        super(components, name, singleKey, forceReinsertionOfDuplicates);
+        mKeyMigrated = singleKey + MIGRATED_KEY_SUFFIX;
+        mEntryKeyPrefix = singleKey + ENTRY_KEY_SEPARATOR;
+    }
+
+    /**
+     * Returns the key under which an entry is stored. Two entries must have the same key if and
+     * only if they are equal.
+     *
+     * @param t The entry.
+     * @return Its key, unique within this cache.
+     */
+    @NonNull
+    protected abstract String getEntryKey(@NonNull final T t);
+
+    @Override
+    public boolean insert(final T t) {
+        migrateIfNeeded();
+        final INameValueStorage<String> storage = getStorage();
+        final String storageKey = mEntryKeyPrefix + getEntryKey(t);
+
+        if (isForceReinsertionOfDuplicates() || null == storage.get(storageKey)) {
+            storage.put(storageKey, getGson().toJson(t));
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean remove(final T t) {
+        migrateIfNeeded();
+        getStorage().remove(mEntryKeyPrefix + getEntryKey(t));
+        return true;
+    }
+
+    @Override
+    public List<T> getAll() {
+        migrateIfNeeded();
+        return readAllEntries();
+    }
+
+    @Override
+    public boolean clear() {
+        final boolean result = super.clear();
+        mIsMigrated = false;
+        return result;
+    }
+
+    /**
+     * Reads the entry stored under the supplied key.
+     *
+     * @param entryKey The key of the entry, as returned by {@link #getEntryKey(Object)}.
+     * @return The entry, or null if there is none.
+     */
+    @Nullable
+    protected T getEntry(@NonNull final String entryKey) {
+        migrateIfNeeded();
+        return fromJson(getStorage().get(mEntryKeyPrefix + entryKey));
+    }
+
+    /**
+     * Applies the array stored under the single key to the per-entry layout, if it changed since it
+     * was last applied. The first time, every entry is copied; afterwards, only the entries an older
+     * build added, changed or removed, so that entries removed by this class are not brought back.
+     */
+    private void migrateIfNeeded() {
+        if (mIsMigrated) {
+            return;
+        }
+
+        synchronized (mMigrationLock) {
+            if (mIsMigrated) {
+                return;
+            }
+
+            final INameValueStorage<String> storage = getStorage();
+            final String jsonList = storage.get(getKeySingleEntry());
+
+            if (!StringUtil.isNullOrEmpty(jsonList)) {
+                final String migratedJsonList = storage.get(mKeyMigrated);
+
+                if (!jsonList.equals(migratedJsonList)) {
+                    final Map<String, String> entries = toJsonByStorageKey(jsonList);
+                    final Map<String, String> migratedEntries = toJsonByStorageKey(migratedJsonList);
+                    final NameValueStorageBatch<String> batch = new NameValueStorageBatch<>();
+
+                    for (final Map.Entry<String, String> entry : entries.entrySet()) {
+                        if (!entry.getValue().equals(migratedEntries.get(entry.getKey()))) {
+                            batch.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+
+                    for (final String storageKey : migratedEntries.keySet()) {
+                        if (!entries.containsKey(storageKey)) {
+                            batch.remove(storageKey);
+                        }
+                    }
+
+                    final int putCount = batch.getPuts().size();
+                    final int removeCount = batch.getRemoves().size();
+                    batch.put(mKeyMigrated, jsonList);
+                    storage.commit(batch);
+
+                    Logger.info(TAG + ":migrateIfNeeded",
+                            "Applied [" + putCount + "] entries and [" + removeCount
+                                    + "] removals from the single-key array to per-entry storage.");
+                }
+            }
+
+            mIsMigrated = true;
+        }
+    }
+
+    /**
+     * Parses an array of entries, keyed by the storage key each entry is stored under.
+     */
+    @NonNull
+    private Map<String, String> toJsonByStorageKey(@Nullable final String jsonList) {
+        final Map<String, String> result = new HashMap<>();
+
+        if (StringUtil.isNullOrEmpty(jsonList)) {
+            return result;
+        }
+
+        final List<T> entries = getGson().fromJson(jsonList, getListTypeToken());
+
+        if (null != entries) {
+            for (final T entry : entries) {
+                if (null != entry) {
+                    result.put(mEntryKeyPrefix + getEntryKey(entry), getGson().toJson(entry));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private List<T> readAllEntries() {
+        final List<T> result = new ArrayList<>();
+        final Iterator<Map.Entry<String, String>> iterator = getStorage().getAllFilteredByKey(new Predicate<String>() {
+            @Override
+            public boolean test(final String value) {
+                return value.startsWith(mEntryKeyPrefix);
+            }
+        });
+
+        while (iterator.hasNext()) {
+            final T entry = fromJson(iterator.next().getValue());
+            if (null != entry) {
+                result.add(entry);
+            }
+        }
+
+        return result;
+    }
+
+    @Nullable
+    private T fromJson(@Nullable final String json) {
+        return StringUtil.isNullOrEmpty(json) ? null : getGson().<T>fromJson(json, getEntryType());
+    }
+
+    private Type getEntryType() {
+        return ((ParameterizedType) getListTypeToken()).getActualTypeArguments()[0];
+    }
+}
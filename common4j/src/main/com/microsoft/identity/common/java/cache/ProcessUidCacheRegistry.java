@@ -0,0 +1,165 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.WarningType;
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.logging.Logger;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+
+/**
+ * Process-wide registry of the app-specific caches used by {@link BrokerOAuth2TokenCache}, keyed
+ * by app uid, so that repeated broker calls reuse a cache instead of building a new one.
+ * <p>
+ * A registered cache is reused only while the storage supplied for its uid is equal to the one it
+ * was built on; storages without a notion of equality other than identity therefore only share a
+ * cache when the same instance is supplied. Caches which have not been used for a while are
+ * dropped.
+ */
+// Suppressing rawtype warnings due to the generic type MsalOAuth2TokenCache
+@SuppressWarnings(WarningType.rawtype_warning)
+final class ProcessUidCacheRegistry {
+
+    private static final String TAG = ProcessUidCacheRegistry.class.getSimpleName();
+
+    static final long DEFAULT_IDLE_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    static final long DEFAULT_SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Builds the cache for a uid on top of its storage.
+     */
+    interface CacheFactory {
+        MsalOAuth2TokenCache create(@NonNull INameValueStorage<String> storage);
+    }
+
+    private static final class Entry {
+        final INameValueStorage<String> mStorage;
+        final MsalOAuth2TokenCache mCache;
+        volatile long mLastAccessNanos;
+
+        Entry(@NonNull final INameValueStorage<String> storage,
+              @NonNull final MsalOAuth2TokenCache cache,
+              final long nowNanos) {
+            mStorage = storage;
+            mCache = cache;
+            mLastAccessNanos = nowNanos;
+        }
+    }
+
+    private final ConcurrentMap<Integer, Entry> mEntries = new ConcurrentHashMap<>();
+    private final long mIdleTimeoutNanos;
+    private final long mSweepIntervalNanos;
+    private final AtomicLong mLastSweepNanos = new AtomicLong(System.nanoTime());
+
+    ProcessUidCacheRegistry() {
+        this(DEFAULT_IDLE_TIMEOUT_NANOS, DEFAULT_SWEEP_INTERVAL_NANOS);
+    }
+
+    ProcessUidCacheRegistry(final long idleTimeoutNanos, final long sweepIntervalNanos) {
+        mIdleTimeoutNanos = idleTimeoutNanos;
+        mSweepIntervalNanos = sweepIntervalNanos;
+    }
+
+    /**
+     * Returns the cache registered for the supplied uid, building and registering one if there is
+     * none or if it was built on a different storage.
+     *
+     * @param uid     The app uid.
+     * @param storage The storage of the app uid.
+     * @param factory Builds the cache, if needed.
+     * @return The cache to use for the uid.
+     */
+    @NonNull
+    MsalOAuth2TokenCache get(final int uid,
+                             @NonNull final INameValueStorage<String> storage,
+                             @NonNull final CacheFactory factory) {
+        final long nowNanos = System.nanoTime();
+        sweepIfDue(nowNanos);
+
+        final Entry entry = mEntries.get(uid);
+
+        if (null != entry && entry.mStorage.equals(storage)) {
+            entry.mLastAccessNanos = nowNanos;
+            return entry.mCache;
+        }
+
+        final Entry created = new Entry(storage, factory.create(storage), nowNanos);
+
+        if (null == entry ? null == mEntries.putIfAbsent(uid, created) : mEntries.replace(uid, entry, created)) {
+            return created.mCache;
+        }
+
+        // Another thread registered a cache meanwhile; prefer it if it is usable.
+        final Entry winner = mEntries.get(uid);
+        return null != winner && winner.mStorage.equals(storage) ? winner.mCache : created.mCache;
+    }
+
+    /**
+     * @return The number of registered caches.
+     */
+    int size() {
+        return mEntries.size();
+    }
+
+    /**
+     * Drops every registered cache.
+     */
+    void clear() {
+        mEntries.clear();
+    }
+
+    private void sweepIfDue(final long nowNanos) {
+        final long lastSweepNanos = mLastSweepNanos.get();
+
+        if (nowNanos - lastSweepNanos < mSweepIntervalNanos
+                || !mLastSweepNanos.compareAndSet(lastSweepNanos, nowNanos)) {
+            return;
+        }
+
+        int evicted = 0;
+        final Iterator<Map.Entry<Integer, Entry>> iterator = mEntries.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            final Map.Entry<Integer, Entry> mapEntry = iterator.next();
+            final Entry entry = mapEntry.getValue();
+
+            if (nowNanos - entry.mLastAccessNanos > mIdleTimeoutNanos
+                    && mEntries.remove(mapEntry.getKey(), entry)) {
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            Logger.verbose(TAG + ":sweepIfDue", "Evicted [" + evicted + "] idle uid caches.");
+        }
+    }
+}
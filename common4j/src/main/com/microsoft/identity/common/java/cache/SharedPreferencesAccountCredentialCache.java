@@ -30,15 +30,14 @@ import com.microsoft.identity.common.java.dto.IdTokenRecord;
 import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
 import com.microsoft.identity.common.java.interfaces.INameValueStorage;
 import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.storage.NameValueStorageBatch;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -105,36 +104,85 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
     @Override
     public synchronized void saveAccount(@NonNull final AccountRecord accountToSave) {
         Logger.verbose(TAG, "Saving Account...");
-        Logger.verbose(TAG, "Account type: [" + accountToSave.getClass().getSimpleName() + "]");
+        Logger.verboseTemplate(TAG, "Account type: [{}]", accountToSave.getClass().getSimpleName());
         final String cacheKey = mCacheValueDelegate.generateCacheKey(accountToSave);
-        Logger.verbosePII(TAG, "Generated cache key: [" + cacheKey + "]");
+        Logger.verbosePIITemplate(TAG, "Generated cache key: [{}]", cacheKey);
+        mSharedPreferencesFileManager.put(cacheKey, generateMergedCacheValue(cacheKey, accountToSave));
+    }
+
+    @Override
+    public synchronized void saveCredential(@NonNull Credential credentialToSave) {
+        Logger.verbose(TAG, "Saving credential...");
+        final String cacheKey = mCacheValueDelegate.generateCacheKey(credentialToSave);
+        Logger.verbosePIITemplate(TAG, "Generated cache key: [{}]", cacheKey);
+        mSharedPreferencesFileManager.put(cacheKey, generateMergedCacheValue(cacheKey, credentialToSave));
+    }
+
+    @Override
+    public synchronized void removeAndSave(@NonNull final List<Credential> credentialsToRemove,
+                                           @NonNull final List<AccountRecord> accountsToSave,
+                                           @NonNull final List<Credential> credentialsToSave) {
+        final String methodTag = TAG + ":removeAndSave";
+        final NameValueStorageBatch<String> batch = new NameValueStorageBatch<>();
+
+        // Saves are staged first, merged with the records they replace: these are still in storage
+        // until the batch is committed.
+        for (final AccountRecord accountToSave : accountsToSave) {
+            final String cacheKey = mCacheValueDelegate.generateCacheKey(accountToSave);
+            batch.put(cacheKey, generateMergedCacheValue(cacheKey, accountToSave));
+        }
+
+        for (final Credential credentialToSave : credentialsToSave) {
+            final String cacheKey = mCacheValueDelegate.generateCacheKey(credentialToSave);
+            batch.put(cacheKey, generateMergedCacheValue(cacheKey, credentialToSave));
+        }
+
+        for (final Credential credentialToRemove : credentialsToRemove) {
+            final String cacheKey = mCacheValueDelegate.generateCacheKey(credentialToRemove);
+
+            // A record being saved replaces (rather than removes) the record under its key.
+            if (!batch.getPuts().containsKey(cacheKey)) {
+                batch.remove(cacheKey);
+            }
+        }
 
-        // Perform any necessary field merging on the Account to save...
+        Logger.verboseTemplate(
+                methodTag,
+                "Committing [{}] saves and [{}] removals.",
+                batch.getPuts().size(),
+                batch.getRemoves().size()
+        );
+        mSharedPreferencesFileManager.commit(batch);
+    }
+
+    /**
+     * Merges the additional fields of any Account already saved under the supplied key into the
+     * Account to save, and returns its cache value.
+     */
+    private String generateMergedCacheValue(@NonNull final String cacheKey,
+                                            @NonNull final AccountRecord accountToSave) {
         final AccountRecord existingAccount = getAccount(cacheKey);
 
         if (null != existingAccount) {
             accountToSave.mergeAdditionalFields(existingAccount);
         }
 
-        final String cacheValue = mCacheValueDelegate.generateCacheValue(accountToSave);
-        mSharedPreferencesFileManager.put(cacheKey, cacheValue);
+        return mCacheValueDelegate.generateCacheValue(accountToSave);
     }
 
-    @Override
-    public synchronized void saveCredential(@NonNull Credential credentialToSave) {
-        Logger.verbose(TAG, "Saving credential...");
-        final String cacheKey = mCacheValueDelegate.generateCacheKey(credentialToSave);
-        Logger.verbosePII(TAG, "Generated cache key: [" + cacheKey + "]");
-
-        // Perform any necessary field merging on the Credential to save...
+    /**
+     * Merges the additional fields of any Credential already saved under the supplied key into
+     * the Credential to save, and returns its cache value.
+     */
+    private String generateMergedCacheValue(@NonNull final String cacheKey,
+                                            @NonNull final Credential credentialToSave) {
         final Credential existingCredential = getCredential(cacheKey);
 
         if (null != existingCredential) {
             credentialToSave.mergeAdditionalFields(existingCredential);
         }
 
-        final String cacheValue = mCacheValueDelegate.generateCacheValue(credentialToSave);
-        mSharedPreferencesFileManager.put(cacheKey, cacheValue);
+        return mCacheValueDelegate.generateCacheValue(credentialToSave);
     }
 
     @Override
@@ -166,7 +214,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
     public synchronized Credential getCredential(@NonNull final String cacheKey) {
         // TODO add support for more Credential types...
         Logger.verbose(TAG, "getCredential()");
-        Logger.verbosePII(TAG, "Using cache key: [" + cacheKey + "]");
+        Logger.verbosePIITemplate(TAG, "Using cache key: [{}]", cacheKey);
 
         final CredentialType type = getCredentialTypeForCredentialCacheKey(cacheKey);
         Class<? extends Credential> clazz = null;
@@ -231,7 +279,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
             }
         }
 
-        Logger.verbose(TAG, "Returning [" + accounts.size() + "] Accounts w/ keys...");
+        Logger.verboseTemplate(TAG, "Returning [{}] Accounts w/ keys...", accounts.size());
 
         return accounts;
     }
@@ -243,7 +291,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
         Logger.verbose(methodTag, "Loading Accounts...(no arg)");
         final Map<String, AccountRecord> allAccounts = getAccountsWithKeys();
         final List<AccountRecord> accounts = new ArrayList<>(allAccounts.values());
-        Logger.info(methodTag, "Found [" + accounts.size() + "] Accounts...");
+        Logger.infoTemplate(methodTag, "Found [{}] Accounts...", accounts.size());
         return accounts;
     }
 
@@ -265,7 +313,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
                 allAccounts
         );
 
-        Logger.verbose(methodTag, "Found [" + matchingAccounts.size() + "] matching Accounts...");
+        Logger.verboseTemplate(methodTag, "Found [{}] matching Accounts...", matchingAccounts.size());
 
         return matchingAccounts;
     }
@@ -287,7 +335,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
             final String cacheKey = cacheValue.getKey();
             final Credential credential = mCacheValueDelegate.fromCacheValue(
                     cacheValue.getValue().toString(),
-                    credentialClassForType(cacheKey)
+                    getTargetClassForCredentialType(cacheKey, CacheKey.parse(cacheKey).getCredentialType())
             );
 
             if (null == credential) {
@@ -297,7 +345,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
             }
         }
 
-        Logger.verbose(methodTag, "Loaded [" + credentials.size() + "] Credentials...");
+        Logger.verboseTemplate(methodTag, "Loaded [{}] Credentials...", credentials.size());
 
         return credentials;
     }
@@ -340,7 +388,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
                 null
         );
 
-        Logger.verbose(methodTag, "Found [" + matchingCredentials.size() + "] matching Credentials...");
+        Logger.verboseTemplate(methodTag, "Found [{}] matching Credentials...", matchingCredentials.size());
 
         return matchingCredentials;
     }
@@ -371,7 +419,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
                 null
         );
 
-        Logger.verbose(methodTag, "Found [" + matchingCredentials.size() + "] matching Credentials...");
+        Logger.verboseTemplate(methodTag, "Found [{}] matching Credentials...", matchingCredentials.size());
 
         return matchingCredentials;
     }
@@ -405,7 +453,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
                 null
         );
 
-        Logger.verbose(methodTag, "Found [" + matchingCredentials.size() + "] matching Credentials...");
+        Logger.verboseTemplate(methodTag, "Found [{}] matching Credentials...", matchingCredentials.size());
 
         return matchingCredentials;
     }
@@ -438,7 +486,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
                 null
         );
 
-        Logger.verbose(methodTag, "Found [" + matchingCredentials.size() + "] matching Credentials...");
+        Logger.verboseTemplate(methodTag, "Found [{}] matching Credentials...", matchingCredentials.size());
 
         return matchingCredentials;
     }
@@ -522,7 +570,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
             accountRemoved = true;
         }
 
-        Logger.info(methodTag, "Account was removed? [" + accountRemoved + "]");
+        Logger.infoTemplate(methodTag, "Account was removed? [{}]", accountRemoved);
 
         return accountRemoved;
     }
@@ -545,7 +593,7 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
             credentialRemoved = true;
         }
 
-        Logger.info(methodTag, "Credential was removed? [" + credentialRemoved + "]");
+        Logger.infoTemplate(methodTag, "Credential was removed? [{}]", credentialRemoved);
 
         return credentialRemoved;
     }
@@ -558,23 +606,6 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
         Logger.info(methodTag, "SharedPreferences cleared.");
     }
 
-    @Nullable
-    private Class<? extends Credential> credentialClassForType(@NonNull final String cacheKey) {
-        final String methodTag = TAG + ":credentialClassForType";
-        Logger.verbose(methodTag, "Resolving class for key/CredentialType...");
-        Logger.verbosePII(methodTag, "Supplied key: [" + cacheKey + "]");
-
-        final CredentialType targetType = getCredentialTypeForCredentialCacheKey(cacheKey);
-
-        if (targetType == null) {
-            return null;
-        }
-
-        Logger.verbose(methodTag, "CredentialType matched: [" + targetType + "]");
-
-        return getTargetClassForCredentialType(cacheKey, targetType);
-    }
-
     /**
      * Inspects the supplied cache key to determine the target CredentialType.
      *
@@ -588,63 +619,21 @@ public class SharedPreferencesAccountCredentialCache extends AbstractAccountCred
             throw new IllegalArgumentException("Param [cacheKey] cannot be null.");
         }
 
-        Logger.verbosePII(methodTag, "Evaluating cache key for CredentialType [" + cacheKey + "]");
-
-        final Set<String> credentialTypesLowerCase = new HashSet<>();
-
-        for (final String credentialTypeStr : CredentialType.valueSet()) {
-            credentialTypesLowerCase.add(credentialTypeStr.toLowerCase(Locale.US));
-        }
+        Logger.verbosePIITemplate(methodTag, "Evaluating cache key for CredentialType [{}]", cacheKey);
 
-        CredentialType type = null;
-        for (final String credentialTypeStr : credentialTypesLowerCase) {
-            if (cacheKey.contains(CacheKeyValueDelegate.CACHE_VALUE_SEPARATOR + credentialTypeStr + CacheKeyValueDelegate.CACHE_VALUE_SEPARATOR)) {
-                Logger.verbose(methodTag, "Cache key is a Credential type...");
-
-                if (CredentialType.AccessToken.name().equalsIgnoreCase(credentialTypeStr)) {
-                    type = CredentialType.AccessToken;
-                    break;
-                } else if (CredentialType.AccessToken_With_AuthScheme.name().equalsIgnoreCase(credentialTypeStr)) {
-                    type = CredentialType.AccessToken_With_AuthScheme;
-                    break;
-                } else if (CredentialType.RefreshToken.name().equalsIgnoreCase(credentialTypeStr)) {
-                    type = CredentialType.RefreshToken;
-                    break;
-                } else if (CredentialType.IdToken.name().equalsIgnoreCase(credentialTypeStr)) {
-                    type = CredentialType.IdToken;
-                    break;
-                } else if (CredentialType.V1IdToken.name().equalsIgnoreCase(credentialTypeStr)) {
-                    type = CredentialType.V1IdToken;
-                    break;
-                } else if (CredentialType.PrimaryRefreshToken.name().equalsIgnoreCase(credentialTypeStr)) {
-                    type = CredentialType.PrimaryRefreshToken;
-                    break;
-                } else {
-                    // TODO Log a warning and skip this value?
-                    Logger.warn(methodTag, "Unexpected credential type.");
-                }
-            }
-        }
+        final CredentialType type = CacheKey.parse(cacheKey).getCredentialType();
 
-        Logger.verbose(methodTag, "Cache key was type: [" + type + "]");
+        Logger.verboseTemplate(methodTag, "Cache key was type: [{}]", type);
 
         return type;
     }
 
     private static boolean isAccount(@NonNull final String cacheKey) {
-        final String methodTag = TAG + ":isAccount";
-        Logger.verbosePII(methodTag, "Evaluating cache key: [" + cacheKey + "]");
-        boolean isAccount = null == getCredentialTypeForCredentialCacheKey(cacheKey);
-        Logger.verbose(methodTag, "isAccount? [" + isAccount + "]");
-        return isAccount;
+        return CacheKey.parse(cacheKey).isAccount();
     }
 
     private static boolean isCredential(@NonNull String cacheKey) {
-        final String methodTag = TAG + ":isCredential";
-        Logger.verbosePII(methodTag, "Evaluating cache key: [" + cacheKey + "]");
-        boolean isCredential = null != getCredentialTypeForCredentialCacheKey(cacheKey);
-        Logger.verbose(methodTag, "isCredential? [" + isCredential + "]");
-        return isCredential;
+        return CacheKey.parse(cacheKey).isCredential();
     }
 
 }
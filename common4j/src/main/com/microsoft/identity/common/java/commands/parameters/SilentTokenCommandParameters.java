@@ -44,8 +44,6 @@ public class SilentTokenCommandParameters extends TokenCommandParameters {
 
     private static final String TAG = SilentTokenCommandParameters.class.getSimpleName();
 
-    private static final Object sLock = new Object();
-
     @Override
     public void validate() throws ArgumentException {
         super.validate();
@@ -109,8 +107,6 @@ public class SilentTokenCommandParameters extends TokenCommandParameters {
                 TAG + methodName,
                 "Performing cloud discovery..."
         );
-        synchronized (sLock) {
-            AzureActiveDirectory.performCloudDiscovery();
-        }
+        AzureActiveDirectory.performCloudDiscovery();
     }
 }
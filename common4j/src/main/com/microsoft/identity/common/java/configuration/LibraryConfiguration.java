@@ -78,4 +78,10 @@ public class LibraryConfiguration {
      */
     private boolean refreshInEnabled;
 
+    /**
+     * Sizing of the thread pool running silent requests. If not set, the defaults of
+     * {@link SilentRequestExecutorConfiguration} are used.
+     */
+    private SilentRequestExecutorConfiguration silentRequestExecutorConfiguration;
+
 }
@@ -0,0 +1,84 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.configuration;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Sizing of the thread pool which runs silent requests in
+ * {@link com.microsoft.identity.common.java.controllers.CommandDispatcher}.
+ * The defaults are a fixed pool of 5 threads with an unbounded queue.
+ * <p>
+ * As with {@link java.util.concurrent.ThreadPoolExecutor}, threads beyond the core pool size are
+ * only started once the queue is full, so a maximum pool size larger than the core pool size has no
+ * effect with an unbounded queue.
+ */
+@Getter
+@EqualsAndHashCode
+@Builder
+public class SilentRequestExecutorConfiguration {
+
+    /**
+     * What happens to a silent request submitted while the pool and its queue are both full.
+     */
+    public enum RejectionPolicy {
+        /**
+         * The request fails with a {@link java.util.concurrent.RejectedExecutionException}.
+         */
+        FAIL_REQUEST,
+
+        /**
+         * The request runs on the thread which submitted it.
+         */
+        RUN_ON_CALLER_THREAD
+    }
+
+    /**
+     * The number of threads kept in the pool, even when idle.
+     */
+    @Builder.Default
+    private int corePoolSize = 5;
+
+    /**
+     * The maximum number of threads in the pool.
+     */
+    @Builder.Default
+    private int maximumPoolSize = 5;
+
+    /**
+     * The number of requests which may wait for a thread. If this is < 0, the queue is unbounded.
+     */
+    @Builder.Default
+    private int queueCapacity = -1;
+
+    /**
+     * How long threads beyond the core pool size are kept alive when idle.
+     */
+    @Builder.Default
+    private long keepAliveTimeSeconds = 60;
+
+    @Builder.Default
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.FAIL_REQUEST;
+}
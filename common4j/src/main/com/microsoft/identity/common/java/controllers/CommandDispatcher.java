@@ -45,15 +45,19 @@ import com.microsoft.identity.common.java.commands.parameters.BrokerInteractiveT
 import com.microsoft.identity.common.java.commands.parameters.CommandParameters;
 import com.microsoft.identity.common.java.commands.parameters.SilentTokenCommandParameters;
 import com.microsoft.identity.common.java.configuration.LibraryConfiguration;
+import com.microsoft.identity.common.java.configuration.SilentRequestExecutorConfiguration;
 import com.microsoft.identity.common.java.eststelemetry.EstsTelemetry;
 import com.microsoft.identity.common.java.exception.BaseException;
 import com.microsoft.identity.common.java.exception.ClientException;
 import com.microsoft.identity.common.java.exception.ErrorStrings;
 import com.microsoft.identity.common.java.exception.UserCancelException;
+import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
 import com.microsoft.identity.common.java.logging.DiagnosticContext;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.logging.RequestContext;
 import com.microsoft.identity.common.java.marker.CodeMarkerManager;
+import com.microsoft.identity.common.java.providers.microsoft.azureactivedirectory.AzureActiveDirectory;
+import com.microsoft.identity.common.java.providers.oauth2.OpenIdProviderConfigurationClient;
 import com.microsoft.identity.common.java.request.SdkType;
 import com.microsoft.identity.common.java.result.AcquireTokenResult;
 import com.microsoft.identity.common.java.result.FinalizableResultFuture;
@@ -63,8 +67,10 @@ import com.microsoft.identity.common.java.result.VoidResult;
 import com.microsoft.identity.common.java.telemetry.Telemetry;
 import com.microsoft.identity.common.java.util.BiConsumer;
 import com.microsoft.identity.common.java.util.IPlatformUtil;
+import com.microsoft.identity.common.java.util.InstrumentedThreadPoolExecutor;
 import com.microsoft.identity.common.java.util.ObjectMapper;
 import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ThreadUtils;
 import com.microsoft.identity.common.java.util.ported.LocalBroadcaster;
 import com.microsoft.identity.common.java.util.ported.PropertyBag;
 
@@ -77,8 +83,11 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 import lombok.NonNull;
@@ -86,72 +95,119 @@ import lombok.NonNull;
 public class CommandDispatcher {
 
     private static final String TAG = CommandDispatcher.class.getSimpleName();
-    private static final int SILENT_REQUEST_THREAD_POOL_SIZE = 5;
+    private static final String SILENT_REQUEST_POOL_NAME = "silent-request";
     private static ExecutorService sInteractiveExecutor = Executors.newSingleThreadExecutor();
-    private static final ExecutorService sSilentExecutor = Executors.newFixedThreadPool(SILENT_REQUEST_THREAD_POOL_SIZE);
+    private static final Object sSilentExecutorLock = new Object();
+    //@GuardedBy("sSilentExecutorLock")
+    private static InstrumentedThreadPoolExecutor sSilentExecutor = null;
+    private static final AtomicLong sDedupLookupCount = new AtomicLong();
+    private static final AtomicLong sDedupHitCount = new AtomicLong();
     private static final Object sLock = new Object();
     private static InteractiveTokenCommand sCommand = null;
     private static final CommandResultCache sCommandResultCache = new CommandResultCache();
 
-    private static final Object mapAccessLock = new Object();
+    /**
+     * Silent requests eligible for caching which are executing, keyed by the fingerprint they
+     * were submitted with. Identical requests submitted meanwhile share the owner's future.
+     */
+    private static final ConcurrentMap<RequestFingerprint, ExecutingCommand> sExecutingCommandMap = new ConcurrentHashMap<>();
 
-    //@GuardedBy("mapAccessLock")
-    //Suppressing rawtype warnings due to the generic type BaseCommand
-    @SuppressWarnings(WarningType.rawtype_warning)
-    private static ConcurrentMap<BaseCommand, FinalizableResultFuture<CommandResult>> sExecutingCommandMap = new ConcurrentHashMap<>();
+    /**
+     * A command executing on behalf of every identical request, and the future governing it.
+     */
+    private static final class ExecutingCommand {
+        @SuppressWarnings(WarningType.rawtype_warning)
+        final BaseCommand mCommand;
+        final FinalizableResultFuture<CommandResult> mFuture;
+
+        ExecutingCommand(@SuppressWarnings(WarningType.rawtype_warning) @NonNull final BaseCommand command,
+                         @NonNull final FinalizableResultFuture<CommandResult> future) {
+            mCommand = command;
+            mFuture = future;
+        }
+    }
 
     /**
-     * Remove all keys that are the command reference from the executing command map.  Since if they key has
-     * been changed, remove will not work, construct a new map and add all keys that are not identically
-     * that key into the new map.  <strong>MUST</strong> only be used under the mapAccessLock.
-     *
-     * @param command the command whose identity to use to cleanse the map.
+     * Returns the silent request thread pool, creating it from
+     * {@link LibraryConfiguration#getSilentRequestExecutorConfiguration()} on first use.
      */
-    // Suppressing rawtype warnings due to the generic type BaseCommand
-    @SuppressWarnings(WarningType.rawtype_warning)
-    private static void cleanMap(BaseCommand command) {
-        ConcurrentMap<BaseCommand, FinalizableResultFuture<CommandResult>> newMap = new ConcurrentHashMap<>();
-        for (Map.Entry<BaseCommand, FinalizableResultFuture<CommandResult>> e : sExecutingCommandMap.entrySet()) {
-            if (!(command == e.getKey())) {
-                newMap.put(e.getKey(), e.getValue());
+    private static InstrumentedThreadPoolExecutor getSilentExecutor() {
+        synchronized (sSilentExecutorLock) {
+            if (sSilentExecutor == null) {
+                SilentRequestExecutorConfiguration configuration =
+                        LibraryConfiguration.getInstance().getSilentRequestExecutorConfiguration();
+                if (configuration == null) {
+                    configuration = SilentRequestExecutorConfiguration.builder().build();
+                }
+
+                sSilentExecutor = ThreadUtils.getNamedInstrumentedThreadPoolExecutor(
+                        configuration.getCorePoolSize(),
+                        Math.max(configuration.getCorePoolSize(), configuration.getMaximumPoolSize()),
+                        configuration.getQueueCapacity(),
+                        configuration.getKeepAliveTimeSeconds(),
+                        TimeUnit.SECONDS,
+                        SILENT_REQUEST_POOL_NAME,
+                        configuration.getRejectionPolicy() == SilentRequestExecutorConfiguration.RejectionPolicy.RUN_ON_CALLER_THREAD
+                                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                                : new ThreadPoolExecutor.AbortPolicy()
+                );
             }
+            return sSilentExecutor;
         }
-        sExecutingCommandMap = newMap;
+    }
+
+    /**
+     * Returns a snapshot of the silent request thread pool metrics, along with how often cacheable
+     * requests were de-duplicated against an identical request already executing.
+     */
+    public static SilentRequestMetrics getSilentRequestMetrics() {
+        final InstrumentedThreadPoolExecutor executor = getSilentExecutor();
+        return SilentRequestMetrics.builder()
+                .queueDepth(executor.getQueueDepth())
+                .activeThreadCount(executor.getActiveCount())
+                .poolSize(executor.getPoolSize())
+                .largestPoolSize(executor.getLargestPoolSize())
+                .executedCount(executor.getExecutedTaskCount())
+                .rejectedCount(executor.getRejectedTaskCount())
+                .totalQueueWaitTimeMillis(TimeUnit.NANOSECONDS.toMillis(executor.getTotalWaitTimeNanos()))
+                .maxQueueWaitTimeMillis(TimeUnit.NANOSECONDS.toMillis(executor.getMaxWaitTimeNanos()))
+                .totalExecutionTimeMillis(TimeUnit.NANOSECONDS.toMillis(executor.getTotalExecutionTimeNanos()))
+                .maxExecutionTimeMillis(TimeUnit.NANOSECONDS.toMillis(executor.getMaxExecutionTimeNanos()))
+                .dedupLookupCount(sDedupLookupCount.get())
+                .dedupHitCount(sDedupHitCount.get())
+                .build();
     }
 
     //@VisibleForTesting(otherwise = VisibleForTesting.NONE)
     public static int outstandingCommands() {
-        synchronized (mapAccessLock) {
-            return sExecutingCommandMap.size();
-        }
+        return sExecutingCommandMap.size();
     }
 
     //@VisibleForTesting(otherwise = VisibleForTesting.NONE)
     public static boolean isCommandOutstanding(BaseCommand c) {
-        synchronized (mapAccessLock) {
-            for (Map.Entry<BaseCommand, ?> e : sExecutingCommandMap.entrySet()) {
-                if (e.getKey() == c) {
-                    System.out.println("Command out there " + c);
-                    return true;
-                }
+        for (final ExecutingCommand executingCommand : sExecutingCommandMap.values()) {
+            if (executingCommand.mCommand == c) {
+                System.out.println("Command out there " + c);
+                return true;
             }
-            return false;
         }
+        return false;
     }
 
     //@VisibleForTesting(otherwise = VisibleForTesting.NONE)
     public static void clearState() throws Exception {
-        synchronized (mapAccessLock) {
-            sExecutingCommandMap.clear();
+        sExecutingCommandMap.clear();
+        synchronized (sSilentExecutorLock) {
+            if (sSilentExecutor != null) {
+                sSilentExecutor.shutdownNow();
+                sSilentExecutor = null;
+            }
         }
-        sSilentExecutor.shutdownNow();
+        sDedupLookupCount.set(0);
+        sDedupHitCount.set(0);
         sInteractiveExecutor.shutdownNow();
-        Field f = CommandDispatcher.class.getDeclaredField("sSilentExecutor");
-        f.setAccessible(true);
-        f.set(null, Executors.newFixedThreadPool(SILENT_REQUEST_THREAD_POOL_SIZE));
-        f.setAccessible(false);
 
-        f = CommandDispatcher.class.getDeclaredField("sInteractiveExecutor");
+        final Field f = CommandDispatcher.class.getDeclaredField("sInteractiveExecutor");
         f.setAccessible(true);
         f.set(null, Executors.newSingleThreadExecutor());
         f.setAccessible(false);
@@ -223,35 +279,43 @@ public class CommandDispatcher {
 
         logParameters(TAG + methodName, correlationId, commandParameters, command.getPublicApiId());
 
-        synchronized (mapAccessLock) {
-            final FinalizableResultFuture<CommandResult> finalFuture;
-            if (command.isEligibleForCaching()) {
-                FinalizableResultFuture<CommandResult> future = sExecutingCommandMap.get(command);
-
-                if (null == future) {
-                    future = new FinalizableResultFuture<>();
-                    final FinalizableResultFuture<CommandResult> putValue = sExecutingCommandMap.putIfAbsent(command, future);
-
-                    if (null == putValue) {
-                        // our value was inserted.
-                        future.whenComplete(getCommandResultConsumer(command));
-                    } else {
-                        // Our value was not inserted, grab the one that was and hang a new listener off it
-                        putValue.whenComplete(getCommandResultConsumer(command));
-                        return putValue;
-                    }
+        final RequestFingerprint fingerprint;
+        final FinalizableResultFuture<CommandResult> finalFuture;
+        if (command.isEligibleForCaching()) {
+            fingerprint = RequestFingerprint.of(command);
+            sDedupLookupCount.incrementAndGet();
+            ExecutingCommand executingCommand = sExecutingCommandMap.get(fingerprint);
+
+            if (null == executingCommand) {
+                final ExecutingCommand ownCommand = new ExecutingCommand(command, new FinalizableResultFuture<CommandResult>());
+                executingCommand = sExecutingCommandMap.putIfAbsent(fingerprint, ownCommand);
+
+                if (null == executingCommand) {
+                    // our value was inserted.
+                    ownCommand.mFuture.whenComplete(getCommandResultConsumer(command));
+                    executingCommand = ownCommand;
                 } else {
-                    future.whenComplete(getCommandResultConsumer(command));
-                    return future;
+                    // Our value was not inserted, grab the one that was and hang a new listener off it
+                    sDedupHitCount.incrementAndGet();
+                    executingCommand.mFuture.whenComplete(getCommandResultConsumer(command));
+                    return executingCommand.mFuture;
                 }
-
-                finalFuture = future;
             } else {
-                finalFuture = new FinalizableResultFuture<>();
-                finalFuture.whenComplete(getCommandResultConsumer(command));
+                sDedupHitCount.incrementAndGet();
+                executingCommand.mFuture.whenComplete(getCommandResultConsumer(command));
+                return executingCommand.mFuture;
             }
 
-            sSilentExecutor.execute(new Runnable() {
+            finalFuture = executingCommand.mFuture;
+        } else {
+            fingerprint = null;
+            finalFuture = new FinalizableResultFuture<>();
+            finalFuture.whenComplete(getCommandResultConsumer(command));
+        }
+
+        // The pool may run the request on this thread.
+        try {
+            getSilentExecutor().execute(new Runnable() {
                 @Override
                 public void run() {
                     codeMarkerManager.markCode(ACQUIRE_TOKEN_SILENT_EXECUTOR_START);
@@ -261,6 +325,7 @@ public class CommandDispatcher {
                                         SdkType.UNKNOWN.getProductName() : commandParameters.getSdkType().getProductName(),
                                 commandParameters.getSdkVersion());
 
+                        setUpPersistentCaches(command);
                         initTelemetryForCommand(command);
 
                         EstsTelemetry.getInstance().emitApiId(command.getPublicApiId());
@@ -278,38 +343,50 @@ public class CommandDispatcher {
                         } finally {
                             codeMarkerManager.markCode(ACQUIRE_TOKEN_SILENT_COMMAND_EXECUTION_END);
                         }
-                        Logger.info(TAG + methodName, "Completed silent request as owner for correlation id : **"
-                                + correlationId + ", with the status : " + commandResult.getStatus().getLogStatus()
-                                + " is cacheable : " + command.isEligibleForCaching());
+                        Logger.infoTemplate(
+                                TAG + methodName,
+                                "Completed silent request as owner for correlation id : **{}, with the status : {} is cacheable : {}",
+                                correlationId,
+                                commandResult.getStatus().getLogStatus(),
+                                command.isEligibleForCaching()
+                        );
                         // TODO 1309671 : change required to stop the LocalAuthenticationResult object from mutating in cases of cached command.
                         EstsTelemetry.getInstance().flush(command, commandResult);
                         finalFuture.setResult(commandResult);
                     } catch (final Throwable t) {
-                        Logger.info(TAG + methodName, "Request encountered an exception with correlation id : **" + correlationId);
+                        Logger.infoTemplate(TAG + methodName, "Request encountered an exception with correlation id : **{}", correlationId);
                         finalFuture.setException(new ExecutionException(t));
                     } finally {
-                        synchronized (mapAccessLock) {
-                            if (command.isEligibleForCaching()) {
-                                final FinalizableResultFuture mapFuture = sExecutingCommandMap.remove(command);
-                                if (mapFuture == null) {
-                                    // If this has happened, the command that we started with has mutated.  We will
-                                    // examine every entry in the map, find the one with the same object identity
-                                    // and remove it.
-                                    // ADO:TODO:1153495 - Rekey this map with stable string keys.
-                                    Logger.error(TAG, "The command in the map has mutated " + command.getClass().getCanonicalName()
-                                            + " the calling application was " + command.getParameters().getApplicationName(), null);
-                                    cleanMap(command);
-                                }
-                            }
-                            finalFuture.setCleanedUp();
-                        }
+                        removeExecutingCommand(fingerprint, finalFuture);
                         DiagnosticContext.INSTANCE.clear();
                     }
                     codeMarkerManager.markCode(ACQUIRE_TOKEN_SILENT_FUTURE_OBJECT_CREATION_END);
                 }
             });
-            return finalFuture;
+        } catch (final RejectedExecutionException e) {
+            Logger.warn(TAG + methodName, "Silent request pool is full, failing request with correlation id : **" + correlationId);
+            finalFuture.setException(new ExecutionException(e));
+            removeExecutingCommand(fingerprint, finalFuture);
+        }
+        return finalFuture;
+    }
+
+    /**
+     * Removes a finished silent command from the executing command map and marks its future as
+     * cleaned up.
+     *
+     * @param fingerprint the fingerprint the command was submitted with, or null if it was not
+     *                    eligible for caching.
+     */
+    private static void removeExecutingCommand(@Nullable final RequestFingerprint fingerprint,
+                                               @NonNull final FinalizableResultFuture<CommandResult> finalFuture) {
+        if (fingerprint != null) {
+            final ExecutingCommand executingCommand = sExecutingCommandMap.get(fingerprint);
+            if (executingCommand != null && executingCommand.mFuture == finalFuture) {
+                sExecutingCommandMap.remove(fingerprint, executingCommand);
+            }
         }
+        finalFuture.setCleanedUp();
     }
 
     public static void submitAndForget(@NonNull final BaseCommand command){
@@ -335,10 +412,10 @@ public class CommandDispatcher {
                         + correlationId
         );
 
-        synchronized (mapAccessLock) {
-            final FinalizableResultFuture<CommandResult> finalFuture = new FinalizableResultFuture<>();
-            finalFuture.whenComplete(getCommandResultConsumer(command));
-            sSilentExecutor.execute(new Runnable() {
+        final FinalizableResultFuture<CommandResult> finalFuture = new FinalizableResultFuture<>();
+        finalFuture.whenComplete(getCommandResultConsumer(command));
+        try {
+            getSilentExecutor().execute(new Runnable() {
                 @Override
                 public void run() {
 
@@ -351,13 +428,17 @@ public class CommandDispatcher {
                         EstsTelemetry.getInstance().emitApiId(command.getPublicApiId());
 
                         CommandResult commandResult = executeCommand(command);
-                        Logger.info(TAG + methodName, "Completed as owner for correlation id : **"
-                                + correlationId + statusMsg(commandResult.getStatus().getLogStatus())
-                                + " is cacheable : " + command.isEligibleForCaching());
+                        Logger.infoTemplate(
+                                TAG + methodName,
+                                "Completed as owner for correlation id : **{}{} is cacheable : {}",
+                                correlationId,
+                                statusMsg(commandResult.getStatus().getLogStatus()),
+                                command.isEligibleForCaching()
+                        );
                         EstsTelemetry.getInstance().flush(command, commandResult);
                         finalFuture.setResult(commandResult);
                     } catch (final Throwable t) {
-                        Logger.info(TAG + methodName, "Request encountered an exception with correlation id : **" + correlationId);
+                        Logger.infoTemplate(TAG + methodName, "Request encountered an exception with correlation id : **{}", correlationId);
                         finalFuture.setException(new ExecutionException(t));
                     } finally {
                         DiagnosticContext.INSTANCE.clear();
@@ -365,8 +446,21 @@ public class CommandDispatcher {
 
                 }
             });
-            return finalFuture;
+        } catch (final RejectedExecutionException e) {
+            Logger.warn(TAG + methodName, "Silent request pool is full, failing request with correlation id : **" + correlationId);
+            finalFuture.setException(new ExecutionException(e));
         }
+        return finalFuture;
+    }
+
+    /**
+     * Points the process-wide metadata caches at the platform storage, so that they survive
+     * process restarts. Only the first call has an effect.
+     */
+    private static void setUpPersistentCaches(@NonNull final BaseCommand<?> command) {
+        final IPlatformComponents platformComponents = command.getParameters().getPlatformComponents();
+        OpenIdProviderConfigurationClient.setUp(platformComponents);
+        AzureActiveDirectory.setUp(platformComponents);
     }
 
     private static void initTelemetryForCommand(@NonNull final BaseCommand<?> command) {
@@ -414,11 +508,13 @@ public class CommandDispatcher {
 
                 if (!StringUtil.isNullOrEmpty(result.getCorrelationId())
                         && !command.getParameters().getCorrelationId().equals(result.getCorrelationId())) {
-                    Logger.info(TAG + methodName,
-                            "Completed duplicate request with correlation id : **"
-                                    + command.getParameters().getCorrelationId() + ", having the same result as : "
-                                    + result.getCorrelationId() + ", with the status : "
-                                    + result.getStatus().getLogStatus());
+                    Logger.infoTemplate(
+                            TAG + methodName,
+                            "Completed duplicate request with correlation id : **{}, having the same result as : {}, with the status : {}",
+                            command.getParameters().getCorrelationId(),
+                            result.getCorrelationId(),
+                            result.getStatus().getLogStatus()
+                    );
                 }
                 // Return command result will post() result for us.
                 returnCommandResult(command, result);
@@ -504,11 +600,10 @@ public class CommandDispatcher {
         } else if (commandResult.getResult() instanceof BaseException) {
             ((BaseException) commandResult.getResult()).setTelemetry(telemetryMap);
         } else if (commandResult.getResult() != null) {
-            Logger.verbose(
+            Logger.verboseTemplate(
                     TAG + ":setTelemetryOnResult",
-                    "Not setting telemetry on result as result type is " +
-                            commandResult.getResult().getClass().getCanonicalName() +
-                            " and doesn't support telemetry at this time."
+                    "Not setting telemetry on result as result type is {} and doesn't support telemetry at this time.",
+                    commandResult.getResult().getClass().getCanonicalName()
             );
         }
 
@@ -567,14 +662,16 @@ public class CommandDispatcher {
          * making the requests in a tight loop
          *
          * @param command
+         * @param fingerprint the fingerprint the command was submitted with
          * @param commandResult
          */
         @SuppressWarnings("unused")
         private static void cacheCommandResult
         (@SuppressWarnings(WarningType.rawtype_warning) BaseCommand command,
+                RequestFingerprint fingerprint,
                 CommandResult commandResult){
             if (command.isEligibleForCaching() && eligibleToCache(commandResult)) {
-                sCommandResultCache.put(command, commandResult);
+                sCommandResultCache.put(fingerprint, commandResult);
             }
         }
 
@@ -661,6 +758,7 @@ public class CommandDispatcher {
 
                             logParameters(TAG + methodName, correlationId, commandParameters, command.getPublicApiId());
 
+                            setUpPersistentCaches(command);
                             initTelemetryForCommand(command);
 
                             EstsTelemetry.getInstance().emitApiId(command.getPublicApiId());
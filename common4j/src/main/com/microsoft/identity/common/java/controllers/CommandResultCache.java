@@ -22,74 +22,224 @@
 //  THE SOFTWARE.
 package com.microsoft.identity.common.java.controllers;
 
-import com.microsoft.identity.common.java.WarningType;
-import com.microsoft.identity.common.java.commands.BaseCommand;
+import com.microsoft.identity.common.java.util.ThreadUtils;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
 
 /**
  * Name: CommandResultCache
  * Responsibilities: Caching results of commands on behalf of the command dispatcher
+ * <p>
+ * Results are keyed by the {@link RequestFingerprint} of the command which produced them.
+ * Reads are lock-free. Each entry expires a fixed time after it was put; expired entries are
+ * dropped when read, and by a sweep which is scheduled while the cache is non-empty. Once the
+ * cache grows past its capacity, expired entries and then the oldest entries are evicted.
  */
-// Suppressing rawtype warnings due to the generic type BaseCommand
-@SuppressWarnings(WarningType.rawtype_warning)
 public class CommandResultCache {
 
     private final static int DEFAULT_ITEM_COUNT = 250;
 
-    private final Object cacheLock = new Object();
+    private static final Comparator<Map.Entry<RequestFingerprint, CommandResultCacheItem>> OLDEST_FIRST =
+            new Comparator<Map.Entry<RequestFingerprint, CommandResultCacheItem>>() {
+                @Override
+                public int compare(final Map.Entry<RequestFingerprint, CommandResultCacheItem> a,
+                                   final Map.Entry<RequestFingerprint, CommandResultCacheItem> b) {
+                    final long difference = a.getValue().getCreatedAtNanos() - b.getValue().getCreatedAtNanos();
+                    return difference < 0 ? -1 : (difference == 0 ? 0 : 1);
+                }
+            };
+
     //Cache items allowed is still TBD... for now using default value of 250
-    private final Map<BaseCommand, CommandResultCacheItem> mCache;
+    private final int mMaxItemCount;
+    private final long mTimeToLiveNanos;
+    private final ScheduledExecutorService mSweepExecutor;
+    private final ConcurrentMap<RequestFingerprint, CommandResultCacheItem> mCache = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean mIsSweepScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean mIsEvicting = new AtomicBoolean(false);
+
+    private final AtomicLong mHitCount = new AtomicLong();
+    private final AtomicLong mMissCount = new AtomicLong();
+    private final AtomicLong mEvictionCount = new AtomicLong();
+
+    private final Runnable mSweepTask = new Runnable() {
+        @Override
+        public void run() {
+            removeExpired(System.nanoTime());
+            mIsSweepScheduled.set(false);
+
+            if (!mCache.isEmpty()) {
+                scheduleSweep();
+            }
+        }
+    };
 
     public CommandResultCache() {
         this(DEFAULT_ITEM_COUNT);
     }
 
     public CommandResultCache(final int maxItemCount) {
-        mCache = new LinkedHashMap<BaseCommand, CommandResultCacheItem>(maxItemCount + 1, .75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<BaseCommand, CommandResultCacheItem> eldest) {
-                return size() > maxItemCount;
-            }
-        };
+        this(maxItemCount, CommandResultCacheItem.DEFAULT_TIME_TO_LIVE_NANOS, TimeUnit.NANOSECONDS);
     }
 
-    public CommandResult get(@SuppressWarnings(WarningType.rawtype_warning) BaseCommand key) {
-        synchronized (cacheLock) {
-            CommandResultCacheItem item = mCache.get(key);
-            if (item != null) {
-                if (item.isExpired()) {
-                    mCache.remove(key);
-                    return null;
-                } else {
-                    return item.getValue();
-                }
-            } else {
-                return null;
+    public CommandResultCache(final int maxItemCount,
+                              final long timeToLive,
+                              @NonNull final TimeUnit timeToLiveUnit) {
+        this(maxItemCount, timeToLiveUnit.toNanos(timeToLive), SweepExecutorHolder.INSTANCE);
+    }
+
+    CommandResultCache(final int maxItemCount,
+                       final long timeToLiveNanos,
+                       @NonNull final ScheduledExecutorService sweepExecutor) {
+        if (maxItemCount <= 0) {
+            throw new IllegalArgumentException("maxItemCount must be positive.");
+        }
+
+        mMaxItemCount = maxItemCount;
+        mTimeToLiveNanos = timeToLiveNanos;
+        mSweepExecutor = sweepExecutor;
+    }
+
+    public CommandResult get(@NonNull final RequestFingerprint key) {
+        final CommandResultCacheItem item = mCache.get(key);
+
+        if (item == null) {
+            mMissCount.incrementAndGet();
+            return null;
+        }
+
+        if (item.isExpired(System.nanoTime())) {
+            if (mCache.remove(key, item)) {
+                mEvictionCount.incrementAndGet();
             }
+            mMissCount.incrementAndGet();
+            return null;
         }
+
+        mHitCount.incrementAndGet();
+        return item.getValue();
     }
 
-    public void put(@SuppressWarnings(WarningType.rawtype_warning) BaseCommand key, CommandResult value) {
-        synchronized (cacheLock) {
-            CommandResultCacheItem cacheItem = new CommandResultCacheItem(value);
-            //NOTE: If an existing item using this key already in the cache it will be replaced
-            mCache.put(key, cacheItem);
-            //Object old = mCache.put(key, cacheItem);
-            //We may want to log old if we see problems here, since the the old value is the value being replace with the new item.
+    public void put(@NonNull final RequestFingerprint key, CommandResult value) {
+        //NOTE: If an existing item using this key already in the cache it will be replaced
+        mCache.put(key, new CommandResultCacheItem(value, System.nanoTime(), mTimeToLiveNanos));
+
+        if (mCache.size() > mMaxItemCount) {
+            evict();
         }
+
+        scheduleSweep();
     }
 
     public int getSize() {
-        synchronized (cacheLock) {
-            return this.mCache.size();
-        }
+        return mCache.size();
     }
 
     public void clear() {
-        synchronized (cacheLock) {
-            mCache.clear();
+        mCache.clear();
+    }
+
+    /**
+     * @return The number of lookups which returned a cached result.
+     */
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * @return The number of lookups which found no result, or an expired one.
+     */
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    /**
+     * @return The number of entries removed because they expired or the cache was over capacity.
+     */
+    public long getEvictionCount() {
+        return mEvictionCount.get();
+    }
+
+    /**
+     * Brings the cache back within its capacity. Only one thread evicts at a time; concurrent
+     * writers do not wait for it, so the cache may briefly hold a few more entries than allowed.
+     */
+    private void evict() {
+        if (!mIsEvicting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            removeExpired(System.nanoTime());
+
+            final int excess = mCache.size() - mMaxItemCount;
+            if (excess <= 0) {
+                return;
+            }
+
+            final List<Map.Entry<RequestFingerprint, CommandResultCacheItem>> entries = new ArrayList<>(mCache.entrySet());
+            Collections.sort(entries, OLDEST_FIRST);
+
+            for (int i = 0; i < excess && i < entries.size(); i++) {
+                final Map.Entry<RequestFingerprint, CommandResultCacheItem> entry = entries.get(i);
+                if (mCache.remove(entry.getKey(), entry.getValue())) {
+                    mEvictionCount.incrementAndGet();
+                }
+            }
+        } finally {
+            mIsEvicting.set(false);
         }
     }
+
+    private void removeExpired(final long nowNanos) {
+        final Iterator<Map.Entry<RequestFingerprint, CommandResultCacheItem>> iterator = mCache.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            final Map.Entry<RequestFingerprint, CommandResultCacheItem> entry = iterator.next();
+            final CommandResultCacheItem item = entry.getValue();
+
+            if (item.isExpired(nowNanos) && mCache.remove(entry.getKey(), item)) {
+                mEvictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void scheduleSweep() {
+        if (!mIsSweepScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            mSweepExecutor.schedule(mSweepTask, mTimeToLiveNanos, TimeUnit.NANOSECONDS);
+        } catch (final RejectedExecutionException e) {
+            // Expired entries are still dropped on read and when over capacity.
+            mIsSweepScheduled.set(false);
+        }
+    }
+
+    /**
+     * The executor shared by every cache to sweep expired entries, created on first use.
+     */
+    private static final class SweepExecutorHolder {
+        static final ScheduledExecutorService INSTANCE = ThreadUtils.getNamedScheduledThreadPoolExecutor(
+                1,
+                60,
+                TimeUnit.SECONDS,
+                "command-result-cache-sweep"
+        );
+    }
 }
@@ -22,32 +22,44 @@
 //  THE SOFTWARE.
 package com.microsoft.identity.common.java.controllers;
 
-import java.util.Calendar;
-import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * An immutable entry of the {@link CommandResultCache}.
+ * <p>
+ * Expiry is tracked against {@link System#nanoTime()}, so it is unaffected by wall clock changes.
+ */
 public class CommandResultCacheItem {
 
     private final static int VALIDITY_DURATION = 30;
 
-    private CommandResult mValue;
-    private Date mExpiresOn;
+    static final long DEFAULT_TIME_TO_LIVE_NANOS = TimeUnit.SECONDS.toNanos(VALIDITY_DURATION);
+
+    private final CommandResult mValue;
+    private final long mCreatedAtNanos;
+    private final long mExpiresAtNanos;
 
     public CommandResultCacheItem(CommandResult value){
-        mValue = value;
-        mExpiresOn = getExpiresOn();
+        this(value, System.nanoTime(), DEFAULT_TIME_TO_LIVE_NANOS);
     }
 
-    private Date getExpiresOn(){
-        final Calendar calendar = Calendar.getInstance();
-        calendar.add(Calendar.SECOND, VALIDITY_DURATION);
-        return calendar.getTime();
+    CommandResultCacheItem(final CommandResult value, final long nowNanos, final long timeToLiveNanos) {
+        mValue = value;
+        mCreatedAtNanos = nowNanos;
+        mExpiresAtNanos = nowNanos + timeToLiveNanos;
     }
 
     public boolean isExpired(){
-        final Calendar calendar = Calendar.getInstance();
-        final Date now = calendar.getTime();
+        return isExpired(System.nanoTime());
+    }
+
+    boolean isExpired(final long nowNanos) {
+        // Compared as a difference, as nanoTime may overflow.
+        return nowNanos - mExpiresAtNanos > 0;
+    }
 
-        return now.after(mExpiresOn);
+    long getCreatedAtNanos() {
+        return mCreatedAtNanos;
     }
 
     public CommandResult getValue(){
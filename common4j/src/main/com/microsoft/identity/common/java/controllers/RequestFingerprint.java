@@ -0,0 +1,377 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import com.microsoft.identity.common.java.AuthenticationConstants;
+import com.microsoft.identity.common.java.WarningType;
+import com.microsoft.identity.common.java.authorities.Authority;
+import com.microsoft.identity.common.java.authscheme.IPoPAuthenticationSchemeParams;
+import com.microsoft.identity.common.java.broker.IBrokerAccount;
+import com.microsoft.identity.common.java.commands.BaseCommand;
+import com.microsoft.identity.common.java.commands.parameters.AcquirePrtSsoTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.BatchGenerateShrCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.BrokerInteractiveTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.BrokerRopcTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.BrokerSilentTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.CommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.GenerateShrCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.IBrokerTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.InteractiveTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.RemoveAccountCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.RopcTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.TokenCommandParameters;
+import com.microsoft.identity.common.java.dto.IAccountRecord;
+import com.microsoft.identity.common.java.util.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * An immutable identity of a request, used by the {@link CommandDispatcher} to coalesce identical
+ * requests and to key the {@link CommandResultCache}.
+ * <p>
+ * It is a SHA-256 digest of the command type, its controllers, and every parameter that used to
+ * take part in {@link BaseCommand#equals(Object)}: the calling application and SDK, client id,
+ * redirect uri, flights, authority, scopes, account, login hint, claims and auth scheme, force
+ * refresh, extra options, and the fields of each parameter subclass, such as the ROPC
+ * credentials, the interactive options, the SHR requests and, for broker requests, the calling
+ * application, broker and account details. Only the correlation id and the transient platform
+ * plumbing are left out. Being computed once,
+ * it is unaffected by later mutation of the command or its parameters.
+ */
+public final class RequestFingerprint {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final int LOGGED_BYTE_COUNT = 8;
+
+    private final byte[] mDigest;
+    private final int mHashCode;
+
+    RequestFingerprint(@NonNull final byte[] digest) {
+        mDigest = digest;
+        mHashCode = Arrays.hashCode(digest);
+    }
+
+    /**
+     * Computes the fingerprint of the supplied command.
+     *
+     * @param command The command to fingerprint.
+     * @return The fingerprint.
+     */
+    @NonNull
+    public static RequestFingerprint of(@SuppressWarnings(WarningType.rawtype_warning) @NonNull final BaseCommand command) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            // SHA-256 is available on every supported platform.
+            throw new IllegalStateException(e);
+        }
+
+        final CommandParameters parameters = command.getParameters();
+        update(digest, command.getClass().getName());
+
+        final List<BaseController> controllers = command.getControllers();
+        if (controllers == null) {
+            update(digest, null);
+        } else {
+            // Controllers have no state of their own in the equality check; their type is their identity.
+            update(digest, String.valueOf(controllers.size()));
+            for (final BaseController controller : controllers) {
+                update(digest, controller == null ? null : controller.getClass().getName());
+            }
+        }
+
+        update(digest, parameters.getApplicationName());
+        update(digest, parameters.getApplicationVersion());
+        update(digest, parameters.getRequiredBrokerProtocolVersion());
+        update(digest, parameters.getSdkType() == null ? null : parameters.getSdkType().name());
+        update(digest, parameters.getSdkVersion());
+        update(digest, parameters.getClientId());
+        update(digest, parameters.getRedirectUri());
+        update(digest, String.valueOf(parameters.isPowerOptCheckEnabled()));
+
+        final Map<String, String> flightInformation = parameters.getFlightInformation();
+        if (flightInformation == null) {
+            update(digest, null);
+        } else {
+            final List<String> flights = new ArrayList<>(flightInformation.keySet());
+            Collections.sort(flights);
+            update(digest, String.valueOf(flights.size()));
+            for (final String flight : flights) {
+                update(digest, flight);
+                update(digest, flightInformation.get(flight));
+            }
+        }
+
+        if (parameters instanceof TokenCommandParameters) {
+            final TokenCommandParameters tokenParameters = (TokenCommandParameters) parameters;
+
+            final Authority authority = tokenParameters.getAuthority();
+            update(digest, authority == null ? null : authority.getAuthorityTypeString());
+            update(digest, authority == null ? null : authority.getAuthorityUri().toString());
+
+            final Set<String> scopes = tokenParameters.getScopes();
+            if (scopes == null) {
+                update(digest, null);
+            } else {
+                final List<String> sortedScopes = new ArrayList<>(scopes);
+                Collections.sort(sortedScopes);
+                update(digest, String.valueOf(sortedScopes.size()));
+                for (final String scope : sortedScopes) {
+                    update(digest, scope);
+                }
+            }
+
+            updateAccount(digest, tokenParameters.getAccount());
+
+            update(digest, tokenParameters.getLoginHint());
+            update(digest, tokenParameters.getClaimsRequestJson());
+            update(digest, tokenParameters.getAuthenticationScheme() == null
+                    ? null
+                    : ObjectMapper.serializeObjectToJsonString(tokenParameters.getAuthenticationScheme()));
+            update(digest, String.valueOf(tokenParameters.isForceRefresh()));
+
+            updateEntries(digest, tokenParameters.getExtraOptions());
+        }
+
+        if (parameters instanceof InteractiveTokenCommandParameters) {
+            final InteractiveTokenCommandParameters interactiveParameters = (InteractiveTokenCommandParameters) parameters;
+            update(digest, String.valueOf(interactiveParameters.isBrokerBrowserSupportEnabled()));
+            update(digest, interactiveParameters.getPrompt() == null ? null : interactiveParameters.getPrompt().name());
+            update(digest, interactiveParameters.getAuthorizationAgent() == null
+                    ? null
+                    : interactiveParameters.getAuthorizationAgent().name());
+            update(digest, String.valueOf(interactiveParameters.isWebViewZoomEnabled()));
+            update(digest, String.valueOf(interactiveParameters.isWebViewZoomControlsEnabled()));
+            update(digest, String.valueOf(interactiveParameters.getHandleNullTaskAffinity()));
+            updateEntries(digest, interactiveParameters.getExtraQueryStringParameters());
+            updateStrings(digest, interactiveParameters.getExtraScopesToConsent());
+        }
+
+        if (parameters instanceof RopcTokenCommandParameters) {
+            // Requests for different users must never share a result. The password only feeds
+            // the digest, which is neither kept in clear nor logged beyond its first bytes.
+            final RopcTokenCommandParameters ropcParameters = (RopcTokenCommandParameters) parameters;
+            update(digest, ropcParameters.getUsername());
+            update(digest, ropcParameters.getPassword());
+        }
+
+        if (parameters instanceof BrokerRopcTokenCommandParameters) {
+            final BrokerRopcTokenCommandParameters brokerRopcParameters = (BrokerRopcTokenCommandParameters) parameters;
+            update(digest, String.valueOf(brokerRopcParameters.getCallerUid()));
+            update(digest, brokerRopcParameters.getCallerPackageName());
+            update(digest, brokerRopcParameters.getCallerAppVersion());
+            update(digest, brokerRopcParameters.getBrokerVersion());
+            update(digest, brokerRopcParameters.getNegotiatedBrokerProtocolVersion());
+        }
+
+        if (parameters instanceof GenerateShrCommandParameters) {
+            final GenerateShrCommandParameters shrParameters = (GenerateShrCommandParameters) parameters;
+            update(digest, shrParameters.getHomeAccountId());
+            updatePopParameters(digest, shrParameters.getPopParameters());
+        }
+
+        if (parameters instanceof BatchGenerateShrCommandParameters) {
+            final BatchGenerateShrCommandParameters batchParameters = (BatchGenerateShrCommandParameters) parameters;
+            final List<IPoPAuthenticationSchemeParams> batchPopParameters = batchParameters.getBatchPopParameters();
+            update(digest, String.valueOf(batchPopParameters.size()));
+            for (final IPoPAuthenticationSchemeParams popParameters : batchPopParameters) {
+                updatePopParameters(digest, popParameters);
+            }
+            update(digest, String.valueOf(batchParameters.isParallel()));
+        }
+
+        if (parameters instanceof AcquirePrtSsoTokenCommandParameters) {
+            final AcquirePrtSsoTokenCommandParameters ssoParameters = (AcquirePrtSsoTokenCommandParameters) parameters;
+            update(digest, ssoParameters.getHomeAccountId());
+            update(digest, ssoParameters.getLocalAccountId());
+            update(digest, ssoParameters.getAccountName());
+            update(digest, ssoParameters.getSsoUrl());
+            update(digest, ssoParameters.getRequestAuthority());
+        }
+
+        if (parameters instanceof RemoveAccountCommandParameters) {
+            final RemoveAccountCommandParameters removeParameters = (RemoveAccountCommandParameters) parameters;
+            updateAccount(digest, removeParameters.getAccount());
+            update(digest, removeParameters.getBrowserSafeList() == null
+                    ? null
+                    : ObjectMapper.serializeObjectToJsonString(removeParameters.getBrowserSafeList()));
+        }
+
+        if (parameters instanceof IBrokerTokenCommandParameters) {
+            final IBrokerTokenCommandParameters brokerParameters = (IBrokerTokenCommandParameters) parameters;
+            update(digest, String.valueOf(brokerParameters.getCallerUid()));
+            update(digest, brokerParameters.getCallerPackageName());
+            update(digest, brokerParameters.getHomeAccountId());
+            update(digest, brokerParameters.getLocalAccountId());
+            update(digest, brokerParameters.getCallerAppVersion());
+            update(digest, brokerParameters.getBrokerVersion());
+            update(digest, brokerParameters.getNegotiatedBrokerProtocolVersion());
+            update(digest, brokerParameters.getRequestType() == null ? null : brokerParameters.getRequestType().name());
+            update(digest, brokerParameters.getHomeTenantId());
+
+            final IBrokerAccount brokerAccount = brokerParameters.getBrokerAccount();
+            if (brokerAccount == null) {
+                update(digest, null);
+            } else {
+                update(digest, brokerAccount.getClass().getName());
+                update(digest, brokerAccount.getUsername());
+            }
+        }
+
+        if (parameters instanceof BrokerSilentTokenCommandParameters) {
+            final BrokerSilentTokenCommandParameters silentParameters = (BrokerSilentTokenCommandParameters) parameters;
+            update(digest, String.valueOf(silentParameters.getSleepTimeBeforePrtAcquisition()));
+            update(digest, String.valueOf(silentParameters.isPKeyAuthHeaderAllowed()));
+        } else if (parameters instanceof BrokerInteractiveTokenCommandParameters) {
+            final BrokerInteractiveTokenCommandParameters interactiveParameters =
+                    (BrokerInteractiveTokenCommandParameters) parameters;
+            update(digest, String.valueOf(interactiveParameters.isPKeyAuthHeaderAllowed()));
+            update(digest, String.valueOf(interactiveParameters.isShouldResolveInterrupt()));
+            update(digest, interactiveParameters.getEnrollmentId());
+            updateEntries(digest, interactiveParameters.getExtraParameters());
+        }
+
+        return new RequestFingerprint(digest.digest());
+    }
+
+    private static void updateAccount(@NonNull final MessageDigest digest, @Nullable final IAccountRecord account) {
+        if (account == null) {
+            update(digest, null);
+        } else {
+            update(digest, account.getHomeAccountId());
+            update(digest, account.getEnvironment());
+            update(digest, account.getRealm());
+            update(digest, account.getLocalAccountId());
+            update(digest, account.getUsername());
+        }
+    }
+
+    private static void updatePopParameters(@NonNull final MessageDigest digest,
+                                            @Nullable final IPoPAuthenticationSchemeParams popParameters) {
+        if (popParameters == null) {
+            update(digest, null);
+        } else {
+            update(digest, popParameters.getClass().getName());
+            update(digest, popParameters.getHttpMethod());
+            update(digest, popParameters.getUrl() == null ? null : popParameters.getUrl().toString());
+            update(digest, popParameters.getNonce());
+            update(digest, popParameters.getClientClaims());
+        }
+    }
+
+    /**
+     * Adds the supplied entries to the digest, in order.
+     */
+    private static void updateEntries(@NonNull final MessageDigest digest,
+                                      @Nullable final Iterable<Map.Entry<String, String>> entries) {
+        if (entries == null) {
+            update(digest, null);
+            return;
+        }
+
+        final List<Map.Entry<String, String>> entryList = new ArrayList<>();
+        for (final Map.Entry<String, String> entry : entries) {
+            entryList.add(entry);
+        }
+
+        update(digest, String.valueOf(entryList.size()));
+        for (final Map.Entry<String, String> entry : entryList) {
+            update(digest, entry.getKey());
+            update(digest, entry.getValue());
+        }
+    }
+
+    /**
+     * Adds the supplied values to the digest, in order.
+     */
+    private static void updateStrings(@NonNull final MessageDigest digest, @Nullable final List<String> values) {
+        if (values == null) {
+            update(digest, null);
+            return;
+        }
+
+        update(digest, String.valueOf(values.size()));
+        for (final String value : values) {
+            update(digest, value);
+        }
+    }
+
+    /**
+     * Adds a length-prefixed value to the digest, so that adjacent values cannot run into each other.
+     */
+    private static void update(@NonNull final MessageDigest digest, @Nullable final String value) {
+        if (value == null) {
+            digest.update(new byte[]{-1, -1, -1, -1});
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(AuthenticationConstants.CHARSET_UTF8);
+        digest.update(new byte[]{
+                (byte) (bytes.length >>> 24),
+                (byte) (bytes.length >>> 16),
+                (byte) (bytes.length >>> 8),
+                (byte) bytes.length
+        });
+        digest.update(bytes);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RequestFingerprint)) {
+            return false;
+        }
+
+        final RequestFingerprint that = (RequestFingerprint) o;
+        return mHashCode == that.mHashCode && MessageDigest.isEqual(mDigest, that.mDigest);
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(LOGGED_BYTE_COUNT * 2);
+        for (int i = 0; i < LOGGED_BYTE_COUNT && i < mDigest.length; i++) {
+            builder.append(Character.forDigit((mDigest[i] >> 4) & 0xf, 16))
+                    .append(Character.forDigit(mDigest[i] & 0xf, 16));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,106 @@
+//  Copyright (c) Microsoft Corporation.
+//  All rights reserved.
+//
+//  This code is licensed under the MIT License.
+//
+//  Permission is hereby granted, free of charge, to any person obtaining a copy
+//  of this software and associated documentation files(the "Software"), to deal
+//  in the Software without restriction, including without limitation the rights
+//  to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+//  copies of the Software, and to permit persons to whom the Software is
+//  furnished to do so, subject to the following conditions :
+//
+//  The above copyright notice and this permission notice shall be included in
+//  all copies or substantial portions of the Software.
+//
+//  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+//  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+//  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+//  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+//  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+//  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+//  THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * A point-in-time snapshot of the silent request thread pool of {@link CommandDispatcher}, used to
+ * size it through {@link com.microsoft.identity.common.java.configuration.SilentRequestExecutorConfiguration}.
+ * Counters are cumulative since the pool was created.
+ */
+@Getter
+@Builder
+public class SilentRequestMetrics {
+
+    /**
+     * Requests waiting for a thread.
+     */
+    private final int queueDepth;
+
+    /**
+     * Threads currently running a request.
+     */
+    private final int activeThreadCount;
+
+    /**
+     * Threads currently in the pool.
+     */
+    private final int poolSize;
+
+    /**
+     * The largest number of threads which have simultaneously been in the pool.
+     */
+    private final int largestPoolSize;
+
+    /**
+     * Requests which have finished running.
+     */
+    private final long executedCount;
+
+    /**
+     * Requests which found the pool and its queue full.
+     */
+    private final long rejectedCount;
+
+    private final long totalQueueWaitTimeMillis;
+
+    private final long maxQueueWaitTimeMillis;
+
+    private final long totalExecutionTimeMillis;
+
+    private final long maxExecutionTimeMillis;
+
+    /**
+     * Cacheable requests looked up against the requests already executing.
+     */
+    private final long dedupLookupCount;
+
+    /**
+     * Cacheable requests which joined an identical request already executing, instead of running.
+     */
+    private final long dedupHitCount;
+
+    /**
+     * @return The mean time a request waited for a thread, or 0 if none has run.
+     */
+    public long getAverageQueueWaitTimeMillis() {
+        return executedCount == 0 ? 0 : totalQueueWaitTimeMillis / executedCount;
+    }
+
+    /**
+     * @return The mean time a request took to run, or 0 if none has run.
+     */
+    public long getAverageExecutionTimeMillis() {
+        return executedCount == 0 ? 0 : totalExecutionTimeMillis / executedCount;
+    }
+
+    /**
+     * @return The fraction of cacheable requests which joined an executing request, or 0 if there
+     * was none.
+     */
+    public double getDedupHitRate() {
+        return dedupLookupCount == 0 ? 0 : (double) dedupHitCount / dedupLookupCount;
+    }
+}
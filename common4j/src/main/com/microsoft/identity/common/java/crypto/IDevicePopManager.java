@@ -22,6 +22,7 @@
 //  THE SOFTWARE.
 package com.microsoft.identity.common.java.crypto;
 
+import com.microsoft.identity.common.java.authscheme.IPoPAuthenticationSchemeParams;
 import com.microsoft.identity.common.java.exception.ClientException;
 import com.microsoft.identity.common.java.util.TaskCompletedCallbackWithError;
 
@@ -35,6 +36,7 @@ import java.security.cert.Certificate;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.MGF1ParameterSpec;
 import java.util.Date;
+import java.util.List;
 
 import javax.crypto.spec.OAEPParameterSpec;
 import javax.crypto.spec.PSource;
@@ -371,6 +373,20 @@ public interface IDevicePopManager {
                                  String clientClaims
     ) throws ClientException;
 
+    /**
+     * Api to create several signed HTTP requests (SHRs) at once, without embedding a PoP-AT. The
+     * signing key is looked up once for the whole batch.
+     *
+     * @param timestamp Seconds since January 1st, 1970 (UTC), used for every SHR.
+     * @param requests  The HTTP method, URL, nonce and client_claims of each outbound request.
+     * @param parallel  True to sign the requests concurrently.
+     * @return The SHRs, in the order of the supplied requests.
+     */
+    List<String> mintSignedHttpRequests(long timestamp,
+                                        List<? extends IPoPAuthenticationSchemeParams> requests,
+                                        boolean parallel
+    ) throws ClientException;
+
     /**
      * Api to create the signed HTTP requests (SHRs) without embedding a PoP-AT.
      *
@@ -46,7 +46,9 @@ import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.cert.Certificate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -83,6 +85,21 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
      */
     private static final String ENCODE_VERSION = "E1";
 
+    /**
+     * {@link Cipher} and {@link Mac} instances are not thread-safe, but can be re-initialized for
+     * every operation. Keep one per thread (and cipher algorithm) rather than looking up a provider
+     * for every value.
+     */
+    private static final ThreadLocal<Map<String, Cipher>> CIPHERS_THREAD_LOCAL =
+            new ThreadLocal<Map<String, Cipher>>() {
+                @Override
+                protected Map<String, Cipher> initialValue() {
+                    return new HashMap<>();
+                }
+            };
+
+    private static final ThreadLocal<Mac> MAC_THREAD_LOCAL = new ThreadLocal<>();
+
     /**
      * IV generator.
      */
@@ -126,7 +143,7 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
             }
 
             final SecretKey encryptionKey = keyLoader.getKey();
-            final SecretKey encryptionHMACKey = KeyUtil.getHMacKey(encryptionKey);
+            final SecretKey encryptionHMACKey = keyLoader.getHMacKey(encryptionKey);
             final byte[] keyIdentifier = keyLoader.getKeyTypeIdentifier().getBytes(ENCODING_UTF8);
 
             // IV: Initialization vector that is needed to start CBC
@@ -134,8 +151,8 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
             final IvParameterSpec ivSpec = new IvParameterSpec(iv);
 
             // Set to encrypt mode
-            final Cipher cipher = Cipher.getInstance(keyLoader.getCipherAlgorithm());
-            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            final Cipher cipher = getCipher(keyLoader.getCipherAlgorithm());
+            final Mac mac = getMac();
             cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, ivSpec);
 
             final byte[] encrypted = cipher.doFinal(plaintext);
@@ -275,7 +292,7 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
         final Exception exception;
         try {
             final SecretKey secretKey = keyLoader.getKey();
-            final SecretKey hmacKey = KeyUtil.getHMacKey(secretKey);
+            final SecretKey hmacKey = keyLoader.getHMacKey(secretKey);
 
             // byte input array: [keyVersion][encryptedData][IV][macDigest]
             final int ivIndex = encryptedBlobWithoutEncodeVersion.length - IV_LENGTH - MAC_DIGEST_LENGTH;
@@ -286,8 +303,8 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
             // Calculate digest again and compare to the appended value
             // incoming message: version+encryptedData+IV+Digest
             // Digest of EncryptedData+IV excluding the digest itself.
-            final Cipher cipher = Cipher.getInstance(keyLoader.getCipherAlgorithm());
-            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            final Cipher cipher = getCipher(keyLoader.getCipherAlgorithm());
+            final Mac mac = getMac();
             mac.init(hmacKey);
             mac.update(encryptedBlobWithoutEncodeVersion, 0, macDigestIndex);
             final byte[] macDigest = mac.doFinal();
@@ -340,6 +357,38 @@ public abstract class StorageEncryptionManager implements IKeyAccessor {
         throw new ClientException(errCode, exception.getMessage(), exception);
     }
 
+    /**
+     * Returns this thread's {@link Cipher} for the given algorithm. It must be (re)initialized before use.
+     */
+    @NonNull
+    private static Cipher getCipher(@NonNull final String cipherAlgorithm)
+            throws NoSuchAlgorithmException, NoSuchPaddingException {
+        final Map<String, Cipher> ciphers = CIPHERS_THREAD_LOCAL.get();
+        Cipher cipher = ciphers.get(cipherAlgorithm);
+
+        if (cipher == null) {
+            cipher = Cipher.getInstance(cipherAlgorithm);
+            ciphers.put(cipherAlgorithm, cipher);
+        }
+
+        return cipher;
+    }
+
+    /**
+     * Returns this thread's {@link Mac} for {@link KeyUtil#HMAC_ALGORITHM}. It must be (re)initialized before use.
+     */
+    @NonNull
+    private static Mac getMac() throws NoSuchAlgorithmException {
+        Mac mac = MAC_THREAD_LOCAL.get();
+
+        if (mac == null) {
+            mac = Mac.getInstance(HMAC_ALGORITHM);
+            MAC_THREAD_LOCAL.set(mac);
+        }
+
+        return mac;
+    }
+
     /**
      * A function which is triggered every time a decryption failed.
      *
@@ -44,6 +44,11 @@ import static com.microsoft.identity.common.java.exception.ClientException.NO_SU
 public abstract class AbstractSecretKeyLoader {
     private static final String TAG = AbstractSecretKeyLoader.class.getSimpleName();
 
+    /**
+     * The HMAC key most recently derived by {@link #getHMacKey(SecretKey)}.
+     */
+    private volatile DerivedHMacKey mDerivedHMacKey;
+
     /**
      * Returns this key's alias/name.
      * Each key will have a unique alias/name.
@@ -57,6 +62,28 @@ public abstract class AbstractSecretKeyLoader {
     @NonNull
     public abstract SecretKey getKey() throws ClientException;
 
+    /**
+     * Returns the HMAC key derived from the supplied key, as returned by {@link #getKey()}
+     * (see {@link KeyUtil#getHMacKey(SecretKey)}).
+     * <p>
+     * Callers pass in the key they already fetched, so that both keys belong to the same rotation.
+     * The derivation is memoized for as long as {@link #getKey()} keeps returning the same key.
+     *
+     * @param key the key to derive the HMAC key from.
+     */
+    @NonNull
+    public SecretKey getHMacKey(@NonNull final SecretKey key) throws NoSuchAlgorithmException {
+        final DerivedHMacKey derivedHMacKey = mDerivedHMacKey;
+
+        if (derivedHMacKey != null && derivedHMacKey.mSourceKey == key) {
+            return derivedHMacKey.mHMacKey;
+        }
+
+        final SecretKey hmacKey = KeyUtil.getHMacKey(key);
+        mDerivedHMacKey = new DerivedHMacKey(key, hmacKey);
+        return hmacKey;
+    }
+
     /**
      * Returns the Algorithm of this key.
      * This must be compatible with {@link KeyGenerator#getInstance(String)}
@@ -140,4 +167,17 @@ public abstract class AbstractSecretKeyLoader {
     public SecretKey deserializeSecretKey(@NonNull final String serializedKey) {
         return generateKeyFromRawBytes(Base64.decode(serializedKey, Base64.DEFAULT));
     }
+
+    /**
+     * A key, and the HMAC key derived from it.
+     */
+    private static final class DerivedHMacKey {
+        private final SecretKey mSourceKey;
+        private final SecretKey mHMacKey;
+
+        DerivedHMacKey(@NonNull final SecretKey sourceKey, @NonNull final SecretKey hmacKey) {
+            mSourceKey = sourceKey;
+            mHMacKey = hmacKey;
+        }
+    }
 }
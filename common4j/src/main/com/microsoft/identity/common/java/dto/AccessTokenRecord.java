@@ -142,6 +142,11 @@ public class AccessTokenRecord extends Credential {
     @SerializedName(TARGET)
     private String mTarget;
 
+    /**
+     * Normalized form of {@link #mTarget}, parsed on first use and never persisted.
+     */
+    private transient ScopeSet mScopeSet;
+
     /**
      * Token expiry time. This value should be calculated based on the current UTC time measured
      * locally and the value expires_in returned from the service. Measured in milliseconds from
@@ -236,6 +241,23 @@ public class AccessTokenRecord extends Credential {
         mTarget = target;
     }
 
+    /**
+     * Gets the target as a normalized {@link ScopeSet}. The result is cached until the target
+     * changes.
+     *
+     * @return The parsed target.
+     */
+    public ScopeSet getScopeSet() {
+        ScopeSet scopeSet = mScopeSet;
+
+        if (null == scopeSet || !scopeSet.isParsedFrom(mTarget)) {
+            scopeSet = ScopeSet.fromTarget(mTarget);
+            mScopeSet = scopeSet;
+        }
+
+        return scopeSet;
+    }
+
     /**
      * Gets the access_token_type.
      *
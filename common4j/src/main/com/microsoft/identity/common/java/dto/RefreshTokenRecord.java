@@ -55,6 +55,11 @@ public class RefreshTokenRecord extends Credential {
     @SerializedName(TARGET)
     private String mTarget;
 
+    /**
+     * Normalized form of {@link #mTarget}, parsed on first use and never persisted.
+     */
+    private transient ScopeSet mScopeSet;
+
     /**
      * Gets the target.
      *
@@ -73,6 +78,23 @@ public class RefreshTokenRecord extends Credential {
         mTarget = target;
     }
 
+    /**
+     * Gets the target as a normalized {@link ScopeSet}. The result is cached until the target
+     * changes.
+     *
+     * @return The parsed target.
+     */
+    public ScopeSet getScopeSet() {
+        ScopeSet scopeSet = mScopeSet;
+
+        if (null == scopeSet || !scopeSet.isParsedFrom(mTarget)) {
+            scopeSet = ScopeSet.fromTarget(mTarget);
+            mScopeSet = scopeSet;
+        }
+
+        return scopeSet;
+    }
+
     /**
      * Gets the family_id.
      *
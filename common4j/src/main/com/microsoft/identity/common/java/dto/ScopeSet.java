@@ -0,0 +1,196 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.dto;
+
+import static com.microsoft.identity.common.java.AuthenticationConstants.DEFAULT_SCOPES;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * An immutable, normalized representation of a whitespace-delimited target (scope) string.
+ * <p>
+ * Scopes are lowercased, de-duplicated, interned and kept sorted so that subset checks are a
+ * single merge walk over two arrays. Parsing follows the same rules as splitting the trimmed
+ * target on {@code \s+}.
+ */
+public final class ScopeSet {
+
+    /**
+     * Upper bound on the number of distinct scopes kept in the intern pool.
+     */
+    private static final int MAX_INTERNED_SCOPES = 1024;
+
+    private static final ConcurrentMap<String, String> sInternedScopes = new ConcurrentHashMap<>();
+
+    /**
+     * The target this set was parsed from. Used by the owning record to detect a changed target.
+     */
+    private final String mSource;
+
+    /**
+     * Sorted, distinct, lowercased scopes.
+     */
+    private final String[] mScopes;
+
+    /**
+     * {@link #mScopes} without {@link com.microsoft.identity.common.java.AuthenticationConstants#DEFAULT_SCOPES}.
+     */
+    private final String[] mNonDefaultScopes;
+
+    private ScopeSet(@Nullable final String source,
+                     @NonNull final String[] scopes,
+                     @NonNull final String[] nonDefaultScopes) {
+        mSource = source;
+        mScopes = scopes;
+        mNonDefaultScopes = nonDefaultScopes;
+    }
+
+    /**
+     * Parses the supplied target into a ScopeSet. A null target is treated as an empty string.
+     *
+     * @param target The whitespace-delimited target.
+     * @return The parsed ScopeSet.
+     */
+    @NonNull
+    public static ScopeSet fromTarget(@Nullable final String target) {
+        final String trimmed = null == target ? "" : target.trim();
+        final List<String> tokens = new ArrayList<>();
+
+        int tokenStart = 0;
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (isRegexWhitespace(trimmed.charAt(i))) {
+                if (i > tokenStart) {
+                    tokens.add(trimmed.substring(tokenStart, i));
+                }
+                tokenStart = i + 1;
+            }
+        }
+        // Same as String.split(), an empty input yields a single empty token.
+        if (tokenStart < trimmed.length() || tokens.isEmpty()) {
+            tokens.add(trimmed.substring(tokenStart));
+        }
+
+        final String[] scopes = new String[tokens.size()];
+        for (int i = 0; i < scopes.length; i++) {
+            scopes[i] = intern(tokens.get(i).toLowerCase(Locale.ROOT));
+        }
+
+        final String[] distinctScopes = sortedDistinct(scopes);
+        final List<String> nonDefaultScopes = new ArrayList<>(distinctScopes.length);
+        for (final String scope : distinctScopes) {
+            if (!DEFAULT_SCOPES.contains(scope)) {
+                nonDefaultScopes.add(scope);
+            }
+        }
+
+        return new ScopeSet(
+                target,
+                distinctScopes,
+                nonDefaultScopes.toArray(new String[0])
+        );
+    }
+
+    /**
+     * Checks whether this set contains every scope of the sought set.
+     *
+     * @param sought            The scopes which must all be present.
+     * @param omitDefaultScopes True if MSAL's default scopes should be ignored on the sought side.
+     * @return True if this set is a superset of the sought scopes.
+     */
+    public boolean containsAll(@NonNull final ScopeSet sought, final boolean omitDefaultScopes) {
+        final String[] soughtScopes = omitDefaultScopes ? sought.mNonDefaultScopes : sought.mScopes;
+
+        if (soughtScopes.length > mScopes.length) {
+            return false;
+        }
+
+        int i = 0;
+        for (final String soughtScope : soughtScopes) {
+            while (i < mScopes.length && mScopes[i].compareTo(soughtScope) < 0) {
+                i++;
+            }
+
+            if (i == mScopes.length || !mScopes[i].equals(soughtScope)) {
+                return false;
+            }
+
+            i++;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if this set was parsed from the supplied target instance.
+     *
+     * @param target The target to compare.
+     */
+    boolean isParsedFrom(@Nullable final String target) {
+        return mSource == target;
+    }
+
+    @NonNull
+    private static String[] sortedDistinct(@NonNull final String[] scopes) {
+        Arrays.sort(scopes);
+
+        int distinctCount = 0;
+        for (int i = 0; i < scopes.length; i++) {
+            if (i == 0 || !scopes[i].equals(scopes[distinctCount - 1])) {
+                scopes[distinctCount++] = scopes[i];
+            }
+        }
+
+        return distinctCount == scopes.length ? scopes : Arrays.copyOf(scopes, distinctCount);
+    }
+
+    @NonNull
+    private static String intern(@NonNull final String scope) {
+        final String interned = sInternedScopes.get(scope);
+
+        if (null != interned) {
+            return interned;
+        }
+
+        if (sInternedScopes.size() >= MAX_INTERNED_SCOPES) {
+            return scope;
+        }
+
+        final String existing = sInternedScopes.putIfAbsent(scope, scope);
+        return null == existing ? scope : existing;
+    }
+
+    /**
+     * Matches the characters of the {@code \s} regex character class.
+     */
+    private static boolean isRegexWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
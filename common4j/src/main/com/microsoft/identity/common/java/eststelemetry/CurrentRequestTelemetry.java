@@ -40,6 +40,13 @@ class CurrentRequestTelemetry extends RequestTelemetry implements ICurrentTeleme
     @Accessors(prefix = "m")
     private boolean mForceRefresh;
 
+    /**
+     * The header string as of the last {@link #put}. A request's telemetry is only written by the
+     * thread executing that request, so this is rebuilt at most once per change rather than once per
+     * HTTP request.
+     */
+    private transient volatile String mCompleteHeaderString;
+
     CurrentRequestTelemetry() {
         super(SchemaConstants.CURRENT_SCHEMA_VERSION);
     }
@@ -51,17 +58,33 @@ class CurrentRequestTelemetry extends RequestTelemetry implements ICurrentTeleme
 
     }
 
+    @Override
+    public String getCompleteHeaderString() {
+        String headerString = mCompleteHeaderString;
+
+        if (headerString == null) {
+            headerString = super.getCompleteHeaderString();
+            mCompleteHeaderString = headerString;
+        }
+
+        return headerString;
+    }
+
     @Override
     public void put(@NonNull final String key, @NonNull final String value) {
         switch (key) {
             case API_ID:
                 mApiId = value;
+                mCompleteHeaderString = null;
                 break;
             case FORCE_REFRESH:
                 mForceRefresh = TelemetryUtils.getBooleanFromString(value);
+                mCompleteHeaderString = null;
                 break;
             default:
-                putInPlatformTelemetry(key, value);
+                if (putInPlatformTelemetry(key, value)) {
+                    mCompleteHeaderString = null;
+                }
                 break;
         }
     }
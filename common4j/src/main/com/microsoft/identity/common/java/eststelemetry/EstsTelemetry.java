@@ -32,20 +32,32 @@ import com.microsoft.identity.common.java.logging.DiagnosticContext;
 import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.result.ILocalAuthenticationResult;
 import com.microsoft.identity.common.java.util.StringUtil;
+import com.microsoft.identity.common.java.util.ThreadUtils;
 import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 import lombok.NonNull;
 
 /**
  * Manages telemetry to be sent to ESTS via token requests.
+ * <p>
+ * The telemetry of a request is only written by the thread executing that request, and is keyed by
+ * correlation id, so emitting and building the current request header never takes a shared lock.
+ * The last request telemetry is kept in memory: its header is rebuilt once per {@link #flush} and
+ * published as an immutable snapshot, and writes to {@link LastRequestTelemetryCache} are coalesced
+ * and performed on a background thread.
  */
 public class EstsTelemetry {
     private final static String TAG = EstsTelemetry.class.getSimpleName();
@@ -59,8 +71,20 @@ public class EstsTelemetry {
     private static final String SUPPLEMENTAL_TELEMETRY_DATA_CACHE_FILE_NAME =
             "com.microsoft.identity.client.supplemental_telemetry_data_cache";
 
+    /**
+     * How long the persistence thread is kept around once there is nothing left to write.
+     */
+    private static final long PERSIST_THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    private static final Executor SYNCHRONOUS_EXECUTOR = new Executor() {
+        @Override
+        public void execute(@NonNull final Runnable command) {
+            command.run();
+        }
+    };
+
     private static volatile EstsTelemetry sEstsTelemetryInstance = null;
-    private LastRequestTelemetryCache mLastRequestTelemetryCache;
+    private volatile LastRequestTelemetryCache mLastRequestTelemetryCache;
     private final INameValueStorage<CurrentRequestTelemetry> mTelemetryMap;
     private final INameValueStorage<Set<FailedRequest>> mSentFailedRequests;
 
@@ -72,18 +96,57 @@ public class EstsTelemetry {
      * fields that are emitted in code that is running outside that context. This fields are the
      * ones determined by {@link SchemaConstants#isOfflineEmitAllowedForThisField(String)}.
      */
-    private INameValueStorage<String> mSupplementalTelemetryDataCache;
+    private volatile INameValueStorage<String> mSupplementalTelemetryDataCache;
+
+    /**
+     * Guards {@link #mLastRequestTelemetry} and {@link #mIsLastRequestTelemetryLoaded}.
+     */
+    private final Object mLastRequestLock = new Object();
+
+    /**
+     * Serializes writes to and clearing of {@link #mLastRequestTelemetryCache}.
+     * Always acquired before {@link #mLastRequestLock}.
+     */
+    private final Object mPersistLock = new Object();
+
+    /**
+     * The last request telemetry, read from {@link #mLastRequestTelemetryCache} once and then
+     * updated in memory. Null if there is none yet.
+     */
+    private LastRequestTelemetry mLastRequestTelemetry;
+
+    private boolean mIsLastRequestTelemetryLoaded;
+
+    /**
+     * The last request header built from {@link #mLastRequestTelemetry}. Null until loaded.
+     */
+    private volatile LastRequestHeader mLastRequestHeader;
+
+    private final Executor mPersistExecutor;
+    private final AtomicBoolean mIsPersistScheduled = new AtomicBoolean(false);
 
     EstsTelemetry() {
         this(new InMemoryStorage<CurrentRequestTelemetry>(),
-                new InMemoryStorage<Set<FailedRequest>>());
+                new InMemoryStorage<Set<FailedRequest>>(),
+                ThreadUtils.getNamedThreadPoolExecutor(
+                        0, 1, -1,
+                        PERSIST_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                        "ests-telemetry-persist"
+                ));
     }
 
-    // Exposed for testing only.
+    // Exposed for testing only. Writes to the last request telemetry cache synchronously.
     EstsTelemetry(@NonNull final INameValueStorage<CurrentRequestTelemetry> telemetryMap,
                   @NonNull final INameValueStorage<Set<FailedRequest>> sentFailedRequestsMap) {
+        this(telemetryMap, sentFailedRequestsMap, SYNCHRONOUS_EXECUTOR);
+    }
+
+    EstsTelemetry(@NonNull final INameValueStorage<CurrentRequestTelemetry> telemetryMap,
+                  @NonNull final INameValueStorage<Set<FailedRequest>> sentFailedRequestsMap,
+                  @NonNull final Executor persistExecutor) {
         mTelemetryMap = telemetryMap;
         mSentFailedRequests = sentFailedRequestsMap;
+        mPersistExecutor = persistExecutor;
     }
 
     /**
@@ -92,20 +155,39 @@ public class EstsTelemetry {
      *
      * @return EstsTelemetry object instance
      */
-    public static synchronized EstsTelemetry getInstance() {
-        if (sEstsTelemetryInstance == null) {
-            sEstsTelemetryInstance = new EstsTelemetry();
+    public static EstsTelemetry getInstance() {
+        EstsTelemetry instance = sEstsTelemetryInstance;
+
+        if (instance == null) {
+            synchronized (EstsTelemetry.class) {
+                instance = sEstsTelemetryInstance;
+
+                if (instance == null) {
+                    instance = new EstsTelemetry();
+                    sEstsTelemetryInstance = instance;
+                }
+            }
         }
 
-        return sEstsTelemetryInstance;
+        return instance;
     }
 
     //@VisibleForTesting
-    public synchronized void clear() {
+    public void clear() {
         mTelemetryMap.clear();
         mSentFailedRequests.clear();
-        if (mLastRequestTelemetryCache != null) {
-            mLastRequestTelemetryCache.clear();
+
+        synchronized (mPersistLock) {
+            synchronized (mLastRequestLock) {
+                mLastRequestTelemetry = null;
+                mIsLastRequestTelemetryLoaded = false;
+                mLastRequestHeader = null;
+            }
+
+            final LastRequestTelemetryCache lastRequestTelemetryCache = mLastRequestTelemetryCache;
+            if (lastRequestTelemetryCache != null) {
+                lastRequestTelemetryCache.clear();
+            }
         }
     }
 
@@ -113,9 +195,15 @@ public class EstsTelemetry {
      * Bootstrap an instance of {@link EstsTelemetry}.
      * Must be invoked prior to any operation on this object.
      */
-    public synchronized void setUp(@NonNull final LastRequestTelemetryCache lastRequestTelemetryCache) {
-        if (this.mLastRequestTelemetryCache == null) {
-            this.mLastRequestTelemetryCache = lastRequestTelemetryCache;
+    public void setUp(@NonNull final LastRequestTelemetryCache lastRequestTelemetryCache) {
+        if (mLastRequestTelemetryCache != null) {
+            return;
+        }
+
+        synchronized (mLastRequestLock) {
+            if (mLastRequestTelemetryCache == null) {
+                mLastRequestTelemetryCache = lastRequestTelemetryCache;
+            }
         }
     }
 
@@ -123,16 +211,22 @@ public class EstsTelemetry {
      * Bootstrap an instance of {@link EstsTelemetry}.
      * Must be invoked prior to any operation on this object.
      */
-    public synchronized void setUp(@NonNull final IPlatformComponents platformComponents) {
-        if (this.mLastRequestTelemetryCache == null) {
-            this.mLastRequestTelemetryCache = new LastRequestTelemetryCache(
-                    platformComponents.getNameValueStore(LAST_REQUEST_TELEMETRY_STORAGE_FILE, String.class));
+    public void setUp(@NonNull final IPlatformComponents platformComponents) {
+        if (mLastRequestTelemetryCache != null && mSupplementalTelemetryDataCache != null) {
+            return;
         }
 
-        if (mSupplementalTelemetryDataCache == null) {
-            mSupplementalTelemetryDataCache = platformComponents.getNameValueStore(
-                    SUPPLEMENTAL_TELEMETRY_DATA_CACHE_FILE_NAME, String.class
-            );
+        synchronized (mLastRequestLock) {
+            if (mLastRequestTelemetryCache == null) {
+                mLastRequestTelemetryCache = new LastRequestTelemetryCache(
+                        platformComponents.getNameValueStore(LAST_REQUEST_TELEMETRY_STORAGE_FILE, String.class));
+            }
+
+            if (mSupplementalTelemetryDataCache == null) {
+                mSupplementalTelemetryDataCache = platformComponents.getNameValueStore(
+                        SUPPLEMENTAL_TELEMETRY_DATA_CACHE_FILE_NAME, String.class
+                );
+            }
         }
     }
 
@@ -188,9 +282,10 @@ public class EstsTelemetry {
         }
     }
 
-    private synchronized void emitToSupplementalTelemetryCache(@NonNull final String key, final String value) {
-        if (mSupplementalTelemetryDataCache != null && SchemaConstants.isOfflineEmitAllowedForThisField(key)) {
-            mSupplementalTelemetryDataCache.put(key, value);
+    private void emitToSupplementalTelemetryCache(@NonNull final String key, final String value) {
+        final INameValueStorage<String> supplementalTelemetryDataCache = mSupplementalTelemetryDataCache;
+        if (supplementalTelemetryDataCache != null && SchemaConstants.isOfflineEmitAllowedForThisField(key)) {
+            supplementalTelemetryDataCache.put(key, value);
         }
     }
 
@@ -249,12 +344,13 @@ public class EstsTelemetry {
     }
 
     /**
-     * Flush the telemetry data for the current request to the storage using the {@link LastRequestTelemetry}.
-     * Removes the telemetry associated to the correlation id from the telemetry map,
-     * and saves it to the cache (SharedPreferences) as the last request telemetry.
+     * Flush the telemetry data for the current request to the {@link LastRequestTelemetry}.
+     * Removes the telemetry associated to the correlation id from the telemetry map, updates the
+     * last request telemetry and its header, and schedules a write of it to the cache
+     * (SharedPreferences).
      */
-    public synchronized void flush(@NonNull final ICommand<?> command,
-                                   @NonNull final ICommandResult commandResult) {
+    public void flush(@NonNull final ICommand<?> command,
+                      @NonNull final ICommandResult commandResult) {
         final String methodName = ":flush";
 
         final String correlationId = command.getCorrelationId();
@@ -269,87 +365,132 @@ public class EstsTelemetry {
             return;
         }
 
-        // load the last request object from cache
-        LastRequestTelemetry lastRequestTelemetry = loadLastRequestTelemetryFromCache();
+        // get the failed request set for this request. This includes all failed request
+        // data that has been sent to STS in this request.
+        final Set<FailedRequest> failedRequestSentSet = mSentFailedRequests.get(correlationId);
 
-        // We did not have a last request object in cache, let's create a new one and copySharedValues
-        // fields from current request where applicable
-        if (lastRequestTelemetry == null) {
-            lastRequestTelemetry = new LastRequestTelemetry(currentTelemetry.getSchemaVersion());
-            lastRequestTelemetry = (LastRequestTelemetry) lastRequestTelemetry.copySharedValues(currentTelemetry);
+        // we're done processing telemetry for this command, let's remove it from the map
+        mTelemetryMap.remove(correlationId);
+        mSentFailedRequests.remove(correlationId);
+
+        final LastRequestTelemetryCache lastRequestTelemetryCache = mLastRequestTelemetryCache;
+        if (lastRequestTelemetryCache == null) {
+            Logger.warn(
+                    TAG + methodName,
+                    "Last Request Telemetry Cache object was null. " +
+                            "Unable to save request telemetry to cache."
+            );
+            return;
         }
 
-        if (isTelemetryLoggedByServer(command, commandResult)) {
-            // telemetry headers have been sent to token endpoint and logged by sts
-            // this is the time to reset local telemetry state
+        final boolean isTelemetryLoggedByServer = isTelemetryLoggedByServer(command, commandResult);
+        final INameValueStorage<String> supplementalTelemetryDataCache = mSupplementalTelemetryDataCache;
+        if (isTelemetryLoggedByServer && supplementalTelemetryDataCache != null) {
+            // headers have been logged by sts - we don't need to hold on to this data - let's wipe
+            supplementalTelemetryDataCache.clear();
+        }
 
-            // reset silent successful count as we just went to token endpoint
-            lastRequestTelemetry.resetSilentSuccessCount();
+        // get the error encountered during execution of this command
+        final String errorCode = getErrorCodeFromCommandResult(commandResult);
+        final boolean isServicedFromCache = errorCode == null
+                && commandResult.getResult() instanceof ILocalAuthenticationResult
+                && ((ILocalAuthenticationResult) commandResult.getResult()).isServicedFromCache();
+
+        synchronized (mLastRequestLock) {
+            loadLastRequestTelemetry(lastRequestTelemetryCache);
+
+            // We did not have a last request object in cache, let's create a new one and copySharedValues
+            // fields from current request where applicable
+            if (mLastRequestTelemetry == null) {
+                mLastRequestTelemetry = new LastRequestTelemetry(currentTelemetry.getSchemaVersion());
+                mLastRequestTelemetry.copySharedValues(currentTelemetry);
+            }
 
-            // get the failed request set for this request. This includes all failed request
-            // data that has been sent to STS in this request.
-            Set<FailedRequest> failedRequestSentSet = mSentFailedRequests.get(correlationId);
+            if (isTelemetryLoggedByServer) {
+                // telemetry headers have been sent to token endpoint and logged by sts
+                // this is the time to reset local telemetry state
 
-            // headers have been logged by sts - we don't need to hold on to this data - let's wipe
-            lastRequestTelemetry.wipeFailedRequestAndErrorForSubList(failedRequestSentSet);
+                // reset silent successful count as we just went to token endpoint
+                mLastRequestTelemetry.resetSilentSuccessCount();
 
-            if (mSupplementalTelemetryDataCache != null) {
                 // headers have been logged by sts - we don't need to hold on to this data - let's wipe
-                mSupplementalTelemetryDataCache.clear();
+                mLastRequestTelemetry.wipeFailedRequestAndErrorForSubList(failedRequestSentSet);
             }
-        }
-
-        // get the error encountered during execution of this command
-        final String errorCode = getErrorCodeFromCommandResult(commandResult);
 
-        if (errorCode != null) {
-            // we have an error, let's append it to the list
-            lastRequestTelemetry.appendFailedRequest(
-                    currentTelemetry.getApiId(),
-                    correlationId,
-                    errorCode);
-        } else if (commandResult.getResult() != null &&
-                commandResult.getResult() instanceof ILocalAuthenticationResult) {
-            final ILocalAuthenticationResult localAuthenticationResult = (ILocalAuthenticationResult) commandResult.getResult();
-            if (localAuthenticationResult.isServicedFromCache()) {
+            if (errorCode != null) {
+                // we have an error, let's append it to the list
+                mLastRequestTelemetry.appendFailedRequest(
+                        currentTelemetry.getApiId(),
+                        correlationId,
+                        errorCode);
+            } else if (isServicedFromCache) {
                 // we returned a token from cache, let's increment the silent success count
-                lastRequestTelemetry.incrementSilentSuccessCount();
-            }
-        } // else leave everything as is
+                mLastRequestTelemetry.incrementSilentSuccessCount();
+            } // else leave everything as is
 
-        // we're done processing telemetry for this command, let's remove it from the map
-        mTelemetryMap.remove(correlationId);
-        mSentFailedRequests.remove(correlationId);
+            mLastRequestHeader = buildLastRequestHeader(mLastRequestTelemetry);
+        }
 
-        if (mLastRequestTelemetryCache != null) {
-            // save the (updated) telemetry object back to telemetry cache
-            mLastRequestTelemetryCache.saveRequestTelemetryToCache(lastRequestTelemetry);
-        } else {
-            Logger.warn(
-                    TAG + methodName,
-                    "Last Request Telemetry Cache object was null. " +
-                            "Unable to save request telemetry to cache."
-            );
+        schedulePersist(lastRequestTelemetryCache);
+    }
+
+    /**
+     * Reads the last request telemetry from cache, if that has not been done yet.
+     * Must be called while holding {@link #mLastRequestLock}.
+     */
+    private void loadLastRequestTelemetry(@NonNull final LastRequestTelemetryCache lastRequestTelemetryCache) {
+        if (!mIsLastRequestTelemetryLoaded) {
+            mLastRequestTelemetry = lastRequestTelemetryCache.getRequestTelemetryFromCache();
+            mLastRequestHeader = buildLastRequestHeader(mLastRequestTelemetry);
+            mIsLastRequestTelemetryLoaded = true;
         }
     }
 
     /**
-     * Loads the last request telemetry instance from cache.
-     **/
-    @Nullable
-    private LastRequestTelemetry loadLastRequestTelemetryFromCache() {
-        final String methodName = ":loadLastRequestTelemetry";
+     * Schedules a write of the last request telemetry to cache. If a write is already pending,
+     * it will pick up the latest state and nothing more is scheduled.
+     */
+    private void schedulePersist(@NonNull final LastRequestTelemetryCache lastRequestTelemetryCache) {
+        final String methodName = ":schedulePersist";
 
-        if (mLastRequestTelemetryCache == null) {
-            Logger.verbose(
-                    TAG + methodName,
-                    "Last Request Telemetry Cache has not been initialized. " +
-                            "Cannot load Last Request Telemetry data from cache."
-            );
-            return null;
+        if (!mIsPersistScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            mPersistExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    persist(lastRequestTelemetryCache);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            mIsPersistScheduled.set(false);
+            Logger.warn(TAG + methodName, "Unable to schedule a write of the Last Request Telemetry.");
         }
+    }
+
+    private void persist(@NonNull final LastRequestTelemetryCache lastRequestTelemetryCache) {
+        final String methodName = ":persist";
+
+        // Any flush from here on schedules another write.
+        mIsPersistScheduled.set(false);
 
-        return mLastRequestTelemetryCache.getRequestTelemetryFromCache();
+        try {
+            synchronized (mPersistLock) {
+                final LastRequestTelemetry lastRequestTelemetry;
+                synchronized (mLastRequestLock) {
+                    if (mLastRequestTelemetry == null) {
+                        return;
+                    }
+                    lastRequestTelemetry = mLastRequestTelemetry.copy();
+                }
+
+                lastRequestTelemetryCache.saveRequestTelemetryToCache(lastRequestTelemetry);
+            }
+        } catch (final RuntimeException e) {
+            Logger.error(TAG + methodName, "Failed to save the Last Request Telemetry to cache.", e);
+        }
     }
 
     /**
@@ -424,7 +565,7 @@ public class EstsTelemetry {
             return null;
         }
 
-        final RequestTelemetry currentTelemetry = mTelemetryMap.get(correlationId);
+        final CurrentRequestTelemetry currentTelemetry = mTelemetryMap.get(correlationId);
         if (currentTelemetry == null) {
             Logger.warn(TAG + methodName, "currentTelemetry for correlation ID:" +
                     correlationId + " is null.");
@@ -432,14 +573,21 @@ public class EstsTelemetry {
         }
 
         // we are collecting telemetry so now add these to primary Map
-        addFromSupplementalTelemetryToCurrentTelemetry();
+        addFromSupplementalTelemetryToCurrentTelemetry(currentTelemetry);
 
         return currentTelemetry.getCompleteHeaderString();
     }
 
-    private synchronized void addFromSupplementalTelemetryToCurrentTelemetry() {
-        if (mSupplementalTelemetryDataCache != null) {
-            EstsTelemetry.getInstance().emit(mSupplementalTelemetryDataCache.getAll());
+    private void addFromSupplementalTelemetryToCurrentTelemetry(@NonNull final CurrentRequestTelemetry currentTelemetry) {
+        final INameValueStorage<String> supplementalTelemetryDataCache = mSupplementalTelemetryDataCache;
+        if (supplementalTelemetryDataCache == null) {
+            return;
+        }
+
+        for (final Map.Entry<String, String> entry : supplementalTelemetryDataCache.getAll().entrySet()) {
+            if (!StringUtil.isNullOrEmpty(entry.getKey())) {
+                currentTelemetry.put(entry.getKey(), TelemetryUtils.getSchemaCompliantString(entry.getValue()));
+            }
         }
     }
 
@@ -447,10 +595,11 @@ public class EstsTelemetry {
      * Returns a header string from the "Last Request Telemetry instance" for the eSTS Telemetry.
      */
     @Nullable
-    private synchronized String getLastTelemetryHeaderString() {
+    private String getLastTelemetryHeaderString() {
         final String methodName = ":getLastTelemetryHeaderString";
 
-        if (mLastRequestTelemetryCache == null) {
+        final LastRequestTelemetryCache lastRequestTelemetryCache = mLastRequestTelemetryCache;
+        if (lastRequestTelemetryCache == null) {
             Logger.warn(TAG + methodName, "mLastRequestTelemetryCache is null.");
             return null;
         }
@@ -461,53 +610,76 @@ public class EstsTelemetry {
             return null;
         }
 
-        final LastRequestTelemetry lastRequestTelemetryFromCache = mLastRequestTelemetryCache.getRequestTelemetryFromCache();
-        if (lastRequestTelemetryFromCache == null) {
-            // we did not have anything in the telemetry cache for the last request
-            // let's create a new object based on the data available from the current request object
-            // and return the header string formed via that object
-            final CurrentRequestTelemetry currentRequestTelemetry = mTelemetryMap.get(correlationId);
-            if (currentRequestTelemetry == null) {
-                Logger.warn(TAG + methodName, "currentTelemetry for correlation ID:" +
-                        correlationId + " is null.");
-                return null;
+        LastRequestHeader lastRequestHeader = mLastRequestHeader;
+        if (lastRequestHeader == null) {
+            synchronized (mLastRequestLock) {
+                loadLastRequestTelemetry(lastRequestTelemetryCache);
+                lastRequestHeader = mLastRequestHeader;
             }
+        }
+
+        // we have attempted to send these failed requests/errors to the server
+        final Set<FailedRequest> failedRequestSentSet = mSentFailedRequests.get(correlationId);
+        if (failedRequestSentSet != null) {
+            failedRequestSentSet.addAll(lastRequestHeader.mFailedRequests);
+        }
+
+        return lastRequestHeader.mHeaderString;
+    }
 
+    /**
+     * Builds the last request header for the supplied last request telemetry.
+     *
+     * @param lastRequestTelemetry the last request telemetry, or null if there is none.
+     */
+    @NonNull
+    private static LastRequestHeader buildLastRequestHeader(@Nullable final LastRequestTelemetry lastRequestTelemetry) {
+        if (lastRequestTelemetry == null) {
+            // we did not have anything in the telemetry cache for the last request.
             // We're trying to send this.. so that if we ever come across this field being null on the server
             // then we know you have a bug in the client.
-            final LastRequestTelemetry lastRequestTelemetry = new LastRequestTelemetry(currentRequestTelemetry.getSchemaVersion());
-            lastRequestTelemetry.copySharedValues(currentRequestTelemetry);
-            lastRequestTelemetry.putInPlatformTelemetry(
+            final LastRequestTelemetry emptyLastRequestTelemetry =
+                    new LastRequestTelemetry(SchemaConstants.CURRENT_SCHEMA_VERSION);
+            emptyLastRequestTelemetry.putInPlatformTelemetry(
                     SchemaConstants.Key.ALL_TELEMETRY_DATA_SENT,
                     SchemaConstants.Value.TRUE
             );
-            return lastRequestTelemetry.getCompleteHeaderString();
+            return new LastRequestHeader(
+                    emptyLastRequestTelemetry.getCompleteHeaderString(),
+                    Collections.<FailedRequest>emptyList()
+            );
         }
 
-        // create a copy of the object retrieved from cache
-        final LastRequestTelemetry lastRequestTelemetryCopy = new LastRequestTelemetry(lastRequestTelemetryFromCache.getSchemaVersion());
-        lastRequestTelemetryCopy.copySharedValues(lastRequestTelemetryFromCache);
+        // create a copy of the last request telemetry, without failed requests
+        final LastRequestTelemetry lastRequestTelemetryCopy = new LastRequestTelemetry(lastRequestTelemetry.getSchemaVersion());
+        lastRequestTelemetryCopy.copySharedValues(lastRequestTelemetry);
 
-        // failed request data from the object retrieved from cache
-        final List<FailedRequest> originalFailedRequests = lastRequestTelemetryFromCache.getFailedRequests();
+        final String emptyHeaderString = lastRequestTelemetryCopy.getCompleteHeaderString();
+        if (emptyHeaderString == null) {
+            return new LastRequestHeader(null, Collections.<FailedRequest>emptyList());
+        }
 
-        // get the failed request set for the failed request data that we attempt to send in header
-        // as part of this request
-        final Set<FailedRequest> failedRequestSentSet = mSentFailedRequests.get(correlationId);
+        final List<FailedRequest> originalFailedRequests = lastRequestTelemetry.getFailedRequests();
+        final List<FailedRequest> failedRequestsInHeader = new ArrayList<>(originalFailedRequests.size());
 
+        // The header length is tracked as failed requests are added, rather than recomputing the
+        // header for each of them.
+        int headerLength = emptyHeaderString.length();
         boolean isAllDataSentInHeader = true;
-        for (int i = 0; i < originalFailedRequests.size(); i++) {
+        for (final FailedRequest failedRequest : originalFailedRequests) {
             // there is a limit of 8KB for the payload sent in request headers
             // we will be maxing out at 4KB to avoid HTTP 413 errors
             // check if we have enough space in the String to store another failed request/error element
             // if yes, then add it to the failed request array (for the copy)
-            if (lastRequestTelemetryCopy.getCompleteHeaderString().length() < SchemaConstants.HEADER_DATA_LIMIT) {
-                final FailedRequest failedRequest = originalFailedRequests.get(i);
+            if (headerLength < SchemaConstants.HEADER_DATA_LIMIT) {
                 lastRequestTelemetryCopy.appendFailedRequest(failedRequest);
+                failedRequestsInHeader.add(failedRequest);
 
-                // we have attempted to send these failed requests/errors to the server
-                if (failedRequestSentSet != null) {
-                    failedRequestSentSet.add(failedRequest);
+                headerLength += failedRequest.toApiIdCorrelationString().length()
+                        + String.valueOf(failedRequest.toErrorCodeString()).length();
+                if (failedRequestsInHeader.size() > 1) {
+                    // the ',' separators in both the api id/correlation id and the error segments
+                    headerLength += 2;
                 }
             } else {
                 isAllDataSentInHeader = false;
@@ -523,8 +695,10 @@ public class EstsTelemetry {
                 isAllDataSentString
         );
 
-        // return the header string formed for the copy element
-        return lastRequestTelemetryCopy.getCompleteHeaderString();
+        return new LastRequestHeader(
+                lastRequestTelemetryCopy.getCompleteHeaderString(),
+                Collections.unmodifiableList(failedRequestsInHeader)
+        );
     }
 
     /**
@@ -587,4 +761,20 @@ public class EstsTelemetry {
 
         return mTelemetryMap.get(correlationId);
     }
+
+    /**
+     * An immutable last request header, and the failed requests it carries.
+     */
+    private static final class LastRequestHeader {
+        @Nullable
+        final String mHeaderString;
+
+        final List<FailedRequest> mFailedRequests;
+
+        LastRequestHeader(@Nullable final String headerString,
+                          @NonNull final List<FailedRequest> failedRequests) {
+            mHeaderString = headerString;
+            mFailedRequests = failedRequests;
+        }
+    }
 }
@@ -112,6 +112,19 @@ public class LastRequestTelemetry extends RequestTelemetry {
         }
     }
 
+    /**
+     * Returns a deep copy of this object, which can be read while this one keeps being updated.
+     */
+    LastRequestTelemetry copy() {
+        final LastRequestTelemetry copy = new LastRequestTelemetry(getSchemaVersion());
+        copy.putAllPlatformTelemetry(this);
+        copy.silentSuccessfulCount = silentSuccessfulCount;
+        copy.failedRequests = failedRequests == null
+                ? new ArrayList<FailedRequest>()
+                : new ArrayList<>(failedRequests);
+        return copy;
+    }
+
     @Override
     public IRequestTelemetry copySharedValues(@NonNull final IRequestTelemetry requestTelemetry) {
         if (requestTelemetry instanceof LastRequestTelemetry) {
@@ -23,8 +23,6 @@
 package com.microsoft.identity.common.java.eststelemetry;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import com.microsoft.identity.common.java.interfaces.INameValueStorage;
 import com.microsoft.identity.common.java.logging.Logger;
@@ -119,8 +117,6 @@ public class LastRequestTelemetryCache implements IRequestTelemetryCache<LastReq
     }
 
     private String generateCacheValue(final LastRequestTelemetry requestTelemetry) {
-        JsonElement outboundElement = mGson.toJsonTree(requestTelemetry);
-        JsonObject outboundObject = outboundElement.getAsJsonObject();
-        return mGson.toJson(outboundObject);
+        return mGson.toJson(requestTelemetry);
     }
 }
@@ -58,10 +58,24 @@ public abstract class RequestTelemetry implements IRequestTelemetry {
         }
     }
 
-    final void putInPlatformTelemetry(final String key, final String value) {
+    /**
+     * Puts the value of a platform field, unless that field already has a value.
+     *
+     * @return true if the platform telemetry was modified.
+     */
+    final boolean putInPlatformTelemetry(final String key, final String value) {
         if (isPlatformTelemetryField(key)) {
-            mPlatformTelemetry.putIfAbsent(key, value);
+            return mPlatformTelemetry.putIfAbsent(key, value) == null;
         }
+
+        return false;
+    }
+
+    /**
+     * Copies every platform field of the supplied telemetry into this one.
+     */
+    final void putAllPlatformTelemetry(@NonNull final RequestTelemetry requestTelemetry) {
+        mPlatformTelemetry.putAll(requestTelemetry.mPlatformTelemetry);
     }
 
     @Override
@@ -22,6 +22,7 @@
 // THE SOFTWARE.
 package com.microsoft.identity.common.java.interfaces;
 
+import com.microsoft.identity.common.java.storage.NameValueStorageBatch;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
 import java.util.Iterator;
@@ -80,5 +81,23 @@ public interface INameValueStorage<T> {
      *
      */
     Iterator<Map.Entry<String, T>> getAllFilteredByKey(Predicate<String> keyFilter);
+
+    /**
+     * Applies all puts and removes staged in the supplied batch.
+     * <p>
+     * Implementations backed by a file should override this to persist the whole batch with a
+     * single write. By default, the operations are applied one at a time.
+     *
+     * @param batch the staged operations.
+     */
+    default void commit(@NonNull final NameValueStorageBatch<T> batch) {
+        for (final String name : batch.getRemoves()) {
+            remove(name);
+        }
+
+        for (final Map.Entry<String, T> entry : batch.getPuts().entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
 }
 
@@ -0,0 +1,341 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * A bounded buffer of pending log messages, drained in batches by a single consumer thread.
+ * <p>
+ * All slots are allocated up front and reused, so a burst of logging costs no more memory than
+ * the capacity allows. When the buffer is full, the configured {@link LogOverflowPolicy} decides
+ * which message is dropped (or whether the producer waits), and each dropped message is counted
+ * against its level.
+ */
+final class LogEventRingBuffer {
+
+    /**
+     * A single pending log message. Slots are reused; a slot is only valid until it is cleared.
+     */
+    static final class LogEvent {
+        String mTag;
+        Logger.LogLevel mLogLevel;
+        String mThreadName;
+        String mCorrelationId;
+        String mMessage;
+        Object[] mTemplateArgs;
+        Throwable mThrowable;
+        boolean mContainsPII;
+        long mTimeMillis;
+
+        void copyFrom(@NonNull final LogEvent other) {
+            mTag = other.mTag;
+            mLogLevel = other.mLogLevel;
+            mThreadName = other.mThreadName;
+            mCorrelationId = other.mCorrelationId;
+            mMessage = other.mMessage;
+            mTemplateArgs = other.mTemplateArgs;
+            mThrowable = other.mThrowable;
+            mContainsPII = other.mContainsPII;
+            mTimeMillis = other.mTimeMillis;
+        }
+
+        void clear() {
+            mTag = null;
+            mLogLevel = null;
+            mThreadName = null;
+            mCorrelationId = null;
+            mMessage = null;
+            mTemplateArgs = null;
+            mThrowable = null;
+        }
+    }
+
+    /**
+     * Receives drained messages on the consumer thread.
+     */
+    interface IBatchConsumer {
+        /**
+         * @param batch The drained messages. Only the first {@code count} slots are valid, and only
+         *              for the duration of the call.
+         * @param count The number of valid messages.
+         */
+        void consume(@NonNull LogEvent[] batch, int count);
+    }
+
+    /**
+     * How many of the oldest pending messages {@link LogOverflowPolicy#DROP_VERBOSE_FIRST} looks
+     * through for a verbose one, before dropping the oldest message instead.
+     */
+    static final int MAX_VERBOSE_SCAN_LENGTH = 64;
+
+    private final LogEvent[] mSlots;
+    private final LogEvent[] mBatch;
+    private final IBatchConsumer mConsumer;
+    private final String mConsumerThreadName;
+
+    private final ReentrantLock mLock = new ReentrantLock();
+    private final Condition mNotEmpty = mLock.newCondition();
+    private final Condition mNotFull = mLock.newCondition();
+
+    private final AtomicLong[] mDroppedCounts = new AtomicLong[Logger.LogLevel.values().length];
+
+    // Guarded by mLock.
+    private int mHead;
+    private int mSize;
+    private Thread mConsumerThread;
+
+    private volatile LogOverflowPolicy mOverflowPolicy;
+
+    LogEventRingBuffer(final int capacity,
+                       final int maxBatchSize,
+                       @NonNull final LogOverflowPolicy overflowPolicy,
+                       @NonNull final String consumerThreadName,
+                       @NonNull final IBatchConsumer consumer) {
+        if (capacity <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("capacity and maxBatchSize must be positive.");
+        }
+
+        mSlots = new LogEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            mSlots[i] = new LogEvent();
+        }
+
+        mBatch = new LogEvent[Math.min(capacity, maxBatchSize)];
+        for (int i = 0; i < mBatch.length; i++) {
+            mBatch[i] = new LogEvent();
+        }
+
+        for (int i = 0; i < mDroppedCounts.length; i++) {
+            mDroppedCounts[i] = new AtomicLong();
+        }
+
+        mOverflowPolicy = overflowPolicy;
+        mConsumerThreadName = consumerThreadName;
+        mConsumer = consumer;
+    }
+
+    void setOverflowPolicy(@NonNull final LogOverflowPolicy overflowPolicy) {
+        mOverflowPolicy = overflowPolicy;
+    }
+
+    @NonNull
+    LogOverflowPolicy getOverflowPolicy() {
+        return mOverflowPolicy;
+    }
+
+    long getDroppedCount(@NonNull final Logger.LogLevel logLevel) {
+        return mDroppedCounts[logLevel.ordinal()].get();
+    }
+
+    long getDroppedCount() {
+        long total = 0;
+        for (final AtomicLong count : mDroppedCounts) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    void resetDroppedCounts() {
+        for (final AtomicLong count : mDroppedCounts) {
+            count.set(0);
+        }
+    }
+
+    /**
+     * Queues a log message.
+     *
+     * @return false if the message itself was dropped.
+     */
+    boolean publish(final String tag,
+                    @NonNull final Logger.LogLevel logLevel,
+                    @Nullable final String threadName,
+                    @Nullable final String correlationId,
+                    @Nullable final String message,
+                    @Nullable final Object[] templateArgs,
+                    @Nullable final Throwable throwable,
+                    final boolean containsPII,
+                    final long timeMillis) {
+        mLock.lock();
+        try {
+            ensureConsumerStarted();
+
+            if (mSize == mSlots.length && !makeRoom(logLevel)) {
+                recordDropped(logLevel);
+                return false;
+            }
+
+            final LogEvent slot = mSlots[index(mSize)];
+            slot.mTag = tag;
+            slot.mLogLevel = logLevel;
+            slot.mThreadName = threadName;
+            slot.mCorrelationId = correlationId;
+            slot.mMessage = message;
+            slot.mTemplateArgs = templateArgs;
+            slot.mThrowable = throwable;
+            slot.mContainsPII = containsPII;
+            slot.mTimeMillis = timeMillis;
+            mSize++;
+
+            mNotEmpty.signal();
+            return true;
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Frees a slot in a full buffer according to the overflow policy.
+     *
+     * @return false if the incoming message should be dropped instead.
+     */
+    private boolean makeRoom(@NonNull final Logger.LogLevel incomingLogLevel) {
+        switch (mOverflowPolicy) {
+            case BLOCK:
+                // The consumer thread would wait on itself.
+                if (Thread.currentThread() != mConsumerThread) {
+                    try {
+                        while (mSize == mSlots.length) {
+                            mNotFull.await();
+                        }
+                        return true;
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                dropOldest();
+                return true;
+            case DROP_VERBOSE_FIRST:
+                if (incomingLogLevel == Logger.LogLevel.VERBOSE) {
+                    return false;
+                }
+                final int scanLength = Math.min(mSize, MAX_VERBOSE_SCAN_LENGTH);
+                for (int i = 0; i < scanLength; i++) {
+                    if (mSlots[index(i)].mLogLevel == Logger.LogLevel.VERBOSE) {
+                        dropAt(i);
+                        return true;
+                    }
+                }
+                dropOldest();
+                return true;
+            case DROP_OLDEST:
+            default:
+                dropOldest();
+                return true;
+        }
+    }
+
+    /**
+     * Drops the oldest pending message.
+     */
+    private void dropOldest() {
+        final LogEvent dropped = mSlots[mHead];
+        recordDropped(dropped.mLogLevel);
+        dropped.clear();
+
+        mHead = (mHead + 1) % mSlots.length;
+        mSize--;
+    }
+
+    /**
+     * Drops the pending message at the given position (0 being the oldest), keeping the order of
+     * the others. Costs one slot swap per older message.
+     */
+    private void dropAt(final int position) {
+        // Move the dropped slot to the head, so that slots are never reallocated.
+        for (int i = position; i > 0; i--) {
+            final int current = index(i);
+            final int previous = index(i - 1);
+            final LogEvent temp = mSlots[current];
+            mSlots[current] = mSlots[previous];
+            mSlots[previous] = temp;
+        }
+        dropOldest();
+    }
+
+    private void recordDropped(@Nullable final Logger.LogLevel logLevel) {
+        if (logLevel != null) {
+            mDroppedCounts[logLevel.ordinal()].incrementAndGet();
+        }
+    }
+
+    private int index(final int position) {
+        return (mHead + position) % mSlots.length;
+    }
+
+    private void ensureConsumerStarted() {
+        if (mConsumerThread != null) {
+            return;
+        }
+
+        mConsumerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runConsumer();
+            }
+        }, mConsumerThreadName);
+        mConsumerThread.setDaemon(true);
+        mConsumerThread.start();
+    }
+
+    private void runConsumer() {
+        while (true) {
+            final int count;
+            mLock.lock();
+            try {
+                while (mSize == 0) {
+                    mNotEmpty.awaitUninterruptibly();
+                }
+
+                count = Math.min(mSize, mBatch.length);
+                for (int i = 0; i < count; i++) {
+                    final LogEvent slot = mSlots[mHead];
+                    mBatch[i].copyFrom(slot);
+                    slot.clear();
+                    mHead = (mHead + 1) % mSlots.length;
+                }
+                mSize -= count;
+
+                mNotFull.signalAll();
+            } finally {
+                mLock.unlock();
+            }
+
+            try {
+                mConsumer.consume(mBatch, count);
+            } catch (final Throwable t) {
+                // Nothing left to do but move on to the next batch; this thread must not die.
+            } finally {
+                for (int i = 0; i < count; i++) {
+                    mBatch[i].clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.logging;
+
+/**
+ * What {@link Logger} does with a new log message when its buffer of pending messages is full,
+ * i.e. when the registered {@link ILoggerCallback}s are not keeping up.
+ * Dropped messages are counted, see {@link Logger#getDroppedLogCount()}.
+ */
+public enum LogOverflowPolicy {
+    /**
+     * The logging thread waits until there is room in the buffer.
+     * Messages logged from within a callback never wait; the oldest pending message is dropped instead.
+     */
+    BLOCK,
+
+    /**
+     * The oldest pending message is dropped.
+     */
+    DROP_OLDEST,
+
+    /**
+     * A new {@link Logger.LogLevel#VERBOSE} message is dropped. Any other message replaces the
+     * oldest pending VERBOSE message, or the oldest pending message if there is none among the
+     * oldest {@value LogEventRingBuffer#MAX_VERBOSE_SCAN_LENGTH}.
+     */
+    DROP_VERBOSE_FIRST
+}
@@ -26,13 +26,10 @@ import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.ThrowableUtil;
 
 import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -45,7 +42,30 @@ import lombok.experimental.Accessors;
 
 public class Logger {
 
-    private static final ExecutorService sLogExecutor = Executors.newSingleThreadExecutor();
+    /**
+     * Maximum number of log messages waiting to be delivered to the callbacks.
+     */
+    private static final int LOG_BUFFER_CAPACITY = 4096;
+
+    /**
+     * Maximum number of log messages delivered under a single acquisition of the callbacks lock.
+     */
+    private static final int LOG_BATCH_SIZE = 64;
+
+    private static final LogOverflowPolicy DEFAULT_OVERFLOW_POLICY = LogOverflowPolicy.DROP_VERBOSE_FIRST;
+
+    private static final LogEventRingBuffer sLogBuffer = new LogEventRingBuffer(
+            LOG_BUFFER_CAPACITY,
+            LOG_BATCH_SIZE,
+            DEFAULT_OVERFLOW_POLICY,
+            "Logger",
+            new LogEventRingBuffer.IBatchConsumer() {
+                @Override
+                public void consume(@NonNull final LogEventRingBuffer.LogEvent[] batch, final int count) {
+                    deliver(batch, count);
+                }
+            });
+
     private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
     private static final String UNSET = "UNSET";
 
@@ -68,7 +88,10 @@ public class Logger {
 
     private static final Map<String, ILoggerCallback> sLoggers = new HashMap<>();
 
+    // Only used on the log thread.
     private static final SimpleDateFormat sDateTimeFormatter;
+    private static long sLastFormattedSecond = Long.MIN_VALUE;
+    private static String sLastFormattedDateTime;
     static {
         sDateTimeFormatter = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault());
         sDateTimeFormatter.setTimeZone(TimeZone.getTimeZone("UTC"));
@@ -118,11 +141,47 @@ public class Logger {
             sAllowPii = false;
             sPlatformString = "";
             sLogLevel = LogLevel.VERBOSE;
+            sLogBuffer.setOverflowPolicy(DEFAULT_OVERFLOW_POLICY);
+            sLogBuffer.resetDroppedCounts();
         } finally {
             sLoggersLock.writeLock().unlock();
         }
     }
 
+    /**
+     * Sets what happens to new log messages while the callbacks are not keeping up and the
+     * buffer of pending messages is full. Defaults to {@link LogOverflowPolicy#DROP_VERBOSE_FIRST}.
+     *
+     * @param overflowPolicy the policy to apply.
+     */
+    public static void setLogOverflowPolicy(@NonNull final LogOverflowPolicy overflowPolicy) {
+        sLogBuffer.setOverflowPolicy(overflowPolicy);
+    }
+
+    /**
+     * @return the policy applied when the buffer of pending log messages is full.
+     */
+    @NonNull
+    public static LogOverflowPolicy getLogOverflowPolicy() {
+        return sLogBuffer.getOverflowPolicy();
+    }
+
+    /**
+     * @return the number of log messages dropped because the buffer of pending messages was full.
+     */
+    public static long getDroppedLogCount() {
+        return sLogBuffer.getDroppedCount();
+    }
+
+    /**
+     * @param logLevel the level of the dropped messages to count.
+     * @return the number of log messages of the given level dropped because the buffer of pending
+     * messages was full.
+     */
+    public static long getDroppedLogCount(@NonNull final LogLevel logLevel) {
+        return sLogBuffer.getDroppedCount(logLevel);
+    }
+
     public static boolean setLogger(@NonNull String identifier,
                                     ILoggerCallback callback) {
         sLoggersLock.writeLock().lock();
@@ -146,14 +205,29 @@ public class Logger {
     /**
      * Get only the required metadata from the DiagnosticContext
      * to plug it in the log lines.
-     * Here we are considering the correlation_id and the thread_name. Calls private getDiagnosticContextMetadata with
-     * correlationId from existing RequestContext in DiagnosticContext
+     * Here we are considering the correlation_id and the thread_name of the existing RequestContext in DiagnosticContext.
      * The need for this is because DiagnosticContext contains additional metadata which is not always required to be logged.
      *
      * @return String The concatenation of thread_name and correlation_id to serve as the required metadata in the log lines.
      */
-    public static synchronized String getDiagnosticContextMetadata() {
-        return getDiagnosticContextMetadata(DiagnosticContext.INSTANCE.getRequestContext().get(DiagnosticContext.CORRELATION_ID));
+    public static String getDiagnosticContextMetadata() {
+        final IRequestContext requestContext = DiagnosticContext.INSTANCE.getRequestContext();
+        return formatDiagnosticContextMetadata(
+                requestContext.get(DiagnosticContext.THREAD_NAME),
+                requestContext.get(DiagnosticContext.CORRELATION_ID)
+        );
+    }
+
+    /**
+     * Checks whether a log message of the given level would be delivered, so that callers can skip
+     * building an expensive message.
+     *
+     * @param logLevel    The level of the message.
+     * @param containsPII True if the message contains PII.
+     * @return True if the message would be logged.
+     */
+    public static boolean isLoggable(@NonNull final LogLevel logLevel, final boolean containsPII) {
+        return logLevel.compareTo(sLogLevel) <= 0 && (sAllowPii || !containsPII);
     }
 
     /**
@@ -167,7 +241,7 @@ public class Logger {
     public static void error(final String tag,
                              final String errorMessage,
                              final Throwable exception) {
-        log(tag, LogLevel.ERROR, getDiagnosticContextMetadata(), errorMessage, exception, false);
+        log(tag, LogLevel.ERROR, true, null, errorMessage, exception, false);
     }
 
     /**
@@ -183,7 +257,7 @@ public class Logger {
                              final String correlationID,
                              final String errorMessage,
                              final Throwable exception) {
-        log(tag, LogLevel.ERROR, getDiagnosticContextMetadata(correlationID), errorMessage, exception, false);
+        log(tag, LogLevel.ERROR, false, correlationID, errorMessage, exception, false);
     }
 
     /**
@@ -197,7 +271,7 @@ public class Logger {
     public static void errorPII(final String tag,
                                 final String errorMessage,
                                 final Throwable exception) {
-        log(tag, LogLevel.ERROR, getDiagnosticContextMetadata(), errorMessage, exception, true);
+        log(tag, LogLevel.ERROR, true, null, errorMessage, exception, true);
     }
 
     /**
@@ -213,7 +287,7 @@ public class Logger {
                                 final String correlationID,
                                 final String errorMessage,
                                 final Throwable exception) {
-        log(tag, LogLevel.ERROR, getDiagnosticContextMetadata(correlationID), errorMessage, exception, true);
+        log(tag, LogLevel.ERROR, false, correlationID, errorMessage, exception, true);
     }
 
     /**
@@ -225,7 +299,7 @@ public class Logger {
      */
     public static void warn(final String tag,
                             final String message) {
-        log(tag, LogLevel.WARN, getDiagnosticContextMetadata(), message, null, false);
+        log(tag, LogLevel.WARN, true, null, message, null, false);
     }
 
     /**
@@ -239,7 +313,7 @@ public class Logger {
     public static void warn(final String tag,
                             final String correlationID,
                             final String message) {
-        log(tag, LogLevel.WARN, getDiagnosticContextMetadata(correlationID), message, null, false);
+        log(tag, LogLevel.WARN, false, correlationID, message, null, false);
     }
 
     /**
@@ -251,7 +325,7 @@ public class Logger {
      */
     public static void warnPII(final String tag,
                                final String message) {
-        log(tag, LogLevel.WARN, getDiagnosticContextMetadata(), message, null, true);
+        log(tag, LogLevel.WARN, true, null, message, null, true);
     }
 
     /**
@@ -265,7 +339,7 @@ public class Logger {
     public static void warnPII(final String tag,
                                final String correlationID,
                                final String message) {
-        log(tag, LogLevel.WARN, getDiagnosticContextMetadata(correlationID), message, null, true);
+        log(tag, LogLevel.WARN, false, correlationID, message, null, true);
     }
 
     /**
@@ -277,7 +351,7 @@ public class Logger {
      */
     public static void info(final String tag,
                             final String message) {
-        log(tag, Logger.LogLevel.INFO, getDiagnosticContextMetadata(), message, null, false);
+        log(tag, Logger.LogLevel.INFO, true, null, message, null, false);
     }
 
     /**
@@ -291,7 +365,7 @@ public class Logger {
     public static void info(final String tag,
                             final String correlationID,
                             final String message) {
-        log(tag, LogLevel.INFO, getDiagnosticContextMetadata(correlationID), message, null, false);
+        log(tag, LogLevel.INFO, false, correlationID, message, null, false);
     }
 
     /**
@@ -303,7 +377,7 @@ public class Logger {
      */
     public static void infoPII(final String tag,
                                final String message) {
-        log(tag, LogLevel.INFO, getDiagnosticContextMetadata(), message, null, true);
+        log(tag, LogLevel.INFO, true, null, message, null, true);
     }
 
     /**
@@ -317,7 +391,7 @@ public class Logger {
     public static void infoPII(final String tag,
                                final String correlationID,
                                final String message) {
-        log(tag, LogLevel.INFO, getDiagnosticContextMetadata(correlationID), message, null, true);
+        log(tag, LogLevel.INFO, false, correlationID, message, null, true);
     }
 
     /**
@@ -329,7 +403,7 @@ public class Logger {
      */
     public static void verbose(final String tag,
                                final String message) {
-        log(tag, LogLevel.VERBOSE, getDiagnosticContextMetadata(), message, null, false);
+        log(tag, LogLevel.VERBOSE, true, null, message, null, false);
     }
 
     /**
@@ -343,7 +417,7 @@ public class Logger {
     public static void verbose(final String tag,
                                final String correlationID,
                                final String message) {
-        log(tag, LogLevel.VERBOSE, getDiagnosticContextMetadata(correlationID), message, null, false);
+        log(tag, LogLevel.VERBOSE, false, correlationID, message, null, false);
     }
 
     /**
@@ -355,7 +429,7 @@ public class Logger {
      */
     public static void verbosePII(final String tag,
                                   final String message) {
-        log(tag, LogLevel.VERBOSE, getDiagnosticContextMetadata(), message, null, true);
+        log(tag, LogLevel.VERBOSE, true, null, message, null, true);
     }
 
     /**
@@ -369,47 +443,321 @@ public class Logger {
     public static void verbosePII(final String tag,
                                   final String correlationID,
                                   final String message) {
-        log(tag, LogLevel.VERBOSE, getDiagnosticContextMetadata(correlationID), message, null, true);
+        log(tag, LogLevel.VERBOSE, false, correlationID, message, null, true);
+    }
+
+    /**
+     * Send a {@link LogLevel#VERBOSE} log message without PII, built from a template.
+     * <p>
+     * Each {@code {}} in the template is replaced, in order, by the {@link String#valueOf(Object)}
+     * of the next argument. The level is checked first and the message is only built on the
+     * logging thread, so a disabled call costs no formatting or string concatenation. Arguments
+     * must therefore not be mutated after the call.
+     *
+     * @param tag      Used to identify the source of a log message. It usually identifies the class
+     *                 or activity where the log call occurs.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     */
+    public static void verboseTemplate(final String tag,
+                                       final String template,
+                                       final Object arg0) {
+        if (isLoggable(LogLevel.VERBOSE, false)) {
+            log(tag, LogLevel.VERBOSE, true, null, template, new Object[]{arg0}, null, false);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#VERBOSE} log message without PII, built from a template.
+     * See {@link #verboseTemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     * @param arg1     The value of placeholder 1.
+     */
+    public static void verboseTemplate(final String tag,
+                                       final String template,
+                                       final Object arg0,
+                                       final Object arg1) {
+        if (isLoggable(LogLevel.VERBOSE, false)) {
+            log(tag, LogLevel.VERBOSE, true, null, template, new Object[]{arg0, arg1}, null, false);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#VERBOSE} log message without PII, built from a template.
+     * See {@link #verboseTemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     * @param arg1     The value of placeholder 1.
+     * @param arg2     The value of placeholder 2.
+     */
+    public static void verboseTemplate(final String tag,
+                                       final String template,
+                                       final Object arg0,
+                                       final Object arg1,
+                                       final Object arg2) {
+        if (isLoggable(LogLevel.VERBOSE, false)) {
+            log(tag, LogLevel.VERBOSE, true, null, template, new Object[]{arg0, arg1, arg2}, null, false);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#VERBOSE} log message with PII, built from a template.
+     * See {@link #verboseTemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message. It usually identifies the class
+     *                 or activity where the log call occurs.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     */
+    public static void verbosePIITemplate(final String tag,
+                                          final String template,
+                                          final Object arg0) {
+        if (isLoggable(LogLevel.VERBOSE, true)) {
+            log(tag, LogLevel.VERBOSE, true, null, template, new Object[]{arg0}, null, true);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#VERBOSE} log message with PII, built from a template.
+     * See {@link #verbosePIITemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     * @param arg1     The value of placeholder 1.
+     */
+    public static void verbosePIITemplate(final String tag,
+                                          final String template,
+                                          final Object arg0,
+                                          final Object arg1) {
+        if (isLoggable(LogLevel.VERBOSE, true)) {
+            log(tag, LogLevel.VERBOSE, true, null, template, new Object[]{arg0, arg1}, null, true);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#VERBOSE} log message with PII, built from a template.
+     * See {@link #verbosePIITemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     * @param arg1     The value of placeholder 1.
+     * @param arg2     The value of placeholder 2.
+     */
+    public static void verbosePIITemplate(final String tag,
+                                          final String template,
+                                          final Object arg0,
+                                          final Object arg1,
+                                          final Object arg2) {
+        if (isLoggable(LogLevel.VERBOSE, true)) {
+            log(tag, LogLevel.VERBOSE, true, null, template, new Object[]{arg0, arg1, arg2}, null, true);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#INFO} log message without PII, built from a template.
+     * See {@link #verboseTemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message. It usually identifies the class
+     *                 or activity where the log call occurs.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     */
+    public static void infoTemplate(final String tag,
+                                    final String template,
+                                    final Object arg0) {
+        if (isLoggable(LogLevel.INFO, false)) {
+            log(tag, LogLevel.INFO, true, null, template, new Object[]{arg0}, null, false);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#INFO} log message without PII, built from a template.
+     * See {@link #infoTemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     * @param arg1     The value of placeholder 1.
+     */
+    public static void infoTemplate(final String tag,
+                                    final String template,
+                                    final Object arg0,
+                                    final Object arg1) {
+        if (isLoggable(LogLevel.INFO, false)) {
+            log(tag, LogLevel.INFO, true, null, template, new Object[]{arg0, arg1}, null, false);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#INFO} log message without PII, built from a template.
+     * See {@link #infoTemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     * @param arg1     The value of placeholder 1.
+     * @param arg2     The value of placeholder 2.
+     */
+    public static void infoTemplate(final String tag,
+                                    final String template,
+                                    final Object arg0,
+                                    final Object arg1,
+                                    final Object arg2) {
+        if (isLoggable(LogLevel.INFO, false)) {
+            log(tag, LogLevel.INFO, true, null, template, new Object[]{arg0, arg1, arg2}, null, false);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#INFO} log message with PII, built from a template.
+     * See {@link #verboseTemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message. It usually identifies the class
+     *                 or activity where the log call occurs.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     */
+    public static void infoPIITemplate(final String tag,
+                                       final String template,
+                                       final Object arg0) {
+        if (isLoggable(LogLevel.INFO, true)) {
+            log(tag, LogLevel.INFO, true, null, template, new Object[]{arg0}, null, true);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#INFO} log message with PII, built from a template.
+     * See {@link #infoPIITemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     * @param arg1     The value of placeholder 1.
+     */
+    public static void infoPIITemplate(final String tag,
+                                       final String template,
+                                       final Object arg0,
+                                       final Object arg1) {
+        if (isLoggable(LogLevel.INFO, true)) {
+            log(tag, LogLevel.INFO, true, null, template, new Object[]{arg0, arg1}, null, true);
+        }
+    }
+
+    /**
+     * Send a {@link LogLevel#INFO} log message with PII, built from a template.
+     * See {@link #infoPIITemplate(String, String, Object)}.
+     *
+     * @param tag      Used to identify the source of a log message.
+     * @param template The message template.
+     * @param arg0     The value of placeholder 0.
+     * @param arg1     The value of placeholder 1.
+     * @param arg2     The value of placeholder 2.
+     */
+    public static void infoPIITemplate(final String tag,
+                                       final String template,
+                                       final Object arg0,
+                                       final Object arg1,
+                                       final Object arg2) {
+        if (isLoggable(LogLevel.INFO, true)) {
+            log(tag, LogLevel.INFO, true, null, template, new Object[]{arg0, arg1, arg2}, null, true);
+        }
     }
 
     private static void log(final String tag,
                             @NonNull final LogLevel logLevel,
-                            final String diagnosticMetadata,
+                            final boolean useContextCorrelationId,
+                            @Nullable final String correlationId,
                             final String message,
                             final Throwable throwable,
                             final boolean containsPII) {
-        if (logLevel.compareTo(sLogLevel) > 0 || (!sAllowPii && containsPII)) {
+        if (!isLoggable(logLevel, containsPII)) {
             return;
         }
 
-        final Date now = new Date();
-
-        sLogExecutor.execute(new Runnable() {
-            @Override
-            @SuppressFBWarnings(value = "DE_MIGHT_IGNORE",
-                    justification = "If logging throws, there is nothing left to do but swallow the exception and move on.")
-            public void run() {
-                final String dateTimeStamp = sDateTimeFormatter.format(now);
-                //Format the log message.
-                final String logMessage = formatMessage(diagnosticMetadata, sPlatformString, message, dateTimeStamp, throwable);
-
-                sLoggersLock.readLock().lock();
-                try {
-                    for (final String loggerCallbackKey : sLoggers.keySet()) {
-                        try {
-                            final ILoggerCallback callback = sLoggers.get(loggerCallbackKey);
-                            if (callback != null) {
-                                callback.log(tag, logLevel, logMessage, containsPII);
-                            }
-                        } catch (final Exception e) {
-                            // Do nothing.
-                        }
+        log(tag, logLevel, useContextCorrelationId, correlationId, message, null, throwable, containsPII);
+    }
+
+    /**
+     * Queues a log message which has passed the level check. Only the values of the diagnostic
+     * context are read on the calling thread; the message itself is formatted on the log thread.
+     *
+     * @param useContextCorrelationId True to log the correlation id of the diagnostic context
+     *                                rather than {@code correlationId}.
+     * @param templateArgs            If not null, {@code message} is a template to fill with these.
+     */
+    private static void log(final String tag,
+                            @NonNull final LogLevel logLevel,
+                            final boolean useContextCorrelationId,
+                            @Nullable final String correlationId,
+                            final String message,
+                            @Nullable final Object[] templateArgs,
+                            final Throwable throwable,
+                            final boolean containsPII) {
+        final IRequestContext requestContext = DiagnosticContext.INSTANCE.getRequestContext();
+        final String threadName = requestContext.get(DiagnosticContext.THREAD_NAME);
+        final String logCorrelationId = useContextCorrelationId
+                ? requestContext.get(DiagnosticContext.CORRELATION_ID)
+                : correlationId;
+
+        sLogBuffer.publish(tag, logLevel, threadName, logCorrelationId, message, templateArgs,
+                throwable, containsPII, System.currentTimeMillis());
+    }
+
+    /**
+     * Formats a batch of queued log messages and hands them to every callback. Runs on the log thread.
+     */
+    @SuppressFBWarnings(value = "DE_MIGHT_IGNORE",
+            justification = "If logging throws, there is nothing left to do but swallow the exception and move on.")
+    private static void deliver(@NonNull final LogEventRingBuffer.LogEvent[] batch, final int count) {
+        final String[] logMessages = new String[count];
+        for (int i = 0; i < count; i++) {
+            final LogEventRingBuffer.LogEvent event = batch[i];
+            final String diagnosticMetadata = formatDiagnosticContextMetadata(event.mThreadName, event.mCorrelationId);
+            //Format the log message.
+            logMessages[i] = formatMessage(diagnosticMetadata, sPlatformString,
+                    event.mTemplateArgs == null ? event.mMessage : fillTemplate(event.mMessage, event.mTemplateArgs),
+                    formatDateTime(event.mTimeMillis), event.mThrowable);
+        }
+
+        sLoggersLock.readLock().lock();
+        try {
+            for (final ILoggerCallback callback : sLoggers.values()) {
+                if (callback == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < count; i++) {
+                    final LogEventRingBuffer.LogEvent event = batch[i];
+                    try {
+                        callback.log(event.mTag, event.mLogLevel, logMessages[i], event.mContainsPII);
+                    } catch (final Exception e) {
+                        // Do nothing.
                     }
-                } finally {
-                    sLoggersLock.readLock().unlock();
                 }
             }
-        });
+        } finally {
+            sLoggersLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Formats the timestamp of a log line. Runs on the log thread; the formatted value is reused
+     * for every message logged within the same second.
+     */
+    private static String formatDateTime(final long timeMillis) {
+        final long second = timeMillis / 1000;
+        if (second != sLastFormattedSecond || sLastFormattedDateTime == null) {
+            sLastFormattedDateTime = sDateTimeFormatter.format(second * 1000);
+            sLastFormattedSecond = second;
+        }
+        return sLastFormattedDateTime;
     }
 
     /**
@@ -432,16 +780,34 @@ public class Logger {
                 + (throwable == null ? "" : '\n' + ThrowableUtil.getStackTraceAsString(throwable));
     }
 
+    /**
+     * Fills each {@code {}} of the template with the next argument. Placeholders without an
+     * argument are kept as is, and extra arguments are ignored.
+     */
+    static String fillTemplate(@Nullable final String template, @NonNull final Object[] args) {
+        if (template == null) {
+            return null;
+        }
+
+        final StringBuilder builder = new StringBuilder(template.length() + 16 * args.length);
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < args.length && (placeholder = template.indexOf("{}", start)) >= 0) {
+            builder.append(template, start, placeholder).append(args[argIndex++]);
+            start = placeholder + 2;
+        }
+        return builder.append(template, start, template.length()).toString();
+    }
+
     /**
      * Get only the required metadata from the DiagnosticContext to plug it in the log lines.
-     * Here thread_name is taken from DiagnosticContext, and correlationId from input parameter.
      * The need for this is because DiagnosticContext contains additional metadata which is not always required to be logged.
      *
      * @return String The concatenation of thread_name and correlation_id to serve as the required metadata in the log lines.
      */
-    private static synchronized String getDiagnosticContextMetadata(@Nullable String correlationId) {
-        String threadName = DiagnosticContext.INSTANCE.getRequestContext().get(DiagnosticContext.THREAD_NAME);
-
+    private static String formatDiagnosticContextMetadata(@Nullable String threadName,
+                                                          @Nullable String correlationId) {
         if (StringUtil.isNullOrEmpty(threadName)) {
             threadName = UNSET;
         }
@@ -449,8 +815,7 @@ public class Logger {
             correlationId = UNSET;
         }
 
-        return String.format("%s: %s, %s: %s",
-                DiagnosticContext.THREAD_NAME, threadName, DiagnosticContext.CORRELATION_ID, correlationId);
+        return DiagnosticContext.THREAD_NAME + ": " + threadName + ", "
+                + DiagnosticContext.CORRELATION_ID + ": " + correlationId;
     }
 }
-
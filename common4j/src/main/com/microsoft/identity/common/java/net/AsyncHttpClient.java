@@ -0,0 +1,49 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.net;
+
+import com.microsoft.identity.common.java.util.ResultFuture;
+
+import java.net.URL;
+import java.util.Map;
+
+import lombok.NonNull;
+
+/**
+ * An {@link HttpClient} which can also send requests without blocking the calling thread.
+ */
+public interface AsyncHttpClient extends HttpClient {
+    /**
+     * Execute an arbitrary method asynchronously.
+     * @param httpMethod the HttpMethod to use for the call.
+     * @param requestUrl the URL of the resource to operate on.
+     * @param requestHeaders the headers for the request.
+     * @param requestContent the body content of the request, if applicable.  May be null.
+     * @return a future completed with the HttpResponse of the call, or with the IOException
+     * raised if there was a communication problem.
+     */
+    ResultFuture<HttpResponse> methodAsync(@NonNull HttpMethod httpMethod,
+                                           @NonNull URL requestUrl,
+                                           @NonNull Map<String, String> requestHeaders,
+                                           byte[] requestContent);
+}
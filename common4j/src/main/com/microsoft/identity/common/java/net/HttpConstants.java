@@ -53,6 +53,11 @@ public final class HttpConstants {
          * Header to track if Cached Credential Service (CCS) was used
          */
         public static final String XMS_CCS_REQUEST_ID = "xms-ccs-requestid";
+
+        /**
+         * @see <a href="https://tools.ietf.org/html/rfc7231#section-7.1.3">RFC-7231</a>
+         */
+        public static final String RETRY_AFTER = "Retry-After";
     }
 
     /**
@@ -0,0 +1,276 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.net;
+
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.util.ResultFuture;
+import com.microsoft.identity.common.java.util.ThreadUtils;
+import com.microsoft.identity.common.java.util.ported.Function;
+
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NonNull;
+
+/**
+ * A retry policy with the same semantics as {@link StatusCodeAndExceptionRetry}, except that the
+ * attempts are run on a {@link ScheduledExecutorService} and the waits between them are scheduled
+ * rather than slept, so no thread is held while backing off.
+ * <p>
+ * Each backoff delay is jittered by up to {@link #jitterFactor} of its value, so that clients
+ * which failed together do not retry together. If a retryable response carries a Retry-After
+ * header, the delay it asks for is used instead. A response asking for more than
+ * {@link #maxDelay} is returned as is rather than retried early.
+ */
+@AllArgsConstructor
+@Builder
+@ThreadSafe
+@Immutable
+public class ScheduledRetryPolicy implements IAsyncRetryPolicy<HttpResponse> {
+    private static final String TAG = ScheduledRetryPolicy.class.getSimpleName();
+
+    private static final int DEFAULT_SCHEDULER_POOL_SIZE = 4;
+    private static final long DEFAULT_SCHEDULER_KEEP_ALIVE_SECONDS = 60;
+
+    private static final String HTTP_DATE_FORMAT = "EEE, dd MMM yyyy HH:mm:ss zzz";
+
+    private static final Random sRandom = new Random();
+
+    @Builder.Default
+    private final ScheduledExecutorService scheduler = DefaultSchedulerHolder.INSTANCE;
+    @Builder.Default
+    private final Function<Exception, Boolean> isRetryableException = new Function<Exception, Boolean>() {
+        @Override
+        public Boolean apply(Exception input) {
+            return Boolean.FALSE;
+        }
+    };
+    @Builder.Default
+    private final Function<HttpResponse, Boolean> isRetryable = new Function<HttpResponse, Boolean>() {
+        @Override
+        public Boolean apply(HttpResponse input) {
+            return Boolean.FALSE;
+        }
+    };
+    @Builder.Default
+    private final Function<HttpResponse, Boolean> isAcceptable = new Function<HttpResponse, Boolean>() {
+        @Override
+        public Boolean apply(HttpResponse input) {
+            return Boolean.TRUE;
+        }
+    };
+    @Builder.Default
+    private final int number = 1;
+    @Builder.Default
+    private final int initialDelay = 1000;
+    @Builder.Default
+    private final int extensionFactor = 2;
+    /**
+     * The fraction, between 0 and 1, of each backoff delay which is randomized.
+     */
+    @Builder.Default
+    private final double jitterFactor = 0.5;
+    /**
+     * Upper bound, in milliseconds, of any single wait.
+     */
+    @Builder.Default
+    private final int maxDelay = 30000;
+    @Builder.Default
+    private final boolean honorRetryAfter = true;
+
+    /**
+     * Runs the attempts asynchronously and waits for their outcome.  Callers which must not block
+     * should use {@link #attemptAsync(Callable)} instead.
+     */
+    @Override
+    public HttpResponse attempt(Callable<HttpResponse> supplier) throws IOException {
+        try {
+            return attemptAsync(supplier).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException("Interrupted while waiting for a retried request.");
+            exception.initCause(e);
+            throw exception;
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof Exception) {
+                throw new RetryFailedException((Exception) cause);
+            }
+            throw new RetryFailedException(e);
+        }
+    }
+
+    @Override
+    public ResultFuture<HttpResponse> attemptAsync(@NonNull final Callable<HttpResponse> supplier) {
+        final ResultFuture<HttpResponse> future = new ResultFuture<>();
+        schedule(supplier, future, number, initialDelay, 0);
+        return future;
+    }
+
+    private void schedule(@NonNull final Callable<HttpResponse> supplier,
+                          @NonNull final ResultFuture<HttpResponse> future,
+                          final int attemptsLeft,
+                          final long backoff,
+                          final long delay) {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    runAttempt(supplier, future, attemptsLeft, backoff);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            future.setException(e);
+        }
+    }
+
+    private void runAttempt(@NonNull final Callable<HttpResponse> supplier,
+                            @NonNull final ResultFuture<HttpResponse> future,
+                            final int attemptsLeft,
+                            final long backoff) {
+        final String methodTag = TAG + ":runAttempt";
+        long delay;
+
+        try {
+            final HttpResponse response = supplier.call();
+            //If there are no retries left, or the response is acceptable, or it is not retryable.
+            if (attemptsLeft <= 0 || isAcceptable.apply(response) || !isRetryable.apply(response)) {
+                future.setResult(response);
+                return;
+            }
+
+            final long retryAfter = honorRetryAfter ? getRetryAfterMillis(response, System.currentTimeMillis()) : -1;
+            if (retryAfter > maxDelay) {
+                Logger.info(methodTag, "Retry-After of " + retryAfter + "ms exceeds the maximum delay, not retrying.");
+                future.setResult(response);
+                return;
+            }
+
+            delay = retryAfter >= 0 ? retryAfter : jitter(backoff);
+        } catch (final Exception e) {
+            if (attemptsLeft <= 0 || !isRetryableException.apply(e)) {
+                future.setException(e);
+                return;
+            }
+
+            delay = jitter(backoff);
+        }
+
+        Logger.verbose(methodTag, "Retrying in " + delay + "ms, " + attemptsLeft + " attempt(s) left.");
+        schedule(supplier, future, attemptsLeft - 1, backoff * extensionFactor, delay);
+    }
+
+    /**
+     * @return the backoff capped to {@link #maxDelay}, less a random part of up to
+     * {@link #jitterFactor} of it.
+     */
+    private long jitter(final long backoff) {
+        final long capped = Math.max(0, Math.min(backoff, maxDelay));
+        final int jitterRange = (int) (capped * Math.max(0, Math.min(jitterFactor, 1)));
+        if (jitterRange <= 0) {
+            return capped;
+        }
+        return capped - sRandom.nextInt(jitterRange + 1);
+    }
+
+    /**
+     * Reads the Retry-After header of a response, either as delay-seconds or as an HTTP-date.
+     *
+     * @param response the response to read.
+     * @param now      the current time, in milliseconds since epoch.
+     * @return the delay asked for in milliseconds, or -1 if there is no valid Retry-After header.
+     */
+    static long getRetryAfterMillis(@Nullable final HttpResponse response, final long now) {
+        if (response == null || response.getHeaders() == null) {
+            return -1;
+        }
+
+        for (final Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            // Header names are case-insensitive, and HttpURLConnection keeps the server's casing.
+            if (HttpConstants.HeaderField.RETRY_AFTER.equalsIgnoreCase(header.getKey())
+                    && header.getValue() != null
+                    && !header.getValue().isEmpty()) {
+                return parseRetryAfterMillis(header.getValue().get(0), now);
+            }
+        }
+
+        return -1;
+    }
+
+    private static long parseRetryAfterMillis(@Nullable final String value, final long now) {
+        if (value == null) {
+            return -1;
+        }
+
+        final String trimmed = value.trim();
+        try {
+            final long seconds = Long.parseLong(trimmed);
+            return seconds < 0 ? -1 : TimeUnit.SECONDS.toMillis(seconds);
+        } catch (final NumberFormatException e) {
+            // Not delay-seconds, try an HTTP-date.
+        }
+
+        try {
+            final SimpleDateFormat format = new SimpleDateFormat(HTTP_DATE_FORMAT, Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            final Date date = format.parse(trimmed);
+            return Math.max(0, date.getTime() - now);
+        } catch (final ParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The scheduler used when none is supplied, created on first use.
+     */
+    private static final class DefaultSchedulerHolder {
+        static final ScheduledExecutorService INSTANCE = ThreadUtils.getNamedScheduledThreadPoolExecutor(
+                DEFAULT_SCHEDULER_POOL_SIZE,
+                DEFAULT_SCHEDULER_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                "http-retry"
+        );
+    }
+}
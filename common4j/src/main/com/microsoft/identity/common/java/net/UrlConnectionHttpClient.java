@@ -23,10 +23,13 @@
 package com.microsoft.identity.common.java.net;
 
 import com.microsoft.identity.common.java.AuthenticationConstants;
+import com.microsoft.identity.common.java.logging.DiagnosticContext;
 import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.logging.RequestContext;
 import com.microsoft.identity.common.java.telemetry.Telemetry;
 import com.microsoft.identity.common.java.telemetry.events.HttpEndEvent;
 import com.microsoft.identity.common.java.telemetry.events.HttpStartEvent;
+import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.ported.Consumer;
 import com.microsoft.identity.common.java.util.ported.Function;
@@ -76,7 +79,7 @@ import static com.microsoft.identity.common.java.AuthenticationConstants.AAD.CLI
  */
 @AllArgsConstructor
 @ThreadSafe
-public class UrlConnectionHttpClient extends AbstractHttpClient {
+public class UrlConnectionHttpClient extends AbstractHttpClient implements AsyncHttpClient {
     private static final Object TAG = UrlConnectionHttpClient.class.getName();
 
     protected static final int RETRY_TIME_WAITING_PERIOD_MSEC = 1000;
@@ -85,6 +88,25 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
     protected static final int DEFAULT_STREAM_BUFFER_SIZE_BYTE = 1024;
 
     private static final transient AtomicReference<UrlConnectionHttpClient> defaultReference = new AtomicReference<>(null);
+    private static final transient AtomicReference<UrlConnectionHttpClient> defaultAsyncReference = new AtomicReference<>(null);
+
+    private static final Function<HttpResponse, Boolean> DEFAULT_IS_ACCEPTABLE = new Function<HttpResponse, Boolean>() {
+        public Boolean apply(HttpResponse response) {
+            return response != null && response.getStatusCode() < 400;
+        }
+    };
+
+    private static final Function<HttpResponse, Boolean> DEFAULT_IS_RETRYABLE = new Function<HttpResponse, Boolean>() {
+        public Boolean apply(HttpResponse response) {
+            return response != null && isRetryableError(response.getStatusCode());
+        }
+    };
+
+    private static final Function<Exception, Boolean> DEFAULT_IS_RETRYABLE_EXCEPTION = new Function<Exception, Boolean>() {
+        public Boolean apply(Exception e) {
+            return e instanceof SocketTimeoutException;
+        }
+    };
 
     /**
      * Retry policy of this HttpClient. Default is {@link NoRetryPolicy}.
@@ -174,22 +196,10 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
                     .retryPolicy(StatusCodeAndExceptionRetry.builder()
                             .number(1)
                             .extensionFactor(2)
-                            .isAcceptable(new Function<HttpResponse, Boolean>() {
-                                public Boolean apply(HttpResponse response) {
-                                    return response != null && response.getStatusCode() < 400;
-                                }
-                            })
+                            .isAcceptable(DEFAULT_IS_ACCEPTABLE)
                             .initialDelay(RETRY_TIME_WAITING_PERIOD_MSEC)
-                            .isRetryable(new Function<HttpResponse, Boolean>() {
-                                public Boolean apply(HttpResponse response) {
-                                    return response != null && isRetryableError(response.getStatusCode());
-                                }
-                            })
-                            .isRetryableException(new Function<Exception, Boolean>() {
-                                public Boolean apply(Exception e) {
-                                    return e instanceof SocketTimeoutException;
-                                }
-                            })
+                            .isRetryable(DEFAULT_IS_RETRYABLE)
+                            .isRetryableException(DEFAULT_IS_RETRYABLE_EXCEPTION)
                             .build())
                     .build());
             reference = defaultReference.get();
@@ -197,6 +207,31 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
         return reference;
     }
 
+    /**
+     * Obtain a static default instance of the HTTP Client class whose retries are scheduled rather
+     * than slept, for callers of {@link #methodAsync(HttpMethod, URL, Map, byte[])}.  It retries the
+     * same responses and exceptions as {@link #getDefaultInstance()}.
+     *
+     * @return a default-configured HttpClient backed by a {@link ScheduledRetryPolicy}.
+     */
+    public static synchronized UrlConnectionHttpClient getDefaultAsyncInstance() {
+        UrlConnectionHttpClient reference = defaultAsyncReference.get();
+        if (reference == null) {
+            defaultAsyncReference.compareAndSet(null, UrlConnectionHttpClient.builder()
+                    .retryPolicy(ScheduledRetryPolicy.builder()
+                            .number(1)
+                            .extensionFactor(2)
+                            .isAcceptable(DEFAULT_IS_ACCEPTABLE)
+                            .initialDelay(RETRY_TIME_WAITING_PERIOD_MSEC)
+                            .isRetryable(DEFAULT_IS_RETRYABLE)
+                            .isRetryableException(DEFAULT_IS_RETRYABLE_EXCEPTION)
+                            .build())
+                    .build());
+            reference = defaultAsyncReference.get();
+        }
+        return reference;
+    }
+
     /**
      * Record the beginning of an http request.
      */
@@ -244,7 +279,59 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
                                final byte[] requestContent) throws IOException {
         recordHttpTelemetryEventStart(httpMethod.name(), requestUrl, requestHeaders.get(CLIENT_REQUEST_ID));
         final HttpRequest request = constructHttpRequest(httpMethod, requestUrl, requestHeaders, requestContent);
-        return retryPolicy.attempt(new Callable<HttpResponse>() {
+        return retryPolicy.attempt(newSendCallable(request));
+    }
+
+    /**
+     * Sends an HTTP request of the specified method without blocking the calling thread.  Only a
+     * retry policy implementing {@link IAsyncRetryPolicy} (e.g. {@link ScheduledRetryPolicy}) can
+     * do so; with any other policy, the request is sent on the calling thread and the returned
+     * future is already completed.
+     *
+     * @param httpMethod     One of: GET, POST, HEAD, PUT, DELETE, TRACE, OPTIONS, PATCH.
+     * @param requestUrl     The recipient {@link URL}.
+     * @param requestHeaders Headers used to send the http request.
+     * @param requestContent Optional request body, if applicable.
+     * @return A future completed with the response for this request, or with the error encountered
+     * while servicing it.
+     */
+    @Override
+    public ResultFuture<HttpResponse> methodAsync(@NonNull final HttpClient.HttpMethod httpMethod,
+                                                  @NonNull final URL requestUrl,
+                                                  @NonNull final Map<String, String> requestHeaders,
+                                                  final byte[] requestContent) {
+        recordHttpTelemetryEventStart(httpMethod.name(), requestUrl, requestHeaders.get(CLIENT_REQUEST_ID));
+        final HttpRequest request = constructHttpRequest(httpMethod, requestUrl, requestHeaders, requestContent);
+        final Callable<HttpResponse> send = newSendCallable(request);
+
+        if (retryPolicy instanceof IAsyncRetryPolicy) {
+            // Attempts run on the policy's threads; carry the caller's context over for logging.
+            final RequestContext requestContext = new RequestContext();
+            requestContext.putAll(DiagnosticContext.INSTANCE.getRequestContext());
+
+            return ((IAsyncRetryPolicy<HttpResponse>) retryPolicy).attemptAsync(new Callable<HttpResponse>() {
+                public HttpResponse call() throws Exception {
+                    DiagnosticContext.INSTANCE.setRequestContext(requestContext);
+                    try {
+                        return send.call();
+                    } finally {
+                        DiagnosticContext.INSTANCE.clear();
+                    }
+                }
+            });
+        }
+
+        final ResultFuture<HttpResponse> future = new ResultFuture<>();
+        try {
+            future.setResult(retryPolicy.attempt(send));
+        } catch (final IOException | RuntimeException e) {
+            future.setException(e);
+        }
+        return future;
+    }
+
+    private Callable<HttpResponse> newSendCallable(@NonNull final HttpRequest request) {
+        return new Callable<HttpResponse>() {
             public HttpResponse call() throws IOException {
                 return executeHttpSend(request, new Consumer<HttpResponse>() {
                     @Override
@@ -253,7 +340,7 @@ public class UrlConnectionHttpClient extends AbstractHttpClient {
                     }
                 });
             }
-        });
+        };
     }
 
     private static HttpRequest constructHttpRequest(@NonNull HttpClient.HttpMethod httpMethod,
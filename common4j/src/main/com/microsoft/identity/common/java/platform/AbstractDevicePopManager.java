@@ -49,6 +49,7 @@ import static com.microsoft.identity.common.java.platform.AbstractKeyStoreKeyMan
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import com.microsoft.identity.common.java.AuthenticationConstants;
+import com.microsoft.identity.common.java.authscheme.IPoPAuthenticationSchemeParams;
 import com.microsoft.identity.common.java.crypto.IDevicePopManager;
 import com.microsoft.identity.common.java.crypto.IKeyStoreKeyManager;
 import com.microsoft.identity.common.java.crypto.SecureHardwareState;
@@ -59,6 +60,7 @@ import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.marker.CodeMarkerManager;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.TaskCompletedCallbackWithError;
+import com.microsoft.identity.common.java.util.ThreadUtils;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
@@ -91,13 +93,24 @@ import java.security.UnrecoverableEntryException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
@@ -149,11 +162,78 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
      */
     private static final ExecutorService sThreadExecutor = Executors.newFixedThreadPool(5);
 
+    /**
+     * The number of threads signing the SHRs of a parallel batch.
+     */
+    private static final int SIGNING_POOL_SIZE = 4;
+
+    /**
+     * The number of SHRs which may wait for a signing thread; beyond it, the caller signs them.
+     */
+    private static final int SIGNING_QUEUE_SIZE = 64;
+
+    private static final long SIGNING_KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * The workers of parallel batch signing. Kept apart from {@link #sThreadExecutor}, so that a
+     * large batch neither queues behind nor delays key generation, and a caller already on that
+     * worker does not wait on itself.
+     */
+    private static final ThreadPoolExecutor sSigningExecutor = createSigningExecutor();
+
     /**
      * Reference to our perf-marker object.
      */
     private static final CodeMarkerManager sCodeMarkerManager = CodeMarkerManager.getInstance();
 
+    /**
+     * Per key alias, a counter bumped whenever a PoP manager of this process generates or clears
+     * the key, so that every instance using the alias drops its {@link SigningContext}.
+     */
+    private static final ConcurrentMap<String, AtomicLong> sKeyGenerations = new ConcurrentHashMap<>();
+
+    /**
+     * The material needed to sign SHRs with the current key, resolved from a single KeyStore read.
+     */
+    private static final class SigningContext {
+
+        /**
+         * The key generation this context was resolved in.
+         */
+        final long mKeyGeneration;
+
+        /**
+         * The cnf claim: the public JWK of the key.
+         */
+        final Map<String, Object> mCnf;
+
+        /**
+         * The thumbprint of the key, used as the kid header.
+         */
+        final String mKid;
+
+        /**
+         * Signs with the private key handle; safe for concurrent use.
+         */
+        final RSASSASigner mSigner;
+
+        SigningContext(final long keyGeneration,
+                       @NonNull final Map<String, Object> cnf,
+                       @NonNull final String kid,
+                       @NonNull final RSASSASigner signer) {
+            mKeyGeneration = keyGeneration;
+            mCnf = cnf;
+            mKid = kid;
+            mSigner = signer;
+        }
+    }
+
+    /**
+     * The cached signing material of the current key, or null if it has not been resolved yet.
+     */
+    @Nullable
+    private volatile SigningContext mSigningContext;
+
     /**
      * Properties used by the self-signed certificate.
      */
@@ -320,6 +400,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
             exception = e;
             errCode = KEYSTORE_NOT_INITIALIZED;
         } finally {
+            invalidateSigningContexts();
             sCodeMarkerManager.markCode(GENERATE_AT_POP_ASYMMETRIC_KEYPAIR_END);
         }
 
@@ -349,7 +430,11 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
 
     @Override
     public boolean clearAsymmetricKey() {
-        return mKeyManager.clear();
+        try {
+            return mKeyManager.clear();
+        } finally {
+            invalidateSigningContexts();
+        }
     }
 
     @Override
@@ -784,7 +869,7 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         final String errCode;
 
         try {
-            final Map<String, Object> jwkMap = getDevicePopJwkMinifiedJson();
+            final Map<String, Object> jwkMap = getSigningContext().mCnf;
             return GSON.toJson(jwkMap.get(SignedHttpRequestJwtClaims.JWK), MAP_STRING_STRING_TYPE);
         } catch (final UnrecoverableEntryException e) {
             exception = e;
@@ -899,86 +984,97 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         );
     }
 
+    @Override
+    public List<String> mintSignedHttpRequests(final long timestamp,
+                                               @NonNull final List<? extends IPoPAuthenticationSchemeParams> requests,
+                                               final boolean parallel) throws ClientException {
+        final List<ShrRequest> shrRequests = new ArrayList<>(requests.size());
+
+        for (final IPoPAuthenticationSchemeParams request : requests) {
+            shrRequests.add(
+                    new ShrRequest(
+                            request.getHttpMethod(),
+                            request.getUrl(),
+                            request.getNonce(),
+                            request.getClientClaims()
+                    )
+            );
+        }
+
+        return mintSignedHttpRequestsInternal(
+                timestamp,
+                null, // No AT used in this flow (generateShr)
+                shrRequests,
+                parallel
+        );
+    }
+
+    /**
+     * The per-request inputs of an SHR.
+     */
+    private static final class ShrRequest {
+        @Nullable
+        final String mHttpMethod;
+
+        final URL mRequestUrl;
+
+        @Nullable
+        final String mNonce;
+
+        @Nullable
+        final String mClientClaims;
+
+        ShrRequest(@Nullable final String httpMethod,
+                   @NonNull final URL requestUrl,
+                   @Nullable final String nonce,
+                   @Nullable final String clientClaims) {
+            mHttpMethod = httpMethod;
+            mRequestUrl = requestUrl;
+            mNonce = nonce;
+            mClientClaims = clientClaims;
+        }
+    }
+
     private String mintSignedHttpRequestInternal(@Nullable final String httpMethod,
                                                  final long timestamp,
                                                  @NonNull final URL requestUrl,
                                                  @Nullable final String accessToken,
                                                  @Nullable final String nonce,
                                                  @Nullable final String clientClaims) throws ClientException {
-        final String methodTag = TAG + ":mintSignedHttpRequestInternal";
+        return mintSignedHttpRequestsInternal(
+                timestamp,
+                accessToken,
+                Collections.singletonList(new ShrRequest(httpMethod, requestUrl, nonce, clientClaims)),
+                false
+        ).get(0);
+    }
+
+    private List<String> mintSignedHttpRequestsInternal(final long timestamp,
+                                                        @Nullable final String accessToken,
+                                                        @NonNull final List<ShrRequest> requests,
+                                                        final boolean parallel) throws ClientException {
+        final String methodTag = TAG + ":mintSignedHttpRequestsInternal";
         final Exception exception;
         final String errCode;
 
         try {
-            final JWTClaimsSet.Builder claimsBuilder = new JWTClaimsSet.Builder();
-
-            // This is supported/allowed only to support the generateShr API. By definition, all
-            // AT/PoP requests will contain an access token, but an SPO signed-cookie will not.
-            if (!StringUtil.isNullOrEmpty(accessToken)) {
-                claimsBuilder.claim(
-                        SignedHttpRequestJwtClaims.ACCESS_TOKEN,
-                        accessToken
-                );
-            }
-
-            claimsBuilder.claim(
-                    SignedHttpRequestJwtClaims.TIMESTAMP,
-                    timestamp
-            );
-            claimsBuilder.claim(
-                    SignedHttpRequestJwtClaims.HTTP_HOST,
-                    // Use Authority to include port number, if supplied
-                    requestUrl.getAuthority()
-            );
-            claimsBuilder.claim(
-                    SignedHttpRequestJwtClaims.CNF,
-                    getDevicePopJwkMinifiedJson()
-            );
-
-            if (!StringUtil.isNullOrEmpty(requestUrl.getPath())) {
-                claimsBuilder.claim(
-                        SignedHttpRequestJwtClaims.HTTP_PATH,
-                        requestUrl.getPath()
-                );
-            }
-
-            if (!StringUtil.isNullOrEmpty(httpMethod)) {
-                claimsBuilder.claim(
-                        SignedHttpRequestJwtClaims.HTTP_METHOD,
-                        httpMethod
-                );
-            }
+            final SigningContext cachedSigningContext = mSigningContext;
+            final SigningContext signingContext = getSigningContext();
+
+            try {
+                return signRequests(signingContext, timestamp, accessToken, requests, parallel);
+            } catch (final JOSEException e) {
+                if (signingContext != cachedSigningContext) {
+                    throw e;
+                }
 
-            if (!StringUtil.isNullOrEmpty(nonce)) {
-                claimsBuilder.claim(
-                        SignedHttpRequestJwtClaims.NONCE,
-                        nonce
-                );
-            }
+                // The cached key may have been removed or replaced behind our back; retry once
+                // with freshly resolved key material.
+                Logger.warn(methodTag, "Signing with the cached key failed, reloading the key.");
+                mSigningContext = null;
 
-            if (!StringUtil.isNullOrEmpty(clientClaims)) {
-                claimsBuilder.claim(
-                        SignedHttpRequestJwtClaims.CLIENT_CLAIMS,
-                        clientClaims
-                );
+                return signRequests(getSigningContext(), timestamp, accessToken, requests, parallel);
             }
-
-            final JWTClaimsSet claimsSet = claimsBuilder.build();
-
-            final KeyStore.PrivateKeyEntry entry = mKeyManager.getEntry();
-            final PrivateKey privateKey = entry.getPrivateKey();
-            final RSASSASigner signer = new RSASSASigner(privateKey);
-
-            final SignedJWT signedJWT = new SignedJWT(
-                    new JWSHeader.Builder(JWSAlgorithm.RS256)
-                            .keyID(getAsymmetricKeyThumbprint())
-                            .build(),
-                    claimsSet
-            );
-
-            signedJWT.sign(signer);
-
-            return signedJWT.serialize();
         } catch (final NoSuchAlgorithmException e) {
             exception = e;
             errCode = NO_SUCH_ALGORITHM;
@@ -991,6 +1087,10 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         } catch (final UnrecoverableEntryException e) {
             exception = e;
             errCode = INVALID_PROTECTION_PARAMS;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exception = e;
+            errCode = INTERRUPTED_OPERATION;
         }
 
         performCleanupIfMintShrFails(exception);
@@ -1010,6 +1110,227 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
         throw clientException;
     }
 
+    private static ThreadPoolExecutor createSigningExecutor() {
+        final ThreadPoolExecutor executor = ThreadUtils.getNamedInstrumentedThreadPoolExecutor(
+                SIGNING_POOL_SIZE,
+                SIGNING_POOL_SIZE,
+                SIGNING_QUEUE_SIZE,
+                SIGNING_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                "shr-signing",
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Signs an SHR for each of the supplied requests, in order, optionally on the signing workers.
+     */
+    private static List<String> signRequests(@NonNull final SigningContext signingContext,
+                                             final long timestamp,
+                                             @Nullable final String accessToken,
+                                             @NonNull final List<ShrRequest> requests,
+                                             final boolean parallel)
+            throws JOSEException, InterruptedException {
+        final List<String> shrs = new ArrayList<>(requests.size());
+
+        if (!parallel || requests.size() < 2) {
+            for (final ShrRequest request : requests) {
+                shrs.add(signClaims(signingContext, buildClaims(signingContext, timestamp, accessToken, request)));
+            }
+
+            return shrs;
+        }
+
+        final List<Future<String>> futures = new ArrayList<>(requests.size());
+
+        try {
+            for (final ShrRequest request : requests) {
+                futures.add(sSigningExecutor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws JOSEException {
+                        return signClaims(signingContext, buildClaims(signingContext, timestamp, accessToken, request));
+                    }
+                }));
+            }
+
+            for (final Future<String> future : futures) {
+                shrs.add(future.get());
+            }
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof JOSEException) {
+                throw (JOSEException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new JOSEException(e.getMessage(), e);
+        } finally {
+            // No-op for completed futures; stops the rest of the batch if one of them failed.
+            for (final Future<String> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return shrs;
+    }
+
+    /**
+     * Builds the claims of the SHR of the supplied request.
+     */
+    private static JWTClaimsSet buildClaims(@NonNull final SigningContext signingContext,
+                                            final long timestamp,
+                                            @Nullable final String accessToken,
+                                            @NonNull final ShrRequest request) {
+        final JWTClaimsSet.Builder claimsBuilder = new JWTClaimsSet.Builder();
+        final URL requestUrl = request.mRequestUrl;
+
+        // This is supported/allowed only to support the generateShr API. By definition, all
+        // AT/PoP requests will contain an access token, but an SPO signed-cookie will not.
+        if (!StringUtil.isNullOrEmpty(accessToken)) {
+            claimsBuilder.claim(
+                    SignedHttpRequestJwtClaims.ACCESS_TOKEN,
+                    accessToken
+            );
+        }
+
+        claimsBuilder.claim(
+                SignedHttpRequestJwtClaims.TIMESTAMP,
+                timestamp
+        );
+        claimsBuilder.claim(
+                SignedHttpRequestJwtClaims.HTTP_HOST,
+                // Use Authority to include port number, if supplied
+                requestUrl.getAuthority()
+        );
+        claimsBuilder.claim(
+                SignedHttpRequestJwtClaims.CNF,
+                signingContext.mCnf
+        );
+
+        if (!StringUtil.isNullOrEmpty(requestUrl.getPath())) {
+            claimsBuilder.claim(
+                    SignedHttpRequestJwtClaims.HTTP_PATH,
+                    requestUrl.getPath()
+            );
+        }
+
+        if (!StringUtil.isNullOrEmpty(request.mHttpMethod)) {
+            claimsBuilder.claim(
+                    SignedHttpRequestJwtClaims.HTTP_METHOD,
+                    request.mHttpMethod
+            );
+        }
+
+        if (!StringUtil.isNullOrEmpty(request.mNonce)) {
+            claimsBuilder.claim(
+                    SignedHttpRequestJwtClaims.NONCE,
+                    request.mNonce
+            );
+        }
+
+        if (!StringUtil.isNullOrEmpty(request.mClientClaims)) {
+            claimsBuilder.claim(
+                    SignedHttpRequestJwtClaims.CLIENT_CLAIMS,
+                    request.mClientClaims
+            );
+        }
+
+        return claimsBuilder.build();
+    }
+
+    /**
+     * Signs the supplied claims as an RS256 JWT with the key of the supplied context.
+     */
+    private static String signClaims(@NonNull final SigningContext signingContext,
+                                     @NonNull final JWTClaimsSet claimsSet) throws JOSEException {
+        final SignedJWT signedJWT = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256)
+                        .keyID(signingContext.mKid)
+                        .build(),
+                claimsSet
+        );
+
+        signedJWT.sign(signingContext.mSigner);
+
+        return signedJWT.serialize();
+    }
+
+    /**
+     * Returns the signing material of the current key, resolving and caching it if the cached one
+     * is missing or was resolved before the key was last generated or cleared.
+     *
+     * @return The signing material of the current key.
+     * @throws ClientException             If the thumbprint of the key cannot be computed.
+     * @throws UnrecoverableEntryException If the queried key cannot be found.
+     * @throws NoSuchAlgorithmException    If the KeyStore is unable to use the designated alg.
+     * @throws KeyStoreException           If the KeyStore experiences an error during read.
+     */
+    private SigningContext getSigningContext()
+            throws ClientException, UnrecoverableEntryException, NoSuchAlgorithmException, KeyStoreException {
+        // Read the generation first: a key change racing with the read below only causes a reload.
+        final long keyGeneration = getKeyGeneration().get();
+        final SigningContext cached = mSigningContext;
+
+        if (null != cached && cached.mKeyGeneration == keyGeneration) {
+            return cached;
+        }
+
+        final KeyStore.PrivateKeyEntry keyEntry = mKeyManager.getEntry();
+        final RSAKey rsaKey = getRsaKeyForKeyPair(getKeyPairForEntry(keyEntry));
+        final String kid;
+
+        try {
+            kid = getThumbprintForRsaKey(rsaKey);
+        } catch (final JOSEException e) {
+            throw new ClientException(THUMBPRINT_COMPUTATION_FAILURE, e.getMessage(), e);
+        }
+
+        final Map<String, Object> wrappedJwk = new HashMap<>();
+        wrappedJwk.put(
+                SignedHttpRequestJwtClaims.JWK,
+                Collections.unmodifiableMap(rsaKey.toPublicJWK().toJSONObject())
+        );
+
+        final SigningContext signingContext = new SigningContext(
+                keyGeneration,
+                Collections.unmodifiableMap(wrappedJwk),
+                kid,
+                new RSASSASigner(keyEntry.getPrivateKey())
+        );
+
+        mSigningContext = signingContext;
+
+        return signingContext;
+    }
+
+    private AtomicLong getKeyGeneration() {
+        final String alias = String.valueOf(mKeyManager.getKeyAlias());
+        final AtomicLong keyGeneration = sKeyGenerations.get(alias);
+
+        if (null != keyGeneration) {
+            return keyGeneration;
+        }
+
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong existing = sKeyGenerations.putIfAbsent(alias, created);
+
+        return null == existing ? created : existing;
+    }
+
+    /**
+     * Drops the cached signing material of every PoP manager of this process using the same key.
+     */
+    private void invalidateSigningContexts() {
+        mSigningContext = null;
+        getKeyGeneration().incrementAndGet();
+    }
+
     /**
      * Perform any cleanup such as clear asymmetric key if unable to mint SHR with existing keys.
      * @param e the exception that occurred while minting SHR
@@ -1069,25 +1390,4 @@ public abstract class AbstractDevicePopManager implements IDevicePopManager {
                 Base64.NO_PADDING | Base64.NO_WRAP | Base64.URL_SAFE
         );
     }
-
-    /**
-     * Returns the cnf claim used in SHRs (Signed HTTP Requests); format is JSON.
-     *
-     * @return The cnf claim value.
-     * @throws UnrecoverableEntryException If the queried key cannot be found.
-     * @throws NoSuchAlgorithmException    If the KeyStore is unable to use the designated alg.
-     * @throws KeyStoreException           If the KeyStore experiences an error during read.
-     */
-    private Map<String, Object> getDevicePopJwkMinifiedJson()
-            throws UnrecoverableEntryException, NoSuchAlgorithmException, KeyStoreException {
-        final KeyStore.PrivateKeyEntry keyEntry = mKeyManager.getEntry();
-        final KeyPair rsaKeyPair = getKeyPairForEntry(keyEntry);
-        final RSAKey rsaKey = getRsaKeyForKeyPair(rsaKeyPair);
-        final RSAKey publicRsaKey = rsaKey.toPublicJWK();
-        final Map<String, Object> jwkContents = publicRsaKey.toJSONObject();
-        final Map<String, Object> wrappedJwk = new HashMap<>();
-        wrappedJwk.put(SignedHttpRequestJwtClaims.JWK, jwkContents);
-
-        return wrappedJwk;
-    }
 }
@@ -29,6 +29,7 @@ import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
 import com.microsoft.identity.common.java.result.GenerateShrResult;
 
 import java.net.URL;
+import java.util.List;
 
 import lombok.NonNull;
 
@@ -49,24 +50,15 @@ public class DevicePoPUtils {
     public static synchronized GenerateShrResult generateSignedHttpRequest(
             @NonNull final IPlatformComponents platformComponents,
             @NonNull final IPoPAuthenticationSchemeParams popSchemeParams) throws ClientException {
-        // Clock-skew correction values
-        final long ONE_SECOND_MILLIS = 1000L;
-        final long timestampMillis = platformComponents.getClockSkewManager().getAdjustedReferenceTime().getTime();
-
         final String httpMethodStr = popSchemeParams.getHttpMethod();
         final URL resourceUrl = popSchemeParams.getUrl();
         final String nonce = popSchemeParams.getNonce();
         final String clientClaims = popSchemeParams.getClientClaims();
-        final IDevicePopManager popMgr = platformComponents.getDefaultDevicePopManager();
-
-        // Generate keys, if none exist (should already be initialized)
-        if (!popMgr.asymmetricKeyExists()) {
-            popMgr.generateAsymmetricKey();
-        }
+        final IDevicePopManager popMgr = getInitializedDevicePopManager(platformComponents);
 
         final String shr = popMgr.mintSignedHttpRequest(
                 httpMethodStr,
-                timestampMillis / ONE_SECOND_MILLIS,
+                getAdjustedTimestampSeconds(platformComponents),
                 resourceUrl,
                 nonce,
                 clientClaims
@@ -78,4 +70,52 @@ public class DevicePoPUtils {
 
         return result;
     }
+
+    /**
+     * Generates one AT-less SHR per supplied request using the PoPMgr's internal signing key,
+     * looked up once for the whole batch.
+     *
+     * @param platformComponents The current application's {@link IPlatformComponents}.
+     * @param popSchemeParams    The input params used to create each resulting SHR.
+     * @param parallel           True to sign the SHRs concurrently.
+     * @return The {@link GenerateShrResult} containing the resulting SHRs, in request order.
+     * @throws ClientException If an error is encountered.
+     */
+    public static synchronized GenerateShrResult generateSignedHttpRequests(
+            @NonNull final IPlatformComponents platformComponents,
+            @NonNull final List<? extends IPoPAuthenticationSchemeParams> popSchemeParams,
+            final boolean parallel) throws ClientException {
+        final IDevicePopManager popMgr = getInitializedDevicePopManager(platformComponents);
+
+        final List<String> shrs = popMgr.mintSignedHttpRequests(
+                getAdjustedTimestampSeconds(platformComponents),
+                popSchemeParams,
+                parallel
+        );
+
+        final GenerateShrResult result = new GenerateShrResult();
+        result.setShrs(shrs);
+
+        return result;
+    }
+
+    private static IDevicePopManager getInitializedDevicePopManager(
+            @NonNull final IPlatformComponents platformComponents) throws ClientException {
+        final IDevicePopManager popMgr = platformComponents.getDefaultDevicePopManager();
+
+        // Generate keys, if none exist (should already be initialized)
+        if (!popMgr.asymmetricKeyExists()) {
+            popMgr.generateAsymmetricKey();
+        }
+
+        return popMgr;
+    }
+
+    private static long getAdjustedTimestampSeconds(@NonNull final IPlatformComponents platformComponents) {
+        // Clock-skew correction values
+        final long ONE_SECOND_MILLIS = 1000L;
+        final long timestampMillis = platformComponents.getClockSkewManager().getAdjustedReferenceTime().getTime();
+
+        return timestampMillis / ONE_SECOND_MILLIS;
+    }
 }
@@ -25,24 +25,35 @@ package com.microsoft.identity.common.java.providers.microsoft.azureactivedirect
 import lombok.NonNull;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
 import com.microsoft.identity.common.java.authorities.Environment;
 import com.microsoft.identity.common.java.cache.HttpCache;
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
 import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
+import com.microsoft.identity.common.java.logging.DiagnosticContext;
+import com.microsoft.identity.common.java.logging.IRequestContext;
 import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.logging.RequestContext;
 import com.microsoft.identity.common.java.exception.ClientException;
 import com.microsoft.identity.common.java.net.HttpClient;
 import com.microsoft.identity.common.java.net.HttpResponse;
+import com.microsoft.identity.common.java.net.ScheduledRetryPolicy;
 import com.microsoft.identity.common.java.net.UrlConnectionHttpClient;
 import com.microsoft.identity.common.java.providers.IdentityProvider;
 import com.microsoft.identity.common.java.providers.oauth2.OAuth2StrategyParameters;
+import com.microsoft.identity.common.java.util.BiConsumer;
 import com.microsoft.identity.common.java.util.ObjectMapper;
+import com.microsoft.identity.common.java.util.ResultFuture;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.CommonURIBuilder;
+import com.microsoft.identity.common.java.util.ThreadUtils;
 
 import org.json.JSONException;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
 import java.net.URI;
@@ -56,9 +67,22 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
 
 /**
  * Implements the IdentityProvider base class...
+ * <p>
+ * The discovered clouds are read without locking. Instance discovery runs as a single background
+ * task shared by all concurrent callers, whose request is retried by a {@link ScheduledRetryPolicy}
+ * instead of sleeping between attempts. Once {@link #setUp(IPlatformComponents)} has been
+ * called, its response is persisted for {@link #PERSISTED_METADATA_TIME_TO_LIVE_MILLIS} so that
+ * later processes do not need to repeat it.
  */
 public class AzureActiveDirectory
         extends IdentityProvider<AzureActiveDirectoryOAuth2Strategy, AzureActiveDirectoryOAuth2Configuration> {
@@ -74,10 +98,37 @@ public class AzureActiveDirectory
     private static final String AUTHORIZATION_ENDPOINT = "authorization_endpoint";
     private static final String AUTHORIZATION_ENDPOINT_VALUE = "https://login.microsoftonline.com/common/oauth2/v2.0/authorize";
 
+    /**
+     * The name of the storage file on disk for the instance discovery metadata.
+     */
+    private static final String INSTANCE_DISCOVERY_METADATA_STORAGE_FILE =
+            "com.microsoft.identity.client.instance_discovery_metadata";
+
+    /**
+     * How long a persisted instance discovery response can be used in place of a network request.
+     */
+    static final long PERSISTED_METADATA_TIME_TO_LIVE_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    private static final long DISCOVERY_THREAD_KEEP_ALIVE_SECONDS = 30;
+
     private static ConcurrentMap<String, AzureActiveDirectoryCloud> sAadClouds = new ConcurrentHashMap<>();
-    private static boolean sIsInitialized = false;
-    private static Environment sEnvironment = Environment.Production;
-    private static final HttpClient httpClient = UrlConnectionHttpClient.getDefaultInstance();
+    private static volatile boolean sIsInitialized = false;
+    private static volatile Environment sEnvironment = Environment.Production;
+    private static final UrlConnectionHttpClient httpClient = UrlConnectionHttpClient.getDefaultAsyncInstance();
+
+    private static final Executor sDiscoveryExecutor = ThreadUtils.getNamedThreadPoolExecutor(
+            0, 1, -1,
+            DISCOVERY_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            "aad-instance-discovery"
+    );
+
+    /**
+     * The discovery currently running, if any. Callers arriving meanwhile wait for it.
+     */
+    private static final AtomicReference<ResultFuture<Boolean>> sInFlightDiscovery = new AtomicReference<>();
+
+    @Nullable
+    private static volatile INameValueStorage<String> sMetadataStorage;
 
     @Override
     public AzureActiveDirectoryOAuth2Strategy createOAuth2Strategy(@NonNull final AzureActiveDirectoryOAuth2Configuration config,
@@ -89,15 +140,37 @@ public class AzureActiveDirectory
         return new AzureActiveDirectoryOAuth2Strategy(config, parameters);
     }
 
-    public static synchronized boolean hasCloudHost(@NonNull final URL authorityUrl) {
+    /**
+     * Persists instance discovery responses to the platform storage, so that later processes can
+     * reuse them. Only the first call has an effect.
+     */
+    public static void setUp(@NonNull final IPlatformComponents platformComponents) {
+        if (sMetadataStorage == null) {
+            setMetadataStorage(platformComponents.getNameValueStore(
+                    INSTANCE_DISCOVERY_METADATA_STORAGE_FILE, String.class));
+        }
+    }
+
+    /**
+     * Persists instance discovery responses to the supplied storage. Only the first call has
+     * an effect.
+     */
+    public static synchronized void setMetadataStorage(@NonNull final INameValueStorage<String> storage) {
+        if (sMetadataStorage == null) {
+            sMetadataStorage = storage;
+        }
+    }
+
+    public static boolean hasCloudHost(@NonNull final URL authorityUrl) {
         return sAadClouds.containsKey(authorityUrl.getHost().toLowerCase(Locale.US));
     }
 
-    static synchronized boolean isValidCloudHost(@NonNull final URL authorityUrl) {
-        return hasCloudHost(authorityUrl) && getAzureActiveDirectoryCloud(authorityUrl).isValidated();
+    static boolean isValidCloudHost(@NonNull final URL authorityUrl) {
+        final AzureActiveDirectoryCloud cloud = getAzureActiveDirectoryCloud(authorityUrl);
+        return cloud != null && cloud.isValidated();
     }
 
-    public static synchronized boolean isInitialized() {
+    public static boolean isInitialized() {
         return sIsInitialized;
     }
 
@@ -111,7 +184,7 @@ public class AzureActiveDirectory
 
     }
 
-    public static synchronized Environment getEnvironment() {
+    public static Environment getEnvironment() {
         return sEnvironment;
     }
 
@@ -119,7 +192,7 @@ public class AzureActiveDirectory
      * @param authorityUrl URL
      * @return AzureActiveDirectoryCloud
      */
-    public static synchronized AzureActiveDirectoryCloud getAzureActiveDirectoryCloud(@NonNull final URL authorityUrl) {
+    public static AzureActiveDirectoryCloud getAzureActiveDirectoryCloud(@NonNull final URL authorityUrl) {
         return sAadClouds.get(authorityUrl.getHost().toLowerCase(Locale.US));
     }
 
@@ -127,7 +200,7 @@ public class AzureActiveDirectory
      * @param preferredCacheHostName String
      * @return AzureActiveDirectoryCloud
      */
-    public static synchronized AzureActiveDirectoryCloud getAzureActiveDirectoryCloudFromHostName(@NonNull final String preferredCacheHostName) {
+    public static AzureActiveDirectoryCloud getAzureActiveDirectoryCloudFromHostName(@NonNull final String preferredCacheHostName) {
         return sAadClouds.get(preferredCacheHostName.toLowerCase(Locale.US));
     }
 
@@ -173,7 +246,7 @@ public class AzureActiveDirectory
         sIsInitialized = true;
     }
 
-    public static synchronized String getDefaultCloudUrl() {
+    public static String getDefaultCloudUrl() {
         if (sEnvironment == Environment.PreProduction) {
             return AzureActiveDirectoryEnvironment.PREPRODUCTION_CLOUD_URL;
         } else {
@@ -181,17 +254,163 @@ public class AzureActiveDirectory
         }
     }
 
-    public static synchronized void performCloudDiscovery()
+    /**
+     * Loads the cloud metadata of the current environment, from storage if a recent enough
+     * response was persisted, or else from the instance discovery endpoint. If a discovery is
+     * already running, waits for it rather than starting another one.
+     */
+    public static void performCloudDiscovery()
             throws IOException, URISyntaxException {
-        final String methodName = ":performCloudDiscovery";
-        final URI instanceDiscoveryRequestUri = new CommonURIBuilder(getDefaultCloudUrl() + AAD_INSTANCE_DISCOVERY_ENDPOINT)
+        final ResultFuture<Boolean> discovery = new ResultFuture<>();
+
+        if (sInFlightDiscovery.compareAndSet(null, discovery)) {
+            // Discovery runs on other threads; carry the caller's context over for logging.
+            final RequestContext requestContext = new RequestContext();
+            requestContext.putAll(DiagnosticContext.INSTANCE.getRequestContext());
+
+            try {
+                sDiscoveryExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        runWithRequestContext(requestContext, new Runnable() {
+                            @Override
+                            public void run() {
+                                runCloudDiscovery(discovery, requestContext);
+                            }
+                        });
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                // Should not happen with an unbounded queue, but don't leave waiters hanging.
+                runCloudDiscovery(discovery, requestContext);
+            }
+            awaitCloudDiscovery(discovery);
+        } else {
+            final ResultFuture<Boolean> inFlightDiscovery = sInFlightDiscovery.get();
+            if (inFlightDiscovery == null) {
+                // It completed in between, start over.
+                performCloudDiscovery();
+            } else {
+                awaitCloudDiscovery(inFlightDiscovery);
+            }
+        }
+    }
+
+    /**
+     * Starts the discovery on the calling thread. A network request is sent, and retried, on the
+     * retry policy's scheduler, so the calling thread is released as soon as it is issued.
+     */
+    private static void runCloudDiscovery(@NonNull final ResultFuture<Boolean> discovery,
+                                          @NonNull final IRequestContext requestContext) {
+        try {
+            if (loadPersistedCloudMetadata(System.currentTimeMillis())) {
+                completeCloudDiscovery(discovery, null);
+                return;
+            }
+
+            final String defaultCloudUrl = getDefaultCloudUrl();
+            httpClient.methodAsync(
+                    HttpClient.HttpMethod.GET,
+                    getInstanceDiscoveryUrl(defaultCloudUrl),
+                    new HashMap<String, String>(),
+                    null
+            ).whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+                @Override
+                public void accept(final HttpResponse response, final Throwable throwable) {
+                    runWithRequestContext(requestContext, new Runnable() {
+                        @Override
+                        public void run() {
+                            if (throwable != null) {
+                                completeCloudDiscovery(discovery, throwable);
+                                return;
+                            }
+
+                            try {
+                                onInstanceDiscoveryResponse(defaultCloudUrl, response);
+                                completeCloudDiscovery(discovery, null);
+                            } catch (final RuntimeException e) {
+                                completeCloudDiscovery(discovery, e);
+                            }
+                        }
+                    });
+                }
+            });
+        } catch (final Exception e) {
+            completeCloudDiscovery(discovery, e);
+        } catch (final Error e) {
+            completeCloudDiscovery(discovery, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the supplied task with the supplied request context, so that its logs carry the
+     * correlation id of the caller which started the discovery.
+     */
+    private static void runWithRequestContext(@NonNull final IRequestContext requestContext,
+                                              @NonNull final Runnable task) {
+        final IRequestContext previousRequestContext = DiagnosticContext.INSTANCE.getRequestContext();
+        DiagnosticContext.INSTANCE.setRequestContext(requestContext);
+
+        try {
+            task.run();
+        } finally {
+            DiagnosticContext.INSTANCE.setRequestContext(previousRequestContext);
+        }
+    }
+
+    private static void completeCloudDiscovery(@NonNull final ResultFuture<Boolean> discovery,
+                                               @Nullable final Throwable failure) {
+        // Clear it first, so that callers arriving once it is complete start a new one.
+        sInFlightDiscovery.compareAndSet(discovery, null);
+
+        if (failure instanceof Exception) {
+            discovery.setException((Exception) failure);
+        } else if (failure != null) {
+            discovery.setException(new IOException("Cloud discovery failed", failure));
+        } else {
+            discovery.setResult(true);
+        }
+    }
+
+    private static void awaitCloudDiscovery(@NonNull final ResultFuture<Boolean> discovery)
+            throws IOException, URISyntaxException {
+        try {
+            discovery.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException interruptedException =
+                    new InterruptedIOException("Interrupted while waiting for cloud discovery");
+            interruptedException.initCause(e);
+            throw interruptedException;
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof URISyntaxException) {
+                throw (URISyntaxException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IOException("Cloud discovery failed", cause);
+        }
+    }
+
+    private static URL getInstanceDiscoveryUrl(@NonNull final String defaultCloudUrl)
+            throws IOException, URISyntaxException {
+        final URI instanceDiscoveryRequestUri = new CommonURIBuilder(defaultCloudUrl + AAD_INSTANCE_DISCOVERY_ENDPOINT)
                 .setParameter(API_VERSION, API_VERSION_VALUE)
                 .setParameter(AUTHORIZATION_ENDPOINT, AUTHORIZATION_ENDPOINT_VALUE)
                 .build();
 
-        final HttpResponse response =
-                httpClient.get(new URL(instanceDiscoveryRequestUri.toString()),
-                        new HashMap<String, String>());
+        return new URL(instanceDiscoveryRequestUri.toString());
+    }
+
+    private static void onInstanceDiscoveryResponse(@NonNull final String defaultCloudUrl,
+                                                    @NonNull final HttpResponse response) {
+        final String methodName = ":onInstanceDiscoveryResponse";
 
         if (response.getStatusCode() >= HttpURLConnection.HTTP_BAD_REQUEST) {
             Logger.warn(TAG + methodName, "Error getting cloud information");
@@ -202,26 +421,93 @@ public class AzureActiveDirectory
             HttpCache.flush();
 
             Logger.info(TAG + methodName, "Parsing response.");
-            AzureActiveDirectoryInstanceResponse instanceResponse =
-                    ObjectMapper.deserializeJsonStringToObject(
-                            response.getBody(),
-                            AzureActiveDirectoryInstanceResponse.class
-                    );
-            Logger.info(TAG + methodName, "Discovered ["
-                    + instanceResponse.getClouds().size() + "] clouds.");
-
-            for (final AzureActiveDirectoryCloud cloud : instanceResponse.getClouds()) {
-                cloud.setIsValidated(true); // Mark the deserialized Clouds as validated
-                for (final String alias : cloud.getHostAliases()) {
-                    sAadClouds.put(alias.toLowerCase(Locale.US), cloud);
-                }
+            applyInstanceDiscoveryResponse(response.getBody());
+            persistInstanceDiscoveryResponse(defaultCloudUrl, response.getBody(), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Puts the clouds of the supplied instance discovery response in the in-memory cache.
+     */
+    private static void applyInstanceDiscoveryResponse(final String responseBody) {
+        final String methodName = ":applyInstanceDiscoveryResponse";
+
+        final AzureActiveDirectoryInstanceResponse instanceResponse =
+                ObjectMapper.deserializeJsonStringToObject(
+                        responseBody,
+                        AzureActiveDirectoryInstanceResponse.class
+                );
+        Logger.info(TAG + methodName, "Discovered ["
+                + instanceResponse.getClouds().size() + "] clouds.");
+
+        for (final AzureActiveDirectoryCloud cloud : instanceResponse.getClouds()) {
+            cloud.setIsValidated(true); // Mark the deserialized Clouds as validated
+            for (final String alias : cloud.getHostAliases()) {
+                sAadClouds.put(alias.toLowerCase(Locale.US), cloud);
+            }
+        }
+
+        sIsInitialized = true;
+    }
+
+    /**
+     * Initializes the in-memory cache from the persisted instance discovery response of the
+     * current environment, if there is one younger than {@link #PERSISTED_METADATA_TIME_TO_LIVE_MILLIS}.
+     *
+     * @return true if the cache was initialized.
+     */
+    static boolean loadPersistedCloudMetadata(final long nowMillis) {
+        final String methodName = ":loadPersistedCloudMetadata";
+
+        final INameValueStorage<String> storage = sMetadataStorage;
+        if (storage == null) {
+            return false;
+        }
+
+        final String storageKey = getDefaultCloudUrl();
+        final String value = storage.get(storageKey);
+        if (value == null) {
+            return false;
+        }
+
+        try {
+            final PersistedInstanceDiscovery persisted =
+                    ObjectMapper.deserializeJsonStringToObject(value, PersistedInstanceDiscovery.class);
+
+            if (persisted == null || persisted.mBody == null) {
+                return false;
             }
 
-            sIsInitialized = true;
+            final long age = nowMillis - persisted.mFetchedAtMillis;
+            if (age < 0 || age >= PERSISTED_METADATA_TIME_TO_LIVE_MILLIS) {
+                Logger.info(TAG + methodName, "Persisted cloud metadata is expired.");
+                return false;
+            }
+
+            applyInstanceDiscoveryResponse(persisted.mBody);
+            Logger.info(TAG + methodName, "Loaded persisted cloud metadata.");
+            return true;
+        } catch (final JsonParseException e) {
+            Logger.warn(TAG + methodName, "Discarding unreadable persisted cloud metadata.");
+            storage.remove(storageKey);
+            return false;
+        }
+    }
+
+    private static void persistInstanceDiscoveryResponse(@NonNull final String defaultCloudUrl,
+                                                         @NonNull final String responseBody,
+                                                         final long fetchedAtMillis) {
+        final INameValueStorage<String> storage = sMetadataStorage;
+        if (storage != null) {
+            storage.put(
+                    defaultCloudUrl,
+                    ObjectMapper.serializeObjectToJsonString(
+                            new PersistedInstanceDiscovery(responseBody, fetchedAtMillis))
+            );
         }
     }
 
-    public static synchronized Set<String> getHosts() {
+    public static Set<String> getHosts() {
         if (null != sAadClouds) {
             return sAadClouds.keySet();
         }
@@ -229,7 +515,7 @@ public class AzureActiveDirectory
         return null;
     }
 
-    public static synchronized List<AzureActiveDirectoryCloud> getClouds() {
+    public static List<AzureActiveDirectoryCloud> getClouds() {
         if (null != sAadClouds) {
             return new ArrayList<>(sAadClouds.values());
         }
@@ -249,4 +535,19 @@ public class AzureActiveDirectory
         return new Gson().fromJson(jsonCloudArray, listType);
     }
 
+    /**
+     * The persisted form of an instance discovery response. The response is kept as downloaded.
+     */
+    private static final class PersistedInstanceDiscovery {
+        @SerializedName("fetched_at")
+        final long mFetchedAtMillis;
+
+        @SerializedName("body")
+        final String mBody;
+
+        PersistedInstanceDiscovery(@NonNull final String body, final long fetchedAtMillis) {
+            mBody = body;
+            mFetchedAtMillis = fetchedAtMillis;
+        }
+    }
 }
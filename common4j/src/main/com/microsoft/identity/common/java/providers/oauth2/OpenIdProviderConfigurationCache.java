@@ -0,0 +1,354 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.providers.oauth2;
+
+import static com.microsoft.identity.common.java.exception.ServiceException.OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+import com.microsoft.identity.common.java.exception.ServiceException;
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.logging.Logger;
+import com.microsoft.identity.common.java.util.ResultFuture;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * An in-memory cache of {@link OpenIdProviderConfiguration}, keyed by the well-known config URL.
+ * <p>
+ * Entries are fresh for {@link #DEFAULT_TIME_TO_LIVE_MILLIS}. Past that, they keep being served
+ * for up to {@link #DEFAULT_MAX_STALE_MILLIS} while they are reloaded in the background. Concurrent
+ * loads of the same URL share a single HTTP request.
+ * <p>
+ * If a storage is supplied, each loaded document is also written there, so that a new process
+ * can start from the last known metadata instead of downloading it again.
+ */
+class OpenIdProviderConfigurationCache {
+
+    private static final String TAG = OpenIdProviderConfigurationCache.class.getSimpleName();
+
+    static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.HOURS.toMillis(12);
+    static final long DEFAULT_MAX_STALE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    /**
+     * Downloads the raw OpenID configuration document.
+     */
+    interface IMetadataLoader {
+        /**
+         * @param configUrl the well-known config URL.
+         * @return the response body.
+         */
+        @NonNull
+        String load(@NonNull URI configUrl) throws ServiceException;
+    }
+
+    private static final Gson sGson = new Gson();
+
+    private final ConcurrentMap<URI, Entry> mEntries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<URI, ResultFuture<Entry>> mInFlightLoads = new ConcurrentHashMap<>();
+    private final Executor mRevalidationExecutor;
+    private final long mTimeToLiveMillis;
+    private final long mMaxStaleMillis;
+
+    @Nullable
+    private volatile INameValueStorage<String> mStorage;
+
+    OpenIdProviderConfigurationCache(@NonNull final Executor revalidationExecutor) {
+        this(revalidationExecutor, DEFAULT_TIME_TO_LIVE_MILLIS, DEFAULT_MAX_STALE_MILLIS);
+    }
+
+    OpenIdProviderConfigurationCache(@NonNull final Executor revalidationExecutor,
+                                     final long timeToLiveMillis,
+                                     final long maxStaleMillis) {
+        mRevalidationExecutor = revalidationExecutor;
+        mTimeToLiveMillis = timeToLiveMillis;
+        mMaxStaleMillis = Math.max(timeToLiveMillis, maxStaleMillis);
+    }
+
+    /**
+     * Sets the storage used to persist loaded documents, if none was set yet.
+     *
+     * @return true if the supplied storage is now in use.
+     */
+    boolean setStorageIfAbsent(@NonNull final INameValueStorage<String> storage) {
+        if (mStorage != null) {
+            return false;
+        }
+
+        synchronized (this) {
+            if (mStorage != null) {
+                return false;
+            }
+
+            mStorage = storage;
+            return true;
+        }
+    }
+
+    boolean hasStorage() {
+        return mStorage != null;
+    }
+
+    /**
+     * Returns the configuration of the supplied URL, loading it if it is missing or too stale.
+     *
+     * @param configUrl the well-known config URL.
+     * @param loader    the loader to use on a miss.
+     */
+    @NonNull
+    OpenIdProviderConfiguration get(@NonNull final URI configUrl,
+                                    @NonNull final IMetadataLoader loader) throws ServiceException {
+        final String methodName = ":get";
+
+        Entry entry = mEntries.get(configUrl);
+
+        if (entry == null) {
+            entry = readFromStorage(configUrl);
+
+            if (entry != null) {
+                final Entry existing = mEntries.putIfAbsent(configUrl, entry);
+                if (existing != null) {
+                    entry = existing;
+                }
+            }
+        }
+
+        if (entry != null) {
+            final long age = System.currentTimeMillis() - entry.mFetchedAtMillis;
+
+            if (age >= 0 && age < mTimeToLiveMillis) {
+                Logger.info(TAG + methodName, "Using cached metadata result.");
+                return entry.mConfiguration;
+            }
+
+            if (age >= 0 && age < mMaxStaleMillis) {
+                Logger.info(TAG + methodName, "Using stale cached metadata result, revalidating.");
+                revalidate(configUrl, loader);
+                return entry.mConfiguration;
+            }
+        }
+
+        return load(configUrl, loader).mConfiguration;
+    }
+
+    /**
+     * Drops every entry, in memory and in storage.
+     */
+    void clear() {
+        mEntries.clear();
+
+        final INameValueStorage<String> storage = mStorage;
+        if (storage != null) {
+            storage.clear();
+        }
+    }
+
+    private void revalidate(@NonNull final URI configUrl, @NonNull final IMetadataLoader loader) {
+        final String methodName = ":revalidate";
+
+        // Claim the load before scheduling it, so that concurrent callers schedule it only once.
+        final ResultFuture<Entry> future = new ResultFuture<>();
+        if (mInFlightLoads.putIfAbsent(configUrl, future) != null) {
+            return;
+        }
+
+        try {
+            mRevalidationExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        loadInto(future, configUrl, loader);
+                    } catch (final ServiceException | RuntimeException e) {
+                        Logger.warn(TAG + methodName, "Failed to revalidate metadata: " + e.getMessage());
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            Logger.warn(TAG + methodName, "Unable to schedule metadata revalidation.");
+            future.setException(new ServiceException(
+                    OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
+                    "Unable to schedule metadata revalidation",
+                    e
+            ));
+            mInFlightLoads.remove(configUrl, future);
+        }
+    }
+
+    /**
+     * Loads the document of the supplied URL, or waits for a load of it that is already running.
+     */
+    @NonNull
+    private Entry load(@NonNull final URI configUrl,
+                       @NonNull final IMetadataLoader loader) throws ServiceException {
+        final ResultFuture<Entry> future = new ResultFuture<>();
+        final ResultFuture<Entry> inFlightLoad = mInFlightLoads.putIfAbsent(configUrl, future);
+
+        if (inFlightLoad != null) {
+            return await(inFlightLoad);
+        }
+
+        return loadInto(future, configUrl, loader);
+    }
+
+    /**
+     * Loads the document of the supplied URL, completing the future registered for it in
+     * {@link #mInFlightLoads} by the caller.
+     */
+    @NonNull
+    private Entry loadInto(@NonNull final ResultFuture<Entry> future,
+                           @NonNull final URI configUrl,
+                           @NonNull final IMetadataLoader loader) throws ServiceException {
+        try {
+            final String body = loader.load(configUrl);
+            final OpenIdProviderConfiguration configuration =
+                    sGson.fromJson(body, OpenIdProviderConfiguration.class);
+
+            if (configuration == null) {
+                throw new ServiceException(
+                        OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
+                        "OpenId Provider Configuration metadata was empty",
+                        null
+                );
+            }
+
+            final Entry entry = new Entry(configuration, System.currentTimeMillis());
+
+            mEntries.put(configUrl, entry);
+            writeToStorage(configUrl, body, entry.mFetchedAtMillis);
+            future.setResult(entry);
+            return entry;
+        } catch (final ServiceException | RuntimeException e) {
+            future.setException(e);
+            throw e;
+        } finally {
+            mInFlightLoads.remove(configUrl, future);
+        }
+    }
+
+    @NonNull
+    private static Entry await(@NonNull final ResultFuture<Entry> inFlightLoad) throws ServiceException {
+        try {
+            return inFlightLoad.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException(
+                    OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
+                    "Interrupted while waiting for metadata",
+                    e
+            );
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof ServiceException) {
+                throw (ServiceException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new ServiceException(
+                    OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
+                    "Failed to load metadata",
+                    cause
+            );
+        }
+    }
+
+    @Nullable
+    private Entry readFromStorage(@NonNull final URI configUrl) {
+        final String methodName = ":readFromStorage";
+
+        final INameValueStorage<String> storage = mStorage;
+        if (storage == null) {
+            return null;
+        }
+
+        final String value = storage.get(configUrl.toString());
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            final PersistedEntry persistedEntry = sGson.fromJson(value, PersistedEntry.class);
+            if (persistedEntry == null || persistedEntry.mBody == null) {
+                return null;
+            }
+
+            final OpenIdProviderConfiguration configuration =
+                    sGson.fromJson(persistedEntry.mBody, OpenIdProviderConfiguration.class);
+            if (configuration == null) {
+                return null;
+            }
+
+            return new Entry(configuration, persistedEntry.mFetchedAtMillis);
+        } catch (final JsonParseException e) {
+            Logger.warn(TAG + methodName, "Discarding unreadable persisted metadata.");
+            storage.remove(configUrl.toString());
+            return null;
+        }
+    }
+
+    private void writeToStorage(@NonNull final URI configUrl,
+                                @NonNull final String body,
+                                final long fetchedAtMillis) {
+        final INameValueStorage<String> storage = mStorage;
+        if (storage != null) {
+            storage.put(configUrl.toString(), sGson.toJson(new PersistedEntry(body, fetchedAtMillis)));
+        }
+    }
+
+    private static final class Entry {
+        final OpenIdProviderConfiguration mConfiguration;
+        final long mFetchedAtMillis;
+
+        Entry(@NonNull final OpenIdProviderConfiguration configuration, final long fetchedAtMillis) {
+            mConfiguration = configuration;
+            mFetchedAtMillis = fetchedAtMillis;
+        }
+    }
+
+    /**
+     * The persisted form of an entry. The document is kept as downloaded.
+     */
+    private static final class PersistedEntry {
+        @SerializedName("fetched_at")
+        final long mFetchedAtMillis;
+
+        @SerializedName("body")
+        final String mBody;
+
+        PersistedEntry(@NonNull final String body, final long fetchedAtMillis) {
+            mBody = body;
+            mFetchedAtMillis = fetchedAtMillis;
+        }
+    }
+}
@@ -22,8 +22,9 @@
 // THE SOFTWARE.
 package com.microsoft.identity.common.java.providers.oauth2;
 
-import com.google.gson.Gson;
 import com.microsoft.identity.common.java.exception.ServiceException;
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.TaskCompletedCallbackWithError;
 import com.microsoft.identity.common.java.net.HttpClient;
@@ -37,7 +38,6 @@ import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -54,15 +54,21 @@ public class OpenIdProviderConfigurationClient {
     private static final String TAG = OpenIdProviderConfigurationClient.class.getSimpleName();
     private static final String sWellKnownConfig = "/.well-known/openid-configuration";
     private static final ExecutorService sBackgroundExecutor = Executors.newCachedThreadPool();
-    private static final Map<URI, OpenIdProviderConfiguration> sConfigCache = new HashMap<>();
+    private static final OpenIdProviderConfigurationCache sConfigCache =
+            new OpenIdProviderConfigurationCache(sBackgroundExecutor);
     private static final HttpClient httpClient = UrlConnectionHttpClient.getDefaultInstance();
 
+    /**
+     * The name of the storage file on disk for the OpenID provider configuration documents.
+     */
+    private static final String OPENID_PROVIDER_CONFIGURATION_STORAGE_FILE =
+            "com.microsoft.identity.client.openid_provider_configuration";
+
     public interface OpenIdProviderConfigurationCallback
             extends TaskCompletedCallbackWithError<OpenIdProviderConfiguration, Exception> {
     }
 
     private final String mIssuer;
-    private final Gson mGson = new Gson();
 
     public OpenIdProviderConfigurationClient(@NonNull final String issuer) throws URISyntaxException {
         mIssuer = new URI(sanitize(issuer)).toString();
@@ -84,6 +90,30 @@ public class OpenIdProviderConfigurationClient {
                 .build().toString();
     }
 
+    /**
+     * Persists loaded configuration documents to the platform storage, so that later processes
+     * can reuse them. Only the first call has an effect.
+     */
+    public static void setUp(@NonNull final IPlatformComponents platformComponents) {
+        if (!sConfigCache.hasStorage()) {
+            setPersistentStorage(platformComponents.getNameValueStore(
+                    OPENID_PROVIDER_CONFIGURATION_STORAGE_FILE, String.class));
+        }
+    }
+
+    /**
+     * Persists loaded configuration documents to the supplied storage. Only the first call has
+     * an effect.
+     */
+    public static void setPersistentStorage(@NonNull final INameValueStorage<String> storage) {
+        sConfigCache.setStorageIfAbsent(storage);
+    }
+
+    //@VisibleForTesting
+    public static void clearCache() {
+        sConfigCache.clear();
+    }
+
     private String sanitize(@NonNull final String issuer) {
         String sanitizedIssuer = issuer.trim();
 
@@ -110,28 +140,36 @@ public class OpenIdProviderConfigurationClient {
 
     /**
      * Get OpenID provider configuration.
+     * Served from cache when available; concurrent loads of the same issuer share one request.
      *
      * @return OpenIdProviderConfiguration
      */
-    public synchronized OpenIdProviderConfiguration loadOpenIdProviderConfiguration()
+    public OpenIdProviderConfiguration loadOpenIdProviderConfiguration()
             throws ServiceException {
-        final String methodName = ":loadOpenIdProviderConfiguration";
-
         try {
-            final URI configUrl = new URI(mIssuer + sWellKnownConfig);
-
-            // Check first for a cached copy...
-            final OpenIdProviderConfiguration cacheResult = sConfigCache.get(configUrl);
+            return sConfigCache.get(
+                    new URI(mIssuer + sWellKnownConfig),
+                    new OpenIdProviderConfigurationCache.IMetadataLoader() {
+                        @Override
+                        public String load(@NonNull final URI configUrl) throws ServiceException {
+                            return downloadMetadata(configUrl);
+                        }
+                    }
+            );
+        } catch (final URISyntaxException e) {
+            throw new ServiceException(
+                    OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
+                    "IOException while requesting metadata",
+                    e
+            );
+        }
+    }
 
-            // If we found a result, return it...
-            if (null != cacheResult) {
-                Logger.info(
-                        TAG + methodName,
-                        "Using cached metadata result."
-                );
-                return cacheResult;
-            }
+    @NonNull
+    private static String downloadMetadata(@NonNull final URI configUrl) throws ServiceException {
+        final String methodName = ":downloadMetadata";
 
+        try {
             Logger.verbose(
                     TAG + methodName,
                     "Config URL is valid."
@@ -157,15 +195,8 @@ public class OpenIdProviderConfigurationClient {
                 );
             }
 
-            final OpenIdProviderConfiguration parsedConfig = parseMetadata(
-                    providerConfigResponse.getBody()
-            );
-
-            // Cache our config in memory for later
-            cacheConfiguration(configUrl, parsedConfig);
-
-            return parsedConfig;
-        } catch (IOException | URISyntaxException e) {
+            return providerConfigResponse.getBody();
+        } catch (final IOException e) {
             throw new ServiceException(
                     OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
                     "IOException while requesting metadata",
@@ -173,14 +204,4 @@ public class OpenIdProviderConfigurationClient {
             );
         }
     }
-
-    private void cacheConfiguration(@NonNull final URI configUrl,
-                                    @NonNull final OpenIdProviderConfiguration parsedConfig) {
-        sConfigCache.put(configUrl, parsedConfig);
-    }
-
-    private OpenIdProviderConfiguration parseMetadata(@NonNull final String body) {
-        return mGson.fromJson(body, OpenIdProviderConfiguration.class);
-    }
-
 }
@@ -26,6 +26,8 @@ import com.google.gson.annotations.SerializedName;
 import com.microsoft.identity.common.java.dto.AccountRecord;
 import com.microsoft.identity.common.java.exception.ErrorStrings;
 
+import java.util.List;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -59,6 +61,12 @@ public class GenerateShrResult {
     @SerializedName("shr")
     private String shr;
 
+    /**
+     * The SHRs of a batch request, in request order. Null for single requests.
+     */
+    @SerializedName("shrs")
+    private List<String> shrs;
+
     @SerializedName("error_code")
     private String errorCode;
 
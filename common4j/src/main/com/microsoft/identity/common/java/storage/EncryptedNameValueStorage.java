@@ -30,10 +30,18 @@ import com.microsoft.identity.common.java.logging.Logger;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.util.ported.Predicate;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 import lombok.NonNull;
@@ -58,6 +66,11 @@ public class EncryptedNameValueStorage<T> implements INameValueStorage<T> {
 
     private static final String TAG = EncryptedNameValueStorage.class.getSimpleName();
 
+    /**
+     * Below this many entries, a bulk decrypt is not worth handing off to other threads.
+     */
+    private static final int MIN_ENTRIES_PER_BULK_DECRYPT_TASK = 8;
+
     @NonNull
     private final INameValueStorage<String> mRawNameValueStorage;
 
@@ -67,6 +80,18 @@ public class EncryptedNameValueStorage<T> implements INameValueStorage<T> {
     @NonNull
     private final IGenericTypeStringAdapter<T> mStringAdapter;
 
+    /**
+     * If set, bulk reads ({@link #getAll()}, {@link #getAllFilteredByKey(Predicate)}) fan their
+     * decryption out over this executor.
+     */
+    @Nullable
+    private final ExecutorService mBulkDecryptExecutor;
+
+    /**
+     * The number of tasks a bulk decrypt is split into, when {@link #mBulkDecryptExecutor} is set.
+     */
+    private final int mBulkDecryptParallelism;
+
     /**
      * Creates an instance of an {@link EncryptedNameValueStorage}.
      *
@@ -80,9 +105,38 @@ public class EncryptedNameValueStorage<T> implements INameValueStorage<T> {
     public EncryptedNameValueStorage(@NonNull final INameValueStorage<String> rawNameValueStringStorage,
                                      @NonNull final IKeyAccessor encryptionManager,
                                      @NonNull final IGenericTypeStringAdapter<T> stringAdapter) {
+        this(rawNameValueStringStorage, encryptionManager, stringAdapter, null, 1);
+    }
+
+    /**
+     * Creates an instance of an {@link EncryptedNameValueStorage} which decrypts bulk reads in
+     * parallel.
+     *
+     * @param rawNameValueStringStorage the raw String based {@link INameValueStorage} where the
+     *                                  encrypted data is stored
+     * @param encryptionManager         the {@link IKeyAccessor} responsible for encrypting the data
+     * @param stringAdapter             the {@link IGenericTypeStringAdapter} that will be used to
+     *                                  adapt the values to their String representation before
+     *                                  encrypting and persisting them
+     * @param bulkDecryptExecutor       a bounded executor to decrypt bulk reads on, or null to
+     *                                  decrypt on the calling thread. Not shut down by this class.
+     * @param bulkDecryptParallelism    the maximum number of tasks a bulk read is split into;
+     *                                  typically the executor's pool size.
+     */
+    public EncryptedNameValueStorage(@NonNull final INameValueStorage<String> rawNameValueStringStorage,
+                                     @NonNull final IKeyAccessor encryptionManager,
+                                     @NonNull final IGenericTypeStringAdapter<T> stringAdapter,
+                                     @Nullable final ExecutorService bulkDecryptExecutor,
+                                     final int bulkDecryptParallelism) {
+        if (bulkDecryptParallelism < 1) {
+            throw new IllegalArgumentException("bulkDecryptParallelism must be at least 1.");
+        }
+
         this.mRawNameValueStorage = rawNameValueStringStorage;
         this.mEncryptionManager = new KeyAccessorStringAdapter(encryptionManager);
         this.mStringAdapter = stringAdapter;
+        this.mBulkDecryptExecutor = bulkDecryptExecutor;
+        this.mBulkDecryptParallelism = bulkDecryptParallelism;
     }
 
     @Nullable
@@ -107,36 +161,12 @@ public class EncryptedNameValueStorage<T> implements INameValueStorage<T> {
 
     @Override
     public @NonNull Map<String, T> getAll() {
-        final Map<String, String> stringEntries = mRawNameValueStorage.getAll();
-        final Map<String, T> decryptedEntries = new HashMap<>();
-
-        for (final Map.Entry<String, String> entry : stringEntries.entrySet()) {
-            final T decryptedValue = get(entry.getKey());
-
-            if (decryptedValue != null) {
-                decryptedEntries.put(entry.getKey(), decryptedValue);
-            }
-        }
-
-        return decryptedEntries;
+        return decryptAll(mRawNameValueStorage.getAll().entrySet().iterator());
     }
 
     @Override
     public void put(@NonNull final String name, @Nullable final T value) {
-        if (value == null) {
-            mRawNameValueStorage.put(name, null);
-            return;
-        }
-
-        final String adaptedValue = mStringAdapter.adapt(value);
-
-        if (StringUtil.isNullOrEmpty(adaptedValue)) {
-            mRawNameValueStorage.put(name, adaptedValue);
-            return;
-        }
-
-        final String encryptedValue = encrypt(adaptedValue);
-        mRawNameValueStorage.put(name, encryptedValue);
+        mRawNameValueStorage.put(name, adaptAndEncrypt(value));
     }
 
     @Override
@@ -144,6 +174,21 @@ public class EncryptedNameValueStorage<T> implements INameValueStorage<T> {
         mRawNameValueStorage.remove(name);
     }
 
+    @Override
+    public void commit(@NonNull final NameValueStorageBatch<T> batch) {
+        final NameValueStorageBatch<String> encryptedBatch = new NameValueStorageBatch<>();
+
+        for (final String name : batch.getRemoves()) {
+            encryptedBatch.remove(name);
+        }
+
+        for (final Map.Entry<String, T> entry : batch.getPuts().entrySet()) {
+            encryptedBatch.put(entry.getKey(), adaptAndEncrypt(entry.getValue()));
+        }
+
+        mRawNameValueStorage.commit(encryptedBatch);
+    }
+
     @Override
     public void clear() {
         mRawNameValueStorage.clear();
@@ -156,13 +201,115 @@ public class EncryptedNameValueStorage<T> implements INameValueStorage<T> {
 
     @Override
     public Iterator<Map.Entry<String, T>> getAllFilteredByKey(@NonNull final Predicate<String> keyFilter) {
-        final Map<String, T> newMap = new HashMap<>();
-        for (final Map.Entry<String, T> entry : getAll().entrySet()) {
-            if (keyFilter.test(entry.getKey())) {
-                newMap.put(entry.getKey(), entry.getValue());
+        // Filter on the (clear text) keys first, so that only the matching values are decrypted.
+        return decryptAll(mRawNameValueStorage.getAllFilteredByKey(keyFilter)).entrySet().iterator();
+    }
+
+    /**
+     * Decrypts and adapts the supplied encrypted entries. Entries which fail to decrypt are
+     * omitted from the result and removed from the storage, same as {@link #get(String)}.
+     */
+    @NonNull
+    private Map<String, T> decryptAll(@NonNull final Iterator<Map.Entry<String, String>> encryptedEntries) {
+        final List<Map.Entry<String, String>> entriesToDecrypt = new ArrayList<>();
+
+        while (encryptedEntries.hasNext()) {
+            final Map.Entry<String, String> entry = encryptedEntries.next();
+
+            if (!StringUtil.isNullOrEmpty(entry.getValue())) {
+                entriesToDecrypt.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+            }
+        }
+
+        final String[] decryptedValues = new String[entriesToDecrypt.size()];
+        final int taskCount = Math.min(
+                mBulkDecryptParallelism,
+                entriesToDecrypt.size() / MIN_ENTRIES_PER_BULK_DECRYPT_TASK
+        );
+
+        if (mBulkDecryptExecutor == null || taskCount < 2
+                || !decryptInParallel(entriesToDecrypt, decryptedValues, taskCount)) {
+            decryptRange(entriesToDecrypt, decryptedValues, 0, entriesToDecrypt.size());
+        }
+
+        final Map<String, T> decryptedEntries = new HashMap<>();
+
+        for (int i = 0; i < decryptedValues.length; i++) {
+            final String key = entriesToDecrypt.get(i).getKey();
+
+            if (StringUtil.isNullOrEmpty(decryptedValues[i])) {
+                logWarningAndRemoveKey(key);
+            } else {
+                decryptedEntries.put(key, mStringAdapter.adapt(decryptedValues[i]));
+            }
+        }
+
+        return decryptedEntries;
+    }
+
+    /**
+     * Splits the decryption of the supplied entries into taskCount contiguous ranges, and runs
+     * them on {@link #mBulkDecryptExecutor}.
+     *
+     * @return false if the work could not be completed on the executor.
+     */
+    private boolean decryptInParallel(@NonNull final List<Map.Entry<String, String>> entries,
+                                      @NonNull final String[] decryptedValues,
+                                      final int taskCount) {
+        final String methodName = ":decryptInParallel";
+        final List<Callable<Void>> tasks = new ArrayList<>(taskCount);
+        final int rangeSize = (entries.size() + taskCount - 1) / taskCount;
+
+        for (int start = 0; start < entries.size(); start += rangeSize) {
+            final int rangeStart = start;
+            final int rangeEnd = Math.min(start + rangeSize, entries.size());
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    decryptRange(entries, decryptedValues, rangeStart, rangeEnd);
+                    return null;
+                }
+            });
+        }
+
+        try {
+            // Each task writes to its own range of the array; invokeAll() publishes the writes.
+            for (final Future<Void> future : mBulkDecryptExecutor.invokeAll(tasks)) {
+                future.get();
             }
+            return true;
+        } catch (final InterruptedException e) {
+            Logger.warn(TAG + methodName, "Interrupted, decrypting on the calling thread.");
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException | RejectedExecutionException e) {
+            Logger.warn(TAG + methodName, "Bulk decrypt failed, decrypting on the calling thread: " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    private void decryptRange(@NonNull final List<Map.Entry<String, String>> entries,
+                              @NonNull final String[] decryptedValues,
+                              final int start,
+                              final int end) {
+        for (int i = start; i < end; i++) {
+            decryptedValues[i] = decrypt(entries.get(i).getValue());
         }
-        return newMap.entrySet().iterator();
+    }
+
+    @Nullable
+    private String adaptAndEncrypt(@Nullable final T value) {
+        if (value == null) {
+            return null;
+        }
+
+        final String adaptedValue = mStringAdapter.adapt(value);
+
+        if (StringUtil.isNullOrEmpty(adaptedValue)) {
+            return adaptedValue;
+        }
+
+        return encrypt(adaptedValue);
     }
 
     @Nullable
@@ -104,4 +104,9 @@ public class MultiTypeNameValueStorage implements IMultiTypeNameValueStorage {
     public void remove(@NonNull final String key) {
         mNameValueStringStorage.remove(key);
     }
+
+    @Override
+    public void commit(@NonNull final NameValueStorageBatch<String> batch) {
+        mNameValueStringStorage.commit(batch);
+    }
 }
@@ -0,0 +1,100 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.storage;
+
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * A set of puts and removes staged against a {@link INameValueStorage}, to be applied together via
+ * {@link INameValueStorage#commit(NameValueStorageBatch)}.
+ * <p>
+ * Only the last operation staged for a given name is kept, so the staged puts and removes never
+ * overlap and may be applied in any order.
+ *
+ * @param <T> the type of the values stored.
+ */
+public class NameValueStorageBatch<T> {
+
+    private final Map<String, T> mPuts = new LinkedHashMap<>();
+
+    private final Set<String> mRemoves = new LinkedHashSet<>();
+
+    /**
+     * Stages a value to be put into the storage.
+     *
+     * @param name  A name associated to the value.
+     * @param value value to be persisted.
+     * @return this batch.
+     */
+    @NonNull
+    public NameValueStorageBatch<T> put(@NonNull final String name, @Nullable final T value) {
+        mRemoves.remove(name);
+        mPuts.put(name, value);
+        return this;
+    }
+
+    /**
+     * Stages the removal of a value from the storage.
+     *
+     * @param name A name associated to the value.
+     * @return this batch.
+     */
+    @NonNull
+    public NameValueStorageBatch<T> remove(@NonNull final String name) {
+        mPuts.remove(name);
+        mRemoves.add(name);
+        return this;
+    }
+
+    /**
+     * @return the staged puts, in the order they were staged.
+     */
+    @NonNull
+    public Map<String, T> getPuts() {
+        return Collections.unmodifiableMap(mPuts);
+    }
+
+    /**
+     * @return the names staged for removal, in the order they were staged.
+     */
+    @NonNull
+    public Set<String> getRemoves() {
+        return Collections.unmodifiableSet(mRemoves);
+    }
+
+    /**
+     * @return true if nothing has been staged.
+     */
+    public boolean isEmpty() {
+        return mPuts.isEmpty() && mRemoves.isEmpty();
+    }
+}
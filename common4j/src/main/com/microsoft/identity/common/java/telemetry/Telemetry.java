@@ -31,6 +31,7 @@ import com.microsoft.identity.common.java.telemetry.adapter.TelemetryDefaultAdap
 import com.microsoft.identity.common.java.telemetry.events.BaseEvent;
 import com.microsoft.identity.common.java.telemetry.observers.ITelemetryAggregatedObserver;
 import com.microsoft.identity.common.java.telemetry.observers.ITelemetryDefaultObserver;
+import com.microsoft.identity.common.java.telemetry.observers.ITelemetryEventObserver;
 import com.microsoft.identity.common.java.telemetry.observers.ITelemetryObserver;
 import com.microsoft.identity.common.java.telemetry.rules.TelemetryPiiOiiRules;
 import com.microsoft.identity.common.java.logging.Logger;
@@ -49,7 +50,6 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.microsoft.identity.common.java.logging.DiagnosticContext.CORRELATION_ID;
-import static com.microsoft.identity.common.java.telemetry.TelemetryEventStrings.Key;
 
 /**
  * A singleton class for logging Telemetry.
@@ -63,7 +63,7 @@ public class Telemetry {
     @SuppressWarnings(WarningType.rawtype_warning)
     private static Queue<ITelemetryObserver> mObservers;
 
-    private Queue<Map<String, String>> mTelemetryRawDataMap;
+    private TelemetryEventStore mTelemetryRawDataMap;
     private TelemetryConfiguration mDefaultConfiguration;
     private AbstractTelemetryContext mTelemetryContext;
     private boolean mIsDebugging;
@@ -92,7 +92,7 @@ public class Telemetry {
             mDefaultConfiguration = builder.mDefaultConfiguration;
             mTelemetryContext = builder.mTelemetryContext;
             mIsDebugging = builder.mIsDebugging;
-            mTelemetryRawDataMap = new ConcurrentLinkedQueue<>();
+            mTelemetryRawDataMap = new TelemetryEventStore();
         }
     }
 
@@ -110,17 +110,20 @@ public class Telemetry {
     /**
      * This is for getting instance of Telemetry
      **/
-    public synchronized static Telemetry getInstance() {
-        // If sTelemetryInstance is not initialized, telemetry will be disabled.
-        if (sTelemetryInstance == null) {
-            new Builder().build();
+    public static Telemetry getInstance() {
+        final Telemetry instance = sTelemetryInstance;
+        if (instance != null) {
+            return instance;
         }
 
-        return sTelemetryInstance;
-    }
+        synchronized (Telemetry.class) {
+            // If sTelemetryInstance is not initialized, telemetry will be disabled.
+            if (sTelemetryInstance == null) {
+                new Builder().build();
+            }
 
-    private synchronized Queue<Map<String, String>> getRequestMap() {
-        return mTelemetryRawDataMap;
+            return sTelemetryInstance;
+        }
     }
 
     /**
@@ -222,9 +225,10 @@ public class Telemetry {
      * @return the event reference for future properties modification.
      */
     public static void emit(final BaseEvent event) {
-        if (getInstance().mIsTelemetryEnabled) {
+        final Telemetry instance = getInstance();
+        if (instance.mIsTelemetryEnabled) {
             //only enqueue the telemetry properties when the telemetry is enabled.
-            getInstance().getRequestMap().add(event.getProperties());
+            instance.mTelemetryRawDataMap.add(event);
         }
     }
 
@@ -258,38 +262,51 @@ public class Telemetry {
             return;
         }
 
-        final List<Map<String, String>> finalRawMap = new CopyOnWriteArrayList<>();
+        final List<BaseEvent> events = mTelemetryRawDataMap.remove(correlationId);
 
-        for (Iterator<Map<String, String>> iterator = mTelemetryRawDataMap.iterator(); iterator.hasNext(); ) {
-            Map<String, String> event = iterator.next();
-            if (correlationId.equalsIgnoreCase(event.get(Key.CORRELATION_ID))) {
-                finalRawMap.add(applyPiiOiiRule(event));
-                iterator.remove();
+        // The events are no longer shared, so PII/OII is stripped in place rather than copied.
+        if (mDefaultConfiguration.isPiiEnabled()) {
+            Logger.warn(TAG, "Telemetry PII/OII is enabled by the developer.");
+        } else {
+            for (final BaseEvent event : events) {
+                event.removePiiOiiProperties();
             }
         }
 
-        processRawMap(finalRawMap);
+        processEvents(events);
     }
 
     /**
-     * Pass the final raw map to the observers.
+     * Pass the events of a request to the observers. The Map view of the events is only built
+     * for the observers which consume it.
      */
-    private void processRawMap(final List<Map<String, String>> finalRawMap) {
+    private void processEvents(final List<BaseEvent> events) {
         //Add the telemetry context to the telemetry data
-        finalRawMap.add(applyPiiOiiRule(mTelemetryContext.getProperties()));
+        final Map<String, String> contextProperties = applyPiiOiiRule(mTelemetryContext.getProperties());
 
         if (null == mObservers) {
             Logger.warn(TAG, "No telemetry observer set.");
             return;
         }
 
+        List<Map<String, String>> finalRawMap = null;
+
         for (@SuppressWarnings(WarningType.rawtype_warning) ITelemetryObserver observer : mObservers) {
             if (observer instanceof IBrokerTelemetryObserver) {
-                new BrokerTelemetryAdapter((IBrokerTelemetryObserver) observer).process(finalRawMap);
+                new BrokerTelemetryAdapter((IBrokerTelemetryObserver) observer).processEvents(events, contextProperties);
             } else if (observer instanceof ITelemetryAggregatedObserver) {
-                new TelemetryAggregationAdapter((ITelemetryAggregatedObserver) observer).process(finalRawMap);
+                new TelemetryAggregationAdapter((ITelemetryAggregatedObserver) observer).processEvents(events, contextProperties);
             } else if (observer instanceof ITelemetryDefaultObserver) {
+                if (finalRawMap == null) {
+                    finalRawMap = new ArrayList<>(events.size() + 1);
+                    for (final BaseEvent event : events) {
+                        finalRawMap.add(event.getProperties());
+                    }
+                    finalRawMap.add(contextProperties);
+                }
                 new TelemetryDefaultAdapter((ITelemetryDefaultObserver) observer).process(finalRawMap);
+            } else if (observer instanceof ITelemetryEventObserver) {
+                ((ITelemetryEventObserver) observer).onReceived(Collections.unmodifiableList(events));
             } else {
                 Logger.warn(TAG, "Unknown observer type: " + observer.getClass());
             }
@@ -328,13 +345,11 @@ public class Telemetry {
             return Collections.emptyList();
         }
 
-        List<Map<String, String>> finalRawMap = new ArrayList<>();
+        final List<BaseEvent> events = mTelemetryRawDataMap.get(correlationId);
+        final List<Map<String, String>> finalRawMap = new ArrayList<>(events.size());
 
-        for (final Iterator<Map<String, String>> iterator = mTelemetryRawDataMap.iterator(); iterator.hasNext(); ) {
-            final Map<String, String> event = iterator.next();
-            if (correlationId.equalsIgnoreCase(event.get(Key.CORRELATION_ID))) {
-                finalRawMap.add(applyPiiOiiRule(event));
-            }
+        for (final BaseEvent event : events) {
+            finalRawMap.add(applyPiiOiiRule(event.getProperties()));
         }
         return finalRawMap;
     }
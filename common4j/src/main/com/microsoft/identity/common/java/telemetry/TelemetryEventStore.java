@@ -0,0 +1,184 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.telemetry;
+
+import com.microsoft.identity.common.java.telemetry.events.BaseEvent;
+import com.microsoft.identity.common.java.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import lombok.NonNull;
+
+/**
+ * Raw telemetry events, bucketed by correlation id (case-insensitively), so that reading or
+ * flushing the events of a request never walks the events of other requests.
+ * <p>
+ * Buckets of requests which are never flushed (e.g. abandoned background work) are evicted once
+ * nothing has been added to them for {@link #mMaxBucketAgeMillis}.
+ */
+final class TelemetryEventStore {
+
+    static final long DEFAULT_MAX_BUCKET_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final ConcurrentMap<String, Bucket> mBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong mLastEvictionMillis = new AtomicLong(System.currentTimeMillis());
+    private final long mMaxBucketAgeMillis;
+
+    /**
+     * The events of a single correlation id. Once drained, a bucket is closed and writers move
+     * on to a new one.
+     */
+    private static final class Bucket {
+        private final List<BaseEvent> mEvents = new ArrayList<>();
+        private boolean mClosed;
+        private volatile long mLastUpdatedMillis = System.currentTimeMillis();
+
+        synchronized boolean add(@NonNull final BaseEvent event, final long nowMillis) {
+            if (mClosed) {
+                return false;
+            }
+
+            mEvents.add(event);
+            mLastUpdatedMillis = nowMillis;
+            return true;
+        }
+
+        synchronized List<BaseEvent> snapshot() {
+            return new ArrayList<>(mEvents);
+        }
+
+        synchronized List<BaseEvent> close() {
+            mClosed = true;
+            return mEvents;
+        }
+    }
+
+    TelemetryEventStore() {
+        this(DEFAULT_MAX_BUCKET_AGE_MILLIS);
+    }
+
+    TelemetryEventStore(final long maxBucketAgeMillis) {
+        mMaxBucketAgeMillis = maxBucketAgeMillis;
+    }
+
+    /**
+     * Adds an event to the bucket of its correlation id. Events without a correlation id can never
+     * be read back, and are not kept.
+     *
+     * @return false if the event was not kept.
+     */
+    boolean add(@NonNull final BaseEvent event) {
+        final String key = toKey(event.getCorrelationId());
+        if (key == null) {
+            return false;
+        }
+
+        final long nowMillis = System.currentTimeMillis();
+        evictStaleBuckets(nowMillis);
+
+        while (true) {
+            Bucket bucket = mBuckets.get(key);
+            if (bucket == null) {
+                final Bucket newBucket = new Bucket();
+                bucket = mBuckets.putIfAbsent(key, newBucket);
+                if (bucket == null) {
+                    bucket = newBucket;
+                }
+            }
+
+            if (bucket.add(event, nowMillis)) {
+                return true;
+            }
+
+            // Drained concurrently; retry with a fresh bucket.
+            mBuckets.remove(key, bucket);
+        }
+    }
+
+    /**
+     * @return the events of the given correlation id, in the order they were added.
+     */
+    @NonNull
+    List<BaseEvent> get(@Nullable final String correlationId) {
+        final String key = toKey(correlationId);
+        final Bucket bucket = key == null ? null : mBuckets.get(key);
+        return bucket == null
+                ? Collections.<BaseEvent>emptyList()
+                : bucket.snapshot();
+    }
+
+    /**
+     * Removes and returns the events of the given correlation id, in the order they were added.
+     */
+    @NonNull
+    List<BaseEvent> remove(@Nullable final String correlationId) {
+        final String key = toKey(correlationId);
+        final Bucket bucket = key == null ? null : mBuckets.remove(key);
+        return bucket == null
+                ? Collections.<BaseEvent>emptyList()
+                : bucket.close();
+    }
+
+    /**
+     * @return the number of correlation ids with pending events.
+     */
+    int size() {
+        return mBuckets.size();
+    }
+
+    /**
+     * Drops buckets which were not updated within the max age. Runs at most once per max age
+     * period, on whichever thread gets there first.
+     */
+    void evictStaleBuckets(final long nowMillis) {
+        final long lastEvictionMillis = mLastEvictionMillis.get();
+        if (nowMillis - lastEvictionMillis < mMaxBucketAgeMillis
+                || !mLastEvictionMillis.compareAndSet(lastEvictionMillis, nowMillis)) {
+            return;
+        }
+
+        for (final Iterator<Map.Entry<String, Bucket>> iterator = mBuckets.entrySet().iterator(); iterator.hasNext(); ) {
+            final Map.Entry<String, Bucket> entry = iterator.next();
+            if (nowMillis - entry.getValue().mLastUpdatedMillis >= mMaxBucketAgeMillis) {
+                // Closed first, so that a concurrent writer moves on to a fresh bucket.
+                entry.getValue().close();
+                iterator.remove();
+            }
+        }
+    }
+
+    @Nullable
+    private static String toKey(@Nullable final String correlationId) {
+        return StringUtil.isNullOrEmpty(correlationId) ? null : correlationId.toLowerCase(Locale.ROOT);
+    }
+}
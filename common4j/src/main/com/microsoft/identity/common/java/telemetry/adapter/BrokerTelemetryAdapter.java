@@ -22,6 +22,7 @@
 package com.microsoft.identity.common.java.telemetry.adapter;
 
 import com.microsoft.identity.common.java.telemetry.TelemetryEventStrings;
+import com.microsoft.identity.common.java.telemetry.events.BaseEvent;
 import com.microsoft.identity.common.java.telemetry.observers.IBrokerTelemetryObserver;
 import com.microsoft.identity.common.java.util.StringUtil;
 
@@ -65,6 +66,19 @@ public class BrokerTelemetryAdapter extends TelemetryAggregationAdapter {
         getObserver().onReceived(aggregatedMap);
     }
 
+    @Override
+    public void processEvents(@NonNull final List<BaseEvent> events,
+                              @NonNull final Map<String, String> contextProperties) {
+        // Error events are reported with all their properties, so use the Map view.
+        final List<Map<String, String>> rawData = new ArrayList<>(events.size() + 1);
+        for (final BaseEvent event : events) {
+            rawData.add(event.getProperties());
+        }
+        rawData.add(contextProperties);
+
+        process(rawData);
+    }
+
     /**
      * Filters out error events from the list of events.
      */
@@ -25,6 +25,7 @@ package com.microsoft.identity.common.java.telemetry.adapter;
 import lombok.NonNull;
 
 import com.microsoft.identity.common.java.telemetry.TelemetryEventStrings;
+import com.microsoft.identity.common.java.telemetry.events.BaseEvent;
 import com.microsoft.identity.common.java.util.StringUtil;
 import com.microsoft.identity.common.java.telemetry.observers.ITelemetryAggregatedObserver;
 import com.microsoft.identity.common.java.telemetry.rules.TelemetryAggregationRules;
@@ -52,6 +53,86 @@ public class TelemetryAggregationAdapter implements ITelemetryAdapter<List<Map<S
         mObserver.onReceived(aggregateEvent(rawData));
     }
 
+    /**
+     * Same as {@link #process(List)}, for typed events. Counts and response times are computed
+     * from the typed values rather than parsed back from strings.
+     *
+     * @param events            the events of a request.
+     * @param contextProperties the properties of the telemetry context.
+     */
+    public void processEvents(@NonNull final List<BaseEvent> events,
+                              @NonNull final Map<String, String> contextProperties) {
+        mObserver.onReceived(aggregateEvents(events, contextProperties));
+    }
+
+    protected Map<String, String> aggregateEvents(@NonNull final List<BaseEvent> events,
+                                                  @NonNull final Map<String, String> contextProperties) {
+        final Map<String, String> aggregatedData = new HashMap<>();
+        final Map<String, EventTypeStats> statsByType = new HashMap<>();
+
+        for (final BaseEvent event : events) {
+            final String eventName = event.getEventName();
+            final String eventType = event.getEventType();
+
+            if (StringUtil.isNullOrEmpty(eventName)) {
+                applyAggregationRule(event, aggregatedData);
+                continue;
+            }
+
+            EventTypeStats stats = statsByType.get(eventType);
+            if (stats == null) {
+                stats = new EventTypeStats();
+                statsByType.put(eventType, stats);
+            }
+
+            //Count the events. Only check the "*_start_event" when counting.
+            //The response time is the duration of the last occurrence.
+            if (eventName.contains(START)) {
+                stats.mCount++;
+                stats.mHasStartTime = event.hasOccurTime();
+                stats.mStartTime = event.getOccurTime();
+            }
+
+            if (eventName.contains(END)) {
+                stats.mHasEndTime = event.hasOccurTime();
+                stats.mEndTime = event.getOccurTime();
+            }
+
+            final String isSuccessful = event.getString(Key.IS_SUCCESSFUL);
+            aggregatedData.put(
+                    eventType + Key.IS_SUCCESSFUL,
+                    StringUtil.isNullOrEmpty(isSuccessful) ? TelemetryEventStrings.Value.FALSE : isSuccessful
+            );
+
+            applyAggregationRule(event, aggregatedData);
+        }
+
+        aggregatedData.putAll(applyAggregationRule(contextProperties));
+
+        for (final Map.Entry<String, EventTypeStats> entry : statsByType.entrySet()) {
+            final EventTypeStats stats = entry.getValue();
+            if (stats.mCount > 0) {
+                aggregatedData.put(entry.getKey() + "_count", String.valueOf(stats.mCount));
+            }
+            if (stats.mHasStartTime && stats.mHasEndTime) {
+                aggregatedData.put(entry.getKey() + "_response_time", String.valueOf(stats.mEndTime - stats.mStartTime));
+            }
+        }
+
+        return aggregatedData;
+    }
+
+    /**
+     * Running totals of a single event type.
+     */
+    private static final class EventTypeStats {
+        int mCount;
+        boolean mHasStartTime;
+        long mStartTime;
+        boolean mHasEndTime;
+        long mEndTime;
+    }
+
     protected Map<String, String> aggregateEvent(@NonNull final List<Map<String, String>> rawData) {
         final Map<String, String> aggregatedData = new HashMap<>();
         final Map<String, String> responseTimeMap = new HashMap<>();
@@ -105,6 +186,26 @@ public class TelemetryAggregationAdapter implements ITelemetryAdapter<List<Map<S
         return nonPiiProperties;
     }
 
+    /**
+     * Same as {@link #applyAggregationRule(Map)}, for a typed event. The properties are read from
+     * the event directly rather than from its Map view.
+     *
+     * @param event          the event.
+     * @param aggregatedData the map to add the non-redundant properties to.
+     */
+    protected void applyAggregationRule(@NonNull final BaseEvent event,
+                                        @NonNull final Map<String, String> aggregatedData) {
+        final TelemetryAggregationRules rules = TelemetryAggregationRules.getInstance();
+        event.forEachProperty(new BaseEvent.IPropertyVisitor() {
+            @Override
+            public void visit(@NonNull final String key, @NonNull final String value) {
+                if (!StringUtil.isNullOrEmpty(value) && !rules.isRedundant(key)) {
+                    aggregatedData.put(key, value);
+                }
+            }
+        });
+    }
+
     //The response time is the duration of the last occurrence.
     private void trackEventResponseTime(@NonNull final Map<String, String> responseTimeMap,
                                         @NonNull final Map<String, String> event) {
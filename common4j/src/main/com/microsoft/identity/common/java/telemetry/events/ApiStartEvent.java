@@ -111,7 +111,7 @@ public class ApiStartEvent extends BaseEvent {
             );
 
             if (tokenCommandParameters.getScopes() != null) {
-                put(Key.SCOPE_SIZE, String.valueOf(tokenCommandParameters.getScopes().size()));
+                putLong(Key.SCOPE_SIZE, tokenCommandParameters.getScopes().size());
                 put(Key.SCOPE, tokenCommandParameters.getScopes().toString()); //Pii
             }
 
@@ -138,8 +138,8 @@ public class ApiStartEvent extends BaseEvent {
             );
 
             if (atOperationParameters.getExtraQueryStringParameters() != null) {
-                put(Key.REQUEST_QUERY_PARAMS, //Pii
-                        String.valueOf(atOperationParameters.getExtraQueryStringParameters().size())
+                putLong(Key.REQUEST_QUERY_PARAMS, //Pii
+                        atOperationParameters.getExtraQueryStringParameters().size()
                 );
             }
 
@@ -157,9 +157,9 @@ public class ApiStartEvent extends BaseEvent {
             if (silentParameters.getAccount() != null) {
                 put(Key.USER_ID, silentParameters.getAccount().getHomeAccountId()); //Pii
             }
-            put(
+            putBoolean(
                     Key.IS_FORCE_REFRESH,
-                    String.valueOf(silentParameters.isForceRefresh())
+                    silentParameters.isForceRefresh()
             );
         }
 
@@ -207,7 +207,7 @@ public class ApiStartEvent extends BaseEvent {
     }
 
     public ApiStartEvent putWorkPlaceJoined(final boolean isWorkPlaceJoined) {
-        put(Key.IS_WPJ_JOINED, String.valueOf(isWorkPlaceJoined));
+        putBoolean(Key.IS_WPJ_JOINED, isWorkPlaceJoined);
         return this;
     }
 
@@ -26,11 +26,48 @@ import static com.microsoft.identity.common.java.telemetry.TelemetryEventStrings
 
 import com.microsoft.identity.common.java.logging.DiagnosticContext;
 import com.microsoft.identity.common.java.telemetry.Properties;
+import com.microsoft.identity.common.java.telemetry.TelemetryEventStrings;
+import com.microsoft.identity.common.java.telemetry.rules.TelemetryPiiOiiRules;
 import com.microsoft.identity.common.java.util.StringUtil;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
 import lombok.NonNull;
 
+/**
+ * The base class of telemetry events.
+ * <p>
+ * The properties shared by every event (name, type, correlation id, occur time and success) and
+ * the numeric and boolean properties of each event type are kept as typed fields, and only turned
+ * into strings when the {@link #getProperties() Map view} is requested or the properties are
+ * {@link #forEachProperty visited}. Every other property is a string in the underlying map.
+ */
 public class BaseEvent extends Properties {
+
+    /**
+     * Upper bound on typed properties per event; any further property is kept as a string.
+     */
+    private static final int MAX_TYPED_PROPERTIES = 32;
+
+    private static final String[] NO_KEYS = new String[0];
+    private static final long[] NO_VALUES = new long[0];
+
+    private String mEventName;
+    private String mEventType;
+    private String mCorrelationId;
+    private long mOccurTime;
+    private boolean mHasOccurTime;
+
+    // Typed properties of this event type: key, value, and whether the value is a boolean (0/1).
+    private String[] mTypedKeys = NO_KEYS;
+    private long[] mTypedValues = NO_VALUES;
+    private int mTypedCount;
+    private int mBooleanMask;
+
     public BaseEvent() {
         super();
         occurs(System.currentTimeMillis());
@@ -38,26 +75,122 @@ public class BaseEvent extends Properties {
     }
 
     @Override
-    public Properties put(@NonNull final String key, final String value) {
-        if(!StringUtil.isNullOrEmpty(value)) {
-            return super.put(key, value);
+    public Properties put(final String key, final String value) {
+        if (StringUtil.isNullOrEmpty(key) || StringUtil.isNullOrEmpty(value)) {
+            return this;
+        }
+
+        switch (key) {
+            case Key.EVENT_NAME:
+                mEventName = value;
+                return this;
+            case Key.EVENT_TYPE:
+                mEventType = value;
+                return this;
+            case Key.CORRELATION_ID:
+                mCorrelationId = value;
+                return this;
+            case Key.OCCUR_TIME:
+                try {
+                    mOccurTime = Long.parseLong(value);
+                    mHasOccurTime = true;
+                    return this;
+                } catch (final NumberFormatException e) {
+                    mHasOccurTime = false;
+                    return super.put(key, value);
+                }
+            case Key.IS_SUCCESSFUL:
+                if (TelemetryEventStrings.Value.TRUE.equals(value) || TelemetryEventStrings.Value.FALSE.equals(value)) {
+                    putBoolean(key, TelemetryEventStrings.Value.TRUE.equals(value));
+                    return this;
+                }
+                removeTyped(key);
+                return super.put(key, value);
+            default:
+                if (isTypedKey(key)) {
+                    // A typed property overwritten with a string.
+                    removeTyped(key);
+                }
+                return super.put(key, value);
         }
-        return this;
     }
 
     @Override
-    public Properties remove(String key) {
+    public Properties remove(final String key) {
+        removeTypedOrCommon(key);
         return super.remove(key);
     }
 
     @Override
-    public Properties remove(String key, String value) {
+    public Properties remove(final String key, final String value) {
+        if (value != null && value.equals(getString(key))) {
+            removeTypedOrCommon(key);
+        }
         return super.remove(key, value);
     }
 
+    /**
+     * Appends the properties of another event, each as if passed to {@link #put(String, String)},
+     * so that the properties kept as typed fields stay typed.
+     */
+    @Override
+    public Properties put(final Properties appendProperties) {
+        for (final Map.Entry<String, String> entry : appendProperties.getProperties().entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * Receives the properties of an event, see {@link #forEachProperty(IPropertyVisitor)}.
+     */
+    public interface IPropertyVisitor {
+        /**
+         * @param key   the property key.
+         * @param value the property value, as it appears in the Map view.
+         */
+        void visit(@NonNull String key, @NonNull String value);
+    }
+
+    /**
+     * Returns a copy of the Map view of this event, with typed properties written as strings.
+     * Changes to the returned map do not affect this event.
+     */
     @Override
-    public Properties put(Properties appendProperties) {
-        return super.put(appendProperties);
+    public ConcurrentHashMap<String, String> getProperties() {
+        final ConcurrentHashMap<String, String> properties = new ConcurrentHashMap<>(super.getProperties());
+        forEachTypedProperty(new IPropertyVisitor() {
+            @Override
+            public void visit(@NonNull final String key, @NonNull final String value) {
+                properties.put(key, value);
+            }
+        });
+        return properties;
+    }
+
+    /**
+     * Passes every property of this event to the visitor, as {@link #getProperties()} would
+     * return it, without building the Map view.
+     *
+     * @param visitor the visitor.
+     */
+    public void forEachProperty(@NonNull final IPropertyVisitor visitor) {
+        forEachTypedProperty(visitor);
+        for (final Map.Entry<String, String> entry : super.getProperties().entrySet()) {
+            visitor.visit(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void forEachTypedProperty(@NonNull final IPropertyVisitor visitor) {
+        visitIfNotNull(visitor, Key.EVENT_NAME, mEventName);
+        visitIfNotNull(visitor, Key.EVENT_TYPE, mEventType);
+        visitIfNotNull(visitor, Key.CORRELATION_ID, mCorrelationId);
+        if (mHasOccurTime) {
+            visitor.visit(Key.OCCUR_TIME, String.valueOf(mOccurTime));
+        }
+        for (int i = 0; i < mTypedCount; i++) {
+            visitor.visit(mTypedKeys[i], formatTyped(i));
+        }
     }
 
     /**
@@ -83,12 +216,8 @@ public class BaseEvent extends Properties {
      * @return the event object
      */
     public BaseEvent occurs(Long eventStartTime) {
-        if (null == eventStartTime) {
-            put(Key.OCCUR_TIME, String.valueOf(System.currentTimeMillis()));
-        } else {
-            put(Key.OCCUR_TIME, eventStartTime.toString());
-        }
-
+        mOccurTime = null == eventStartTime ? System.currentTimeMillis() : eventStartTime;
+        mHasOccurTime = true;
         return this;
     }
 
@@ -104,4 +233,227 @@ public class BaseEvent extends Properties {
         }
         return this;
     }
+
+    @Nullable
+    public String getEventName() {
+        return mEventName;
+    }
+
+    @Nullable
+    public String getEventType() {
+        return mEventType;
+    }
+
+    @Nullable
+    public String getCorrelationId() {
+        return mCorrelationId;
+    }
+
+    /**
+     * @return the time the event occurred, in milliseconds since epoch, or 0 if not set.
+     */
+    public long getOccurTime() {
+        return mHasOccurTime ? mOccurTime : 0;
+    }
+
+    /**
+     * @return true if the event occur time is set.
+     */
+    public boolean hasOccurTime() {
+        return mHasOccurTime;
+    }
+
+    /**
+     * @return the value of {@link Key#IS_SUCCESSFUL}, or null if not set.
+     */
+    @Nullable
+    public Boolean getIsSuccessful() {
+        final int index = indexOfTyped(Key.IS_SUCCESSFUL);
+        if (index >= 0) {
+            return mTypedValues[index] != 0;
+        }
+
+        final String value = super.getProperties().get(Key.IS_SUCCESSFUL);
+        return value == null ? null : Boolean.valueOf(value);
+    }
+
+    /**
+     * Returns a typed numeric property.
+     *
+     * @param key          the property key.
+     * @param defaultValue the value returned if the property is not set as a number.
+     */
+    public long getLong(@NonNull final String key, final long defaultValue) {
+        final int index = indexOfTyped(key);
+        return index >= 0 ? mTypedValues[index] : defaultValue;
+    }
+
+    /**
+     * Returns the value of any property as a string, without building the Map view.
+     *
+     * @param key the property key.
+     * @return the value, or null if not set.
+     */
+    @Nullable
+    public String getString(@NonNull final String key) {
+        switch (key) {
+            case Key.EVENT_NAME:
+                return mEventName;
+            case Key.EVENT_TYPE:
+                return mEventType;
+            case Key.CORRELATION_ID:
+                return mCorrelationId;
+            case Key.OCCUR_TIME:
+                if (mHasOccurTime) {
+                    return String.valueOf(mOccurTime);
+                }
+                break;
+            default:
+                final int index = indexOfTyped(key);
+                if (index >= 0) {
+                    return formatTyped(index);
+                }
+        }
+
+        return super.getProperties().get(key);
+    }
+
+    /**
+     * Drops every property flagged as PII or OII by {@link TelemetryPiiOiiRules}, in place.
+     */
+    public void removePiiOiiProperties() {
+        final TelemetryPiiOiiRules rules = TelemetryPiiOiiRules.getInstance();
+
+        for (final Iterator<String> iterator = super.getProperties().keySet().iterator(); iterator.hasNext(); ) {
+            if (rules.isPiiOrOii(iterator.next())) {
+                iterator.remove();
+            }
+        }
+
+        for (int i = mTypedCount - 1; i >= 0; i--) {
+            if (rules.isPiiOrOii(mTypedKeys[i])) {
+                removeTyped(mTypedKeys[i]);
+            }
+        }
+
+        if (mCorrelationId != null && rules.isPiiOrOii(Key.CORRELATION_ID)) {
+            mCorrelationId = null;
+        }
+    }
+
+    /**
+     * Sets a numeric property of this event type.
+     */
+    protected BaseEvent putLong(@NonNull final String key, final long value) {
+        return putTyped(key, value, false);
+    }
+
+    /**
+     * Sets a boolean property of this event type.
+     */
+    protected BaseEvent putBoolean(@NonNull final String key, final boolean value) {
+        return putTyped(key, value ? 1 : 0, true);
+    }
+
+    private BaseEvent putTyped(@NonNull final String key, final long value, final boolean isBoolean) {
+        int index = indexOfTyped(key);
+        if (index < 0) {
+            if (mTypedCount == MAX_TYPED_PROPERTIES) {
+                super.put(key, isBoolean ? String.valueOf(value != 0) : String.valueOf(value));
+                return this;
+            }
+
+            if (mTypedCount == mTypedKeys.length) {
+                final int capacity = Math.min(MAX_TYPED_PROPERTIES, Math.max(4, mTypedCount * 2));
+                mTypedKeys = Arrays.copyOf(mTypedKeys, capacity);
+                mTypedValues = Arrays.copyOf(mTypedValues, capacity);
+            }
+
+            index = mTypedCount++;
+            mTypedKeys[index] = key;
+        }
+
+        mTypedValues[index] = value;
+        if (isBoolean) {
+            mBooleanMask |= 1 << index;
+        } else {
+            mBooleanMask &= ~(1 << index);
+        }
+
+        // A string value of the same key would otherwise shadow this one in the Map view.
+        super.remove(key);
+        return this;
+    }
+
+    private boolean isTypedKey(@NonNull final String key) {
+        return indexOfTyped(key) >= 0;
+    }
+
+    private int indexOfTyped(@Nullable final String key) {
+        for (int i = 0; i < mTypedCount; i++) {
+            if (mTypedKeys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String formatTyped(final int index) {
+        if ((mBooleanMask & (1 << index)) != 0) {
+            return mTypedValues[index] != 0 ? TelemetryEventStrings.Value.TRUE : TelemetryEventStrings.Value.FALSE;
+        }
+        return String.valueOf(mTypedValues[index]);
+    }
+
+    private void removeTypedOrCommon(@Nullable final String key) {
+        if (key == null) {
+            return;
+        }
+
+        switch (key) {
+            case Key.EVENT_NAME:
+                mEventName = null;
+                break;
+            case Key.EVENT_TYPE:
+                mEventType = null;
+                break;
+            case Key.CORRELATION_ID:
+                mCorrelationId = null;
+                break;
+            case Key.OCCUR_TIME:
+                mHasOccurTime = false;
+                break;
+            default:
+                removeTyped(key);
+        }
+    }
+
+    private void removeTyped(@NonNull final String key) {
+        final int index = indexOfTyped(key);
+        if (index < 0) {
+            return;
+        }
+
+        // Move the last typed property into the freed slot.
+        final int last = --mTypedCount;
+        if (index != last) {
+            mTypedKeys[index] = mTypedKeys[last];
+            mTypedValues[index] = mTypedValues[last];
+            if ((mBooleanMask & (1 << last)) != 0) {
+                mBooleanMask |= 1 << index;
+            } else {
+                mBooleanMask &= ~(1 << index);
+            }
+        }
+        mTypedKeys[last] = null;
+        mBooleanMask &= ~(1 << last);
+    }
+
+    private static void visitIfNotNull(@NonNull final IPropertyVisitor visitor,
+                                       @NonNull final String key,
+                                       @Nullable final String value) {
+        if (value != null) {
+            visitor.visit(key, value);
+        }
+    }
 }
@@ -39,27 +39,27 @@ public class CacheStartEvent extends com.microsoft.identity.common.java.telemetr
     }
 
     public CacheStartEvent isFrt(final boolean isFrt) {
-        put(Key.IS_FRT, String.valueOf(isFrt));
+        putBoolean(Key.IS_FRT, isFrt);
         return this;
     }
 
     public CacheStartEvent isMrrt(final boolean isMrrt) {
-        put(Key.IS_MRRT, String.valueOf(isMrrt));
+        putBoolean(Key.IS_MRRT, isMrrt);
         return this;
     }
 
     public CacheStartEvent isRt(final boolean isRt) {
-        put(Key.IS_RT, String.valueOf(isRt));
+        putBoolean(Key.IS_RT, isRt);
         return this;
     }
 
     public CacheStartEvent isAt(final boolean isAt) {
-        put(Key.IS_AT, String.valueOf(isAt));
+        putBoolean(Key.IS_AT, isAt);
         return this;
     }
 
     public CacheStartEvent putWipeApp(final boolean appWiped) {
-        put(Key.WIPE_APP, String.valueOf(appWiped));
+        putBoolean(Key.WIPE_APP, appWiped);
         return this;
     }
 }
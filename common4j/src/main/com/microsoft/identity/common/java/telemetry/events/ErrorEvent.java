@@ -75,7 +75,7 @@ public class ErrorEvent extends BaseEvent {
 
             put(TelemetryEventStrings.Key.ERROR_TAG, errorTag);
             put(TelemetryEventStrings.Key.ERROR_LOCATION_CLASS_NAME, errorLocation.getClassName());
-            put(TelemetryEventStrings.Key.ERROR_LOCATION_LINE_NUMBER, String.valueOf(errorLocation.getLineNumber()));
+            putLong(TelemetryEventStrings.Key.ERROR_LOCATION_LINE_NUMBER, errorLocation.getLineNumber());
             put(TelemetryEventStrings.Key.ERROR_LOCATION_METHOD_NAME, errorLocation.getMethodName());
         }
 
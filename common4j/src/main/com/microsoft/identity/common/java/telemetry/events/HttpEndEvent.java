@@ -34,7 +34,7 @@ public class HttpEndEvent extends BaseEvent {
     }
 
     public HttpEndEvent putStatusCode(final int statusCode) {
-        put(Key.HTTP_RESPONSE_CODE, String.valueOf(statusCode));
+        putLong(Key.HTTP_RESPONSE_CODE, statusCode);
         return this;
     }
 }
@@ -45,7 +45,7 @@ public class PivProviderStatusEvent extends BaseEvent {
      * @return The Event object.
      */
     public PivProviderStatusEvent putIsExistingPivProviderPresent(final boolean isPresent) {
-        put(TelemetryEventStrings.Key.IS_EXISTING_PIVPROVIDER_PRESENT, String.valueOf(isPresent));
+        putBoolean(TelemetryEventStrings.Key.IS_EXISTING_PIVPROVIDER_PRESENT, isPresent);
         return this;
     }
 
@@ -56,7 +56,7 @@ public class PivProviderStatusEvent extends BaseEvent {
      * @return The Event object.
      */
     public PivProviderStatusEvent putPivProviderRemoved(final boolean isRemoved) {
-        put(TelemetryEventStrings.Key.PIVPROVIDER_REMOVED, String.valueOf(isRemoved));
+        putBoolean(TelemetryEventStrings.Key.PIVPROVIDER_REMOVED, isRemoved);
         return this;
     }
 }
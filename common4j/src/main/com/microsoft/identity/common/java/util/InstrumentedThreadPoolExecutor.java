@@ -0,0 +1,173 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.util;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+
+/**
+ * A {@link ThreadPoolExecutor} which records how long tasks wait in its queue, how long they run,
+ * and how many of them were rejected.
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final AtomicLong mRejectedTaskCount;
+    private final AtomicLong mExecutedTaskCount = new AtomicLong();
+    private final AtomicLong mTotalWaitTimeNanos = new AtomicLong();
+    private final AtomicLong mMaxWaitTimeNanos = new AtomicLong();
+    private final AtomicLong mTotalExecutionTimeNanos = new AtomicLong();
+    private final AtomicLong mMaxExecutionTimeNanos = new AtomicLong();
+
+    public InstrumentedThreadPoolExecutor(final int corePoolSize,
+                                          final int maximumPoolSize,
+                                          final long keepAliveTime,
+                                          @NonNull final TimeUnit unit,
+                                          @NonNull final BlockingQueue<Runnable> workQueue,
+                                          @NonNull final ThreadFactory threadFactory,
+                                          @NonNull final RejectedExecutionHandler handler) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler, new AtomicLong());
+    }
+
+    private InstrumentedThreadPoolExecutor(final int corePoolSize,
+                                           final int maximumPoolSize,
+                                           final long keepAliveTime,
+                                           @NonNull final TimeUnit unit,
+                                           @NonNull final BlockingQueue<Runnable> workQueue,
+                                           @NonNull final ThreadFactory threadFactory,
+                                           @NonNull final RejectedExecutionHandler handler,
+                                           @NonNull final AtomicLong rejectedTaskCount) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory,
+                new CountingRejectedExecutionHandler(handler, rejectedTaskCount));
+        mRejectedTaskCount = rejectedTaskCount;
+    }
+
+    @Override
+    public void execute(@NonNull final Runnable command) {
+        super.execute(new TimedRunnable(command));
+    }
+
+    /**
+     * @return The number of tasks waiting for a thread.
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * @return The number of tasks which went through the rejection policy.
+     */
+    public long getRejectedTaskCount() {
+        return mRejectedTaskCount.get();
+    }
+
+    /**
+     * @return The number of tasks which have finished running, including on a caller thread.
+     */
+    public long getExecutedTaskCount() {
+        return mExecutedTaskCount.get();
+    }
+
+    /**
+     * @return The sum of the time tasks waited before starting to run, in nanoseconds.
+     */
+    public long getTotalWaitTimeNanos() {
+        return mTotalWaitTimeNanos.get();
+    }
+
+    /**
+     * @return The longest time a task waited before starting to run, in nanoseconds.
+     */
+    public long getMaxWaitTimeNanos() {
+        return mMaxWaitTimeNanos.get();
+    }
+
+    /**
+     * @return The sum of the time tasks took to run, in nanoseconds.
+     */
+    public long getTotalExecutionTimeNanos() {
+        return mTotalExecutionTimeNanos.get();
+    }
+
+    /**
+     * @return The longest time a task took to run, in nanoseconds.
+     */
+    public long getMaxExecutionTimeNanos() {
+        return mMaxExecutionTimeNanos.get();
+    }
+
+    private static void updateMax(@NonNull final AtomicLong max, final long value) {
+        long current;
+        do {
+            current = max.get();
+        } while (value > current && !max.compareAndSet(current, value));
+    }
+
+    private final class TimedRunnable implements Runnable {
+        private final Runnable mDelegate;
+        private final long mEnqueuedAtNanos = System.nanoTime();
+
+        TimedRunnable(@NonNull final Runnable delegate) {
+            mDelegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            final long startedAtNanos = System.nanoTime();
+            final long waitTimeNanos = startedAtNanos - mEnqueuedAtNanos;
+            mTotalWaitTimeNanos.addAndGet(waitTimeNanos);
+            updateMax(mMaxWaitTimeNanos, waitTimeNanos);
+
+            try {
+                mDelegate.run();
+            } finally {
+                final long executionTimeNanos = System.nanoTime() - startedAtNanos;
+                mExecutedTaskCount.incrementAndGet();
+                mTotalExecutionTimeNanos.addAndGet(executionTimeNanos);
+                updateMax(mMaxExecutionTimeNanos, executionTimeNanos);
+            }
+        }
+    }
+
+    private static final class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+        private final RejectedExecutionHandler mDelegate;
+        private final AtomicLong mRejectedTaskCount;
+
+        CountingRejectedExecutionHandler(@NonNull final RejectedExecutionHandler delegate,
+                                         @NonNull final AtomicLong rejectedTaskCount) {
+            mDelegate = delegate;
+            mRejectedTaskCount = rejectedTaskCount;
+        }
+
+        @Override
+        public void rejectedExecution(final Runnable r, final ThreadPoolExecutor executor) {
+            mRejectedTaskCount.incrementAndGet();
+            mDelegate.rejectedExecution(r, executor);
+        }
+    }
+}
@@ -27,8 +27,12 @@ import lombok.NonNull;
 import com.microsoft.identity.common.java.logging.Logger;
 
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -75,21 +79,64 @@ public class ThreadUtils {
                                                              final int queueSize, final long keepAliveTime,
                                                              @NonNull final TimeUnit keepAliveUnit,
                                                              @NonNull final String poolName) {
+        return new ThreadPoolExecutor(corePool, maxPool, keepAliveTime, keepAliveUnit,
+                                      newWorkQueue(queueSize),
+                                      getNamedThreadFactory(poolName, System.getSecurityManager()));
+    }
+
+    /**
+     * Construct an {@link InstrumentedThreadPoolExecutor} with specified name and optionally bounded size.
+     *
+     * @param corePool          The smallest number of threads to keep alive in the pool.
+     * @param maxPool           The maximum number of threads to allow in the thread pool, after which the rejection handler is invoked.
+     * @param queueSize         The number of items to keep in the queue.  If this is < 0, the queue is unbounded.
+     * @param keepAliveTime     The amount of time to keep excess (greater than corePool size) threads alive before terminating them.
+     * @param keepAliveUnit     The time unit on that time.
+     * @param poolName          The name of the thread pool in use.
+     * @param rejectionHandler  The handler for tasks which can be neither run nor queued.
+     * @return An instrumented executor service with the specified properties.
+     */
+    public static InstrumentedThreadPoolExecutor getNamedInstrumentedThreadPoolExecutor(final int corePool, final int maxPool,
+                                                                                        final int queueSize, final long keepAliveTime,
+                                                                                        @NonNull final TimeUnit keepAliveUnit,
+                                                                                        @NonNull final String poolName,
+                                                                                        @NonNull final RejectedExecutionHandler rejectionHandler) {
+        return new InstrumentedThreadPoolExecutor(corePool, maxPool, keepAliveTime, keepAliveUnit,
+                                                  newWorkQueue(queueSize),
+                                                  getNamedThreadFactory(poolName, System.getSecurityManager()),
+                                                  rejectionHandler);
+    }
+
+    private static BlockingQueue<Runnable> newWorkQueue(final int queueSize) {
         if (queueSize > 0) {
-            return new ThreadPoolExecutor(corePool, maxPool, keepAliveTime, keepAliveUnit,
-                                          new ArrayBlockingQueue<Runnable>(queueSize),
-                                          getNamedThreadFactory(poolName, System.getSecurityManager()));
+            return new ArrayBlockingQueue<Runnable>(queueSize);
         } else if (queueSize == 0) {
-            return new ThreadPoolExecutor(corePool, maxPool, keepAliveTime, keepAliveUnit,
-                                          new SynchronousQueue<Runnable>(),
-                                          getNamedThreadFactory(poolName, System.getSecurityManager()));
+            return new SynchronousQueue<Runnable>();
         } else { // (queueSize < 0)
-            return new ThreadPoolExecutor(corePool, maxPool, keepAliveTime, keepAliveUnit,
-                                          new LinkedBlockingQueue<Runnable>(),
-                                          getNamedThreadFactory(poolName, System.getSecurityManager()));
+            return new LinkedBlockingQueue<Runnable>();
         }
     }
 
+    /**
+     * Construct a scheduled thread pool with specified name, whose threads time out when idle.
+     *
+     * @param corePool      The number of threads to keep in the pool while it is busy.
+     * @param keepAliveTime The amount of time to keep idle threads alive before terminating them.
+     * @param keepAliveUnit The time unit on that time.
+     * @param poolName      The name of the thread pool in use.
+     * @return A scheduled executor service with the specified properties.
+     */
+    public static ScheduledExecutorService getNamedScheduledThreadPoolExecutor(final int corePool,
+                                                                               final long keepAliveTime,
+                                                                               @NonNull final TimeUnit keepAliveUnit,
+                                                                               @NonNull final String poolName) {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(corePool,
+                getNamedThreadFactory(poolName, System.getSecurityManager()));
+        executor.setKeepAliveTime(keepAliveTime, keepAliveUnit);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     //Nice thought, but if you're using executors, you're using ThreadGroup whether you want to or not.
     @SuppressWarnings("PMD.AvoidThreadGroup")
     private static ThreadFactory getNamedThreadFactory(@NonNull final String poolName, final SecurityManager securityManager) {
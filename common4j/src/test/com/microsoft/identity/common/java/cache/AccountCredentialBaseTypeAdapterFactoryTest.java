@@ -0,0 +1,297 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.annotations.SerializedName;
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.AccountCredentialBase;
+import com.microsoft.identity.common.java.dto.AccountRecord;
+import com.microsoft.identity.common.java.dto.Credential;
+import com.microsoft.identity.common.java.dto.IdTokenRecord;
+import com.microsoft.identity.common.java.dto.PrimaryRefreshTokenRecord;
+import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+import com.microsoft.identity.common.java.util.StringUtil;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests for {@link AccountCredentialBaseTypeAdapterFactory}, comparing {@link CacheKeyValueDelegate}
+ * against the reflective parsing it replaced.
+ */
+public class AccountCredentialBaseTypeAdapterFactoryTest {
+
+    private static final Gson LEGACY_GSON = new Gson();
+
+    @SuppressWarnings("unchecked")
+    private static final Class<? extends AccountCredentialBase>[] ALL_TYPES = new Class[]{
+            AccountRecord.class,
+            AccessTokenRecord.class,
+            RefreshTokenRecord.class,
+            IdTokenRecord.class,
+            PrimaryRefreshTokenRecord.class
+    };
+
+    private final CacheKeyValueDelegate mDelegate = new CacheKeyValueDelegate();
+
+    @Test
+    public void testAccountRecordRoundTripMatchesLegacy() throws Exception {
+        assertRoundTripMatchesLegacy(AccountRecord.class);
+    }
+
+    @Test
+    public void testAccessTokenRecordRoundTripMatchesLegacy() throws Exception {
+        assertRoundTripMatchesLegacy(AccessTokenRecord.class);
+    }
+
+    @Test
+    public void testRefreshTokenRecordRoundTripMatchesLegacy() throws Exception {
+        assertRoundTripMatchesLegacy(RefreshTokenRecord.class);
+    }
+
+    @Test
+    public void testIdTokenRecordRoundTripMatchesLegacy() throws Exception {
+        assertRoundTripMatchesLegacy(IdTokenRecord.class);
+    }
+
+    @Test
+    public void testPrimaryRefreshTokenRecordRoundTripMatchesLegacy() throws Exception {
+        assertRoundTripMatchesLegacy(PrimaryRefreshTokenRecord.class);
+    }
+
+    @Test
+    public void testUnknownFieldsAreKeptAsAdditionalFields() {
+        final String cacheValue = "{\"home_account_id\":\"uid.utid\","
+                + "\"unknown_string\":\"value\","
+                + "\"unknown_number\":42,"
+                + "\"unknown_object\":{\"nested\":[1,\"two\",{\"three\":3}]},"
+                + "\"unknown_array\":[true,false],"
+                + "\"realm\":\"tenant\"}";
+
+        final AccountRecord account = mDelegate.fromCacheValue(cacheValue, AccountRecord.class);
+
+        Assert.assertEquals("uid.utid", account.getHomeAccountId());
+        Assert.assertEquals("tenant", account.getRealm());
+
+        final Map<String, JsonElement> additionalFields = account.getAdditionalFields();
+        Assert.assertEquals(4, additionalFields.size());
+        Assert.assertEquals(new JsonPrimitive("value"), additionalFields.get("unknown_string"));
+        Assert.assertEquals(new JsonPrimitive(42), additionalFields.get("unknown_number"));
+        Assert.assertEquals(
+                JsonParser.parseString("{\"nested\":[1,\"two\",{\"three\":3}]}"),
+                additionalFields.get("unknown_object")
+        );
+        final JsonArray expectedArray = new JsonArray();
+        expectedArray.add(true);
+        expectedArray.add(false);
+        Assert.assertEquals(expectedArray, additionalFields.get("unknown_array"));
+
+        assertMatchesLegacy(cacheValue, AccountRecord.class);
+    }
+
+    @Test
+    public void testAlternateNameIsBoundAndKeptAsAdditionalField() {
+        final String cacheValue = "{\"credential_type\":\"AccessToken\",\"access_token_type\":\"Bearer\"}";
+
+        final AccessTokenRecord accessToken = mDelegate.fromCacheValue(cacheValue, AccessTokenRecord.class);
+
+        Assert.assertEquals("Bearer", accessToken.getAccessTokenType());
+        Assert.assertEquals(new JsonPrimitive("Bearer"), accessToken.getAdditionalFields().get("access_token_type"));
+        assertMatchesLegacy(cacheValue, AccessTokenRecord.class);
+    }
+
+    @Test
+    public void testExplicitNullsMatchLegacy() {
+        final String cacheValue = "{\"secret\":null,\"client_id\":\"client\",\"unknown\":null}";
+
+        final RefreshTokenRecord refreshToken = mDelegate.fromCacheValue(cacheValue, RefreshTokenRecord.class);
+
+        Assert.assertNull(refreshToken.getSecret());
+        Assert.assertEquals("client", refreshToken.getClientId());
+        Assert.assertEquals(JsonNull.INSTANCE, refreshToken.getAdditionalFields().get("unknown"));
+        assertMatchesLegacy(cacheValue, RefreshTokenRecord.class);
+    }
+
+    @Test
+    public void testEmptyObjectMatchesLegacy() {
+        final IdTokenRecord idToken = mDelegate.fromCacheValue("{}", IdTokenRecord.class);
+
+        Assert.assertNotNull(idToken);
+        Assert.assertTrue(idToken.getAdditionalFields().isEmpty());
+        assertMatchesLegacy("{}", IdTokenRecord.class);
+    }
+
+    @Test
+    public void testNullAndEmptyValuesReturnNull() {
+        Assert.assertNull(mDelegate.fromCacheValue(null, AccountRecord.class));
+        Assert.assertNull(mDelegate.fromCacheValue("", AccountRecord.class));
+        Assert.assertNull(mDelegate.fromCacheValue("null", AccountRecord.class));
+    }
+
+    @Test
+    public void testMalformedValuesReturnNull() {
+        Assert.assertNull(mDelegate.fromCacheValue("[]", AccessTokenRecord.class));
+        Assert.assertNull(mDelegate.fromCacheValue("{\"secret\":", AccessTokenRecord.class));
+        Assert.assertNull(mDelegate.fromCacheValue("\"secret\"", AccessTokenRecord.class));
+    }
+
+    @Test
+    public void testSerializationMatchesLegacy() throws Exception {
+        for (final Class<? extends AccountCredentialBase> clazz : ALL_TYPES) {
+            final AccountCredentialBase record = newPopulatedRecord(clazz);
+            Assert.assertEquals(clazz.getSimpleName(), legacyToCacheValue(record), toCacheValue(record));
+        }
+    }
+
+    /**
+     * Serializes a record with every field and some additional fields set, parses it back and
+     * checks the result against the legacy parser, byte for byte.
+     */
+    private void assertRoundTripMatchesLegacy(final Class<? extends AccountCredentialBase> clazz) throws Exception {
+        final AccountCredentialBase record = newPopulatedRecord(clazz);
+        final String cacheValue = toCacheValue(record);
+
+        final AccountCredentialBase parsed = mDelegate.fromCacheValue(cacheValue, clazz);
+
+        Assert.assertNotNull(parsed);
+        Assert.assertEquals(clazz, parsed.getClass());
+        for (final Field field : getSerializedFields(clazz)) {
+            Assert.assertEquals(field.getName(), field.get(record), field.get(parsed));
+        }
+        Assert.assertEquals(record.getAdditionalFields(), parsed.getAdditionalFields());
+        Assert.assertEquals(cacheValue, toCacheValue(parsed));
+
+        assertMatchesLegacy(cacheValue, clazz);
+    }
+
+    private void assertMatchesLegacy(final String cacheValue,
+                                     final Class<? extends AccountCredentialBase> clazz) {
+        final AccountCredentialBase parsed = mDelegate.fromCacheValue(cacheValue, clazz);
+        final AccountCredentialBase legacyParsed = legacyFromCacheValue(cacheValue, clazz);
+
+        Assert.assertEquals(legacyParsed.getAdditionalFields(), parsed.getAdditionalFields());
+        Assert.assertEquals(legacyToCacheValue(legacyParsed), toCacheValue(parsed));
+    }
+
+    private String toCacheValue(final AccountCredentialBase record) {
+        return record instanceof AccountRecord
+                ? mDelegate.generateCacheValue((AccountRecord) record)
+                : mDelegate.generateCacheValue((Credential) record);
+    }
+
+    private static AccountCredentialBase newPopulatedRecord(final Class<? extends AccountCredentialBase> clazz) throws Exception {
+        final AccountCredentialBase record = clazz.getDeclaredConstructor().newInstance();
+
+        for (final Field field : getSerializedFields(clazz)) {
+            field.set(record, field.getName() + "-value");
+        }
+
+        final Map<String, JsonElement> additionalFields = new HashMap<>();
+        additionalFields.put("extra_string", new JsonPrimitive("extra"));
+        additionalFields.put("extra_number", new JsonPrimitive(7));
+        final JsonObject extraObject = new JsonObject();
+        extraObject.addProperty("nested", "value");
+        additionalFields.put("extra_object", extraObject);
+        record.setAdditionalFields(additionalFields);
+
+        return record;
+    }
+
+    /**
+     * All non-static, non-transient fields of the record (all of which are Strings).
+     */
+    private static Set<Field> getSerializedFields(final Class<?> clazz) {
+        final Set<Field> fields = new HashSet<>();
+
+        for (Class<?> current = clazz; current != AccountCredentialBase.class; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                final int modifiers = field.getModifiers();
+
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * The implementation of CacheKeyValueDelegate#fromCacheValue prior to
+     * {@link AccountCredentialBaseTypeAdapterFactory}, kept as the baseline.
+     */
+    private static AccountCredentialBase legacyFromCacheValue(final String string,
+                                                              final Class<? extends AccountCredentialBase> clazz) {
+        final AccountCredentialBase resultObject = LEGACY_GSON.fromJson(string, clazz);
+
+        if (!StringUtil.isNullOrEmpty(string)) {
+            final JsonObject incomingJson = JsonParser.parseString(string).getAsJsonObject();
+
+            for (final Field field : getSerializedFields(clazz)) {
+                final SerializedName serializedName = field.getAnnotation(SerializedName.class);
+
+                if (null != serializedName) {
+                    incomingJson.remove(serializedName.value());
+                }
+            }
+
+            final Map<String, JsonElement> additionalFields = new HashMap<>();
+
+            for (final String key : incomingJson.keySet()) {
+                additionalFields.put(key, incomingJson.get(key));
+            }
+
+            resultObject.setAdditionalFields(additionalFields);
+        }
+
+        return resultObject;
+    }
+
+    /**
+     * CacheKeyValueDelegate#generateCacheValue using a plain Gson instance.
+     */
+    private static String legacyToCacheValue(final AccountCredentialBase record) {
+        final JsonObject outboundObject = LEGACY_GSON.toJsonTree(record).getAsJsonObject();
+
+        for (final String key : record.getAdditionalFields().keySet()) {
+            outboundObject.add(key, record.getAdditionalFields().get(key));
+        }
+
+        return LEGACY_GSON.toJson(outboundObject);
+    }
+}
@@ -0,0 +1,168 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.util.ported.Function;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link CacheFanOut}.
+ */
+public class CacheFanOutTest {
+
+    private final ExecutorService mExecutor = Executors.newFixedThreadPool(CacheFanOut.DEFAULT_PARALLELISM);
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testResultsKeepInputOrder() {
+        final CacheFanOut fanOut = new CacheFanOut(mExecutor);
+
+        final List<Integer> results = fanOut.map(
+                Arrays.asList(40, 0, 30, 10, 20),
+                new Function<Integer, Integer>() {
+                    @Override
+                    public Integer apply(final Integer delayMillis) {
+                        sleep(delayMillis);
+                        return delayMillis * 2;
+                    }
+                }
+        );
+
+        Assert.assertEquals(Arrays.asList(80, 0, 60, 20, 40), results);
+    }
+
+    @Test
+    public void testInputsRunConcurrently() {
+        final CacheFanOut fanOut = new CacheFanOut(mExecutor);
+        final CountDownLatch allStarted = new CountDownLatch(3);
+
+        final List<Boolean> results = fanOut.map(
+                Arrays.asList(1, 2, 3),
+                new Function<Integer, Boolean>() {
+                    @Override
+                    public Boolean apply(final Integer input) {
+                        allStarted.countDown();
+
+                        try {
+                            // Only succeeds if every input is running at the same time.
+                            return allStarted.await(5, TimeUnit.SECONDS);
+                        } catch (final InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                }
+        );
+
+        Assert.assertEquals(Arrays.asList(true, true, true), results);
+    }
+
+    @Test
+    public void testRunsOnCallingThreadWhenDisabled() {
+        final CacheFanOut fanOut = new CacheFanOut(mExecutor);
+        fanOut.setEnabled(false);
+
+        final Thread caller = Thread.currentThread();
+        final List<Boolean> results = fanOut.map(
+                Arrays.asList(1, 2, 3),
+                new Function<Integer, Boolean>() {
+                    @Override
+                    public Boolean apply(final Integer input) {
+                        return Thread.currentThread() == caller;
+                    }
+                }
+        );
+
+        Assert.assertEquals(Arrays.asList(true, true, true), results);
+    }
+
+    @Test
+    public void testRejectedInputsRunOnCallingThread() {
+        final ExecutorService rejectingExecutor = Executors.newSingleThreadExecutor();
+        rejectingExecutor.shutdown();
+        final CacheFanOut fanOut = new CacheFanOut(rejectingExecutor);
+
+        final List<String> results = fanOut.map(
+                Arrays.asList("a", "b", "c"),
+                new Function<String, String>() {
+                    @Override
+                    public String apply(final String input) {
+                        return input.toUpperCase();
+                    }
+                }
+        );
+
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), results);
+    }
+
+    @Test
+    public void testFirstFailureIsRethrownAfterAllInputsRan() {
+        final CacheFanOut fanOut = new CacheFanOut(mExecutor);
+        final List<Integer> completed = Collections.synchronizedList(new ArrayList<Integer>());
+
+        try {
+            fanOut.map(
+                    Arrays.asList(0, 1, 2, 3),
+                    new Function<Integer, Integer>() {
+                        @Override
+                        public Integer apply(final Integer input) {
+                            if (input == 1 || input == 3) {
+                                throw new IllegalStateException("Failed " + input);
+                            }
+
+                            completed.add(input);
+                            return input;
+                        }
+                    }
+            );
+            Assert.fail("Expected the failure to be rethrown.");
+        } catch (final IllegalStateException e) {
+            Assert.assertEquals("Failed 1", e.getMessage());
+        }
+
+        Assert.assertEquals(2, completed.size());
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
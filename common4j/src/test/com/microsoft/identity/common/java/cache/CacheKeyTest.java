@@ -0,0 +1,234 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.AccountRecord;
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.dto.IdTokenRecord;
+import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests for {@link CacheKey}.
+ */
+public class CacheKeyTest {
+
+    private static final String HOME_ACCOUNT_ID = "29f3807a-4fb0-42f2-a44a-236aa0cb3f97.0287f963-2d72-4363-9e3a-5705c5b0f031";
+    private static final String ENVIRONMENT = "login-us.microsoftonline.com";
+    private static final String CLIENT_ID = "0287f963-2d72-4363-9e3a-5705c5b0f031";
+    private static final String REALM = "3c62ac97-29eb-4aed-a3c8-add0298508d";
+    private static final String TARGET = "user.read user.write";
+
+    private final CacheKeyValueDelegate mDelegate = new CacheKeyValueDelegate();
+
+    @Test
+    public void testParseAccountKey() {
+        final AccountRecord account = new AccountRecord();
+        account.setHomeAccountId(HOME_ACCOUNT_ID);
+        account.setEnvironment(ENVIRONMENT);
+        account.setRealm(REALM);
+        final String cacheKey = mDelegate.generateCacheKey(account);
+
+        final CacheKey parsed = CacheKey.parse(cacheKey);
+
+        Assert.assertTrue(parsed.isAccount());
+        Assert.assertFalse(parsed.isCredential());
+        Assert.assertNull(parsed.getCredentialType());
+        Assert.assertEquals(cacheKey, parsed.getRawKey());
+        Assert.assertEquals(cacheKey, parsed.getPrefix());
+        Assert.assertEquals("", parsed.getSuffix());
+    }
+
+    @Test
+    public void testParseAccessTokenKey() {
+        final AccessTokenRecord accessToken = new AccessTokenRecord();
+        accessToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        accessToken.setEnvironment(ENVIRONMENT);
+        accessToken.setCredentialType(CredentialType.AccessToken.name());
+        accessToken.setClientId(CLIENT_ID);
+        accessToken.setRealm(REALM);
+        accessToken.setTarget(TARGET);
+
+        assertCredentialKey(
+                mDelegate.generateCacheKey(accessToken),
+                CredentialType.AccessToken,
+                CLIENT_ID + "-" + REALM + "-" + TARGET
+        );
+    }
+
+    @Test
+    public void testParseRefreshTokenKey() {
+        final RefreshTokenRecord refreshToken = new RefreshTokenRecord();
+        refreshToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        refreshToken.setEnvironment(ENVIRONMENT);
+        refreshToken.setCredentialType(CredentialType.RefreshToken.name());
+        refreshToken.setClientId(CLIENT_ID);
+        refreshToken.setTarget(TARGET);
+
+        assertCredentialKey(
+                mDelegate.generateCacheKey(refreshToken),
+                CredentialType.RefreshToken,
+                CLIENT_ID + "--" + TARGET
+        );
+    }
+
+    @Test
+    public void testParseIdTokenKey() {
+        final IdTokenRecord idToken = new IdTokenRecord();
+        idToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        idToken.setEnvironment(ENVIRONMENT);
+        idToken.setCredentialType(CredentialType.IdToken.name());
+        idToken.setClientId(CLIENT_ID);
+        idToken.setRealm(REALM);
+
+        assertCredentialKey(
+                mDelegate.generateCacheKey(idToken),
+                CredentialType.IdToken,
+                CLIENT_ID + "-" + REALM + "-"
+        );
+    }
+
+    @Test
+    public void testParseOtherCredentialTypes() {
+        for (final CredentialType type : new CredentialType[]{
+                CredentialType.AccessToken_With_AuthScheme,
+                CredentialType.V1IdToken,
+                CredentialType.PrimaryRefreshToken}) {
+            final String cacheKey = HOME_ACCOUNT_ID + "-" + ENVIRONMENT + "-"
+                    + type.name().toLowerCase() + "-" + CLIENT_ID + "-" + REALM + "-";
+
+            assertCredentialKey(cacheKey, type, CLIENT_ID + "-" + REALM + "-");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseEmptyKeyThrows() {
+        CacheKey.parse("");
+    }
+
+    @Test
+    public void testParsedKeysAreMemoized() {
+        final String cacheKey = HOME_ACCOUNT_ID + "-" + ENVIRONMENT + "-memoized";
+
+        Assert.assertSame(CacheKey.parse(cacheKey), CacheKey.parse(cacheKey));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedKeyIsEvicted() {
+        final String recentlyUsedKey = "eviction-recently-used";
+        final String leastRecentlyUsedKey = "eviction-least-recently-used";
+
+        final CacheKey recentlyUsed = CacheKey.parse(recentlyUsedKey);
+        final CacheKey leastRecentlyUsed = CacheKey.parse(leastRecentlyUsedKey);
+        Assert.assertSame(recentlyUsed, CacheKey.parse(recentlyUsedKey));
+
+        // Fills the memo; only the least recently used of the two keys above is pushed out.
+        for (int i = 0; i < CacheKey.MAX_MEMOIZED_KEYS - 1; i++) {
+            CacheKey.parse("eviction-filler-" + i);
+        }
+
+        Assert.assertEquals(CacheKey.MAX_MEMOIZED_KEYS, CacheKey.getMemoizedKeyCount());
+        Assert.assertSame(recentlyUsed, CacheKey.parse(recentlyUsedKey));
+
+        final CacheKey reparsed = CacheKey.parse(leastRecentlyUsedKey);
+        Assert.assertNotSame(leastRecentlyUsed, reparsed);
+        Assert.assertEquals(leastRecentlyUsedKey, reparsed.getRawKey());
+    }
+
+    @Test
+    public void testWorkingSetAsLargeAsTheMemoIsRetained() {
+        final List<CacheKey> firstPass = new ArrayList<>(CacheKey.MAX_MEMOIZED_KEYS);
+
+        for (int i = 0; i < CacheKey.MAX_MEMOIZED_KEYS; i++) {
+            firstPass.add(CacheKey.parse("working-set-" + i));
+        }
+
+        for (int i = 0; i < CacheKey.MAX_MEMOIZED_KEYS; i++) {
+            Assert.assertSame(firstPass.get(i), CacheKey.parse("working-set-" + i));
+        }
+    }
+
+    @Test
+    public void testConcurrentParsing() throws Exception {
+        final int threadCount = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+
+            for (int t = 0; t < threadCount; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < 2 * CacheKey.MAX_MEMOIZED_KEYS; i++) {
+                            // Overlapping keys across threads, more than the memo holds.
+                            final String cacheKey = HOME_ACCOUNT_ID + "-" + ENVIRONMENT
+                                    + "-refreshtoken-" + CLIENT_ID + "--" + i;
+                            final CacheKey parsed = CacheKey.parse(cacheKey);
+
+                            Assert.assertEquals(cacheKey, parsed.getRawKey());
+                            Assert.assertEquals(CredentialType.RefreshToken, parsed.getCredentialType());
+                            Assert.assertEquals(CLIENT_ID + "--" + i, parsed.getSuffix());
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertTrue(CacheKey.getMemoizedKeyCount() <= CacheKey.MAX_MEMOIZED_KEYS);
+    }
+
+    private static void assertCredentialKey(final String cacheKey,
+                                            final CredentialType expectedType,
+                                            final String expectedSuffix) {
+        final CacheKey parsed = CacheKey.parse(cacheKey);
+
+        Assert.assertTrue(parsed.isCredential());
+        Assert.assertFalse(parsed.isAccount());
+        Assert.assertEquals(expectedType, parsed.getCredentialType());
+        Assert.assertEquals(cacheKey, parsed.getRawKey());
+        Assert.assertEquals(HOME_ACCOUNT_ID + "-" + ENVIRONMENT, parsed.getPrefix());
+        Assert.assertEquals(expectedSuffix, parsed.getSuffix());
+        Assert.assertEquals(
+                cacheKey,
+                parsed.getPrefix() + "-" + expectedType.name().toLowerCase() + "-" + parsed.getSuffix()
+        );
+    }
+}
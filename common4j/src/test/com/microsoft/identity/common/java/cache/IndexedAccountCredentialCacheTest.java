@@ -0,0 +1,333 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.AccountRecord;
+import com.microsoft.identity.common.java.dto.Credential;
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tests for {@link IndexedAccountCredentialCache}.
+ */
+public class IndexedAccountCredentialCacheTest {
+
+    private static final String HOME_ACCOUNT_ID = "29f3807a-4fb0-42f2-a44a-236aa0cb3f97.0287f963-2d72-4363-9e3a-5705c5b0f031";
+    private static final String ENVIRONMENT = "login.microsoftonline.com";
+    private static final String CLIENT_ID = "0287f963-2d72-4363-9e3a-5705c5b0f031";
+    private static final String TARGET = "user.read user.write https://graph.windows.net";
+    private static final String REALM = "3c62ac97-29eb-4aed-a3c8-add0298508d";
+    private static final String REALM2 = "20d3e9fa-982a-40bc-bea4-26bbe3fd332e";
+    private static final String SECRET = "3642fe2f-2c46-4824-9f27-e44b0e3e1278";
+
+    private CacheKeyValueDelegate mDelegate;
+    private InMemoryStorage<String> mStorage;
+    private IndexedAccountCredentialCache mIndexedCache;
+
+    @Before
+    public void setUp() {
+        mDelegate = new CacheKeyValueDelegate();
+        mStorage = new InMemoryStorage<>();
+        mIndexedCache = new IndexedAccountCredentialCache(mDelegate, mStorage);
+    }
+
+    @Test
+    public void testSavedCredentialsAreFoundByFullIndexKey() {
+        mIndexedCache.saveCredential(buildAccessToken(REALM));
+        mIndexedCache.saveCredential(buildAccessToken(REALM2));
+
+        final List<Credential> result = mIndexedCache.getCredentialsFilteredBy(
+                HOME_ACCOUNT_ID.toUpperCase(Locale.US),
+                ENVIRONMENT,
+                CredentialType.AccessToken,
+                CLIENT_ID,
+                REALM,
+                "user.read",
+                null
+        );
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(REALM, ((AccessTokenRecord) result.get(0)).getRealm());
+    }
+
+    @Test
+    public void testRealmIsIgnoredForRefreshTokenLookups() {
+        mIndexedCache.saveCredential(buildRefreshToken());
+
+        final List<Credential> result = mIndexedCache.getCredentialsFilteredBy(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                CredentialType.RefreshToken,
+                CLIENT_ID,
+                REALM,
+                null,
+                null
+        );
+
+        Assert.assertEquals(1, result.size());
+    }
+
+    @Test
+    public void testPartialLookupFallsBackToHomeAccountBucket() {
+        mIndexedCache.saveCredential(buildAccessToken(REALM));
+        mIndexedCache.saveCredential(buildRefreshToken());
+
+        final List<Credential> result = mIndexedCache.getCredentialsFilteredBy(
+                HOME_ACCOUNT_ID,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null
+        );
+
+        Assert.assertEquals(2, result.size());
+    }
+
+    @Test
+    public void testWritesThroughAnotherInstanceAreSeen() {
+        final IndexedAccountCredentialCache otherWriter =
+                new IndexedAccountCredentialCache(mDelegate, mStorage);
+
+        // Build the index
+        Assert.assertTrue(mIndexedCache.getCredentials().isEmpty());
+
+        final AccessTokenRecord accessToken = buildAccessToken(REALM);
+        otherWriter.saveCredential(accessToken);
+        Assert.assertEquals(1, mIndexedCache.getCredentials().size());
+
+        otherWriter.removeCredential(accessToken);
+        Assert.assertTrue(mIndexedCache.getCredentials().isEmpty());
+    }
+
+    @Test
+    public void testValueRewrittenByAnotherWriterIsReloaded() {
+        final IndexedAccountCredentialCache otherWriter =
+                new IndexedAccountCredentialCache(mDelegate, mStorage);
+
+        mIndexedCache.saveCredential(buildRefreshToken());
+        Assert.assertEquals(SECRET, mIndexedCache.getCredentials().get(0).getSecret());
+
+        // Same cache key, new secret: a refreshed token written by another cache instance.
+        final RefreshTokenRecord refreshedToken = buildRefreshToken();
+        refreshedToken.setSecret("refreshed-secret");
+        otherWriter.saveCredential(refreshedToken);
+
+        final List<Credential> result = mIndexedCache.getCredentialsFilteredBy(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                CredentialType.RefreshToken,
+                CLIENT_ID,
+                null,
+                null,
+                null
+        );
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals("refreshed-secret", result.get(0).getSecret());
+    }
+
+    @Test
+    public void testWritesBypassingTheCacheAreSeenAfterInvalidate() {
+        final SharedPreferencesAccountCredentialCache bypassingWriter =
+                new SharedPreferencesAccountCredentialCache(mDelegate, mStorage);
+
+        // Build the index
+        Assert.assertTrue(mIndexedCache.getCredentials().isEmpty());
+
+        bypassingWriter.saveCredential(buildAccessToken(REALM));
+        Assert.assertTrue(mIndexedCache.getCredentials().isEmpty());
+
+        mIndexedCache.invalidate();
+        Assert.assertEquals(1, mIndexedCache.getCredentials().size());
+    }
+
+    @Test
+    public void testReadsDoNotScanStorageOnceIndexed() {
+        final int[] scans = {0};
+        final InMemoryStorage<String> storage = new InMemoryStorage<String>() {
+            @Override
+            public Map<String, String> getAll() {
+                scans[0]++;
+                return super.getAll();
+            }
+        };
+        final IndexedAccountCredentialCache cache = new IndexedAccountCredentialCache(mDelegate, storage);
+        final AccessTokenRecord accessToken = buildAccessToken(REALM);
+
+        cache.saveCredential(accessToken);
+        cache.saveCredential(buildRefreshToken());
+        Assert.assertEquals(2, cache.getCredentials().size());
+        Assert.assertEquals(1, scans[0]);
+
+        cache.saveCredential(buildAccessToken(REALM2));
+        cache.removeCredential(accessToken);
+        Assert.assertEquals(2, cache.getCredentials().size());
+        Assert.assertNotNull(cache.getCredential(mDelegate.generateCacheKey(buildRefreshToken())));
+        Assert.assertEquals(1, cache.getCredentialsFilteredBy(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                CredentialType.AccessToken,
+                CLIENT_ID,
+                REALM2,
+                null,
+                null
+        ).size());
+        Assert.assertEquals(1, scans[0]);
+    }
+
+    @Test
+    public void testPointLookupReadsStorage() {
+        final SharedPreferencesAccountCredentialCache bypassingWriter =
+                new SharedPreferencesAccountCredentialCache(mDelegate, mStorage);
+        final RefreshTokenRecord refreshToken = buildRefreshToken();
+
+        // Build the index
+        Assert.assertTrue(mIndexedCache.getCredentials().isEmpty());
+
+        bypassingWriter.saveCredential(refreshToken);
+        Assert.assertEquals(SECRET, mIndexedCache.getCredential(mDelegate.generateCacheKey(refreshToken)).getSecret());
+    }
+
+    @Test
+    public void testAllCredentialsCanBeFilteredAndModified() {
+        mIndexedCache.saveCredential(buildAccessToken(REALM));
+        mIndexedCache.saveCredential(buildRefreshToken());
+
+        final List<Credential> allCredentials = mIndexedCache.getCredentials();
+        final List<Credential> refreshTokens = mIndexedCache.getCredentialsFilteredBy(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                CredentialType.RefreshToken,
+                CLIENT_ID,
+                null,
+                null,
+                null,
+                allCredentials
+        );
+
+        Assert.assertEquals(1, refreshTokens.size());
+
+        // The match is the list's own copy, so mutating it doesn't affect the cache.
+        refreshTokens.get(0).setSecret("mutated");
+        Assert.assertTrue(allCredentials.contains(refreshTokens.get(0)));
+        Assert.assertEquals(SECRET, mIndexedCache.getCredential(mDelegate.generateCacheKey(buildRefreshToken())).getSecret());
+
+        allCredentials.remove(refreshTokens.get(0));
+        allCredentials.add(buildAccessToken(REALM2));
+        Assert.assertEquals(2, allCredentials.size());
+        Assert.assertEquals(2, mIndexedCache.getCredentials().size());
+    }
+
+    @Test
+    public void testReturnedRecordsAreCopies() {
+        mIndexedCache.saveCredential(buildAccessToken(REALM));
+
+        final AccessTokenRecord returned = (AccessTokenRecord) mIndexedCache.getCredentials().get(0);
+        returned.setRealm(REALM2);
+        returned.setSecret("mutated");
+
+        final List<Credential> result = mIndexedCache.getCredentialsFilteredBy(
+                HOME_ACCOUNT_ID,
+                ENVIRONMENT,
+                CredentialType.AccessToken,
+                CLIENT_ID,
+                REALM,
+                "user.read",
+                null
+        );
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertNotSame(returned, result.get(0));
+        Assert.assertEquals(SECRET, result.get(0).getSecret());
+    }
+
+    @Test
+    public void testSavedRecordIsNotIndexed() {
+        final AccessTokenRecord saved = buildAccessToken(REALM);
+        mIndexedCache.saveCredential(saved);
+
+        // Mutating the caller's instance after saving must not affect the cache.
+        saved.setSecret("mutated");
+
+        Assert.assertEquals(SECRET, mIndexedCache.getCredentials().get(0).getSecret());
+    }
+
+    @Test
+    public void testWritesGoThroughToStorage() {
+        final AccountRecord account = new AccountRecord();
+        account.setHomeAccountId(HOME_ACCOUNT_ID);
+        account.setEnvironment(ENVIRONMENT);
+        account.setRealm(REALM);
+        account.setLocalAccountId(CLIENT_ID);
+
+        mIndexedCache.saveAccount(account);
+        mIndexedCache.saveCredential(buildAccessToken(REALM));
+
+        final SharedPreferencesAccountCredentialCache reader =
+                new SharedPreferencesAccountCredentialCache(mDelegate, mStorage);
+        Assert.assertEquals(1, reader.getAccounts().size());
+        Assert.assertEquals(1, reader.getCredentials().size());
+
+        mIndexedCache.clearAll();
+        Assert.assertEquals(0, mStorage.size());
+        Assert.assertTrue(mIndexedCache.getAccounts().isEmpty());
+    }
+
+    private static AccessTokenRecord buildAccessToken(final String realm) {
+        final AccessTokenRecord accessToken = new AccessTokenRecord();
+        accessToken.setCredentialType(CredentialType.AccessToken.name());
+        accessToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        accessToken.setEnvironment(ENVIRONMENT);
+        accessToken.setClientId(CLIENT_ID);
+        accessToken.setRealm(realm);
+        accessToken.setTarget(TARGET);
+        accessToken.setSecret(SECRET);
+        accessToken.setCachedAt("0");
+        accessToken.setExpiresOn("0");
+        return accessToken;
+    }
+
+    private static RefreshTokenRecord buildRefreshToken() {
+        final RefreshTokenRecord refreshToken = new RefreshTokenRecord();
+        refreshToken.setCredentialType(CredentialType.RefreshToken.name());
+        refreshToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        refreshToken.setEnvironment(ENVIRONMENT);
+        refreshToken.setClientId(CLIENT_ID);
+        refreshToken.setTarget(TARGET);
+        refreshToken.setSecret(SECRET);
+        refreshToken.setCachedAt("0");
+        return refreshToken;
+    }
+}
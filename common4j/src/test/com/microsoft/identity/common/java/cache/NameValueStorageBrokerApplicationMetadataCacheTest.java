@@ -0,0 +1,187 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.google.gson.Gson;
+import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
+import com.microsoft.identity.common.java.util.IPlatformUtil;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+
+/**
+ * Tests for {@link NameValueStorageBrokerApplicationMetadataCache}.
+ */
+public class NameValueStorageBrokerApplicationMetadataCacheTest {
+
+    private static final String CACHE_NAME = "com.microsoft.identity.app-meta-cache";
+    private static final String KEY_CACHE_LIST = "app-meta-cache";
+    private static final String CLIENT_ID = "0287f963-2d72-4363-9e3a-5705c5b0f031";
+    private static final String CLIENT_ID2 = "3c62ac97-29eb-4aed-a3c8-add0298508d";
+    private static final String ENVIRONMENT = "login.microsoftonline.com";
+
+    private InMemoryStorage<String> mStorage;
+    private IPlatformComponents mComponents;
+
+    @Before
+    public void setUp() {
+        mStorage = new InMemoryStorage<>();
+        mComponents = Mockito.mock(IPlatformComponents.class);
+        Mockito.when(mComponents.getNameValueStore(CACHE_NAME, String.class)).thenReturn(mStorage);
+        Mockito.when(mComponents.getPlatformUtil()).thenReturn(Mockito.mock(IPlatformUtil.class));
+    }
+
+    @Test
+    public void testEntriesAreStoredIndividually() {
+        final NameValueStorageBrokerApplicationMetadataCache cache =
+                new NameValueStorageBrokerApplicationMetadataCache(mComponents);
+
+        cache.insert(buildMetadata(CLIENT_ID, 1000, null));
+        cache.insert(buildMetadata(CLIENT_ID2, 1001, "1"));
+
+        Assert.assertEquals(2, mStorage.size());
+        Assert.assertNull(mStorage.get(KEY_CACHE_LIST));
+        Assert.assertEquals(2, cache.getAll().size());
+        Assert.assertEquals("1", cache.getMetadata(CLIENT_ID2, ENVIRONMENT, 1001).getFoci());
+        Assert.assertNull(cache.getMetadata(CLIENT_ID2, ENVIRONMENT, 1000));
+    }
+
+    @Test
+    public void testInsertReplacesEqualEntry() {
+        final NameValueStorageBrokerApplicationMetadataCache cache =
+                new NameValueStorageBrokerApplicationMetadataCache(mComponents);
+
+        cache.insert(buildMetadata(CLIENT_ID, 1000, null));
+        cache.insert(buildMetadata(CLIENT_ID, 1000, "1"));
+
+        Assert.assertEquals(1, cache.getAll().size());
+        Assert.assertEquals("1", cache.getMetadata(CLIENT_ID, ENVIRONMENT, 1000).getFoci());
+        Assert.assertEquals(1, cache.getAllFociClientIds().size());
+    }
+
+    @Test
+    public void testRemove() {
+        final NameValueStorageBrokerApplicationMetadataCache cache =
+                new NameValueStorageBrokerApplicationMetadataCache(mComponents);
+
+        cache.insert(buildMetadata(CLIENT_ID, 1000, null));
+        cache.insert(buildMetadata(CLIENT_ID2, 1000, null));
+        cache.remove(CLIENT_ID.toUpperCase(), 1000);
+
+        Assert.assertNull(cache.getMetadata(CLIENT_ID, ENVIRONMENT, 1000));
+        Assert.assertNotNull(cache.getMetadata(CLIENT_ID2, ENVIRONMENT, 1000));
+        Assert.assertEquals(1, mStorage.size());
+    }
+
+    @Test
+    public void testEntriesStoredAsOneArrayAreMigrated() {
+        mStorage.put(KEY_CACHE_LIST, new Gson().toJson(Arrays.asList(
+                buildMetadata(CLIENT_ID, 1000, null),
+                buildMetadata(CLIENT_ID2, 1001, "1")
+        )));
+
+        final NameValueStorageBrokerApplicationMetadataCache cache =
+                new NameValueStorageBrokerApplicationMetadataCache(mComponents);
+
+        Assert.assertNotNull(cache.getMetadata(CLIENT_ID, ENVIRONMENT, 1000));
+        Assert.assertEquals(2, cache.getAllClientIds().size());
+    }
+
+    @Test
+    public void testMigrationKeepsTheArrayForDowngrades() {
+        final String legacyJson = new Gson().toJson(Arrays.asList(
+                buildMetadata(CLIENT_ID, 1000, null),
+                buildMetadata(CLIENT_ID2, 1001, "1")
+        ));
+        mStorage.put(KEY_CACHE_LIST, legacyJson);
+
+        final NameValueStorageBrokerApplicationMetadataCache cache =
+                new NameValueStorageBrokerApplicationMetadataCache(mComponents);
+        cache.insert(buildMetadata(CLIENT_ID, 1002, null));
+
+        Assert.assertEquals(legacyJson, mStorage.get(KEY_CACHE_LIST));
+        Assert.assertEquals(3, cache.getAll().size());
+    }
+
+    @Test
+    public void testEntriesRemovedAfterMigrationStayRemoved() {
+        mStorage.put(KEY_CACHE_LIST, new Gson().toJson(Arrays.asList(
+                buildMetadata(CLIENT_ID, 1000, null),
+                buildMetadata(CLIENT_ID2, 1001, "1")
+        )));
+
+        final NameValueStorageBrokerApplicationMetadataCache cache =
+                new NameValueStorageBrokerApplicationMetadataCache(mComponents);
+        cache.remove(CLIENT_ID, 1000);
+
+        // A new instance, as after a process restart, must not copy the removed entry back.
+        final NameValueStorageBrokerApplicationMetadataCache restarted =
+                new NameValueStorageBrokerApplicationMetadataCache(mComponents);
+
+        Assert.assertNull(restarted.getMetadata(CLIENT_ID, ENVIRONMENT, 1000));
+        Assert.assertEquals(1, restarted.getAll().size());
+    }
+
+    @Test
+    public void testArrayWrittenByADowngradedBuildIsMigratedAgain() {
+        mStorage.put(KEY_CACHE_LIST, new Gson().toJson(Arrays.asList(
+                buildMetadata(CLIENT_ID, 1000, null),
+                buildMetadata(CLIENT_ID2, 1001, null)
+        )));
+
+        final NameValueStorageBrokerApplicationMetadataCache cache =
+                new NameValueStorageBrokerApplicationMetadataCache(mComponents);
+        cache.insert(buildMetadata(CLIENT_ID, 1002, null));
+
+        // A downgraded build removes one entry, changes another and adds a third to the array.
+        mStorage.put(KEY_CACHE_LIST, new Gson().toJson(Arrays.asList(
+                buildMetadata(CLIENT_ID2, 1001, "1"),
+                buildMetadata(CLIENT_ID2, 1003, null)
+        )));
+
+        final NameValueStorageBrokerApplicationMetadataCache upgraded =
+                new NameValueStorageBrokerApplicationMetadataCache(mComponents);
+
+        Assert.assertNull(upgraded.getMetadata(CLIENT_ID, ENVIRONMENT, 1000));
+        Assert.assertEquals("1", upgraded.getMetadata(CLIENT_ID2, ENVIRONMENT, 1001).getFoci());
+        Assert.assertNotNull(upgraded.getMetadata(CLIENT_ID, ENVIRONMENT, 1002));
+        Assert.assertNotNull(upgraded.getMetadata(CLIENT_ID2, ENVIRONMENT, 1003));
+        Assert.assertEquals(3, upgraded.getAll().size());
+    }
+
+    private static BrokerApplicationMetadata buildMetadata(final String clientId,
+                                                           final int uid,
+                                                           final String foci) {
+        final BrokerApplicationMetadata metadata = new BrokerApplicationMetadata();
+        metadata.setClientId(clientId);
+        metadata.setEnvironment(ENVIRONMENT);
+        metadata.setUid(uid);
+        metadata.setFoci(foci);
+        return metadata;
+    }
+}
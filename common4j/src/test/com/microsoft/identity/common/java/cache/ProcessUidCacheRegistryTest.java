@@ -0,0 +1,103 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.microsoft.identity.common.java.interfaces.INameValueStorage;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link ProcessUidCacheRegistry}.
+ */
+public class ProcessUidCacheRegistryTest {
+
+    private final AtomicInteger mCreatedCount = new AtomicInteger();
+
+    private final ProcessUidCacheRegistry.CacheFactory mFactory = new ProcessUidCacheRegistry.CacheFactory() {
+        @Override
+        public MsalOAuth2TokenCache create(final INameValueStorage<String> storage) {
+            mCreatedCount.incrementAndGet();
+            return Mockito.mock(MsalOAuth2TokenCache.class);
+        }
+    };
+
+    @Test
+    public void testCacheIsReusedForSameUidAndStorage() {
+        final ProcessUidCacheRegistry registry = new ProcessUidCacheRegistry();
+        final InMemoryStorage<String> storage = new InMemoryStorage<>();
+
+        final MsalOAuth2TokenCache first = registry.get(1000, storage, mFactory);
+        final MsalOAuth2TokenCache second = registry.get(1000, storage, mFactory);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, mCreatedCount.get());
+    }
+
+    @Test
+    public void testCachesAreSeparatePerUid() {
+        final ProcessUidCacheRegistry registry = new ProcessUidCacheRegistry();
+
+        final MsalOAuth2TokenCache first = registry.get(1000, new InMemoryStorage<String>(), mFactory);
+        final MsalOAuth2TokenCache second = registry.get(1001, new InMemoryStorage<String>(), mFactory);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void testCacheIsRebuiltForDifferentStorage() {
+        final ProcessUidCacheRegistry registry = new ProcessUidCacheRegistry();
+
+        final MsalOAuth2TokenCache first = registry.get(1000, new InMemoryStorage<String>(), mFactory);
+        final MsalOAuth2TokenCache second = registry.get(1000, new InMemoryStorage<String>(), mFactory);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(2, mCreatedCount.get());
+        Assert.assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testIdleCachesAreEvicted() throws InterruptedException {
+        final ProcessUidCacheRegistry registry = new ProcessUidCacheRegistry(
+                TimeUnit.MILLISECONDS.toNanos(10),
+                0
+        );
+        final InMemoryStorage<String> storage = new InMemoryStorage<>();
+
+        registry.get(1000, new InMemoryStorage<String>(), mFactory);
+        final MsalOAuth2TokenCache first = registry.get(1001, storage, mFactory);
+        Thread.sleep(50);
+
+        // Looking up a uid sweeps the idle ones, including the one being looked up.
+        final MsalOAuth2TokenCache second = registry.get(1001, storage, mFactory);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(1, registry.size());
+    }
+}
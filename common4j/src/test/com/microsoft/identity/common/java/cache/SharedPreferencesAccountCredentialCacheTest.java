@@ -0,0 +1,201 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.cache;
+
+import com.google.gson.JsonPrimitive;
+import com.microsoft.identity.common.java.dto.AccessTokenRecord;
+import com.microsoft.identity.common.java.dto.AccountRecord;
+import com.microsoft.identity.common.java.dto.Credential;
+import com.microsoft.identity.common.java.dto.CredentialType;
+import com.microsoft.identity.common.java.dto.RefreshTokenRecord;
+import com.microsoft.identity.common.java.storage.NameValueStorageBatch;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import lombok.NonNull;
+
+/**
+ * Tests for {@link SharedPreferencesAccountCredentialCache#removeAndSave}.
+ */
+public class SharedPreferencesAccountCredentialCacheTest {
+
+    private static final String HOME_ACCOUNT_ID = "29f3807a-4fb0-42f2-a44a-236aa0cb3f97.0287f963-2d72-4363-9e3a-5705c5b0f031";
+    private static final String ENVIRONMENT = "login.microsoftonline.com";
+    private static final String CLIENT_ID = "0287f963-2d72-4363-9e3a-5705c5b0f031";
+    private static final String REALM = "3c62ac97-29eb-4aed-a3c8-add0298508d";
+
+    private CountingStorage mStorage;
+    private SharedPreferencesAccountCredentialCache mCache;
+
+    @Before
+    public void setUp() {
+        mStorage = new CountingStorage();
+        mCache = new SharedPreferencesAccountCredentialCache(new CacheKeyValueDelegate(), mStorage);
+    }
+
+    @Test
+    public void testRemoveAndSaveIsASingleCommit() {
+        final RefreshTokenRecord oldRefreshToken = buildRefreshToken("old.target", "old_secret");
+        mCache.saveCredential(oldRefreshToken);
+        mStorage.reset();
+
+        mCache.removeAndSave(
+                Collections.<Credential>singletonList(oldRefreshToken),
+                Collections.singletonList(buildAccount()),
+                Arrays.<Credential>asList(buildAccessToken(), buildRefreshToken("new.target", "new_secret"))
+        );
+
+        Assert.assertEquals(1, mStorage.mCommits);
+        Assert.assertEquals(0, mStorage.mWrites);
+        Assert.assertEquals(1, mCache.getAccounts().size());
+        Assert.assertEquals(2, mCache.getCredentials().size());
+        Assert.assertEquals(
+                "new_secret",
+                mCache.getCredentialsFilteredBy(null, null, CredentialType.RefreshToken, null, null, null, null)
+                        .get(0)
+                        .getSecret()
+        );
+    }
+
+    @Test
+    public void testSaveTakesPrecedenceOverRemovalOfTheSameKey() {
+        final RefreshTokenRecord oldRefreshToken = buildRefreshToken("target", "old_secret");
+        mCache.saveCredential(oldRefreshToken);
+
+        mCache.removeAndSave(
+                Collections.<Credential>singletonList(oldRefreshToken),
+                Collections.<AccountRecord>emptyList(),
+                Collections.<Credential>singletonList(buildRefreshToken("target", "new_secret"))
+        );
+
+        Assert.assertEquals(1, mCache.getCredentials().size());
+        Assert.assertEquals("new_secret", mCache.getCredentials().get(0).getSecret());
+    }
+
+    @Test
+    public void testSaveOverRemovalOfTheSameKeyKeepsAdditionalFields() {
+        final RefreshTokenRecord oldRefreshToken = buildRefreshToken("target", "old_secret");
+        oldRefreshToken.getAdditionalFields().put("unknown_field", new JsonPrimitive("unknown_value"));
+        mCache.saveCredential(oldRefreshToken);
+        mStorage.reset();
+
+        mCache.removeAndSave(
+                Collections.<Credential>singletonList(oldRefreshToken),
+                Collections.<AccountRecord>emptyList(),
+                Collections.<Credential>singletonList(buildRefreshToken("target", "new_secret"))
+        );
+
+        Assert.assertEquals(1, mStorage.mCommits);
+        Assert.assertEquals(0, mStorage.mRemoves);
+
+        final Credential savedRefreshToken = mCache.getCredentials().get(0);
+        Assert.assertEquals("new_secret", savedRefreshToken.getSecret());
+        Assert.assertEquals(
+                new JsonPrimitive("unknown_value"),
+                savedRefreshToken.getAdditionalFields().get("unknown_field")
+        );
+    }
+
+    private static AccountRecord buildAccount() {
+        final AccountRecord account = new AccountRecord();
+        account.setHomeAccountId(HOME_ACCOUNT_ID);
+        account.setEnvironment(ENVIRONMENT);
+        account.setRealm(REALM);
+        account.setLocalAccountId(CLIENT_ID);
+        return account;
+    }
+
+    private static AccessTokenRecord buildAccessToken() {
+        final AccessTokenRecord accessToken = new AccessTokenRecord();
+        accessToken.setCredentialType(CredentialType.AccessToken.name());
+        accessToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        accessToken.setEnvironment(ENVIRONMENT);
+        accessToken.setClientId(CLIENT_ID);
+        accessToken.setRealm(REALM);
+        accessToken.setTarget("user.read");
+        accessToken.setSecret("at_secret");
+        accessToken.setCachedAt("0");
+        accessToken.setExpiresOn("0");
+        return accessToken;
+    }
+
+    private static RefreshTokenRecord buildRefreshToken(final String target, final String secret) {
+        final RefreshTokenRecord refreshToken = new RefreshTokenRecord();
+        refreshToken.setCredentialType(CredentialType.RefreshToken.name());
+        refreshToken.setHomeAccountId(HOME_ACCOUNT_ID);
+        refreshToken.setEnvironment(ENVIRONMENT);
+        refreshToken.setClientId(CLIENT_ID);
+        refreshToken.setTarget(target);
+        refreshToken.setSecret(secret);
+        refreshToken.setCachedAt("0");
+        return refreshToken;
+    }
+
+    /**
+     * Counts individual writes separately from batch commits.
+     */
+    private static class CountingStorage extends InMemoryStorage<String> {
+        int mWrites;
+        int mCommits;
+        int mRemoves;
+
+        @Override
+        public void put(@NonNull final String key, final String value) {
+            mWrites++;
+            super.put(key, value);
+        }
+
+        @Override
+        public void remove(@NonNull final String name) {
+            mWrites++;
+            super.remove(name);
+        }
+
+        @Override
+        public void commit(@NonNull final NameValueStorageBatch<String> batch) {
+            mCommits++;
+            mRemoves += batch.getRemoves().size();
+
+            for (final String name : batch.getRemoves()) {
+                super.remove(name);
+            }
+
+            for (final Map.Entry<String, String> entry : batch.getPuts().entrySet()) {
+                super.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        void reset() {
+            mWrites = 0;
+            mCommits = 0;
+            mRemoves = 0;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(JUnit4.class)
+public class CommandResultCacheTest {
+
+    private static final CommandResult RESULT =
+            CommandResult.ofNull(CommandResult.ResultStatus.COMPLETED, "correlation-id");
+
+    private static final AtomicInteger sFingerprintCount = new AtomicInteger();
+
+    private ScheduledThreadPoolExecutor mSweepExecutor;
+
+    @Before
+    public void setUp() {
+        mSweepExecutor = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @After
+    public void tearDown() {
+        mSweepExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testHitsAndMissesAreCounted() {
+        final CommandResultCache cache = new CommandResultCache(10, TimeUnit.MINUTES.toNanos(1), mSweepExecutor);
+        final RequestFingerprint fingerprint = newFingerprint();
+
+        Assert.assertNull(cache.get(fingerprint));
+        cache.put(fingerprint, RESULT);
+        Assert.assertSame(RESULT, cache.get(fingerprint));
+        Assert.assertSame(RESULT, cache.get(fingerprint));
+
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testExpiredEntryIsNotReturned() throws InterruptedException {
+        final CommandResultCache cache = new CommandResultCache(10, TimeUnit.MILLISECONDS.toNanos(10), mSweepExecutor);
+        final RequestFingerprint fingerprint = newFingerprint();
+
+        cache.put(fingerprint, RESULT);
+        Thread.sleep(50);
+
+        Assert.assertNull(cache.get(fingerprint));
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testExpiredEntriesAreSwept() throws InterruptedException {
+        final CommandResultCache cache = new CommandResultCache(10, TimeUnit.MILLISECONDS.toNanos(10), mSweepExecutor);
+
+        cache.put(newFingerprint(), RESULT);
+        cache.put(newFingerprint(), RESULT);
+
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (cache.getSize() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(0, cache.getSize());
+        Assert.assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testOldestEntriesAreEvictedOverCapacity() {
+        final CommandResultCache cache = new CommandResultCache(2, TimeUnit.MINUTES.toNanos(1), mSweepExecutor);
+        final RequestFingerprint first = newFingerprint();
+        final RequestFingerprint second = newFingerprint();
+        final RequestFingerprint third = newFingerprint();
+
+        cache.put(first, RESULT);
+        cache.put(second, RESULT);
+        cache.put(third, RESULT);
+
+        Assert.assertEquals(2, cache.getSize());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertNull(cache.get(first));
+        Assert.assertSame(RESULT, cache.get(second));
+        Assert.assertSame(RESULT, cache.get(third));
+    }
+
+    private static RequestFingerprint newFingerprint() {
+        return new RequestFingerprint(ByteBuffer.allocate(4).putInt(sFingerprintCount.incrementAndGet()).array());
+    }
+}
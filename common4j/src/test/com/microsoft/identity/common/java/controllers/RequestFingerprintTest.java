@@ -0,0 +1,347 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.controllers;
+
+import com.microsoft.identity.common.java.authscheme.PopAuthenticationSchemeInternal;
+import com.microsoft.identity.common.java.broker.IBrokerAccount;
+import com.microsoft.identity.common.java.commands.BaseCommand;
+import com.microsoft.identity.common.java.commands.SilentTokenCommand;
+import com.microsoft.identity.common.java.commands.parameters.AcquirePrtSsoTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.BrokerRopcTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.BrokerSilentTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.CommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.GenerateShrCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.InteractiveTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.RopcTokenCommandParameters;
+import com.microsoft.identity.common.java.commands.parameters.SilentTokenCommandParameters;
+import com.microsoft.identity.common.java.interfaces.IPlatformComponents;
+import com.microsoft.identity.common.java.request.BrokerRequestType;
+import com.microsoft.identity.common.java.providers.oauth2.OpenIdConnectPromptParameter;
+import com.microsoft.identity.common.java.request.SdkType;
+import com.microsoft.identity.common.java.util.UrlUtil;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.UUID;
+
+@RunWith(JUnit4.class)
+public class RequestFingerprintTest {
+
+    private static final String CLIENT_ID = "0287f963-2d72-4363-9e3a-5705c5b0f031";
+
+    @Test
+    public void testIdenticalRequestsHaveEqualFingerprints() {
+        final RequestFingerprint first = RequestFingerprint.of(mockCommand(buildParameters("User.Read", "Mail.Read")));
+        final RequestFingerprint second = RequestFingerprint.of(mockCommand(buildParameters("Mail.Read", "User.Read")));
+
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    public void testCorrelationIdDoesNotAffectFingerprint() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        final RequestFingerprint first = RequestFingerprint.of(mockCommand(parameters));
+
+        parameters.setCorrelationId(UUID.randomUUID().toString());
+
+        Assert.assertEquals(first, RequestFingerprint.of(mockCommand(parameters)));
+    }
+
+    @Test
+    public void testDifferentScopesHaveDifferentFingerprints() {
+        final RequestFingerprint first = RequestFingerprint.of(mockCommand(buildParameters("User.Read")));
+        final RequestFingerprint second = RequestFingerprint.of(mockCommand(buildParameters("Mail.Read")));
+
+        Assert.assertNotEquals(first, second);
+    }
+
+    @Test
+    public void testAdjacentValuesDoNotRunIntoEachOther() {
+        final RequestFingerprint first = RequestFingerprint.of(mockCommand(buildParameters("ab", "c")));
+        final RequestFingerprint second = RequestFingerprint.of(mockCommand(buildParameters("a", "bc")));
+
+        Assert.assertNotEquals(first, second);
+    }
+
+    @Test
+    public void testDifferentClaimsHaveDifferentFingerprints() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        final SilentTokenCommandParameters withClaims = parameters.toBuilder()
+                .claimsRequestJson("{\"access_token\":{\"xms_cc\":{\"values\":[\"cp1\"]}}}")
+                .build();
+
+        Assert.assertNotEquals(
+                RequestFingerprint.of(mockCommand(parameters)),
+                RequestFingerprint.of(mockCommand(withClaims))
+        );
+    }
+
+    @Test
+    public void testDifferentControllersHaveDifferentFingerprints() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        final SilentTokenCommand local = mockCommand(parameters);
+        Mockito.when(local.getControllers()).thenReturn(
+                Collections.<BaseController>singletonList(Mockito.mock(LocalMSALController.class)));
+        final SilentTokenCommand base = mockCommand(parameters);
+        Mockito.when(base.getControllers()).thenReturn(
+                Collections.singletonList(Mockito.mock(BaseController.class)));
+
+        Assert.assertNotEquals(RequestFingerprint.of(local), RequestFingerprint.of(base));
+    }
+
+    @Test
+    public void testDifferentApplicationNamesHaveDifferentFingerprints() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        assertDistinct(parameters, parameters.toBuilder().applicationName("com.contoso.app").build());
+    }
+
+    @Test
+    public void testDifferentApplicationVersionsHaveDifferentFingerprints() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        assertDistinct(parameters, parameters.toBuilder().applicationVersion("1.0").build());
+    }
+
+    @Test
+    public void testDifferentRequiredBrokerProtocolVersionsHaveDifferentFingerprints() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        assertDistinct(parameters, parameters.toBuilder().requiredBrokerProtocolVersion("3.0").build());
+    }
+
+    @Test
+    public void testDifferentSdkTypesHaveDifferentFingerprints() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        assertDistinct(
+                parameters.toBuilder().sdkType(SdkType.MSAL).build(),
+                parameters.toBuilder().sdkType(SdkType.ADAL).build()
+        );
+    }
+
+    @Test
+    public void testDifferentSdkVersionsHaveDifferentFingerprints() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        assertDistinct(parameters, parameters.toBuilder().sdkVersion("5.0.0").build());
+    }
+
+    @Test
+    public void testDifferentPowerOptCheckHaveDifferentFingerprints() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        assertDistinct(parameters, parameters.toBuilder().powerOptCheckEnabled(true).build());
+    }
+
+    @Test
+    public void testDifferentFlightsHaveDifferentFingerprints() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        assertDistinct(
+                parameters.toBuilder().flightInformation(Collections.singletonMap("flight", "true")).build(),
+                parameters.toBuilder().flightInformation(Collections.singletonMap("flight", "false")).build()
+        );
+    }
+
+    @Test
+    public void testDifferentLoginHintsHaveDifferentFingerprints() {
+        final SilentTokenCommandParameters parameters = buildParameters("User.Read");
+        assertDistinct(parameters, parameters.toBuilder().loginHint("user@contoso.com").build());
+    }
+
+    @Test
+    public void testDifferentCallerAppVersionsHaveDifferentFingerprints() {
+        final BrokerSilentTokenCommandParameters parameters = buildBrokerParameters();
+        assertDistinct(parameters, parameters.toBuilder().callerAppVersion("2.0").build());
+    }
+
+    @Test
+    public void testDifferentBrokerVersionsHaveDifferentFingerprints() {
+        final BrokerSilentTokenCommandParameters parameters = buildBrokerParameters();
+        assertDistinct(parameters, parameters.toBuilder().brokerVersion("13.0").build());
+    }
+
+    @Test
+    public void testDifferentBrokerAccountsHaveDifferentFingerprints() {
+        final BrokerSilentTokenCommandParameters parameters = buildBrokerParameters();
+        assertDistinct(
+                parameters.toBuilder().brokerAccount(mockBrokerAccount("alice@contoso.com")).build(),
+                parameters.toBuilder().brokerAccount(mockBrokerAccount("bob@contoso.com")).build()
+        );
+    }
+
+    @Test
+    public void testDifferentSleepTimesBeforePrtAcquisitionHaveDifferentFingerprints() {
+        final BrokerSilentTokenCommandParameters parameters = buildBrokerParameters();
+        assertDistinct(parameters, parameters.toBuilder().sleepTimeBeforePrtAcquisition(1000).build());
+    }
+
+    @Test
+    public void testDifferentNegotiatedBrokerProtocolVersionsHaveDifferentFingerprints() {
+        final BrokerSilentTokenCommandParameters parameters = buildBrokerParameters();
+        assertDistinct(parameters, parameters.toBuilder().negotiatedBrokerProtocolVersion("3.0").build());
+    }
+
+    @Test
+    public void testDifferentPKeyAuthHeaderAllowedHaveDifferentFingerprints() {
+        final BrokerSilentTokenCommandParameters parameters = buildBrokerParameters();
+        assertDistinct(parameters, parameters.toBuilder().pKeyAuthHeaderAllowed(true).build());
+    }
+
+    @Test
+    public void testDifferentRequestTypesHaveDifferentFingerprints() {
+        final BrokerSilentTokenCommandParameters parameters = buildBrokerParameters();
+        assertDistinct(
+                parameters.toBuilder().requestType(BrokerRequestType.REGULAR).build(),
+                parameters.toBuilder().requestType(BrokerRequestType.BROKER_RT_REQUEST).build()
+        );
+    }
+
+    @Test
+    public void testDifferentHomeTenantIdsHaveDifferentFingerprints() {
+        final BrokerSilentTokenCommandParameters parameters = buildBrokerParameters();
+        assertDistinct(parameters, parameters.toBuilder().homeTenantId(UUID.randomUUID().toString()).build());
+    }
+
+    @Test
+    public void testDifferentRopcUsernamesHaveDifferentFingerprints() {
+        final RopcTokenCommandParameters parameters = buildRopcParameters("alice@contoso.com", "password");
+        assertDistinct(parameters, parameters.toBuilder().username("bob@contoso.com").build());
+    }
+
+    @Test
+    public void testDifferentRopcPasswordsHaveDifferentFingerprints() {
+        final RopcTokenCommandParameters parameters = buildRopcParameters("alice@contoso.com", "password");
+        assertDistinct(parameters, parameters.toBuilder().password("another password").build());
+    }
+
+    @Test
+    public void testDifferentBrokerRopcCallersHaveDifferentFingerprints() {
+        final BrokerRopcTokenCommandParameters parameters = BrokerRopcTokenCommandParameters.builder()
+                .platformComponents(Mockito.mock(IPlatformComponents.class))
+                .clientId(CLIENT_ID)
+                .scopes(new HashSet<>(Arrays.asList("User.Read")))
+                .username("alice@contoso.com")
+                .password("password")
+                .callerUid(10000)
+                .build();
+        assertDistinct(parameters, parameters.toBuilder().callerUid(10001).build());
+    }
+
+    @Test
+    public void testDifferentPromptsHaveDifferentFingerprints() {
+        final InteractiveTokenCommandParameters parameters = InteractiveTokenCommandParameters.builder()
+                .platformComponents(Mockito.mock(IPlatformComponents.class))
+                .clientId(CLIENT_ID)
+                .scopes(new HashSet<>(Arrays.asList("User.Read")))
+                .prompt(OpenIdConnectPromptParameter.SELECT_ACCOUNT)
+                .build();
+        assertDistinct(parameters, parameters.toBuilder().prompt(OpenIdConnectPromptParameter.LOGIN).build());
+    }
+
+    @Test
+    public void testDifferentShrNoncesHaveDifferentFingerprints() {
+        final GenerateShrCommandParameters parameters = GenerateShrCommandParameters.builder()
+                .platformComponents(Mockito.mock(IPlatformComponents.class))
+                .clientId(CLIENT_ID)
+                .homeAccountId("aHomeAccountId")
+                .popParameters(buildPopParameters("one"))
+                .build();
+        assertDistinct(parameters, parameters.toBuilder().popParameters(buildPopParameters("two")).build());
+    }
+
+    @Test
+    public void testDifferentSsoUrlsHaveDifferentFingerprints() {
+        final AcquirePrtSsoTokenCommandParameters parameters = AcquirePrtSsoTokenCommandParameters.builder()
+                .platformComponents(Mockito.mock(IPlatformComponents.class))
+                .accountName("alice@contoso.com")
+                .ssoUrl("https://contoso.com/sso?sso_nonce=one")
+                .build();
+        assertDistinct(parameters, parameters.toBuilder().ssoUrl("https://contoso.com/sso?sso_nonce=two").build());
+    }
+
+    private static void assertDistinct(final CommandParameters first,
+                                       final CommandParameters second) {
+        Assert.assertNotEquals(
+                RequestFingerprint.of(mockBaseCommand(first)),
+                RequestFingerprint.of(mockBaseCommand(second))
+        );
+    }
+
+    private static RopcTokenCommandParameters buildRopcParameters(final String username, final String password) {
+        return RopcTokenCommandParameters.builder()
+                .platformComponents(Mockito.mock(IPlatformComponents.class))
+                .clientId(CLIENT_ID)
+                .scopes(new HashSet<>(Arrays.asList("User.Read")))
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    private static PopAuthenticationSchemeInternal buildPopParameters(final String nonce) {
+        return PopAuthenticationSchemeInternal.builder()
+                .httpMethod("GET")
+                .url(UrlUtil.makeUrlSilent("https://contoso.com"))
+                .nonce(nonce)
+                .build();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static BaseCommand mockBaseCommand(final CommandParameters parameters) {
+        final BaseCommand command = Mockito.mock(BaseCommand.class);
+        Mockito.when(command.getParameters()).thenReturn(parameters);
+        return command;
+    }
+
+    private static BrokerSilentTokenCommandParameters buildBrokerParameters() {
+        return BrokerSilentTokenCommandParameters.builder()
+                .platformComponents(Mockito.mock(IPlatformComponents.class))
+                .clientId(CLIENT_ID)
+                .scopes(new HashSet<>(Arrays.asList("User.Read")))
+                .callerUid(10000)
+                .callerPackageName("com.contoso.app")
+                .build();
+    }
+
+    private static IBrokerAccount mockBrokerAccount(final String username) {
+        final IBrokerAccount account = Mockito.mock(IBrokerAccount.class);
+        Mockito.when(account.getUsername()).thenReturn(username);
+        return account;
+    }
+
+    private static SilentTokenCommandParameters buildParameters(final String... scopes) {
+        return SilentTokenCommandParameters.builder()
+                .platformComponents(Mockito.mock(IPlatformComponents.class))
+                .clientId(CLIENT_ID)
+                .scopes(new HashSet<>(Arrays.asList(scopes)))
+                .build();
+    }
+
+    private static SilentTokenCommand mockCommand(final SilentTokenCommandParameters parameters) {
+        final SilentTokenCommand command = Mockito.mock(SilentTokenCommand.class);
+        Mockito.when(command.getParameters()).thenReturn(parameters);
+        return command;
+    }
+}
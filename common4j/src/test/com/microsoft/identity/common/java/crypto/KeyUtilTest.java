@@ -27,6 +27,8 @@ import com.microsoft.identity.common.java.crypto.key.KeyUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import javax.crypto.SecretKey;
 
 import static com.microsoft.identity.common.java.crypto.MockData.PREDEFINED_KEY;
@@ -101,4 +103,27 @@ public class KeyUtilTest {
         Assert.assertEquals(thumbPrint, thumbPrintFromLoader);
         Assert.assertEquals(thumbPrint, anotherThumbPrintFromLoader);
     }
+
+    @Test
+    public void testHMacKeyFromLoaderIsMemoizedAndMatchesDerivedKey() throws Exception {
+        final MockAES256KeyLoader keyLoader = new MockAES256KeyLoader(PREDEFINED_KEY, "KEY_1");
+        final SecretKey key = keyLoader.getKey();
+
+        final SecretKey hmacKey = keyLoader.getHMacKey(key);
+
+        Assert.assertArrayEquals(KeyUtil.getHMacKey(key).getEncoded(), hmacKey.getEncoded());
+        Assert.assertSame(hmacKey, keyLoader.getHMacKey(key));
+    }
+
+    @Test
+    public void testHMacKeyFromLoaderIsDerivedFromTheSuppliedKey() throws Exception {
+        final MockAES256KeyLoader keyLoader = new MockAES256KeyLoader(PREDEFINED_KEY, "KEY_1");
+        final SecretKey anotherKey = new MockAES256KeyLoader().getKey();
+
+        final SecretKey hmacKey = keyLoader.getHMacKey(keyLoader.getKey());
+        final SecretKey anotherHMacKey = keyLoader.getHMacKey(anotherKey);
+
+        Assert.assertArrayEquals(KeyUtil.getHMacKey(anotherKey).getEncoded(), anotherHMacKey.getEncoded());
+        Assert.assertFalse(Arrays.equals(hmacKey.getEncoded(), anotherHMacKey.getEncoded()));
+    }
 }
@@ -0,0 +1,71 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.dto;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ScopeSetTest {
+
+    @Test
+    public void testContainsAllIsCaseAndWhitespaceInsensitive() {
+        final ScopeSet credentialScopes = ScopeSet.fromTarget("  User.Read\tMail.Read \n mail.send ");
+        final ScopeSet soughtScopes = ScopeSet.fromTarget("mail.read USER.READ");
+        assertTrue(credentialScopes.containsAll(soughtScopes, true));
+        assertFalse(soughtScopes.containsAll(credentialScopes, true));
+    }
+
+    @Test
+    public void testDefaultScopesAreOnlyIgnoredWhenRequested() {
+        final ScopeSet credentialScopes = ScopeSet.fromTarget("user.read");
+        final ScopeSet soughtScopes = ScopeSet.fromTarget("user.read openid profile offline_access");
+        assertTrue(credentialScopes.containsAll(soughtScopes, true));
+        assertFalse(credentialScopes.containsAll(soughtScopes, false));
+    }
+
+    @Test
+    public void testDuplicateScopesAreCollapsed() {
+        final ScopeSet credentialScopes = ScopeSet.fromTarget("user.read");
+        assertTrue(credentialScopes.containsAll(ScopeSet.fromTarget("user.read User.Read"), false));
+    }
+
+    @Test
+    public void testEmptyTargetMatchesOnlyEmptyTarget() {
+        assertTrue(ScopeSet.fromTarget("").containsAll(ScopeSet.fromTarget("   "), false));
+        assertFalse(ScopeSet.fromTarget("user.read").containsAll(ScopeSet.fromTarget(""), false));
+    }
+
+    @Test
+    public void testRecordScopeSetIsCachedUntilTargetChanges() {
+        final AccessTokenRecord accessToken = new AccessTokenRecord();
+        accessToken.setTarget("user.read");
+        final ScopeSet first = accessToken.getScopeSet();
+        assertSame(first, accessToken.getScopeSet());
+
+        accessToken.setTarget("mail.read");
+        assertFalse(accessToken.getScopeSet().containsAll(ScopeSet.fromTarget("user.read"), false));
+    }
+}
@@ -35,12 +35,14 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
 import lombok.NonNull;
@@ -428,6 +430,59 @@ public class EstsTelemetryTest {
         Assert.assertEquals("2|2|||2,1", headers.get(LAST_REQUEST_HEADER_NAME));
     }
 
+    @Test
+    public void testFlushWritesToCacheAreCoalesced() {
+        DiagnosticContext.INSTANCE.getRequestContext().put(CORRELATION_ID, correlationId);
+
+        final List<Runnable> pendingWrites = new ArrayList<>();
+        final InMemoryStorage<String> lastRequestTelemetryMap = new InMemoryStorage<>();
+        final EstsTelemetry telemetry = new EstsTelemetry(
+                new InMemoryStorage<CurrentRequestTelemetry>(),
+                new InMemoryStorage<Set<FailedRequest>>(),
+                new Executor() {
+                    @Override
+                    public void execute(@NonNull final Runnable command) {
+                        pendingWrites.add(command);
+                    }
+                }
+        );
+        telemetry.setUp(new LastRequestTelemetryCache(lastRequestTelemetryMap));
+
+        final ICommand<Boolean> mockCommand = MockCommand.builder()
+                .correlationId(correlationId)
+                .isEligibleForEstsTelemetry(true)
+                .build();
+
+        final ICommandResult mockCommandResult =
+                MockCommandResult.<ILocalAuthenticationResult>builder()
+                        .correlationId(correlationId)
+                        .result(MockAuthenticationResult.builder()
+                                .isServicedFromCache(true)
+                                .build())
+                        .resultStatus(ICommandResult.ResultStatus.COMPLETED)
+                        .build();
+
+        for (int i = 0; i < 3; i++) {
+            telemetry.initTelemetryForCommand(mockCommand);
+            telemetry.emitApiId(apiId);
+            telemetry.flush(mockCommand, mockCommandResult);
+        }
+
+        // The header is up to date before anything is written.
+        telemetry.initTelemetryForCommand(mockCommand);
+        Assert.assertEquals("2|3|||2,1", telemetry.getTelemetryHeaders().get(LAST_REQUEST_HEADER_NAME));
+        Assert.assertEquals(1, pendingWrites.size());
+        Assert.assertEquals(0, lastRequestTelemetryMap.size());
+
+        pendingWrites.remove(0).run();
+
+        Assert.assertEquals("2|3|||2,", lastRequestTelemetryMap.get(LAST_TELEMETRY_HEADER_STRING_CACHE_KEY));
+
+        // Once written, the next flush schedules another write.
+        telemetry.flush(mockCommand, mockCommandResult);
+        Assert.assertEquals(1, pendingWrites.size());
+    }
+
     private void flush(@NonNull ICommand<Boolean> mockCommand,
                        @NonNull ICommandResult mockCommandResult,
                        @Nullable InMemoryStorage<CurrentRequestTelemetry> inMemoryTelemetryMap,
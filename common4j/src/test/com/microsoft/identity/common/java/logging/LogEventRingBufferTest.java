@@ -0,0 +1,218 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.logging;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LogEventRingBufferTest {
+    private static final int TEST_TIME_OUT_IN_MILLISECONDS = 5000;
+
+    private final CountDownLatch mConsumerGate = new CountDownLatch(1);
+    private final CountDownLatch mFirstBatchReceived = new CountDownLatch(1);
+    private final List<String> mDelivered = Collections.synchronizedList(new ArrayList<String>());
+
+    @After
+    public void tearDown() {
+        mConsumerGate.countDown();
+    }
+
+    @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
+    public void testDropOldest() throws InterruptedException {
+        final LogEventRingBuffer buffer = newBlockedBuffer(LogOverflowPolicy.DROP_OLDEST);
+
+        publish(buffer, Logger.LogLevel.INFO, "i1");
+        publish(buffer, Logger.LogLevel.INFO, "i2");
+        publish(buffer, Logger.LogLevel.INFO, "i3");
+        Assert.assertTrue(publish(buffer, Logger.LogLevel.INFO, "i4"));
+
+        Assert.assertEquals(1, buffer.getDroppedCount(Logger.LogLevel.INFO));
+        Assert.assertEquals(Arrays.asList("first", "i2", "i3", "i4"), releaseAndAwait(4));
+    }
+
+    @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
+    public void testDropOldestRepeatedly() throws InterruptedException {
+        final LogEventRingBuffer buffer = newBlockedBuffer(LogOverflowPolicy.DROP_OLDEST);
+
+        for (int i = 1; i <= 8; i++) {
+            Assert.assertTrue(publish(buffer, Logger.LogLevel.INFO, "i" + i));
+        }
+
+        Assert.assertEquals(5, buffer.getDroppedCount(Logger.LogLevel.INFO));
+        Assert.assertEquals(Arrays.asList("first", "i6", "i7", "i8"), releaseAndAwait(4));
+    }
+
+    @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
+    public void testDropVerboseFirst() throws InterruptedException {
+        final LogEventRingBuffer buffer = newBlockedBuffer(LogOverflowPolicy.DROP_VERBOSE_FIRST);
+
+        publish(buffer, Logger.LogLevel.INFO, "i1");
+        publish(buffer, Logger.LogLevel.VERBOSE, "v1");
+        publish(buffer, Logger.LogLevel.INFO, "i2");
+
+        // A new verbose message is the first to go.
+        Assert.assertFalse(publish(buffer, Logger.LogLevel.VERBOSE, "v2"));
+        // Anything else replaces the oldest pending verbose message...
+        Assert.assertTrue(publish(buffer, Logger.LogLevel.WARN, "w1"));
+        // ...or the oldest message if there is none.
+        Assert.assertTrue(publish(buffer, Logger.LogLevel.ERROR, "e1"));
+
+        Assert.assertEquals(2, buffer.getDroppedCount(Logger.LogLevel.VERBOSE));
+        Assert.assertEquals(1, buffer.getDroppedCount(Logger.LogLevel.INFO));
+        Assert.assertEquals(3, buffer.getDroppedCount());
+        Assert.assertEquals(Arrays.asList("first", "i2", "w1", "e1"), releaseAndAwait(4));
+    }
+
+    @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
+    public void testDropVerboseFirstScansOnlyTheOldestMessages() throws InterruptedException {
+        final int capacity = LogEventRingBuffer.MAX_VERBOSE_SCAN_LENGTH + 1;
+        final LogEventRingBuffer buffer = newBlockedBuffer(LogOverflowPolicy.DROP_VERBOSE_FIRST, capacity);
+
+        for (int i = 0; i < LogEventRingBuffer.MAX_VERBOSE_SCAN_LENGTH; i++) {
+            publish(buffer, Logger.LogLevel.INFO, "i" + i);
+        }
+        publish(buffer, Logger.LogLevel.VERBOSE, "v1");
+
+        // The verbose message is past the scanned range, so the oldest message goes instead.
+        Assert.assertTrue(publish(buffer, Logger.LogLevel.WARN, "w1"));
+
+        Assert.assertEquals(1, buffer.getDroppedCount(Logger.LogLevel.INFO));
+        Assert.assertEquals(0, buffer.getDroppedCount(Logger.LogLevel.VERBOSE));
+
+        final List<String> delivered = releaseAndAwait(capacity + 1);
+        Assert.assertEquals("i1", delivered.get(1));
+        Assert.assertEquals(Arrays.asList("v1", "w1"), delivered.subList(capacity - 1, capacity + 1));
+    }
+
+    @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
+    public void testConsumerSurvivesThrowable() throws InterruptedException {
+        final CountDownLatch thrown = new CountDownLatch(1);
+        final CountDownLatch delivered = new CountDownLatch(1);
+        final LogEventRingBuffer buffer = new LogEventRingBuffer(3, 8, LogOverflowPolicy.DROP_OLDEST, "LogEventRingBufferTest",
+                new LogEventRingBuffer.IBatchConsumer() {
+                    @Override
+                    public void consume(final LogEventRingBuffer.LogEvent[] batch, final int count) {
+                        for (int i = 0; i < count; i++) {
+                            if ("error".equals(batch[i].mMessage)) {
+                                thrown.countDown();
+                                throw new AssertionError("Thrown by the consumer.");
+                            }
+                            if ("after".equals(batch[i].mMessage)) {
+                                delivered.countDown();
+                            }
+                        }
+                    }
+                });
+
+        publish(buffer, Logger.LogLevel.INFO, "error");
+        Assert.assertTrue(thrown.await(TEST_TIME_OUT_IN_MILLISECONDS, TimeUnit.MILLISECONDS));
+        publish(buffer, Logger.LogLevel.INFO, "after");
+
+        Assert.assertTrue(delivered.await(TEST_TIME_OUT_IN_MILLISECONDS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
+    public void testBlockWaitsForRoom() throws InterruptedException {
+        final LogEventRingBuffer buffer = newBlockedBuffer(LogOverflowPolicy.BLOCK);
+
+        publish(buffer, Logger.LogLevel.INFO, "i1");
+        publish(buffer, Logger.LogLevel.INFO, "i2");
+        publish(buffer, Logger.LogLevel.INFO, "i3");
+
+        final AtomicBoolean published = new AtomicBoolean();
+        final Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                published.set(publish(buffer, Logger.LogLevel.INFO, "i4"));
+            }
+        });
+        producer.start();
+        producer.join(200);
+        Assert.assertTrue(producer.isAlive());
+
+        mConsumerGate.countDown();
+        producer.join();
+
+        Assert.assertTrue(published.get());
+        Assert.assertEquals(0, buffer.getDroppedCount());
+        Assert.assertEquals(Arrays.asList("first", "i1", "i2", "i3", "i4"), releaseAndAwait(5));
+    }
+
+    /**
+     * Creates a buffer of 3 pending messages whose consumer is stuck on a first message until
+     * {@link #mConsumerGate} is released.
+     */
+    private LogEventRingBuffer newBlockedBuffer(final LogOverflowPolicy overflowPolicy) throws InterruptedException {
+        return newBlockedBuffer(overflowPolicy, 3);
+    }
+
+    /**
+     * Creates a buffer of the given capacity whose consumer is stuck on a first message until
+     * {@link #mConsumerGate} is released.
+     */
+    private LogEventRingBuffer newBlockedBuffer(final LogOverflowPolicy overflowPolicy,
+                                                final int capacity) throws InterruptedException {
+        final LogEventRingBuffer buffer = new LogEventRingBuffer(capacity, 8, overflowPolicy, "LogEventRingBufferTest",
+                new LogEventRingBuffer.IBatchConsumer() {
+                    @Override
+                    public void consume(final LogEventRingBuffer.LogEvent[] batch, final int count) {
+                        for (int i = 0; i < count; i++) {
+                            mDelivered.add(batch[i].mMessage);
+                        }
+                        mFirstBatchReceived.countDown();
+                        try {
+                            mConsumerGate.await();
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+
+        publish(buffer, Logger.LogLevel.INFO, "first");
+        Assert.assertTrue(mFirstBatchReceived.await(TEST_TIME_OUT_IN_MILLISECONDS, TimeUnit.MILLISECONDS));
+        return buffer;
+    }
+
+    private List<String> releaseAndAwait(final int expectedCount) throws InterruptedException {
+        mConsumerGate.countDown();
+        while (mDelivered.size() < expectedCount) {
+            Thread.sleep(10);
+        }
+        return new ArrayList<>(mDelivered);
+    }
+
+    private static boolean publish(final LogEventRingBuffer buffer,
+                                   final Logger.LogLevel logLevel,
+                                   final String message) {
+        return buffer.publish("TAG", logLevel, null, null, message, null, null, false, System.currentTimeMillis());
+    }
+}
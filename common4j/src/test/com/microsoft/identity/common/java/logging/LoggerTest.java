@@ -130,6 +130,46 @@ public class LoggerTest {
         }, true);
     }
 
+    @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
+    public void logTemplateWithVerbose() throws InterruptedException {
+        final Logger.LogLevel logLevel = Logger.LogLevel.VERBOSE;
+        final boolean containsPII = false;
+
+        final RequestContext requestContext = new RequestContext();
+        requestContext.put(DiagnosticContext.CORRELATION_ID, correlationId);
+        DiagnosticContext.INSTANCE.setRequestContext(requestContext);
+
+        Logger.setLogLevel(logLevel);
+        testLogger(tag, logLevel, correlationId, "Found [2] of [3]", containsPII, new IOperationToTest() {
+            @Override
+            public void execute() {
+                Logger.verboseTemplate(tag, "Found [{}] of [{}]", 2, 3);
+            }
+        }, false);
+    }
+
+    @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
+    public void setLogLevelInError_LogTemplateWithVerbose() throws InterruptedException {
+        final Logger.LogLevel logLevel = Logger.LogLevel.VERBOSE;
+        final boolean containsPII = false;
+
+        Logger.setLogLevel(Logger.LogLevel.ERROR);
+        Assert.assertFalse(Logger.isLoggable(logLevel, containsPII));
+        testLogger(tag, logLevel, correlationId, message, containsPII, new IOperationToTest() {
+            @Override
+            public void execute() {
+                Logger.verboseTemplate(tag, "{}", message);
+            }
+        }, true);
+    }
+
+    @Test
+    public void fillTemplate() {
+        Assert.assertEquals("a 1 b null c", Logger.fillTemplate("a {} b {} c", new Object[]{1, null}));
+        Assert.assertEquals("a 1 b {}", Logger.fillTemplate("a {} b {}", new Object[]{1}));
+        Assert.assertEquals("no placeholders", Logger.fillTemplate("no placeholders", new Object[]{1}));
+    }
+
     @Test(timeout = TEST_TIME_OUT_IN_MILLISECONDS)
     public void logWithDiagnosticContext() throws InterruptedException {
         final Logger.LogLevel logLevel = Logger.LogLevel.VERBOSE;
@@ -0,0 +1,184 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.net;
+
+import com.microsoft.identity.common.java.util.ported.Function;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link ScheduledRetryPolicy}.
+ */
+public class ScheduledRetryPolicyTest {
+
+    private ScheduledExecutorService mScheduler;
+
+    @Before
+    public void setUp() {
+        mScheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        mScheduler.shutdownNow();
+    }
+
+    @Test
+    public void testRetriesRetryableResponsesOnTheScheduler() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicReference<Thread> attemptThread = new AtomicReference<>();
+
+        final HttpResponse response = newPolicy(3).attemptAsync(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() {
+                attemptThread.set(Thread.currentThread());
+                return newResponse(attempts.incrementAndGet() < 3
+                        ? HttpURLConnection.HTTP_UNAVAILABLE
+                        : HttpURLConnection.HTTP_OK, null);
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(HttpURLConnection.HTTP_OK, response.getStatusCode());
+        Assert.assertEquals(3, attempts.get());
+        Assert.assertNotSame(Thread.currentThread(), attemptThread.get());
+    }
+
+    @Test
+    public void testReturnsLastResponseWhenRetriesAreExhausted() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final HttpResponse response = newPolicy(2).attempt(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() {
+                attempts.incrementAndGet();
+                return newResponse(HttpURLConnection.HTTP_UNAVAILABLE, null);
+            }
+        });
+
+        Assert.assertEquals(HttpURLConnection.HTTP_UNAVAILABLE, response.getStatusCode());
+        Assert.assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void testDoesNotRetryEarlierThanRetryAfter() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+
+        // Asks for 60s, more than the policy is willing to wait.
+        final HttpResponse response = newPolicy(3).attempt(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() {
+                attempts.incrementAndGet();
+                return newResponse(HttpURLConnection.HTTP_UNAVAILABLE, "60");
+            }
+        });
+
+        Assert.assertEquals(HttpURLConnection.HTTP_UNAVAILABLE, response.getStatusCode());
+        Assert.assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void testRethrowsIOExceptionOnceRetriesAreExhausted() {
+        final AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            newPolicy(1).attempt(new Callable<HttpResponse>() {
+                @Override
+                public HttpResponse call() throws IOException {
+                    attempts.incrementAndGet();
+                    throw new SocketTimeoutException();
+                }
+            });
+            Assert.fail();
+        } catch (final IOException e) {
+            Assert.assertTrue(e instanceof SocketTimeoutException);
+        }
+
+        Assert.assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void testGetRetryAfterMillis() {
+        final long now = 1445412480000L; // Wed, 21 Oct 2015 07:28:00 GMT
+
+        Assert.assertEquals(120000, ScheduledRetryPolicy.getRetryAfterMillis(newResponse(503, "120"), now));
+        Assert.assertEquals(5000, ScheduledRetryPolicy.getRetryAfterMillis(newResponse(503, "Wed, 21 Oct 2015 07:28:05 GMT"), now));
+        Assert.assertEquals(0, ScheduledRetryPolicy.getRetryAfterMillis(newResponse(503, "Wed, 21 Oct 2015 07:27:00 GMT"), now));
+        Assert.assertEquals(-1, ScheduledRetryPolicy.getRetryAfterMillis(newResponse(503, "soon"), now));
+        Assert.assertEquals(-1, ScheduledRetryPolicy.getRetryAfterMillis(newResponse(503, null), now));
+
+        final Map<String, List<String>> lowerCaseHeader =
+                Collections.singletonMap("retry-after", Collections.singletonList("1"));
+        Assert.assertEquals(1000, ScheduledRetryPolicy.getRetryAfterMillis(
+                new HttpResponse(503, "", lowerCaseHeader), now));
+    }
+
+    private ScheduledRetryPolicy newPolicy(final int retries) {
+        return ScheduledRetryPolicy.builder()
+                .scheduler(mScheduler)
+                .number(retries)
+                .initialDelay(10)
+                .maxDelay(1000)
+                .isAcceptable(new Function<HttpResponse, Boolean>() {
+                    @Override
+                    public Boolean apply(HttpResponse response) {
+                        return response != null && response.getStatusCode() < 400;
+                    }
+                })
+                .isRetryable(new Function<HttpResponse, Boolean>() {
+                    @Override
+                    public Boolean apply(HttpResponse response) {
+                        return response != null && UrlConnectionHttpClient.isRetryableError(response.getStatusCode());
+                    }
+                })
+                .isRetryableException(new Function<Exception, Boolean>() {
+                    @Override
+                    public Boolean apply(Exception e) {
+                        return e instanceof SocketTimeoutException;
+                    }
+                })
+                .build();
+    }
+
+    private static HttpResponse newResponse(final int statusCode, final String retryAfter) {
+        final Map<String, List<String>> headers = retryAfter == null
+                ? Collections.<String, List<String>>emptyMap()
+                : Collections.singletonMap(HttpConstants.HeaderField.RETRY_AFTER, Collections.singletonList(retryAfter));
+        return new HttpResponse(statusCode, "", headers);
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.providers.microsoft.azureactivedirectory;
+
+import com.google.gson.JsonObject;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Tests for the persisted instance discovery metadata of {@link AzureActiveDirectory}.
+ */
+@RunWith(JUnit4.class)
+public class AzureActiveDirectoryPersistedMetadataTest {
+
+    private static final String ALIAS = "login.persisted-metadata-test.example";
+    private static final String INSTANCE_DISCOVERY_RESPONSE =
+            "{\"tenant_discovery_endpoint\":\"https://" + ALIAS + "/common/v2.0/.well-known/openid-configuration\"," +
+                    "\"api-version\":\"1.1\"," +
+                    "\"metadata\":[{\"preferred_network\":\"" + ALIAS + "\"," +
+                    "\"preferred_cache\":\"" + ALIAS + "\"," +
+                    "\"aliases\":[\"" + ALIAS + "\"]}]}";
+
+    private static final InMemoryStorage<String> sStorage = new InMemoryStorage<>();
+
+    @Before
+    public void setUp() {
+        AzureActiveDirectory.setMetadataStorage(sStorage);
+        sStorage.clear();
+    }
+
+    @After
+    public void tearDown() {
+        sStorage.clear();
+    }
+
+    @Test
+    public void testRecentMetadataIsLoadedFromStorage() throws MalformedURLException {
+        final long now = System.currentTimeMillis();
+        persist(INSTANCE_DISCOVERY_RESPONSE, now - 1000);
+
+        Assert.assertTrue(AzureActiveDirectory.loadPersistedCloudMetadata(now));
+        Assert.assertTrue(AzureActiveDirectory.isInitialized());
+        Assert.assertTrue(AzureActiveDirectory.isValidCloudHost(new URL("https://" + ALIAS + "/common")));
+    }
+
+    @Test
+    public void testExpiredMetadataIsIgnored() {
+        final long now = System.currentTimeMillis();
+        persist(INSTANCE_DISCOVERY_RESPONSE, now - AzureActiveDirectory.PERSISTED_METADATA_TIME_TO_LIVE_MILLIS);
+
+        Assert.assertFalse(AzureActiveDirectory.loadPersistedCloudMetadata(now));
+    }
+
+    @Test
+    public void testUnreadableMetadataIsDiscarded() {
+        sStorage.put(AzureActiveDirectory.getDefaultCloudUrl(), "{not json");
+
+        Assert.assertFalse(AzureActiveDirectory.loadPersistedCloudMetadata(System.currentTimeMillis()));
+        Assert.assertEquals(0, sStorage.size());
+    }
+
+    private static void persist(final String responseBody, final long fetchedAtMillis) {
+        final JsonObject persisted = new JsonObject();
+        persisted.addProperty("fetched_at", fetchedAtMillis);
+        persisted.addProperty("body", responseBody);
+        sStorage.put(AzureActiveDirectory.getDefaultCloudUrl(), persisted.toString());
+    }
+}
@@ -0,0 +1,247 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.providers.oauth2;
+
+import com.microsoft.identity.common.java.exception.ServiceException;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.NonNull;
+
+/**
+ * Tests for {@link OpenIdProviderConfigurationCache}.
+ */
+public class OpenIdProviderConfigurationCacheTest {
+
+    private static final URI CONFIG_URL =
+            URI.create("https://login.microsoftonline.com/common/v2.0/.well-known/openid-configuration");
+    private static final String BODY =
+            "{\"issuer\":\"https://login.microsoftonline.com/{tenantid}/v2.0\"," +
+                    "\"token_endpoint\":\"https://login.microsoftonline.com/common/oauth2/v2.0/token\"}";
+
+    private final List<Runnable> mPendingRevalidations = new ArrayList<>();
+
+    private final Executor mDeferredExecutor = new Executor() {
+        @Override
+        public void execute(@NonNull final Runnable command) {
+            mPendingRevalidations.add(command);
+        }
+    };
+
+    @Test
+    public void testFreshEntryIsServedFromMemory() throws ServiceException {
+        final CountingLoader loader = new CountingLoader();
+        final OpenIdProviderConfigurationCache cache = new OpenIdProviderConfigurationCache(mDeferredExecutor);
+
+        final OpenIdProviderConfiguration first = cache.get(CONFIG_URL, loader);
+        final OpenIdProviderConfiguration second = cache.get(CONFIG_URL, loader);
+
+        Assert.assertEquals(1, loader.mLoadCount.get());
+        Assert.assertTrue(first == second);
+        Assert.assertEquals("https://login.microsoftonline.com/common/oauth2/v2.0/token", first.getTokenEndpoint());
+    }
+
+    @Test
+    public void testConcurrentLoadsShareOneRequest() throws Exception {
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final CountingLoader loader = new CountingLoader() {
+            @Override
+            public String load(@NonNull final URI configUrl) throws ServiceException {
+                loadStarted.countDown();
+                try {
+                    releaseLoad.await();
+                } catch (final InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                return super.load(configUrl);
+            }
+        };
+        final OpenIdProviderConfigurationCache cache = new OpenIdProviderConfigurationCache(mDeferredExecutor);
+
+        final int waiterCount = 4;
+        final CountDownLatch done = new CountDownLatch(waiterCount);
+        final AtomicInteger successCount = new AtomicInteger();
+        for (int i = 0; i < waiterCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        cache.get(CONFIG_URL, loader);
+                        successCount.incrementAndGet();
+                    } catch (final ServiceException e) {
+                        // counted below
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        Assert.assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        // Let the other callers reach the in-flight load.
+        Thread.sleep(100);
+        releaseLoad.countDown();
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(waiterCount, successCount.get());
+        Assert.assertEquals(1, loader.mLoadCount.get());
+    }
+
+    @Test
+    public void testStaleEntryIsServedAndRevalidated() throws ServiceException, InterruptedException {
+        final CountingLoader loader = new CountingLoader();
+        final OpenIdProviderConfigurationCache cache =
+                new OpenIdProviderConfigurationCache(mDeferredExecutor, 1, TimeUnit.DAYS.toMillis(1));
+
+        cache.get(CONFIG_URL, loader);
+        Thread.sleep(5);
+
+        Assert.assertNotNull(cache.get(CONFIG_URL, loader));
+        Assert.assertEquals(1, loader.mLoadCount.get());
+        Assert.assertEquals(1, mPendingRevalidations.size());
+
+        mPendingRevalidations.remove(0).run();
+        Assert.assertEquals(2, loader.mLoadCount.get());
+    }
+
+    @Test
+    public void testStaleEntryIsRevalidatedOnce() throws ServiceException, InterruptedException {
+        final CountingLoader loader = new CountingLoader();
+        final OpenIdProviderConfigurationCache cache =
+                new OpenIdProviderConfigurationCache(mDeferredExecutor, 1, TimeUnit.DAYS.toMillis(1));
+
+        cache.get(CONFIG_URL, loader);
+        Thread.sleep(5);
+
+        // The revalidation has not started yet, but is already claimed.
+        cache.get(CONFIG_URL, loader);
+        cache.get(CONFIG_URL, loader);
+        Assert.assertEquals(1, mPendingRevalidations.size());
+
+        mPendingRevalidations.remove(0).run();
+        Assert.assertEquals(2, loader.mLoadCount.get());
+    }
+
+    @Test
+    public void testRejectedRevalidationIsReleased() throws ServiceException, InterruptedException {
+        final CountingLoader loader = new CountingLoader();
+        final AtomicInteger rejectedCount = new AtomicInteger();
+        final OpenIdProviderConfigurationCache cache = new OpenIdProviderConfigurationCache(new Executor() {
+            @Override
+            public void execute(@NonNull final Runnable command) {
+                rejectedCount.incrementAndGet();
+                throw new RejectedExecutionException();
+            }
+        }, 1, TimeUnit.DAYS.toMillis(1));
+
+        cache.get(CONFIG_URL, loader);
+        Thread.sleep(5);
+
+        Assert.assertNotNull(cache.get(CONFIG_URL, loader));
+        Assert.assertNotNull(cache.get(CONFIG_URL, loader));
+        Assert.assertEquals(2, rejectedCount.get());
+        Assert.assertEquals(1, loader.mLoadCount.get());
+    }
+
+    @Test
+    public void testPersistedEntryIsReusedByNewCache() throws ServiceException {
+        final InMemoryStorage<String> storage = new InMemoryStorage<>();
+        final CountingLoader loader = new CountingLoader();
+
+        final OpenIdProviderConfigurationCache firstProcess = new OpenIdProviderConfigurationCache(mDeferredExecutor);
+        firstProcess.setStorageIfAbsent(storage);
+        firstProcess.get(CONFIG_URL, loader);
+        Assert.assertEquals(1, storage.size());
+
+        final OpenIdProviderConfigurationCache secondProcess = new OpenIdProviderConfigurationCache(mDeferredExecutor);
+        secondProcess.setStorageIfAbsent(storage);
+        final OpenIdProviderConfiguration configuration = secondProcess.get(CONFIG_URL, loader);
+
+        Assert.assertEquals(1, loader.mLoadCount.get());
+        Assert.assertEquals("https://login.microsoftonline.com/common/oauth2/v2.0/token", configuration.getTokenEndpoint());
+    }
+
+    @Test
+    public void testUnreadablePersistedEntryIsDiscarded() throws ServiceException {
+        final InMemoryStorage<String> storage = new InMemoryStorage<>();
+        storage.put(CONFIG_URL.toString(), "{not json");
+        final CountingLoader loader = new CountingLoader();
+
+        final OpenIdProviderConfigurationCache cache = new OpenIdProviderConfigurationCache(mDeferredExecutor);
+        cache.setStorageIfAbsent(storage);
+
+        Assert.assertNotNull(cache.get(CONFIG_URL, loader));
+        Assert.assertEquals(1, loader.mLoadCount.get());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() {
+        final AtomicInteger loadCount = new AtomicInteger();
+        final OpenIdProviderConfigurationCache.IMetadataLoader failingLoader =
+                new OpenIdProviderConfigurationCache.IMetadataLoader() {
+                    @Override
+                    public String load(@NonNull final URI configUrl) throws ServiceException {
+                        loadCount.incrementAndGet();
+                        throw new ServiceException(
+                                ServiceException.OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD,
+                                "failed",
+                                null
+                        );
+                    }
+                };
+        final OpenIdProviderConfigurationCache cache = new OpenIdProviderConfigurationCache(mDeferredExecutor);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get(CONFIG_URL, failingLoader);
+                Assert.fail();
+            } catch (final ServiceException e) {
+                Assert.assertEquals(ServiceException.OPENID_PROVIDER_CONFIGURATION_FAILED_TO_LOAD, e.getErrorCode());
+            }
+        }
+
+        Assert.assertEquals(2, loadCount.get());
+    }
+
+    private static class CountingLoader implements OpenIdProviderConfigurationCache.IMetadataLoader {
+        final AtomicInteger mLoadCount = new AtomicInteger();
+
+        @Override
+        public String load(@NonNull final URI configUrl) throws ServiceException {
+            mLoadCount.incrementAndGet();
+            return BODY;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.storage;
+
+import com.microsoft.identity.common.java.crypto.StorageEncryptionManager;
+import com.microsoft.identity.common.java.crypto.key.AbstractSecretKeyLoader;
+import com.microsoft.identity.common.java.crypto.key.PredefinedKeyLoader;
+import com.microsoft.identity.common.java.exception.ClientException;
+import com.microsoft.identity.common.java.util.ported.InMemoryStorage;
+import com.microsoft.identity.common.java.util.ported.Predicate;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.NonNull;
+
+/**
+ * Tests for {@link EncryptedNameValueStorage}.
+ */
+public class EncryptedNameValueStorageTest {
+
+    private static final int ENTRY_COUNT = 100;
+    private static final int PARALLELISM = 4;
+
+    private InMemoryStorage<String> mRawStorage;
+    private CountingEncryptionManager mEncryptionManager;
+    private ExecutorService mExecutor;
+
+    @Before
+    public void setUp() {
+        mRawStorage = new InMemoryStorage<>();
+        mEncryptionManager = new CountingEncryptionManager();
+        mExecutor = Executors.newFixedThreadPool(PARALLELISM);
+
+        final EncryptedNameValueStorage<String> storage = newStorage(null);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            storage.put("key-" + i, "value-" + i);
+        }
+        mEncryptionManager.mDecryptCount.set(0);
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testGetAllFilteredByKeyOnlyDecryptsMatchingValues() {
+        final Iterator<Map.Entry<String, String>> iterator = newStorage(null).getAllFilteredByKey(
+                new Predicate<String>() {
+                    @Override
+                    public boolean test(final String key) {
+                        return key.equals("key-7");
+                    }
+                }
+        );
+
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertEquals("value-7", iterator.next().getValue());
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertEquals(1, mEncryptionManager.mDecryptCount.get());
+    }
+
+    @Test
+    public void testParallelGetAllMatchesSequentialGetAll() {
+        final Map<String, String> sequential = newStorage(null).getAll();
+        final Map<String, String> parallel = newStorage(mExecutor).getAll();
+
+        Assert.assertEquals(ENTRY_COUNT, sequential.size());
+        Assert.assertEquals(sequential, parallel);
+        Assert.assertEquals("value-42", parallel.get("key-42"));
+    }
+
+    @Test
+    public void testUndecryptableValuesAreDroppedAndRemoved() {
+        // Well-formed, but with a MAC which cannot match.
+        final StringBuilder corrupted = new StringBuilder("cE1");
+        for (int i = 0; i < 88; i++) {
+            corrupted.append('A');
+        }
+        mRawStorage.put("key-1", corrupted.toString());
+
+        final Map<String, String> result = newStorage(mExecutor).getAll();
+
+        Assert.assertFalse(result.containsKey("key-1"));
+        Assert.assertNull(mRawStorage.get("key-1"));
+        Assert.assertEquals(ENTRY_COUNT - 1, mRawStorage.size());
+    }
+
+    private EncryptedNameValueStorage<String> newStorage(final ExecutorService executor) {
+        return new EncryptedNameValueStorage<>(
+                mRawStorage,
+                mEncryptionManager,
+                new IGenericTypeStringAdapter<String>() {
+                    @Override
+                    public String adapt(final String value) {
+                        return value;
+                    }
+                },
+                executor,
+                PARALLELISM
+        );
+    }
+
+    private static class CountingEncryptionManager extends StorageEncryptionManager {
+        final AtomicInteger mDecryptCount = new AtomicInteger();
+
+        private final AbstractSecretKeyLoader mKeyLoader = new PredefinedKeyLoader(
+                "TEST_KEY",
+                new byte[]{22, 78, -69, -66, 84, -65, 119, -9, -34, -80, 60, 67, -12, -117, 86, -47,
+                        -84, -24, -18, 121, 70, 32, -110, 51, -93, -10, -93, -110, 124, -68, -42, -119}
+        );
+
+        @Override
+        public byte[] decrypt(final byte[] cipherText) throws ClientException {
+            mDecryptCount.incrementAndGet();
+            return super.decrypt(cipherText);
+        }
+
+        @Override
+        public @NonNull AbstractSecretKeyLoader getKeyLoaderForEncryption() {
+            return mKeyLoader;
+        }
+
+        @Override
+        public @NonNull List<AbstractSecretKeyLoader> getKeyLoaderForDecryption(@NonNull final byte[] cipherText) {
+            return Collections.singletonList(mKeyLoader);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.telemetry;
+
+import com.microsoft.identity.common.java.telemetry.events.BaseEvent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TelemetryEventStoreTest {
+
+    private static final String CORRELATION_ID_1 = "8a7c5c29-0b44-4f4b-9d2e-6a1c1a5b7d11";
+    private static final String CORRELATION_ID_2 = "1f0d3e4c-7a2b-4c9d-8e6f-5b4a3c2d1e00";
+
+    @Test
+    public void testEventsAreGroupedByCorrelationIdIgnoringCase() {
+        final TelemetryEventStore store = new TelemetryEventStore();
+
+        Assert.assertTrue(store.add(event(CORRELATION_ID_1, "1")));
+        Assert.assertTrue(store.add(event(CORRELATION_ID_2, "2")));
+        Assert.assertTrue(store.add(event(CORRELATION_ID_1.toUpperCase(), "3")));
+
+        final List<BaseEvent> events = store.get(CORRELATION_ID_1);
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals("1", events.get(0).getEventName());
+        Assert.assertEquals("3", events.get(1).getEventName());
+
+        // Reading does not consume the events.
+        Assert.assertEquals(2, store.get(CORRELATION_ID_1).size());
+        Assert.assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testRemoveOnlyDrainsItsOwnCorrelationId() {
+        final TelemetryEventStore store = new TelemetryEventStore();
+        store.add(event(CORRELATION_ID_1, "1"));
+        store.add(event(CORRELATION_ID_2, "2"));
+
+        Assert.assertEquals(1, store.remove(CORRELATION_ID_1).size());
+        Assert.assertTrue(store.get(CORRELATION_ID_1).isEmpty());
+        Assert.assertTrue(store.remove(CORRELATION_ID_1).isEmpty());
+        Assert.assertEquals(1, store.get(CORRELATION_ID_2).size());
+
+        // A drained correlation id starts over with a new bucket.
+        store.add(event(CORRELATION_ID_1, "3"));
+        Assert.assertEquals(1, store.get(CORRELATION_ID_1).size());
+    }
+
+    @Test
+    public void testEventWithoutCorrelationIdIsNotKept() {
+        final TelemetryEventStore store = new TelemetryEventStore();
+
+        Assert.assertFalse(store.add(event(null, "1")));
+        Assert.assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testStaleBucketsAreEvicted() {
+        final long maxAgeMillis = 1000;
+        final TelemetryEventStore store = new TelemetryEventStore(maxAgeMillis);
+        store.add(event(CORRELATION_ID_1, "1"));
+
+        store.evictStaleBuckets(System.currentTimeMillis());
+        Assert.assertEquals(1, store.size());
+
+        store.evictStaleBuckets(System.currentTimeMillis() + 2 * maxAgeMillis);
+        Assert.assertEquals(0, store.size());
+        Assert.assertTrue(store.get(CORRELATION_ID_1).isEmpty());
+    }
+
+    private static BaseEvent event(final String correlationId, final String name) {
+        final BaseEvent event = new BaseEvent();
+        // Not taken from the diagnostic context.
+        event.remove(TelemetryEventStrings.Key.CORRELATION_ID);
+        event.correlationId(correlationId);
+        event.names(name);
+        return event;
+    }
+}
@@ -0,0 +1,82 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.telemetry.adapter;
+
+import com.microsoft.identity.common.java.telemetry.TelemetryEventStrings;
+import com.microsoft.identity.common.java.telemetry.TelemetryEventStrings.Key;
+import com.microsoft.identity.common.java.telemetry.events.BaseEvent;
+import com.microsoft.identity.common.java.telemetry.events.CacheStartEvent;
+import com.microsoft.identity.common.java.telemetry.events.HttpEndEvent;
+import com.microsoft.identity.common.java.telemetry.events.HttpStartEvent;
+import com.microsoft.identity.common.java.telemetry.observers.ITelemetryAggregatedObserver;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TelemetryAggregationAdapterTest {
+
+    private final TelemetryAggregationAdapter mAdapter = new TelemetryAggregationAdapter(
+            new ITelemetryAggregatedObserver() {
+                @Override
+                public void onReceived(final Map<String, String> telemetryData) {
+                }
+            });
+
+    @Test
+    public void testTypedAggregationMatchesMapAggregation() {
+        final List<BaseEvent> events = Arrays.asList(
+                new HttpStartEvent().putMethod("GET").occurs(100L),
+                new HttpEndEvent().putStatusCode(200).occurs(150L),
+                new HttpStartEvent().putMethod("POST").occurs(200L),
+                new HttpEndEvent().putStatusCode(400).occurs(290L),
+                new CacheStartEvent().occurs(300L),
+                new BaseEvent()
+                        .names(TelemetryEventStrings.Event.CACHE_END_EVENT)
+                        .types(TelemetryEventStrings.EventType.CACHE_EVENT)
+                        .occurs(305L)
+        );
+        final Map<String, String> context = Collections.singletonMap("context_key", "context_value");
+
+        final List<Map<String, String>> rawData = new ArrayList<>();
+        for (final BaseEvent event : events) {
+            rawData.add(new HashMap<>(event.getProperties()));
+        }
+        rawData.add(context);
+
+        final Map<String, String> typed = mAdapter.aggregateEvents(events, context);
+
+        Assert.assertEquals(mAdapter.aggregateEvent(rawData), typed);
+        Assert.assertEquals("2", typed.get(TelemetryEventStrings.EventType.HTTP_EVENT + "_count"));
+        Assert.assertEquals("90", typed.get(TelemetryEventStrings.EventType.HTTP_EVENT + "_response_time"));
+        Assert.assertEquals("5", typed.get(TelemetryEventStrings.EventType.CACHE_EVENT + "_response_time"));
+        Assert.assertEquals("400", typed.get(Key.HTTP_RESPONSE_CODE));
+        Assert.assertEquals("context_value", typed.get("context_key"));
+    }
+}
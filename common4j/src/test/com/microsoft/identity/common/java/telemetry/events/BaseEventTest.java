@@ -0,0 +1,169 @@
+// Copyright (c) Microsoft Corporation.
+// All rights reserved.
+//
+// This code is licensed under the MIT License.
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files(the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and / or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions :
+//
+// The above copyright notice and this permission notice shall be included in
+// all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+// THE SOFTWARE.
+package com.microsoft.identity.common.java.telemetry.events;
+
+import com.microsoft.identity.common.java.telemetry.TelemetryEventStrings;
+import com.microsoft.identity.common.java.telemetry.TelemetryEventStrings.Key;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class BaseEventTest {
+
+    @Test
+    public void testTypedPropertiesAreInTheMapView() {
+        final HttpEndEvent event = new HttpEndEvent();
+        event.occurs(1234L);
+        event.putStatusCode(200);
+
+        Assert.assertEquals(TelemetryEventStrings.Event.HTTP_END_EVENT, event.getEventName());
+        Assert.assertEquals(1234L, event.getOccurTime());
+        Assert.assertEquals(200L, event.getLong(Key.HTTP_RESPONSE_CODE, -1));
+
+        final Map<String, String> properties = event.getProperties();
+        Assert.assertEquals(TelemetryEventStrings.Event.HTTP_END_EVENT, properties.get(Key.EVENT_NAME));
+        Assert.assertEquals(TelemetryEventStrings.EventType.HTTP_EVENT, properties.get(Key.EVENT_TYPE));
+        Assert.assertEquals("1234", properties.get(Key.OCCUR_TIME));
+        Assert.assertEquals("200", properties.get(Key.HTTP_RESPONSE_CODE));
+    }
+
+    @Test
+    public void testBooleanPropertiesAreTyped() {
+        final CacheStartEvent event = new CacheStartEvent();
+        event.isAt(true);
+        event.isRt(false);
+        event.put(Key.IS_SUCCESSFUL, TelemetryEventStrings.Value.TRUE);
+
+        Assert.assertEquals(Boolean.TRUE, event.getIsSuccessful());
+        Assert.assertEquals(TelemetryEventStrings.Value.TRUE, event.getString(Key.IS_AT));
+        Assert.assertEquals(TelemetryEventStrings.Value.FALSE, event.getString(Key.IS_RT));
+        Assert.assertEquals(TelemetryEventStrings.Value.TRUE, event.getProperties().get(Key.IS_SUCCESSFUL));
+    }
+
+    @Test
+    public void testStringOverwritesTypedProperty() {
+        final HttpEndEvent event = new HttpEndEvent();
+        event.putStatusCode(500);
+        event.put(Key.HTTP_RESPONSE_CODE, "unknown");
+
+        Assert.assertEquals(-1L, event.getLong(Key.HTTP_RESPONSE_CODE, -1));
+        Assert.assertEquals("unknown", event.getString(Key.HTTP_RESPONSE_CODE));
+        Assert.assertEquals("unknown", event.getProperties().get(Key.HTTP_RESPONSE_CODE));
+    }
+
+    @Test
+    public void testRemoveTypedProperty() {
+        final CacheStartEvent event = new CacheStartEvent();
+        event.isAt(true);
+        event.isRt(true);
+        event.getProperties();
+
+        event.remove(Key.IS_AT);
+
+        Assert.assertNull(event.getString(Key.IS_AT));
+        Assert.assertFalse(event.getProperties().containsKey(Key.IS_AT));
+        Assert.assertEquals(TelemetryEventStrings.Value.TRUE, event.getString(Key.IS_RT));
+    }
+
+    @Test
+    public void testRemovePiiOiiProperties() {
+        final BaseEvent event = new BaseEvent();
+        event.put(Key.USER_ID, "user");
+        event.put(Key.ERROR_CODE, "error");
+
+        event.removePiiOiiProperties();
+
+        Assert.assertNull(event.getString(Key.USER_ID));
+        Assert.assertFalse(event.getProperties().containsKey(Key.USER_ID));
+        Assert.assertEquals("error", event.getString(Key.ERROR_CODE));
+    }
+
+    @Test
+    public void testMapViewIsACopy() {
+        final HttpEndEvent event = new HttpEndEvent();
+        event.putStatusCode(200);
+
+        final Map<String, String> properties = event.getProperties();
+        properties.put(Key.HTTP_RESPONSE_CODE, "500");
+        properties.put(Key.ERROR_CODE, "error");
+
+        Assert.assertEquals(200L, event.getLong(Key.HTTP_RESPONSE_CODE, -1));
+        Assert.assertNull(event.getString(Key.ERROR_CODE));
+        Assert.assertEquals("200", event.getProperties().get(Key.HTTP_RESPONSE_CODE));
+    }
+
+    @Test
+    public void testForEachPropertyMatchesTheMapView() {
+        final HttpEndEvent event = new HttpEndEvent();
+        event.occurs(1234L);
+        event.putStatusCode(200);
+        event.put(Key.ERROR_CODE, "error");
+
+        final Map<String, String> visited = new HashMap<>();
+        event.forEachProperty(new BaseEvent.IPropertyVisitor() {
+            @Override
+            public void visit(final String key, final String value) {
+                Assert.assertNull("Visited twice: " + key, visited.put(key, value));
+            }
+        });
+
+        Assert.assertEquals(event.getProperties(), visited);
+        Assert.assertEquals("200", visited.get(Key.HTTP_RESPONSE_CODE));
+        Assert.assertEquals("error", visited.get(Key.ERROR_CODE));
+    }
+
+    @Test
+    public void testAppendedPropertiesAreTyped() {
+        final CacheStartEvent appended = new CacheStartEvent();
+        appended.put(Key.IS_SUCCESSFUL, TelemetryEventStrings.Value.TRUE);
+        appended.put(Key.ERROR_CODE, "error");
+
+        final HttpEndEvent event = new HttpEndEvent();
+        event.put(appended);
+
+        Assert.assertEquals(Boolean.TRUE, event.getIsSuccessful());
+        Assert.assertEquals("error", event.getString(Key.ERROR_CODE));
+
+        final Map<String, String> visited = new HashMap<>();
+        event.forEachProperty(new BaseEvent.IPropertyVisitor() {
+            @Override
+            public void visit(final String key, final String value) {
+                Assert.assertNull("Visited twice: " + key, visited.put(key, value));
+            }
+        });
+        Assert.assertEquals(event.getProperties(), visited);
+    }
+
+    @Test
+    public void testNullKeyIsIgnored() {
+        final HttpEndEvent event = new HttpEndEvent();
+        final int size = event.getProperties().size();
+
+        event.put(null, "value");
+
+        Assert.assertEquals(size, event.getProperties().size());
+    }
+}
@@ -24,6 +24,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -84,6 +85,60 @@ public class ThreadUtilsTests {
         s.shutdownNow();
     }
 
+    @Test
+    public void instrumentedPoolCountsRejectionsTest() throws Exception {
+        final InstrumentedThreadPoolExecutor s = ThreadUtils.getNamedInstrumentedThreadPoolExecutor(1, 1, 1, 5,
+                TimeUnit.SECONDS, "testPool", new ThreadPoolExecutor.AbortPolicy());
+        final Future<?> result = s.submit(hangThread());
+        final Future<?> result2 = s.submit(hangThread());
+        Assert.assertEquals(1, s.getQueueDepth());
+        boolean caught = false;
+        try {
+            s.submit(new Runnable() {
+                @Override
+                public void run() {
+
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            caught = true;
+        }
+        Assert.assertTrue("Execution should have been rejected", caught);
+        Assert.assertEquals(1, s.getRejectedTaskCount());
+        result.cancel(true);
+        result2.cancel(true);
+        s.shutdownNow();
+    }
+
+    @Test
+    public void instrumentedPoolRecordsTimingsTest() throws Exception {
+        final InstrumentedThreadPoolExecutor s = ThreadUtils.getNamedInstrumentedThreadPoolExecutor(1, 1, 0, 5,
+                TimeUnit.SECONDS, "testPool", new ThreadPoolExecutor.CallerRunsPolicy());
+        final Future<?> result = s.submit(new Runnable() {
+            @Override
+            public void run() {
+                ThreadUtils.sleepSafely(50, "foo", "Interrupted");
+            }
+        });
+        // The pool is busy and cannot queue, so this runs on the calling thread.
+        final Thread[] runner = new Thread[1];
+        s.execute(new Runnable() {
+            @Override
+            public void run() {
+                runner[0] = Thread.currentThread();
+            }
+        });
+        result.get();
+        s.shutdown();
+        Assert.assertTrue(s.awaitTermination(5, TimeUnit.SECONDS));
+
+        Assert.assertSame(Thread.currentThread(), runner[0]);
+        Assert.assertEquals(1, s.getRejectedTaskCount());
+        Assert.assertEquals(2, s.getExecutedTaskCount());
+        Assert.assertTrue(s.getMaxExecutionTimeNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertTrue(s.getTotalExecutionTimeNanos() >= s.getMaxExecutionTimeNanos());
+    }
+
     private Runnable hangThread() {
         return new Runnable() {
             @Override